@@ -0,0 +1,38 @@
+package rendimiento;
+
+import comun.Registro;
+import org.openjdk.jmh.infra.ThreadParams;
+
+/**
+ * Utilidades comunes de los benchmarks.
+ */
+final class AsignacionFilosofos {
+
+    private AsignacionFilosofos() {
+    }
+
+    /**
+     * Asigna a cada hilo de JMH un filósofo distinto, repartidos por la mesa.
+     * Con tantos hilos como filósofos todos son vecinos; con menos hilos
+     * quedan separados y compiten menos por los tenedores.
+     *
+     * @param hilo Parámetros del hilo de JMH
+     * @param numFilosofos Número de filósofos de la mesa
+     * @return Índice del filósofo del hilo
+     */
+    static int idFilosofo(ThreadParams hilo, int numFilosofos) {
+        int numHilos = hilo.getThreadCount();
+        if (numHilos > numFilosofos) {
+            throw new IllegalStateException("Hay más hilos (" + numHilos
+                    + ") que filósofos (" + numFilosofos + ")");
+        }
+        return (int) ((long) hilo.getThreadIndex() * numFilosofos / numHilos);
+    }
+
+    /**
+     * Apaga el registro de eventos para medir solo la sincronización.
+     */
+    static void apagarRegistro() {
+        Registro.configurar(Registro.Nivel.APAGADO, 1, System.out);
+    }
+}
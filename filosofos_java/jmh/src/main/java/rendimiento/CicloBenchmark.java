@@ -0,0 +1,136 @@
+package rendimiento;
+
+import arbitraje.EstrategiaMonitor;
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.ThreadParams;
+import procesosreales.ConexionMesa;
+import procesosreales.MesaServer;
+import procesosreales.MesaServerNIO;
+
+/**
+ * Ciclos por segundo de un filósofo de procesosreales (sin pensar ni comer)
+ * según cómo suelta y vuelve a pedir los tenedores:
+ *   tres:       TOMAR, COMER, SOLTAR esperando cada OK (el ciclo original)
+ *   simple:     TOMAR, SOLTAR esperando cada OK
+ *   canalizado: SOLTAR sin esperar, su OK se lee con el del TOMAR
+ *   combinado:  un solo SOLTAR_TOMAR por ciclo
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CicloBenchmark {
+
+    @Param({ "tres", "simple", "canalizado", "combinado" })
+    String ciclo;
+
+    @Param({ "texto", "binario" })
+    String protocolo;
+
+    @Param({ "bloqueante", "nio" })
+    String modo;
+
+    @Param({ "64" })
+    int numFilosofos;
+
+    Runnable detener;
+    int puerto;
+
+    @Setup(Level.Trial)
+    public void preparar() throws IOException {
+        AsignacionFilosofos.apagarRegistro();
+        try (ServerSocket libre = new ServerSocket(0)) {
+            puerto = libre.getLocalPort();
+        }
+        if (modo.equals("nio")) {
+            MesaServerNIO servidor = new MesaServerNIO(numFilosofos, puerto,
+                    new EstrategiaMonitor(numFilosofos), 2);
+            servidor.iniciar();
+            detener = servidor::detener;
+        } else {
+            MesaServer servidor = new MesaServer(numFilosofos, puerto,
+                    new EstrategiaMonitor(numFilosofos));
+            servidor.iniciar();
+            detener = servidor::detener;
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void terminar() {
+        detener.run();
+    }
+
+    /**
+     * Conexión de un filósofo que ya tiene los tenedores al empezar cada ciclo.
+     */
+    @State(Scope.Thread)
+    public static class Filosofo {
+        int id;
+        ConexionMesa conexion;
+
+        @Setup(Level.Trial)
+        public void conectar(CicloBenchmark mesa, ThreadParams hilo) throws IOException {
+            id = AsignacionFilosofos.idFilosofo(hilo, mesa.numFilosofos);
+            conexion = new ConexionMesa("localhost", mesa.puerto, mesa.protocolo.equals("binario"));
+            conexion.registrar(id);
+            conexion.tomar(id);
+        }
+
+        @TearDown(Level.Trial)
+        public void desconectar() throws IOException {
+            conexion.close();
+        }
+    }
+
+    @Benchmark
+    @Threads(1)
+    public void unHilo(Filosofo filosofo) throws IOException {
+        cicloCompleto(filosofo);
+    }
+
+    @Benchmark
+    @Threads(4)
+    public void cuatroHilos(Filosofo filosofo) throws IOException {
+        cicloCompleto(filosofo);
+    }
+
+    private void cicloCompleto(Filosofo filosofo) throws IOException {
+        ConexionMesa conexion = filosofo.conexion;
+        int id = filosofo.id;
+        switch (ciclo) {
+            case "tres":
+                conexion.comer(id);
+                conexion.soltar(id);
+                conexion.tomar(id);
+                break;
+            case "simple":
+                conexion.soltar(id);
+                conexion.tomar(id);
+                break;
+            case "canalizado":
+                conexion.soltarSinEsperar(id);
+                conexion.tomar(id);
+                break;
+            default:
+                conexion.soltarYTomar(id);
+        }
+    }
+}
@@ -0,0 +1,103 @@
+package rendimiento;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.ThreadParams;
+import procesosreales.MesaCompartida;
+
+/**
+ * Tomar y soltar tenedores en procesosreales.MesaCompartida, la mesa en un
+ * archivo mapeado en memoria. Para comparar con MesaServerBenchmark, que
+ * hace lo mismo con un mensaje por TCP para cada operación.
+ *
+ * Cada hilo de JMH abre su propio mapeo del archivo, como haría cada JVM
+ * de FilosofoClient; el costo de CAS y de espera es el mismo que entre
+ * procesos.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({ Mode.Throughput, Mode.SampleTime })
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MesaCompartidaBenchmark {
+
+    @Param({ "5", "64", "1024" })
+    int numFilosofos;
+
+    Path archivo;
+    MesaCompartida mesa;
+
+    @Setup(Level.Trial)
+    public void preparar() throws IOException {
+        AsignacionFilosofos.apagarRegistro();
+        archivo = Files.createTempFile("mesa", ".mem");
+        mesa = MesaCompartida.crear(archivo, numFilosofos);
+    }
+
+    @TearDown(Level.Trial)
+    public void terminar() throws IOException {
+        mesa.close();
+        Files.deleteIfExists(archivo);
+    }
+
+    /**
+     * Mapeo propio del archivo para un filósofo.
+     */
+    @State(Scope.Thread)
+    public static class Filosofo {
+        int id;
+        MesaCompartida mesa;
+
+        @Setup(Level.Trial)
+        public void abrir(MesaCompartidaBenchmark compartida, ThreadParams hilo) throws IOException {
+            id = AsignacionFilosofos.idFilosofo(hilo, compartida.numFilosofos);
+            mesa = MesaCompartida.abrir(compartida.archivo);
+            mesa.registrar(id);
+        }
+
+        @TearDown(Level.Trial)
+        public void cerrar() throws IOException {
+            mesa.close();
+        }
+    }
+
+    @Benchmark
+    @Threads(1)
+    public void unHilo(Filosofo filosofo) {
+        tomarYSoltar(filosofo);
+    }
+
+    @Benchmark
+    @Threads(2)
+    public void dosHilos(Filosofo filosofo) {
+        tomarYSoltar(filosofo);
+    }
+
+    @Benchmark
+    @Threads(4)
+    public void cuatroHilos(Filosofo filosofo) {
+        tomarYSoltar(filosofo);
+    }
+
+    private void tomarYSoltar(Filosofo filosofo) {
+        filosofo.mesa.tomar(filosofo.id);
+        filosofo.mesa.soltar(filosofo.id);
+    }
+}
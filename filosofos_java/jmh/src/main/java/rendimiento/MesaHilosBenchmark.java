@@ -0,0 +1,106 @@
+package rendimiento;
+
+import arbitraje.EstrategiaMonitor;
+import hilos.Arbitro;
+import hilos.ArbitroChandyMisra;
+import hilos.ArbitroMonitor;
+import hilos.ArbitroSegmentado;
+import hilos.Mesa;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.ThreadParams;
+
+/**
+ * Tomar y soltar tenedores en hilos.Mesa, sin pensar ni comer.
+ *
+ * Mide el rendimiento (operaciones por microsegundo) y la latencia
+ * (distribución del tiempo de cada tomar + soltar) de cada árbitro.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({ Mode.Throughput, Mode.SampleTime })
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MesaHilosBenchmark {
+
+    @Param({ "5", "64", "1024" })
+    int numFilosofos;
+
+    /** global, individual: ArbitroMonitor; franjas: ArbitroSegmentado con 8 franjas. */
+    @Param({ "global", "individual", "franjas", "chandy-misra" })
+    String arbitro;
+
+    Mesa mesa;
+
+    @Setup(Level.Trial)
+    public void preparar() {
+        AsignacionFilosofos.apagarRegistro();
+        Arbitro elegido;
+        switch (arbitro) {
+            case "global":
+                elegido = new ArbitroMonitor(numFilosofos, false, new EstrategiaMonitor(numFilosofos));
+                break;
+            case "individual":
+                elegido = new ArbitroMonitor(numFilosofos, true, new EstrategiaMonitor(numFilosofos));
+                break;
+            case "franjas":
+                elegido = new ArbitroSegmentado(numFilosofos, 8, new EstrategiaMonitor(numFilosofos));
+                break;
+            case "chandy-misra":
+                elegido = new ArbitroChandyMisra(numFilosofos);
+                break;
+            default:
+                throw new IllegalArgumentException("Árbitro desconocido: " + arbitro);
+        }
+        mesa = new Mesa(numFilosofos, elegido);
+    }
+
+    /**
+     * Filósofo que representa cada hilo de JMH.
+     */
+    @State(Scope.Thread)
+    public static class Comensal {
+        int id;
+
+        @Setup(Level.Trial)
+        public void asignar(MesaHilosBenchmark mesa, ThreadParams hilo) {
+            id = AsignacionFilosofos.idFilosofo(hilo, mesa.numFilosofos);
+        }
+    }
+
+    @Benchmark
+    @Threads(1)
+    public void unHilo(Comensal comensal) {
+        tomarYSoltar(comensal.id);
+    }
+
+    @Benchmark
+    @Threads(2)
+    public void dosHilos(Comensal comensal) {
+        tomarYSoltar(comensal.id);
+    }
+
+    @Benchmark
+    @Threads(4)
+    public void cuatroHilos(Comensal comensal) {
+        tomarYSoltar(comensal.id);
+    }
+
+    private void tomarYSoltar(int id) {
+        mesa.tomarTenedores(id);
+        mesa.soltarTenedores(id);
+    }
+}
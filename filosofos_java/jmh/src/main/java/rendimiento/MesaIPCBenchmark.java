@@ -0,0 +1,79 @@
+package rendimiento;
+
+import arbitraje.EstrategiaMonitor;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.ThreadParams;
+import procesos.MesaIPC;
+
+/**
+ * Tomar y soltar tenedores en procesos.MesaIPC (semáforos y mutex global),
+ * sin pensar ni comer.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({ Mode.Throughput, Mode.SampleTime })
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MesaIPCBenchmark {
+
+    @Param({ "5", "64", "1024" })
+    int numFilosofos;
+
+    MesaIPC mesa;
+
+    @Setup(Level.Trial)
+    public void preparar() {
+        AsignacionFilosofos.apagarRegistro();
+        mesa = new MesaIPC(numFilosofos, new EstrategiaMonitor(numFilosofos));
+    }
+
+    /**
+     * Filósofo que representa cada hilo de JMH.
+     */
+    @State(Scope.Thread)
+    public static class Comensal {
+        int id;
+
+        @Setup(Level.Trial)
+        public void asignar(MesaIPCBenchmark mesa, ThreadParams hilo) {
+            id = AsignacionFilosofos.idFilosofo(hilo, mesa.numFilosofos);
+        }
+    }
+
+    @Benchmark
+    @Threads(1)
+    public void unHilo(Comensal comensal) {
+        tomarYSoltar(comensal.id);
+    }
+
+    @Benchmark
+    @Threads(2)
+    public void dosHilos(Comensal comensal) {
+        tomarYSoltar(comensal.id);
+    }
+
+    @Benchmark
+    @Threads(4)
+    public void cuatroHilos(Comensal comensal) {
+        tomarYSoltar(comensal.id);
+    }
+
+    private void tomarYSoltar(int id) {
+        mesa.tomarTenedores(id);
+        mesa.soltarTenedores(id);
+    }
+}
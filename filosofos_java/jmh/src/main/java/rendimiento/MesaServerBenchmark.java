@@ -0,0 +1,140 @@
+package rendimiento;
+
+import arbitraje.EstrategiaMonitor;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.PrintWriter;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.ThreadParams;
+import procesosreales.MesaServer;
+import procesosreales.MesaServerNIO;
+
+/**
+ * Tomar y soltar tenedores en procesosreales.MesaServer (un hilo por conexión)
+ * o MesaServerNIO (Selector) a través de la interfaz de loopback, con el
+ * protocolo de texto de FilosofoClient.
+ *
+ * El servidor corre dentro de la JVM del benchmark; cada hilo de JMH es un
+ * filósofo con su propia conexión TCP. La latencia incluye las dos idas y
+ * vueltas (TOMAR y SOLTAR).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({ Mode.Throughput, Mode.SampleTime })
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MesaServerBenchmark {
+
+    @Param({ "5", "64", "1024" })
+    int numFilosofos;
+
+    @Param({ "bloqueante", "nio" })
+    String modo;
+
+    Runnable detener;
+    int puerto;
+
+    @Setup(Level.Trial)
+    public void preparar() throws IOException {
+        AsignacionFilosofos.apagarRegistro();
+        try (ServerSocket libre = new ServerSocket(0)) {
+            puerto = libre.getLocalPort();
+        }
+        if (modo.equals("nio")) {
+            MesaServerNIO servidor = new MesaServerNIO(numFilosofos, puerto,
+                    new EstrategiaMonitor(numFilosofos), 2);
+            servidor.iniciar();
+            detener = servidor::detener;
+        } else {
+            MesaServer servidor = new MesaServer(numFilosofos, puerto,
+                    new EstrategiaMonitor(numFilosofos));
+            servidor.iniciar();
+            detener = servidor::detener;
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void terminar() {
+        detener.run();
+    }
+
+    /**
+     * Conexión de un filósofo con el servidor.
+     */
+    @State(Scope.Thread)
+    public static class Conexion {
+        int id;
+        Socket socket;
+        BufferedReader in;
+        PrintWriter out;
+        String tomar;
+        String soltar;
+
+        @Setup(Level.Trial)
+        public void conectar(MesaServerBenchmark mesa, ThreadParams hilo) throws IOException {
+            id = AsignacionFilosofos.idFilosofo(hilo, mesa.numFilosofos);
+            socket = new Socket("localhost", mesa.puerto);
+            socket.setTcpNoDelay(true);
+            in = new BufferedReader(new InputStreamReader(socket.getInputStream()));
+            out = new PrintWriter(socket.getOutputStream(), true);
+            tomar = "TOMAR:" + id;
+            soltar = "SOLTAR:" + id;
+            pedir("REGISTER:" + id);
+        }
+
+        @TearDown(Level.Trial)
+        public void desconectar() throws IOException {
+            socket.close();
+        }
+
+        String pedir(String mensaje) throws IOException {
+            out.println(mensaje);
+            String respuesta = in.readLine();
+            if (!"OK".equals(respuesta)) {
+                throw new IOException("Respuesta inesperada a " + mensaje + ": " + respuesta);
+            }
+            return respuesta;
+        }
+    }
+
+    @Benchmark
+    @Threads(1)
+    public String unHilo(Conexion conexion) throws IOException {
+        return tomarYSoltar(conexion);
+    }
+
+    @Benchmark
+    @Threads(2)
+    public String dosHilos(Conexion conexion) throws IOException {
+        return tomarYSoltar(conexion);
+    }
+
+    @Benchmark
+    @Threads(4)
+    public String cuatroHilos(Conexion conexion) throws IOException {
+        return tomarYSoltar(conexion);
+    }
+
+    private String tomarYSoltar(Conexion conexion) throws IOException {
+        conexion.pedir(conexion.tomar);
+        return conexion.pedir(conexion.soltar);
+    }
+}
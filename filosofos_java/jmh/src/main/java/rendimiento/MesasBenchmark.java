@@ -0,0 +1,109 @@
+package rendimiento;
+
+import arbitraje.EstrategiaMonitor;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.SocketAddress;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.ThreadParams;
+import procesosreales.ConexionMesa;
+import procesosreales.MesaServerNIO;
+
+/**
+ * Solicitudes por segundo de un MesaServerNIO con dos trabajadores que aloja
+ * una sola mesa con nombre o muchas.
+ *
+ * Con una mesa, los hilos de JMH son filósofos de la misma mesa y compiten
+ * por su exclusión mutua; con muchas, cada hilo usa una mesa distinta y el
+ * resto solo ocupa memoria en el servidor. Cada operación es un TOMAR y un
+ * SOLTAR binarios (dos solicitudes).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MesasBenchmark {
+
+    private static final int FILOSOFOS_POR_MESA = 8;
+    private static final int TRABAJADORES = 2;
+
+    @Param({ "1", "1000" })
+    int mesas;
+
+    MesaServerNIO servidor;
+    SocketAddress direccion;
+
+    @Setup(Level.Trial)
+    public void preparar() throws IOException {
+        AsignacionFilosofos.apagarRegistro();
+        try (ServerSocket libre = new ServerSocket(0)) {
+            direccion = new InetSocketAddress("localhost", libre.getLocalPort());
+        }
+        servidor = new MesaServerNIO(FILOSOFOS_POR_MESA, direccion,
+                new EstrategiaMonitor(FILOSOFOS_POR_MESA), TRABAJADORES);
+        servidor.iniciar();
+        // Las mesas se crean con el primer REGISTER y quedan en el servidor
+        for (int i = 0; i < mesas; i++) {
+            try (ConexionMesa conexion = new ConexionMesa(direccion, true, "m" + i, FILOSOFOS_POR_MESA)) {
+                conexion.registrar(0);
+            }
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void terminar() {
+        servidor.detener();
+    }
+
+    /**
+     * Conexión de un filósofo con su mesa.
+     */
+    @State(Scope.Thread)
+    public static class Filosofo {
+        int id;
+        ConexionMesa conexion;
+
+        @Setup(Level.Trial)
+        public void conectar(MesasBenchmark servidor, ThreadParams hilo) throws IOException {
+            int mesa;
+            if (servidor.mesas >= hilo.getThreadCount()) {
+                mesa = (int) ((long) hilo.getThreadIndex() * servidor.mesas / hilo.getThreadCount());
+                id = 0;
+            } else {
+                mesa = 0;
+                id = AsignacionFilosofos.idFilosofo(hilo, FILOSOFOS_POR_MESA);
+            }
+            conexion = new ConexionMesa(servidor.direccion, true, "m" + mesa, FILOSOFOS_POR_MESA);
+            conexion.registrar(id);
+        }
+
+        @TearDown(Level.Trial)
+        public void desconectar() throws IOException {
+            conexion.close();
+        }
+    }
+
+    @Benchmark
+    @Threads(4)
+    public void cuatroHilos(Filosofo filosofo) throws IOException {
+        filosofo.conexion.tomar(filosofo.id);
+        filosofo.conexion.soltar(filosofo.id);
+    }
+}
@@ -0,0 +1,141 @@
+package rendimiento;
+
+import arbitraje.EstrategiaMonitor;
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.ThreadParams;
+import procesosreales.ConexionMesa;
+import procesosreales.MesaServer;
+import procesosreales.MesaServerNIO;
+
+/**
+ * Protocolo de texto frente a tramas binarias entre ConexionMesa y el
+ * servidor de la mesa, por la interfaz de loopback.
+ *
+ * Además de las operaciones (TOMAR + SOLTAR) por segundo, JMH informa los
+ * contadores "mensajes" y "bytes" por segundo; su cociente es el tamaño
+ * medio de un mensaje con su respuesta, que también se imprime al terminar.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ProtocoloBenchmark {
+
+    @Param({ "texto", "binario" })
+    String protocolo;
+
+    @Param({ "bloqueante", "nio" })
+    String modo;
+
+    @Param({ "64" })
+    int numFilosofos;
+
+    Runnable detener;
+    int puerto;
+
+    @Setup(Level.Trial)
+    public void preparar() throws IOException {
+        AsignacionFilosofos.apagarRegistro();
+        try (ServerSocket libre = new ServerSocket(0)) {
+            puerto = libre.getLocalPort();
+        }
+        if (modo.equals("nio")) {
+            MesaServerNIO servidor = new MesaServerNIO(numFilosofos, puerto,
+                    new EstrategiaMonitor(numFilosofos), 2);
+            servidor.iniciar();
+            detener = servidor::detener;
+        } else {
+            MesaServer servidor = new MesaServer(numFilosofos, puerto,
+                    new EstrategiaMonitor(numFilosofos));
+            servidor.iniciar();
+            detener = servidor::detener;
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void terminar() {
+        detener.run();
+    }
+
+    /**
+     * Conexión de un filósofo con el servidor.
+     */
+    @State(Scope.Thread)
+    public static class Conexion {
+        int id;
+        ConexionMesa conexion;
+
+        @Setup(Level.Trial)
+        public void conectar(ProtocoloBenchmark mesa, ThreadParams hilo) throws IOException {
+            id = AsignacionFilosofos.idFilosofo(hilo, mesa.numFilosofos);
+            conexion = new ConexionMesa("localhost", mesa.puerto, mesa.protocolo.equals("binario"));
+            conexion.registrar(id);
+        }
+
+        @TearDown(Level.Trial)
+        public void desconectar() throws IOException {
+            if (conexion.getMensajes() > 0) {
+                System.out.printf("%nFilósofo %d: %.1f bytes por mensaje (solicitud + respuesta)%n",
+                                id, (double) conexion.getBytes() / conexion.getMensajes());
+            }
+            conexion.close();
+        }
+    }
+
+    /**
+     * Mensajes y bytes de la iteración actual, informados como tasas por JMH.
+     */
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.OPERATIONS)
+    public static class Trafico {
+        public long mensajes;
+        public long bytes;
+
+        @Setup(Level.Iteration)
+        public void reiniciar() {
+            mensajes = 0;
+            bytes = 0;
+        }
+    }
+
+    @Benchmark
+    @Threads(1)
+    public void unHilo(Conexion conexion, Trafico trafico) throws IOException {
+        tomarYSoltar(conexion, trafico);
+    }
+
+    @Benchmark
+    @Threads(4)
+    public void cuatroHilos(Conexion conexion, Trafico trafico) throws IOException {
+        tomarYSoltar(conexion, trafico);
+    }
+
+    private void tomarYSoltar(Conexion conexion, Trafico trafico) throws IOException {
+        ConexionMesa mesa = conexion.conexion;
+        long mensajesAntes = mesa.getMensajes();
+        long bytesAntes = mesa.getBytes();
+        mesa.tomar(conexion.id);
+        mesa.soltar(conexion.id);
+        trafico.mensajes += mesa.getMensajes() - mensajesAntes;
+        trafico.bytes += mesa.getBytes() - bytesAntes;
+    }
+}
@@ -0,0 +1,138 @@
+package rendimiento;
+
+import arbitraje.EstrategiaMonitor;
+import com.sun.management.OperatingSystemMXBean;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.SocketAddress;
+import java.net.UnixDomainSocketAddress;
+import java.nio.file.Files;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import procesosreales.ConexionMesa;
+import procesosreales.MesaServer;
+import procesosreales.MesaServerNIO;
+
+/**
+ * Ida y vuelta (PING -> PONG) entre ConexionMesa y el servidor de la mesa
+ * por TCP en loopback frente a un socket de dominio Unix.
+ *
+ * Servidor y clientes corren en la JVM del benchmark, así que el tiempo de
+ * CPU del proceso dividido por las solicitudes es el costo de CPU de una
+ * solicitud en ambos extremos; se imprime al final de cada iteración.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({ Mode.Throughput, Mode.SampleTime })
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TransporteBenchmark {
+
+    @Param({ "tcp", "uds" })
+    String transporte;
+
+    @Param({ "texto", "binario" })
+    String protocolo;
+
+    @Param({ "bloqueante", "nio" })
+    String modo;
+
+    final LongAdder solicitudes = new LongAdder();
+    final OperatingSystemMXBean sistema =
+        (OperatingSystemMXBean) ManagementFactory.getOperatingSystemMXBean();
+    Runnable detener;
+    SocketAddress direccion;
+    long cpuInicial;
+
+    @Setup(Level.Trial)
+    public void preparar() throws IOException {
+        AsignacionFilosofos.apagarRegistro();
+        if (transporte.equals("uds")) {
+            direccion = UnixDomainSocketAddress.of(
+                Files.createTempDirectory("mesa").resolve("mesa.sock"));
+        } else {
+            try (ServerSocket libre = new ServerSocket(0)) {
+                direccion = new InetSocketAddress("localhost", libre.getLocalPort());
+            }
+        }
+        if (modo.equals("nio")) {
+            MesaServerNIO servidor = new MesaServerNIO(4, direccion, new EstrategiaMonitor(4), 2);
+            servidor.iniciar();
+            detener = servidor::detener;
+        } else {
+            MesaServer servidor = new MesaServer(4, direccion, new EstrategiaMonitor(4));
+            servidor.iniciar();
+            detener = servidor::detener;
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void terminar() {
+        detener.run();
+    }
+
+    @Setup(Level.Iteration)
+    public void iniciarIteracion() {
+        solicitudes.reset();
+        cpuInicial = sistema.getProcessCpuTime();
+    }
+
+    @TearDown(Level.Iteration)
+    public void terminarIteracion() {
+        long n = solicitudes.sum();
+        if (n > 0) {
+            System.out.printf("[CPU por solicitud: %.2f us] ",
+                            (sistema.getProcessCpuTime() - cpuInicial) / 1e3 / n);
+        }
+    }
+
+    /**
+     * Conexión de un cliente con el servidor.
+     */
+    @State(Scope.Thread)
+    public static class Cliente {
+        ConexionMesa conexion;
+
+        @Setup(Level.Trial)
+        public void conectar(TransporteBenchmark mesa) throws IOException {
+            conexion = new ConexionMesa(mesa.direccion, mesa.protocolo.equals("binario"));
+            conexion.registrar(0);
+        }
+
+        @TearDown(Level.Trial)
+        public void desconectar() throws IOException {
+            conexion.close();
+        }
+    }
+
+    @Benchmark
+    @Threads(1)
+    public void unHilo(Cliente cliente) throws IOException {
+        cliente.conexion.ping();
+        solicitudes.increment();
+    }
+
+    @Benchmark
+    @Threads(4)
+    public void cuatroHilos(Cliente cliente) throws IOException {
+        cliente.conexion.ping();
+        solicitudes.increment();
+    }
+}
@@ -0,0 +1,257 @@
+import comun.EventosJfr;
+import comun.Histograma;
+import comun.Opciones;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+
+/**
+ * Lee una grabación de JDK Flight Recorder con los eventos de EventosJfr e
+ * imprime, para cada mesa y cada filósofo, en qué se le fue el tiempo:
+ *
+ *     arbitraje   de Hambriento a Concedido (esperando que la estrategia lo autorice)
+ *     tenedores   de Concedido a Comiendo (esperando los locks de los tenedores)
+ *     retención   de Comiendo a Liberado (con los dos tenedores tomados)
+ *
+ * y los tenedores cuyo lock más se esperó. Los eventos se ordenan por tiempo
+ * y se emparejan por mesa y filósofo; un ciclo cortado por el inicio o el fin
+ * de la grabación solo aporta los tramos completos.
+ *
+ * Uso:
+ *     java AnalizarJfr archivo.jfr [--mesa nombre] [--tenedores K]
+ *
+ * Opciones:
+ *     --mesa       solo la mesa indicada (hilos, procesos o una mesa del servidor)
+ *     --tenedores  cuántos tenedores mostrar, los más esperados primero (por defecto: 10)
+ *
+ * Ejemplo:
+ *     java -XX:StartFlightRecording=filename=cena.jfr -cp bin EjecutarHilos 5 30
+ *     java -cp bin AnalizarJfr cena.jfr
+ */
+public class AnalizarJfr {
+
+    public static void main(String[] args) {
+        Opciones opciones = new Opciones(args);
+        if (opciones.getNumPosicionales() < 1) {
+            error("Falta el archivo .jfr.");
+        }
+        Path archivo = Path.of(opciones.posicional(0));
+        String soloMesa = opciones.texto("mesa", null);
+        int numTenedores = opciones.entero("tenedores", 10);
+
+        List<Marca> marcas = new ArrayList<>();
+        try (RecordingFile grabacion = new RecordingFile(archivo)) {
+            while (grabacion.hasMoreEvents()) {
+                RecordedEvent evento = grabacion.readEvent();
+                String nombre = evento.getEventType().getName();
+                if (!nombre.startsWith(EventosJfr.PREFIJO)) {
+                    continue;
+                }
+                String mesa = evento.getString("mesa");
+                if (soloMesa != null && !soloMesa.equals(mesa)) {
+                    continue;
+                }
+                int tenedor = nombre.equals(EventosJfr.TENEDOR_TOMADO) ? evento.getInt("tenedor") : -1;
+                marcas.add(new Marca(nanos(evento.getStartTime()), nombre, mesa,
+                                     evento.getInt("filosofo"), tenedor));
+            }
+        } catch (IOException e) {
+            error("No se pudo leer " + archivo + ": " + e.getMessage());
+        }
+        if (marcas.isEmpty()) {
+            error("La grabación no tiene eventos " + EventosJfr.PREFIJO + "*"
+                + (soloMesa != null ? " de la mesa " + soloMesa : "") + ".");
+        }
+        // Los eventos de distintos hilos no vienen ordenados en el archivo
+        marcas.sort(Comparator.comparingLong(m -> m.tiempo));
+
+        Map<String, AnalisisMesa> mesas = new TreeMap<>();
+        for (Marca marca : marcas) {
+            mesas.computeIfAbsent(marca.mesa, AnalisisMesa::new).registrar(marca);
+        }
+
+        System.out.println("\n" + "=".repeat(70));
+        System.out.println("ANÁLISIS DE LA GRABACIÓN " + archivo);
+        System.out.println("=".repeat(70));
+        System.out.printf("Eventos: %d en %s%n", marcas.size(),
+                          Histograma.formatearNanos(marcas.get(marcas.size() - 1).tiempo
+                                                    - marcas.get(0).tiempo));
+        for (AnalisisMesa mesa : mesas.values()) {
+            mesa.imprimir(numTenedores);
+        }
+        System.out.println("=".repeat(70));
+    }
+
+    private static long nanos(Instant instante) {
+        return instante.getEpochSecond() * 1_000_000_000L + instante.getNano();
+    }
+
+    private static void error(String mensaje) {
+        System.err.println("Error: " + mensaje);
+        System.exit(1);
+    }
+
+    /**
+     * Un evento de la grabación.
+     */
+    private static final class Marca {
+        final long tiempo;
+        final String tipo;
+        final String mesa;
+        final int filosofo;
+        final int tenedor;
+
+        Marca(long tiempo, String tipo, String mesa, int filosofo, int tenedor) {
+            this.tiempo = tiempo;
+            this.tipo = tipo;
+            this.mesa = mesa;
+            this.filosofo = filosofo;
+            this.tenedor = tenedor;
+        }
+    }
+
+    /**
+     * Suma y máximo de las duraciones de un tramo.
+     */
+    private static final class Tramo {
+        long cuenta;
+        long suma;
+        long maximo;
+
+        void agregar(long nanos) {
+            cuenta++;
+            suma += nanos;
+            maximo = Math.max(maximo, nanos);
+        }
+
+        long media() {
+            return cuenta == 0 ? 0 : suma / cuenta;
+        }
+    }
+
+    /**
+     * Tramos de un filósofo y el momento del último evento de su ciclo.
+     */
+    private static final class Filosofo {
+        final Tramo arbitraje = new Tramo();
+        final Tramo tenedores = new Tramo();
+        final Tramo retencion = new Tramo();
+        long hambriento = -1;
+        long concedido = -1;
+        long ultimoTenedor = -1;
+        long comiendo = -1;
+    }
+
+    /**
+     * Recorre los eventos de una mesa en orden y acumula los tramos.
+     */
+    private static final class AnalisisMesa {
+        private final String nombre;
+        private final Map<Integer, Filosofo> filosofos = new TreeMap<>();
+        private final Map<Integer, Tramo> esperaTenedor = new TreeMap<>();
+
+        AnalisisMesa(String nombre) {
+            this.nombre = nombre;
+        }
+
+        void registrar(Marca marca) {
+            Filosofo f = filosofos.computeIfAbsent(marca.filosofo, k -> new Filosofo());
+            switch (marca.tipo) {
+                case EventosJfr.HAMBRIENTO:
+                    f.hambriento = marca.tiempo;
+                    f.concedido = -1;
+                    f.ultimoTenedor = -1;
+                    f.comiendo = -1;
+                    break;
+                case EventosJfr.CONCEDIDO:
+                    if (f.hambriento >= 0) {
+                        f.arbitraje.agregar(marca.tiempo - f.hambriento);
+                    }
+                    f.concedido = marca.tiempo;
+                    f.ultimoTenedor = marca.tiempo;
+                    break;
+                case EventosJfr.TENEDOR_TOMADO:
+                    // Espera del lock de este tenedor: desde la concesión o el tenedor anterior
+                    if (f.ultimoTenedor >= 0) {
+                        esperaTenedor.computeIfAbsent(marca.tenedor, k -> new Tramo())
+                                     .agregar(marca.tiempo - f.ultimoTenedor);
+                    }
+                    f.ultimoTenedor = marca.tiempo;
+                    break;
+                case EventosJfr.COMIENDO:
+                    if (f.concedido >= 0) {
+                        f.tenedores.agregar(marca.tiempo - f.concedido);
+                    }
+                    f.comiendo = marca.tiempo;
+                    break;
+                case EventosJfr.LIBERADO:
+                    if (f.comiendo >= 0) {
+                        f.retencion.agregar(marca.tiempo - f.comiendo);
+                    }
+                    f.hambriento = -1;
+                    f.concedido = -1;
+                    f.ultimoTenedor = -1;
+                    f.comiendo = -1;
+                    break;
+                default:
+                    break;
+            }
+        }
+
+        void imprimir(int numTenedores) {
+            System.out.printf("%nMesa %s: %d filósofos%n", nombre, filosofos.size());
+            System.out.printf("%-9s %8s %21s %21s %21s %9s%n", "Filósofo", "Comidas",
+                              "Arbitraje media/max", "Tenedores media/max", "Retención media/max",
+                              "% espera");
+            Filosofo total = new Filosofo();
+            for (Map.Entry<Integer, Filosofo> entrada : filosofos.entrySet()) {
+                Filosofo f = entrada.getValue();
+                imprimirFila(String.valueOf(entrada.getKey()), f);
+                sumar(total.arbitraje, f.arbitraje);
+                sumar(total.tenedores, f.tenedores);
+                sumar(total.retencion, f.retencion);
+            }
+            imprimirFila("Todos", total);
+
+            if (numTenedores > 0 && !esperaTenedor.isEmpty()) {
+                List<Map.Entry<Integer, Tramo>> tenedores = new ArrayList<>(esperaTenedor.entrySet());
+                tenedores.sort(Comparator.comparingLong(
+                        (Map.Entry<Integer, Tramo> e) -> e.getValue().suma).reversed());
+                System.out.printf("%nTenedores con más espera del lock:%n");
+                System.out.printf("%-9s %8s %12s %12s %12s%n", "Tenedor", "Tomas", "Total", "Media", "Max");
+                for (int i = 0; i < Math.min(numTenedores, tenedores.size()); i++) {
+                    Tramo t = tenedores.get(i).getValue();
+                    System.out.printf("%-9d %8d %12s %12s %12s%n", tenedores.get(i).getKey(), t.cuenta,
+                                      Histograma.formatearNanos(t.suma),
+                                      Histograma.formatearNanos(t.media()),
+                                      Histograma.formatearNanos(t.maximo));
+                }
+            }
+        }
+
+        private static void imprimirFila(String nombre, Filosofo f) {
+            long espera = f.arbitraje.suma + f.tenedores.suma;
+            long ciclo = espera + f.retencion.suma;
+            System.out.printf("%-9s %8d %21s %21s %21s %8.1f%%%n", nombre, f.tenedores.cuenta,
+                              par(f.arbitraje), par(f.tenedores), par(f.retencion),
+                              ciclo == 0 ? 0.0 : 100.0 * espera / ciclo);
+        }
+
+        private static String par(Tramo t) {
+            return Histograma.formatearNanos(t.media()) + " / " + Histograma.formatearNanos(t.maximo);
+        }
+
+        private static void sumar(Tramo total, Tramo t) {
+            total.cuenta += t.cuenta;
+            total.suma += t.suma;
+            total.maximo = Math.max(total.maximo, t.maximo);
+        }
+    }
+}
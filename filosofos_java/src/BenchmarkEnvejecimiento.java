@@ -0,0 +1,167 @@
+import arbitraje.EstrategiaArbitraje;
+import arbitraje.EstrategiaEnvejecimiento;
+import arbitraje.EstrategiaMonitor;
+import comun.Carga;
+import comun.Histograma;
+import comun.Opciones;
+import comun.Registro;
+import hilos.ArbitroMonitor;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Compara la estrategia de monitor con la de envejecimiento en la versión
+ * con hilos: comidas por segundo (el costo) frente a la espera p99.9 y
+ * máxima y al reparto de las comidas entre filósofos (la ganancia).
+ *
+ * Cada filósofo es un hilo que piensa, toma los tenedores, come y los suelta
+ * con las cargas indicadas; se mide el tiempo de cada tomarTenedores(). Se
+ * repite la medición con la estrategia de monitor (umbral 0) y con
+ * envejecimiento para cada umbral indicado.
+ *
+ * Uso:
+ *     java BenchmarkEnvejecimiento [num_filosofos] [duracion_segundos]
+ *                                  [--umbrales 0,1000,10000] [--pensar carga] [--comer carga]
+ *                                  [--registro nivel]
+ *
+ * Opciones:
+ *     --umbrales  umbrales de espera en microsegundos; 0 es la estrategia de
+ *                 monitor sin envejecimiento (por defecto: 0,1000,10000)
+ *     --pensar    duración del pensamiento (por defecto: cero)
+ *     --comer     duración de la comida (por defecto: fija:100)
+ *
+ * Por defecto el registro de eventos está apagado para medir solo la sincronización.
+ */
+public class BenchmarkEnvejecimiento {
+    // Durante el calentamiento no se registra nada; una lectura volátil por
+    // ciclo, sin un lock compartido que agregue contención a lo que se mide
+    private static volatile boolean midiendo;
+
+    public static void main(String[] args) throws InterruptedException {
+        Opciones opciones = new Opciones(args);
+        int numFilosofos = opciones.entero(0, 16, "El número de filósofos debe ser un entero.");
+        int duracion = opciones.entero(1, 5, "La duración debe ser un entero.");
+        long[] umbrales = umbrales(opciones.texto("umbrales", "0,1000,10000"));
+        Carga cargaPensar = Carga.desdeOpciones(opciones, "pensar", Carga.desdeTexto("cero"));
+        Carga cargaComer = Carga.desdeOpciones(opciones, "comer", Carga.desdeTexto("fija:100"));
+        if (!opciones.tiene("registro")) {
+            Registro.configurar(Registro.Nivel.APAGADO, 1, System.out);
+        } else {
+            Registro.configurar(opciones);
+        }
+
+        System.out.println("\n" + "=".repeat(70));
+        System.out.println("BENCHMARK - ENVEJECIMIENTO FRENTE A MONITOR (HILOS)");
+        System.out.println("=".repeat(70));
+        System.out.println("  - Número de filósofos: " + numFilosofos);
+        System.out.println("  - Duración por medición: " + duracion + " segundos");
+        System.out.println("  - Pensar: " + cargaPensar + ", comer: " + cargaComer);
+        System.out.println("  - Núcleos disponibles: " + Runtime.getRuntime().availableProcessors());
+        System.out.println("=".repeat(70));
+        System.out.printf("%-24s %12s %10s %10s %10s %10s %14s%n", "Estrategia", "Comidas/seg",
+                          "p50", "p99", "p99.9", "max", "comidas min/max");
+
+        for (long umbral : umbrales) {
+            EstrategiaArbitraje estrategia = umbral == 0
+                    ? new EstrategiaMonitor(numFilosofos)
+                    : new EstrategiaEnvejecimiento(numFilosofos, umbral);
+            medir(numFilosofos, estrategia, cargaPensar, cargaComer, duracion);
+        }
+        System.out.println("=".repeat(70));
+    }
+
+    /**
+     * Interpreta la lista de --umbrales; si no es válida muestra el error y
+     * termina el programa.
+     */
+    private static long[] umbrales(String texto) {
+        String[] valores = texto.split(",");
+        long[] umbrales = new long[valores.length];
+        try {
+            for (int i = 0; i < valores.length; i++) {
+                umbrales[i] = Long.parseLong(valores[i].trim());
+                if (umbrales[i] < 0) {
+                    throw new NumberFormatException();
+                }
+            }
+        } catch (NumberFormatException e) {
+            System.err.println("Error: La opción --umbrales debe ser una lista de enteros no negativos"
+                             + " separados por comas.");
+            System.exit(1);
+        }
+        return umbrales;
+    }
+
+    /**
+     * Ejecuta los filósofos con la estrategia e imprime una línea de resultados.
+     */
+    private static void medir(int numFilosofos, EstrategiaArbitraje estrategia, Carga cargaPensar,
+                              Carga cargaComer, int duracion) throws InterruptedException {
+        ArbitroMonitor arbitro = new ArbitroMonitor(numFilosofos, true, estrategia);
+        Histograma espera = new Histograma();
+        AtomicLongArray comidas = new AtomicLongArray(numFilosofos);
+        Thread[] hilos = new Thread[numFilosofos];
+
+        for (int i = 0; i < numFilosofos; i++) {
+            final int id = i;
+            hilos[i] = new Thread(() -> {
+                Random random = new Random(id);
+                try {
+                    while (!Thread.currentThread().isInterrupted()) {
+                        cargaPensar.ejecutar(cargaPensar.siguienteDuracion(random));
+                        long inicio = System.nanoTime();
+                        arbitro.tomarTenedores(id);
+                        if (Thread.currentThread().isInterrupted()) {
+                            break;
+                        }
+                        long esperado = System.nanoTime() - inicio;
+                        if (midiendo) {
+                            espera.registrar(esperado);
+                            comidas.incrementAndGet(id);
+                        }
+                        try {
+                            cargaComer.ejecutar(cargaComer.siguienteDuracion(random));
+                        } finally {
+                            arbitro.soltarTenedores(id);
+                        }
+                    }
+                } catch (InterruptedException e) {
+                    // Fin de la medición
+                }
+            }, "Filosofo-" + id);
+            hilos[i].setDaemon(true);
+            hilos[i].start();
+        }
+
+        // Calentamiento de un segundo antes de medir
+        Thread.sleep(1000);
+        midiendo = true;
+        long t0 = System.nanoTime();
+        Thread.sleep(duracion * 1000L);
+        midiendo = false;
+        double segundos = (System.nanoTime() - t0) / 1e9;
+
+        for (Thread hilo : hilos) {
+            hilo.interrupt();
+        }
+        arbitro.despertarTodos();
+        for (Thread hilo : hilos) {
+            hilo.join(2000);
+        }
+
+        long total = 0, minimo = Long.MAX_VALUE, maximo = 0;
+        for (int i = 0; i < numFilosofos; i++) {
+            long c = comidas.get(i);
+            total += c;
+            minimo = Math.min(minimo, c);
+            maximo = Math.max(maximo, c);
+        }
+        System.out.printf("%-24s %12.0f %10s %10s %10s %10s %14s%n", estrategia.getNombre(),
+                          total / segundos,
+                          Histograma.formatearNanos(espera.percentil(50)),
+                          Histograma.formatearNanos(espera.percentil(99)),
+                          Histograma.formatearNanos(espera.percentil(99.9)),
+                          Histograma.formatearNanos(espera.getMaximo()),
+                          minimo + "/" + maximo);
+    }
+}
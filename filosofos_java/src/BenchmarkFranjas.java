@@ -0,0 +1,95 @@
+import arbitraje.EstrategiaMonitor;
+import comun.Opciones;
+import comun.Registro;
+import hilos.ArbitroSegmentado;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Mide comidas por segundo del arbitraje por franjas de la versión con hilos.
+ * 
+ * Cada filósofo es un hilo que toma y suelta tenedores sin pensar ni comer,
+ * para medir solo el costo de sincronización. Se repite la medición para
+ * cada número de franjas indicado.
+ * 
+ * Uso:
+ *     java BenchmarkFranjas [num_filosofos] [duracion_segundos] [--franjas 1,2,4,8]
+ *                           [--registro nivel]
+ * 
+ * Por defecto el registro de eventos está apagado para medir solo la sincronización.
+ * 
+ * Para ver el efecto de los núcleos, ejecutar limitando la CPU disponible:
+ *     taskset -c 0-3 java BenchmarkFranjas 256 5 --franjas 1,4,16,64
+ */
+public class BenchmarkFranjas {
+    
+    public static void main(String[] args) throws InterruptedException {
+        Opciones opciones = new Opciones(args);
+        int numFilosofos = opciones.entero(0, 64, "El número de filósofos debe ser un entero.");
+        int duracion = opciones.entero(1, 5, "La duración debe ser un entero.");
+        String[] franjas = opciones.texto("franjas", "1,2,4,8").split(",");
+        if (!opciones.tiene("registro")) {
+            Registro.configurar(Registro.Nivel.APAGADO, 1, System.out);
+        } else {
+            Registro.configurar(opciones);
+        }
+        
+        System.out.println("\n" + "=".repeat(70));
+        System.out.println("BENCHMARK - ARBITRAJE POR FRANJAS (HILOS)");
+        System.out.println("=".repeat(70));
+        System.out.println("  - Número de filósofos: " + numFilosofos);
+        System.out.println("  - Duración por medición: " + duracion + " segundos");
+        System.out.println("  - Núcleos disponibles: " + Runtime.getRuntime().availableProcessors());
+        System.out.println("=".repeat(70));
+        System.out.printf("%-10s %15s%n", "Franjas", "Comidas/seg");
+        
+        for (String valor : franjas) {
+            int k = Integer.parseInt(valor.trim());
+            double porSegundo = medir(numFilosofos, k, duracion);
+            System.out.printf("%-10d %15.0f%n", k, porSegundo);
+        }
+        System.out.println("=".repeat(70));
+    }
+    
+    /**
+     * Ejecuta los filósofos sobre un árbitro con k franjas y cuenta las comidas.
+     */
+    private static double medir(int numFilosofos, int k, int duracion) throws InterruptedException {
+        ArbitroSegmentado arbitro = new ArbitroSegmentado(numFilosofos, k,
+                                                          new EstrategiaMonitor(numFilosofos));
+        LongAdder comidas = new LongAdder();
+        Thread[] hilos = new Thread[numFilosofos];
+        
+        for (int i = 0; i < numFilosofos; i++) {
+            final int id = i;
+            hilos[i] = new Thread(() -> {
+                while (!Thread.currentThread().isInterrupted()) {
+                    arbitro.tomarTenedores(id);
+                    if (Thread.currentThread().isInterrupted()) {
+                        break;
+                    }
+                    comidas.increment();
+                    arbitro.soltarTenedores(id);
+                }
+            }, "Filosofo-" + id);
+            hilos[i].setDaemon(true);
+            hilos[i].start();
+        }
+        
+        // Calentamiento de un segundo antes de medir
+        Thread.sleep(1000);
+        long inicio = comidas.sum();
+        long t0 = System.nanoTime();
+        Thread.sleep(duracion * 1000L);
+        long total = comidas.sum() - inicio;
+        double segundos = (System.nanoTime() - t0) / 1e9;
+        
+        for (Thread hilo : hilos) {
+            hilo.interrupt();
+        }
+        arbitro.despertarTodos();
+        for (Thread hilo : hilos) {
+            hilo.join(2000);
+        }
+        return total / segundos;
+    }
+}
@@ -0,0 +1,200 @@
+import arbitraje.Estrategias;
+import barrido.Ensayo;
+import barrido.Informe;
+import barrido.Resultado;
+import comun.Carga;
+import comun.Opciones;
+import comun.Registro;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Barrido de parámetros: ejecuta todas las combinaciones de los valores
+ * indicados, varias a la vez, y escribe los resultados en CSV y JSON.
+ *
+ * Cada combinación de ejecución, número de filósofos, duración, estrategia,
+ * carga de pensar, carga de comer y semilla es un ensayo independiente. Los
+ * ensayos se reparten en un ForkJoinPool con tantos hilos como --paralelo
+ * (por defecto, los núcleos disponibles). Con la simulación por eventos un
+ * barrido de cien puntos toma minutos; con hilos cada ensayo dura su tiempo
+ * real y los ensayos simultáneos compiten por los núcleos, así que conviene
+ * --paralelo 1 para medir rendimiento.
+ *
+ * Uso:
+ *     java EjecutarBarrido [--ejecuciones simulacion,hilos] [--filosofos 5,50]
+ *                          [--duraciones 3600] [--estrategias monitor,envejecimiento]
+ *                          [--pensar carga;carga] [--comer carga;carga] [--semillas 1,2,3]
+ *                          [--paralelo P] [--salida prefijo]
+ *
+ * Opciones (listas separadas por comas; las cargas, por punto y coma porque
+ * la carga bimodal lleva comas):
+ *     --ejecuciones  simulacion (duración en segundos virtuales) y/o hilos
+ *                    (segundos reales) (por defecto: simulacion)
+ *     --filosofos    números de filósofos (por defecto: 5)
+ *     --duraciones   duraciones en segundos (por defecto: 3600)
+ *     --estrategias  estrategias de arbitraje; chandy-misra solo con hilos
+ *                    (por defecto: monitor)
+ *     --pensar       cargas de pensamiento (por defecto: uniforme:1000000-3000000)
+ *     --comer        cargas de comida (por defecto: uniforme:1000000-3000000)
+ *     --semillas     semillas de la simulación; los ensayos que solo difieren en
+ *                    la semilla se agrupan en el resumen (por defecto: 1)
+ *     --paralelo     ensayos simultáneos (por defecto: núcleos disponibles)
+ *     --salida       prefijo de los archivos: prefijo-ensayos.csv,
+ *                    prefijo-resumen.csv y prefijo.json (por defecto: barrido)
+ *
+ * Ejemplo:
+ *     java EjecutarBarrido --filosofos 5,10,50,100,500 --estrategias monitor,envejecimiento:1000
+ *                          --pensar "cero;exponencial:1000" --comer "fija:100;exponencial:500"
+ *                          --duraciones 60 --semillas 1,2,3,4,5
+ */
+public class EjecutarBarrido {
+
+    public static void main(String[] args) throws InterruptedException {
+        Opciones opciones = new Opciones(args);
+        String[] ejecuciones = lista(opciones, "ejecuciones", "simulacion", ",");
+        int[] filosofos = enteros(opciones, "filosofos", "5");
+        int[] duraciones = enteros(opciones, "duraciones", "3600");
+        String[] estrategias = lista(opciones, "estrategias", "monitor", ",");
+        Carga[] cargasPensar = cargas(opciones, "pensar");
+        Carga[] cargasComer = cargas(opciones, "comer");
+        int[] semillas = enteros(opciones, "semillas", "1");
+        int paralelo = opciones.entero("paralelo", Runtime.getRuntime().availableProcessors());
+        String salida = opciones.texto("salida", "barrido");
+        // Los ensayos de hilos no escriben eventos
+        Registro.configurar(Registro.Nivel.APAGADO, 1, System.out);
+
+        for (String ejecucion : ejecuciones) {
+            if (!Arrays.asList(Ensayo.EJECUCIONES).contains(ejecucion)) {
+                error("La opción --ejecuciones acepta: " + String.join(", ", Ensayo.EJECUCIONES));
+            }
+        }
+        for (String estrategia : estrategias) {
+            if (!estrategia.equals("chandy-misra")) {
+                try {
+                    Estrategias.crear(estrategia, 2);
+                } catch (IllegalArgumentException e) {
+                    error("Estrategia inválida en --estrategias: " + estrategia);
+                }
+            }
+        }
+
+        // Producto cartesiano de todos los valores
+        List<Ensayo> ensayos = new ArrayList<>();
+        int omitidos = 0;
+        for (String ejecucion : ejecuciones) {
+            for (int n : filosofos) {
+                for (int duracion : duraciones) {
+                    for (String estrategia : estrategias) {
+                        for (Carga pensar : cargasPensar) {
+                            for (Carga comer : cargasComer) {
+                                for (int semilla : semillas) {
+                                    Ensayo ensayo = new Ensayo(ejecucion, n, duracion, estrategia,
+                                                               pensar, comer, semilla);
+                                    if (ensayo.esValido()) {
+                                        ensayos.add(ensayo);
+                                    } else {
+                                        omitidos++;
+                                    }
+                                }
+                            }
+                        }
+                    }
+                }
+            }
+        }
+
+        System.out.println("\n" + "=".repeat(70));
+        System.out.println("BARRIDO DE PARÁMETROS");
+        System.out.println("=".repeat(70));
+        System.out.println("  - Ensayos: " + ensayos.size()
+                         + (omitidos > 0 ? " (" + omitidos + " combinaciones imposibles omitidas)" : ""));
+        System.out.println("  - Ensayos simultáneos: " + paralelo);
+        System.out.println("  - Salida: " + salida + "-ensayos.csv, " + salida + "-resumen.csv, "
+                         + salida + ".json");
+        System.out.println("=".repeat(70));
+
+        long inicio = System.nanoTime();
+        AtomicInteger terminados = new AtomicInteger();
+        List<Callable<Resultado>> tareas = new ArrayList<>();
+        for (Ensayo ensayo : ensayos) {
+            tareas.add(() -> {
+                Resultado resultado = ensayo.ejecutar();
+                System.out.printf("[%d/%d] %s semilla %d: %.1f comidas/seg (%.1f s)%n",
+                                  terminados.incrementAndGet(), ensayos.size(),
+                                  ensayo.clave(), ensayo.getSemilla(),
+                                  resultado.getComidasPorSegundo(), resultado.getSegundosReales());
+                return resultado;
+            });
+        }
+
+        ForkJoinPool pool = new ForkJoinPool(paralelo);
+        List<Resultado> resultados = new ArrayList<>();
+        try {
+            for (Future<Resultado> futuro : pool.invokeAll(tareas)) {
+                resultados.add(futuro.get());
+            }
+        } catch (ExecutionException e) {
+            error("Falló un ensayo: " + e.getCause());
+        } finally {
+            pool.shutdown();
+        }
+
+        Informe informe = new Informe(resultados);
+        System.out.println("\n" + "=".repeat(70));
+        informe.imprimir();
+        System.out.println("=".repeat(70));
+        try {
+            informe.escribir(salida);
+        } catch (IOException e) {
+            error("No se pudieron escribir los resultados: " + e.getMessage());
+        }
+        System.out.printf("Barrido completo en %.1f s%n", (System.nanoTime() - inicio) / 1e9);
+        System.exit(0);
+    }
+
+    private static String[] lista(Opciones opciones, String clave, String porDefecto, String separador) {
+        String[] valores = opciones.texto(clave, porDefecto).split(separador);
+        for (int i = 0; i < valores.length; i++) {
+            valores[i] = valores[i].trim();
+        }
+        return valores;
+    }
+
+    private static int[] enteros(Opciones opciones, String clave, String porDefecto) {
+        String[] valores = lista(opciones, clave, porDefecto, ",");
+        int[] numeros = new int[valores.length];
+        try {
+            for (int i = 0; i < valores.length; i++) {
+                numeros[i] = Integer.parseInt(valores[i]);
+            }
+        } catch (NumberFormatException e) {
+            error("La opción --" + clave + " debe ser una lista de enteros separados por comas.");
+        }
+        return numeros;
+    }
+
+    private static Carga[] cargas(Opciones opciones, String clave) {
+        String[] valores = lista(opciones, clave, Carga.PREDETERMINADA.toString(), ";");
+        Carga[] cargas = new Carga[valores.length];
+        try {
+            for (int i = 0; i < valores.length; i++) {
+                cargas[i] = Carga.desdeTexto(valores[i]);
+            }
+        } catch (IllegalArgumentException e) {
+            error("La opción --" + clave + " debe ser una lista separada por ; de " + Carga.FORMATO);
+        }
+        return cargas;
+    }
+
+    private static void error(String mensaje) {
+        System.err.println("Error: " + mensaje);
+        System.exit(1);
+    }
+}
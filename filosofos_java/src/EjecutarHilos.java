@@ -1,35 +1,100 @@
+import arbitraje.Estrategias;
+import comun.Carga;
+import comun.MedicionProceso;
+import comun.Opciones;
+import comun.Registro;
+import hilos.Arbitro;
+import hilos.ArbitroChandyMisra;
+import hilos.ArbitroMonitor;
+import hilos.ArbitroSegmentado;
+import hilos.FabricaHilos;
 import hilos.Mesa;
+import java.util.concurrent.ThreadFactory;
+import javax.management.JMException;
 
 /**
  * Script para ejecutar únicamente la solución con HILOS.
  * 
  * Uso:
- *     java EjecutarHilos [num_filosofos] [duracion_segundos]
+ *     java EjecutarHilos [num_filosofos] [duracion_segundos] [--espera global|individual]
+ *                        [--estrategia nombre] [--franjas k] [--hilos plataforma|virtuales]
+ *                        [--pensar carga] [--comer carga] [--jmx]
+ *                        [--registro nivel] [--muestreo N] [--registro-archivo ruta]
+ * 
+ * Opciones:
+ *     --espera      global: todos esperan en una condición y se despiertan con signalAll()
+ *                   individual: cada filósofo espera en su propia condición y solo se
+ *                   despierta a los vecinos que pueden comer (por defecto: global);
+ *                   solo con el mutex de la mesa: con chandy-misra o --franjas k > 1
+ *                   cada filósofo siempre espera en su propio semáforo
+ *     --estrategia  algoritmo de arbitraje (por defecto: monitor)
+ *                   envejecimiento[:U]: monitor que, cuando un filósofo lleva más de
+ *                   U microsegundos hambriento, no deja empezar a comer a sus vecinos
+ *                   que pidieron después (por defecto U = 10000)
+ *                   chandy-misra: tenedores limpios/sucios sin mutex de la mesa;
+ *                   las solicitudes solo pasan entre vecinos
+ *     --franjas     divide la tabla de estados en k franjas, cada una con su propio
+ *                   lock; cada filósofo espera en su propio semáforo (por defecto: 1,
+ *                   un único mutex de la mesa); no se combina con chandy-misra
+ *     --hilos       plataforma: un hilo del sistema operativo por filósofo
+ *                   virtuales: hilos virtuales (Java 21+), para 100k o más filósofos
+ *                   (por defecto: plataforma)
+ *     --pensar      duración del pensamiento: cero, fija:D, uniforme:MIN-MAX,
+ *                   exponencial:MEDIA o bimodal:CORTA,LARGA,P, en microsegundos
+ *                   (por defecto: uniforme:1000000-3000000, entre 1 y 3 segundos)
+ *     --comer       duración de la comida, con el mismo formato; con el prefijo cpu:
+ *                   (por ejemplo cpu:fija:500) la comida calcula en lugar de dormir
+ *     --jmx         publica las métricas en vivo de la mesa como MBean
+ *                   "filosofos:type=Mesa,name=hilos" (comidas/seg, hambrientos,
+ *                   comiendo, espera por filósofo, retención y cola de mutexMesa),
+ *                   para verlas con JConsole o un cliente JMX
+ *     --registro    apagado|resumen|muestreo|completo: detalle de los eventos que se
+ *                   escriben; se escriben desde un hilo aparte (por defecto: completo)
+ *     --muestreo    en el nivel muestreo, escribe uno de cada N eventos (por defecto: 100)
+ *     --registro-archivo  escribe los eventos en un archivo en lugar de la consola
  * 
  * Ejemplo:
  *     java EjecutarHilos 5 30
+ *     java EjecutarHilos 200 30 --espera individual
+ *     java EjecutarHilos 200000 30 --hilos virtuales --espera individual
+ *     java EjecutarHilos 1000 30 --registro muestreo --muestreo 1000
+ *     java EjecutarHilos 64 10 --pensar cero --comer cpu:fija:50 --registro resumen
  */
 public class EjecutarHilos {
     
     public static void main(String[] args) {
         // Parsear argumentos de línea de comandos
-        int numFilosofos = 5;
-        int duracion = 30;
-        
-        if (args.length > 0) {
-            try {
-                numFilosofos = Integer.parseInt(args[0]);
-            } catch (NumberFormatException e) {
-                System.err.println("Error: El número de filósofos debe ser un entero.");
-                System.exit(1);
-            }
+        Opciones opciones = new Opciones(args);
+        int numFilosofos = opciones.entero(0, 5, "El número de filósofos debe ser un entero.");
+        int duracion = opciones.entero(1, 30, "La duración debe ser un entero.");
+        String espera = opciones.opcion("espera", "global", "global", "individual");
+        String estrategia = Estrategias.desdeOpciones(opciones, "chandy-misra");
+        int franjas = opciones.entero("franjas", 1);
+        String tipoHilos = opciones.opcion("hilos", "plataforma", "plataforma", "virtuales");
+        Carga cargaPensar = Carga.desdeOpciones(opciones, "pensar");
+        Carga cargaComer = Carga.desdeOpciones(opciones, "comer");
+        boolean chandyMisra = estrategia.equals("chandy-misra");
+        if (chandyMisra && franjas > 1) {
+            System.err.println("Error: --franjas no se combina con --estrategia chandy-misra.");
+            System.exit(1);
+        }
+        if ((chandyMisra || franjas > 1) && opciones.tiene("espera")) {
+            System.err.println("Error: --espera solo se aplica al mutex de la mesa; con "
+                             + (chandyMisra ? "chandy-misra" : "--franjas") + " cada filósofo"
+                             + " espera en su propio semáforo.");
+            System.exit(1);
         }
+        if (chandyMisra || franjas > 1) {
+            espera = "individual";
+        }
+        Registro.configurar(opciones);
         
-        if (args.length > 1) {
+        ThreadFactory fabricaHilos = FabricaHilos.plataforma();
+        if (tipoHilos.equals("virtuales")) {
             try {
-                duracion = Integer.parseInt(args[1]);
-            } catch (NumberFormatException e) {
-                System.err.println("Error: La duración debe ser un entero.");
+                fabricaHilos = FabricaHilos.virtuales();
+            } catch (UnsupportedOperationException e) {
+                System.err.println("Error: " + e.getMessage());
                 System.exit(1);
             }
         }
@@ -40,20 +105,50 @@ public class EjecutarHilos {
         System.out.println("Configuración:");
         System.out.println("  - Número de filósofos: " + numFilosofos);
         System.out.println("  - Duración: " + duracion + " segundos");
+        System.out.println("  - Espera: " + espera);
+        System.out.println("  - Estrategia: " + estrategia);
+        System.out.println("  - Franjas: " + franjas);
+        System.out.println("  - Hilos: " + tipoHilos);
+        System.out.println("  - Pensar: " + cargaPensar);
+        System.out.println("  - Comer: " + cargaComer);
+        System.out.println("  - Registro: " + Registro.getNivel().getNombre());
         System.out.println("=".repeat(70) + "\n");
         
         try {
+            long inicioArranque = System.nanoTime();
+            
             // Crear la mesa
-            Mesa mesa = new Mesa(numFilosofos);
+            Arbitro arbitro;
+            if (chandyMisra) {
+                arbitro = new ArbitroChandyMisra(numFilosofos);
+            } else if (franjas > 1) {
+                arbitro = new ArbitroSegmentado(numFilosofos, franjas,
+                                                Estrategias.crear(estrategia, numFilosofos));
+            } else {
+                arbitro = new ArbitroMonitor(numFilosofos, espera.equals("individual"),
+                                             Estrategias.crear(estrategia, numFilosofos));
+            }
+            Mesa mesa = new Mesa(numFilosofos, arbitro, fabricaHilos, cargaPensar, cargaComer);
+            if (opciones.tiene("jmx")) {
+                try {
+                    mesa.publicarMetricas(estrategia);
+                    System.out.println("Métricas publicadas por JMX: filosofos:type=Mesa,name=hilos (PID "
+                                     + ProcessHandle.current().pid() + ")");
+                } catch (JMException e) {
+                    System.err.println("Error: No se pudieron publicar las métricas: " + e.getMessage());
+                }
+            }
             
             // Iniciar la simulación
             mesa.iniciarCena();
+            long arranqueMs = (System.nanoTime() - inicioArranque) / 1_000_000;
             
             System.out.println("\nSimulación corriendo por " + duracion + " segundos...");
             System.out.println("Presiona Ctrl+C para detener antes.\n");
             
             // Ejecutar por el tiempo especificado
             Thread.sleep(duracion * 1000L);
+            long comidas = mesa.getTotalComidas();
             
             System.out.println("\n" + "=".repeat(70));
             System.out.println("Fin de la simulación");
@@ -65,6 +160,14 @@ public class EjecutarHilos {
             // Imprimir estadísticas finales
             mesa.imprimirEstadisticas();
             
+            long rssMaximo = MedicionProceso.rssMaximoKB(ProcessHandle.current().pid());
+            System.out.println("Rendimiento (" + tipoHilos + "):");
+            System.out.printf("  - Arranque de %d filósofos: %d ms%n", numFilosofos, arranqueMs);
+            System.out.printf("  - Memoria residente máxima: %s%n",
+                            rssMaximo < 0 ? "no disponible" : (rssMaximo / 1024) + " MB");
+            System.out.printf("  - Comidas por segundo: %.2f%n", (double) comidas / duracion);
+            System.out.println("=".repeat(70));
+            
         } catch (InterruptedException e) {
             System.out.println("\n\nSimulación interrumpida por el usuario.\n");
         }
@@ -1,7 +1,12 @@
+import arbitraje.Estrategias;
+import comun.Carga;
+import comun.Opciones;
+import comun.Registro;
 import procesos.MesaIPC;
 import procesos.ProcesoFilosofo;
 import java.util.ArrayList;
 import java.util.List;
+import javax.management.JMException;
 
 /**
  * Script para ejecutar la solución con PROCESOS (simulados con threads IPC).
@@ -10,7 +15,25 @@ import java.util.List;
  * simula procesos usando threads con comunicación mediante semáforos y memoria atómica.
  * 
  * Uso:
- *     java EjecutarProcesos [num_filosofos] [duracion_segundos]
+ *     java EjecutarProcesos [num_filosofos] [duracion_segundos] [--estrategia nombre]
+ *                           [--pensar carga] [--comer carga] [--jmx]
+ *                           [--registro nivel] [--muestreo N] [--registro-archivo ruta]
+ * 
+ * Opciones:
+ *     --estrategia        algoritmo de arbitraje (por defecto: monitor); envejecimiento[:U]
+ *                         acota la espera de un filósofo a unos U microsegundos
+ *                         (ver EstrategiaEnvejecimiento)
+ *     --pensar            duración del pensamiento: cero, fija:D, uniforme:MIN-MAX,
+ *                         exponencial:MEDIA o bimodal:CORTA,LARGA,P, en microsegundos
+ *                         (por defecto: uniforme:1000000-3000000, entre 1 y 3 segundos)
+ *     --comer             duración de la comida, con el mismo formato; con el prefijo
+ *                         cpu: (por ejemplo cpu:fija:500) la comida calcula en lugar de dormir
+ *     --jmx               publica las métricas en vivo de la mesa como MBean
+ *                         "filosofos:type=Mesa,name=procesos" (comidas/seg, hambrientos,
+ *                         comiendo, espera por filósofo, retención y cola de mutexGlobal)
+ *     --registro          apagado|resumen|muestreo|completo (por defecto: completo)
+ *     --muestreo          en el nivel muestreo, escribe uno de cada N eventos (por defecto: 100)
+ *     --registro-archivo  escribe los eventos en un archivo en lugar de la consola
  * 
  * Ejemplo:
  *     java EjecutarProcesos 5 30
@@ -19,26 +42,13 @@ public class EjecutarProcesos {
     
     public static void main(String[] args) {
         // Parsear argumentos de línea de comandos
-        int numFilosofos = 5;
-        int duracion = 30;
-        
-        if (args.length > 0) {
-            try {
-                numFilosofos = Integer.parseInt(args[0]);
-            } catch (NumberFormatException e) {
-                System.err.println("Error: El número de filósofos debe ser un entero.");
-                System.exit(1);
-            }
-        }
-        
-        if (args.length > 1) {
-            try {
-                duracion = Integer.parseInt(args[1]);
-            } catch (NumberFormatException e) {
-                System.err.println("Error: La duración debe ser un entero.");
-                System.exit(1);
-            }
-        }
+        Opciones opciones = new Opciones(args);
+        int numFilosofos = opciones.entero(0, 5, "El número de filósofos debe ser un entero.");
+        int duracion = opciones.entero(1, 30, "La duración debe ser un entero.");
+        String estrategia = Estrategias.desdeOpciones(opciones);
+        Carga cargaPensar = Carga.desdeOpciones(opciones, "pensar");
+        Carga cargaComer = Carga.desdeOpciones(opciones, "comer");
+        Registro.configurar(opciones);
         
         System.out.println("\n" + "=".repeat(70));
         System.out.println("PROBLEMA DE LOS FILÓSOFOS COMENSALES - SOLUCIÓN CON PROCESOS");
@@ -46,6 +56,10 @@ public class EjecutarProcesos {
         System.out.println("Configuración:");
         System.out.println("  - Número de filósofos: " + numFilosofos);
         System.out.println("  - Duración: " + duracion + " segundos");
+        System.out.println("  - Estrategia: " + estrategia);
+        System.out.println("  - Pensar: " + cargaPensar);
+        System.out.println("  - Comer: " + cargaComer);
+        System.out.println("  - Registro: " + Registro.getNivel().getNombre());
         System.out.println("=".repeat(70) + "\n");
         
         MesaIPC mesaIPC = null;
@@ -53,11 +67,20 @@ public class EjecutarProcesos {
         
         try {
             // Crear la mesa IPC
-            mesaIPC = new MesaIPC(numFilosofos);
+            mesaIPC = new MesaIPC(numFilosofos, Estrategias.crear(estrategia, numFilosofos));
+            if (opciones.tiene("jmx")) {
+                try {
+                    mesaIPC.publicarMetricas();
+                    System.out.println("Métricas publicadas por JMX: filosofos:type=Mesa,name=procesos (PID "
+                                     + ProcessHandle.current().pid() + ")");
+                } catch (JMException e) {
+                    System.err.println("Error: No se pudieron publicar las métricas: " + e.getMessage());
+                }
+            }
             
             // Crear los filósofos
             for (int i = 0; i < numFilosofos; i++) {
-                filosofos.add(new ProcesoFilosofo(i, mesaIPC));
+                filosofos.add(new ProcesoFilosofo(i, mesaIPC, cargaPensar, cargaComer));
             }
             
             System.out.println("Iniciando procesos...\n");
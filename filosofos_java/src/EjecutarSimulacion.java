@@ -0,0 +1,99 @@
+import arbitraje.EstrategiaArbitraje;
+import arbitraje.Estrategias;
+import comun.Carga;
+import comun.Opciones;
+import simulacion.MesaSimulada;
+import simulacion.RelojVirtual;
+
+/**
+ * Script para ejecutar la SIMULACIÓN por eventos discretos.
+ *
+ * Los filósofos no duermen: un solo hilo avanza un reloj virtual de evento
+ * en evento, así que una cena de horas se simula en segundos y, con la misma
+ * semilla, se reproduce exactamente. Usa las mismas estrategias de arbitraje
+ * que las otras versiones y muestra las mismas estadísticas; las duraciones
+ * y las latencias están en tiempo virtual.
+ *
+ * Uso:
+ *     java EjecutarSimulacion [num_filosofos] [duracion_segundos] [--estrategia nombre]
+ *                             [--pensar carga] [--comer carga] [--semilla S]
+ *                             [--comidas M]
+ *
+ * Opciones:
+ *     --estrategia  algoritmo de arbitraje (por defecto: monitor); envejecimiento[:U]
+ *                   mide su umbral en tiempo virtual
+ *     --pensar      duración del pensamiento, como en EjecutarHilos
+ *                   (por defecto: uniforme:1000000-3000000, entre 1 y 3 segundos)
+ *     --comer       duración de la comida, con el mismo formato (el prefijo cpu:
+ *                   no cambia nada: en la simulación nadie calcula)
+ *     --semilla     semilla de los generadores de los filósofos (por defecto: 1)
+ *     --comidas     termina al llegar a M comidas en total, aunque no haya
+ *                   pasado la duración (por defecto: sin límite)
+ *
+ * La duración es en segundos virtuales (por defecto: 3600).
+ *
+ * Ejemplo:
+ *     java EjecutarSimulacion 5 86400
+ *     java EjecutarSimulacion 1000 3600 --pensar exponencial:1000 --comer fija:500
+ *     java EjecutarSimulacion 5 60 --pensar cero --comer fija:100 --estrategia envejecimiento:1000
+ */
+public class EjecutarSimulacion {
+
+    public static void main(String[] args) {
+        // Parsear argumentos de línea de comandos
+        Opciones opciones = new Opciones(args);
+        int numFilosofos = opciones.entero(0, 5, "El número de filósofos debe ser un entero.");
+        int duracion = opciones.entero(1, 3600, "La duración debe ser un entero.");
+        String nombreEstrategia = Estrategias.desdeOpciones(opciones);
+        Carga cargaPensar = Carga.desdeOpciones(opciones, "pensar");
+        Carga cargaComer = Carga.desdeOpciones(opciones, "comer");
+        int semilla = opciones.entero("semilla", 1);
+        int maxComidas = opciones.entero("comidas", 0);
+        if (cargaPensar.esNula() && cargaComer.esNula()) {
+            // Los eventos se repetirían en el mismo instante sin llegar nunca al final
+            System.err.println("Error: --pensar y --comer no pueden durar 0 las dos: "
+                             + "el reloj virtual no avanzaría.");
+            System.exit(1);
+        }
+
+        System.out.println("\n" + "=".repeat(70));
+        System.out.println("PROBLEMA DE LOS FILÓSOFOS COMENSALES - SIMULACIÓN POR EVENTOS");
+        System.out.println("=".repeat(70));
+        System.out.println("Configuración:");
+        System.out.println("  - Número de filósofos: " + numFilosofos);
+        System.out.println("  - Duración: " + duracion + " segundos virtuales");
+        System.out.println("  - Estrategia: " + nombreEstrategia);
+        System.out.println("  - Pensar: " + cargaPensar);
+        System.out.println("  - Comer: " + cargaComer);
+        System.out.println("  - Semilla: " + semilla);
+        if (maxComidas > 0) {
+            System.out.println("  - Comidas: " + maxComidas);
+        }
+        System.out.println("=".repeat(70));
+
+        RelojVirtual reloj = new RelojVirtual();
+        EstrategiaArbitraje estrategia = Estrategias.crear(nombreEstrategia, numFilosofos, reloj);
+        long inicio = System.nanoTime();
+        MesaSimulada mesa = new MesaSimulada(numFilosofos, estrategia, reloj,
+                                             cargaPensar, cargaComer, semilla);
+        boolean completa = mesa.simular(duracion * 1_000_000_000L, maxComidas);
+        double segundosReales = (System.nanoTime() - inicio) / 1e9;
+        double segundosVirtuales = reloj.getNanos() / 1e9;
+
+        if (!completa) {
+            System.out.println("\nTodos los filósofos quedaron esperando: bloqueo mutuo en "
+                             + String.format("%.6f", segundosVirtuales) + " segundos virtuales");
+        }
+
+        mesa.imprimirEstadisticas();
+
+        System.out.println("Rendimiento (simulación):");
+        System.out.printf("  - Tiempo virtual simulado: %.3f s%n", segundosVirtuales);
+        System.out.printf("  - Tiempo real: %.3f s%n", segundosReales);
+        System.out.printf("  - Eventos procesados: %d (%.0f por segundo real)%n",
+                        mesa.getEventos(), mesa.getEventos() / segundosReales);
+        System.out.printf("  - Comidas por segundo virtual: %.2f%n",
+                        segundosVirtuales > 0 ? mesa.getTotalComidas() / segundosVirtuales : 0.0);
+        System.out.println("=".repeat(70));
+    }
+}
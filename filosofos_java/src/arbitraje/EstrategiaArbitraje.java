@@ -0,0 +1,56 @@
+package arbitraje;
+
+import java.util.function.IntConsumer;
+
+/**
+ * Algoritmo que decide cuándo un filósofo puede comer.
+ *
+ * La estrategia solo mantiene la tabla de estados y toma las decisiones;
+ * no bloquea ni despierta a nadie. Cada ejecución (hilos, procesos simulados
+ * o procesos reales) la llama con su propio lock tomado y se encarga de
+ * esperar y de notificar a los filósofos con su propio mecanismo.
+ *
+ * Una implementación solo debe leer o modificar el estado de los filósofos
+ * a distancia 2 o menos del filósofo que hace la llamada, para que las
+ * mesas que dividen la tabla en segmentos puedan usarla.
+ */
+public interface EstrategiaArbitraje {
+    /** Código del estado PENSANDO en la tabla de estados. */
+    int PENSANDO = 0;
+    /** Código del estado HAMBRIENTO en la tabla de estados. */
+    int HAMBRIENTO = 1;
+    /** Código del estado COMIENDO en la tabla de estados. */
+    int COMIENDO = 2;
+
+    /**
+     * Registra que el filósofo quiere comer e intenta autorizarlo.
+     *
+     * @param id Índice del filósofo
+     * @return true si quedó autorizado (COMIENDO), false si debe esperar
+     */
+    boolean solicitar(int id);
+
+    /**
+     * Registra que el filósofo terminó de comer y autoriza a los vecinos
+     * que ahora pueden hacerlo.
+     *
+     * @param id Índice del filósofo
+     * @param alConceder Se llama con el índice de cada filósofo autorizado
+     */
+    void liberar(int id, IntConsumer alConceder);
+
+    /**
+     * Obtiene el estado actual de un filósofo.
+     *
+     * @param id Índice del filósofo
+     * @return PENSANDO, HAMBRIENTO o COMIENDO
+     */
+    int estado(int id);
+
+    /**
+     * Obtiene el nombre con el que se selecciona la estrategia.
+     *
+     * @return Nombre de la estrategia
+     */
+    String getNombre();
+}
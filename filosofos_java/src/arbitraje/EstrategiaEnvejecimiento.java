@@ -0,0 +1,91 @@
+package arbitraje;
+
+import java.util.function.LongSupplier;
+
+/**
+ * Estrategia de monitor con envejecimiento: acota la espera de un filósofo
+ * aunque sus vecinos se turnen para comer.
+ *
+ * Con la estrategia de monitor, un filósofo HAMBRIENTO cuyos dos vecinos
+ * comen alternadamente puede esperar sin límite. Aquí, cuando un filósofo
+ * lleva más del umbral HAMBRIENTO, sus vecinos que pidieron los tenedores
+ * después que él no pueden empezar una nueva comida hasta que él coma. Entre
+ * dos vecinos que superan el umbral cede el que pidió después, así que el
+ * más antiguo siempre puede avanzar y no se forma un ciclo de esperas.
+ *
+ * El tiempo se lee de un reloj en nanosegundos: System.nanoTime() o, en la
+ * simulación, el reloj virtual.
+ */
+public class EstrategiaEnvejecimiento extends EstrategiaMonitor {
+    /** Umbral de espera por defecto, en microsegundos. */
+    public static final long UMBRAL_PREDETERMINADO = 10_000;
+
+    private final long umbralMicros;
+    private final long umbralNanos;
+    private final long[] hambrientoDesde;
+    private final LongSupplier reloj;
+
+    /**
+     * @param numFilosofos Número de filósofos en la mesa
+     * @param umbralMicros Espera a partir de la cual los vecinos ceden, en microsegundos
+     */
+    public EstrategiaEnvejecimiento(int numFilosofos, long umbralMicros) {
+        this(numFilosofos, umbralMicros, System::nanoTime);
+    }
+
+    /**
+     * @param numFilosofos Número de filósofos en la mesa
+     * @param umbralMicros Espera a partir de la cual los vecinos ceden, en microsegundos
+     * @param reloj Hora actual en nanosegundos
+     */
+    public EstrategiaEnvejecimiento(int numFilosofos, long umbralMicros, LongSupplier reloj) {
+        super(numFilosofos);
+        this.umbralMicros = umbralMicros;
+        this.umbralNanos = umbralMicros * 1000;
+        this.hambrientoDesde = new long[numFilosofos];
+        this.reloj = reloj;
+    }
+
+    /**
+     * Además de la condición del monitor, el filósofo no puede comer si
+     * alguno de sus vecinos debe comer antes que él.
+     */
+    @Override
+    protected boolean permitirComer(int i) {
+        if (!super.permitirComer(i)) {
+            return false;
+        }
+        long ahora = reloj.getAsLong();
+        return !tienePrioridad(vecinoIzq(i), i, ahora) && !tienePrioridad(vecinoDer(i), i, ahora);
+    }
+
+    /**
+     * Indica si el vecino j superó el umbral de espera y pidió los tenedores
+     * antes que i (o a la vez y con menor índice).
+     */
+    private boolean tienePrioridad(int j, int i, long ahora) {
+        if (estados[j] != HAMBRIENTO || ahora - hambrientoDesde[j] <= umbralNanos) {
+            return false;
+        }
+        long diferencia = hambrientoDesde[j] - hambrientoDesde[i];
+        return diferencia < 0 || (diferencia == 0 && j < i);
+    }
+
+    @Override
+    public boolean solicitar(int id) {
+        hambrientoDesde[id] = reloj.getAsLong();
+        return super.solicitar(id);
+    }
+
+    /**
+     * Umbral de espera en microsegundos.
+     */
+    public long getUmbral() {
+        return umbralMicros;
+    }
+
+    @Override
+    public String getNombre() {
+        return "envejecimiento:" + umbralMicros;
+    }
+}
@@ -0,0 +1,90 @@
+package arbitraje;
+
+import java.util.function.IntConsumer;
+
+/**
+ * Estrategia de monitor de Tanenbaum (verificación de vecinos).
+ *
+ * Un filósofo HAMBRIENTO puede comer si ninguno de sus dos vecinos está
+ * COMIENDO. Al soltar los tenedores se revisa a ambos vecinos y se
+ * autoriza a los que quedaron en condiciones de comer.
+ */
+public class EstrategiaMonitor implements EstrategiaArbitraje {
+    protected final int numFilosofos;
+    protected final int[] estados;
+
+    /**
+     * Inicializa la tabla de estados con todos los filósofos PENSANDO.
+     *
+     * @param numFilosofos Número de filósofos en la mesa
+     */
+    public EstrategiaMonitor(int numFilosofos) {
+        this.numFilosofos = numFilosofos;
+        this.estados = new int[numFilosofos];
+    }
+
+    /**
+     * Calcula el índice del vecino izquierdo del filósofo i.
+     */
+    protected int vecinoIzq(int i) {
+        return (i - 1 + numFilosofos) % numFilosofos;
+    }
+
+    /**
+     * Calcula el índice del vecino derecho del filósofo i.
+     */
+    protected int vecinoDer(int i) {
+        return (i + 1) % numFilosofos;
+    }
+
+    /**
+     * Verifica si el filósofo puede comer.
+     * Solo puede comer si está HAMBRIENTO y sus vecinos NO están COMIENDO.
+     */
+    protected boolean permitirComer(int i) {
+        return estados[i] == HAMBRIENTO &&
+               estados[vecinoIzq(i)] != COMIENDO &&
+               estados[vecinoDer(i)] != COMIENDO;
+    }
+
+    /**
+     * Autoriza al filósofo si puede comer, cambiando su estado a COMIENDO.
+     */
+    protected boolean autorizar(int i) {
+        if (permitirComer(i)) {
+            estados[i] = COMIENDO;
+            return true;
+        }
+        return false;
+    }
+
+    @Override
+    public boolean solicitar(int id) {
+        estados[id] = HAMBRIENTO;
+        return autorizar(id);
+    }
+
+    @Override
+    public void liberar(int id, IntConsumer alConceder) {
+        estados[id] = PENSANDO;
+
+        int vecIzq = vecinoIzq(id);
+        int vecDer = vecinoDer(id);
+        if (autorizar(vecIzq)) {
+            alConceder.accept(vecIzq);
+        }
+        if (autorizar(vecDer)) {
+            alConceder.accept(vecDer);
+        }
+    }
+
+    @Override
+    public int estado(int id) {
+        return estados[id];
+    }
+
+    @Override
+    public String getNombre() {
+        return "monitor";
+    }
+}
@@ -0,0 +1,101 @@
+package arbitraje;
+
+import comun.Opciones;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.LongSupplier;
+
+/**
+ * Catálogo de estrategias de arbitraje disponibles.
+ */
+public final class Estrategias {
+    /** Nombres aceptados por la opción --estrategia. */
+    public static final String[] NOMBRES = { "monitor", "envejecimiento" };
+
+    private Estrategias() {
+    }
+
+    /**
+     * Crea la estrategia indicada por su nombre. "envejecimiento" acepta el
+     * umbral de espera en microsegundos ("envejecimiento:5000"); el nombre
+     * que devuelve getNombre() crea una estrategia igual.
+     *
+     * @param nombre Nombre de la estrategia
+     * @param numFilosofos Número de filósofos en la mesa
+     * @return Nueva estrategia con todos los filósofos PENSANDO
+     */
+    public static EstrategiaArbitraje crear(String nombre, int numFilosofos) {
+        return crear(nombre, numFilosofos, System::nanoTime);
+    }
+
+    /**
+     * Crea la estrategia indicada por su nombre, midiendo el tiempo con el
+     * reloj dado (por ejemplo, el reloj virtual de la simulación).
+     *
+     * @param nombre Nombre de la estrategia
+     * @param numFilosofos Número de filósofos en la mesa
+     * @param reloj Hora actual en nanosegundos
+     * @return Nueva estrategia con todos los filósofos PENSANDO
+     */
+    public static EstrategiaArbitraje crear(String nombre, int numFilosofos, LongSupplier reloj) {
+        int separador = nombre.indexOf(':');
+        String base = separador < 0 ? nombre : nombre.substring(0, separador);
+        String parametro = separador < 0 ? null : nombre.substring(separador + 1);
+        switch (base) {
+            case "monitor":
+                if (parametro == null) {
+                    return new EstrategiaMonitor(numFilosofos);
+                }
+                break;
+            case "envejecimiento":
+                return new EstrategiaEnvejecimiento(numFilosofos, parametro == null
+                        ? EstrategiaEnvejecimiento.UMBRAL_PREDETERMINADO : umbral(parametro), reloj);
+            default:
+                break;
+        }
+        throw new IllegalArgumentException("Estrategia desconocida: " + nombre);
+    }
+
+    private static long umbral(String texto) {
+        try {
+            long umbral = Long.parseLong(texto);
+            if (umbral >= 0) {
+                return umbral;
+            }
+        } catch (NumberFormatException e) {
+            // Se informa abajo
+        }
+        throw new IllegalArgumentException("Umbral de espera inválido: " + texto);
+    }
+
+    /**
+     * Obtiene la estrategia elegida con --estrategia (por defecto monitor).
+     * Si no es válida muestra el error y termina el programa.
+     *
+     * @param opciones Opciones de la línea de comandos
+     * @param adicionales Otros nombres que acepta la ejecución (por ejemplo,
+     *                    árbitros que no usan una estrategia)
+     * @return Nombre de la estrategia, tal como se pasa a crear()
+     */
+    public static String desdeOpciones(Opciones opciones, String... adicionales) {
+        String nombre = opciones.texto("estrategia", "monitor");
+        for (String adicional : adicionales) {
+            if (adicional.equals(nombre)) {
+                return nombre;
+            }
+        }
+        try {
+            crear(nombre, 2);
+            return nombre;
+        } catch (IllegalArgumentException e) {
+            List<String> validos = new ArrayList<>(Arrays.asList(NOMBRES));
+            validos.addAll(Arrays.asList(adicionales));
+            System.err.println("Error: La opción --estrategia debe ser una de: "
+                             + String.join(", ", validos) + " (envejecimiento acepta un umbral en microsegundos:"
+                             + " envejecimiento:" + EstrategiaEnvejecimiento.UMBRAL_PREDETERMINADO + ")");
+            System.exit(1);
+            return null;
+        }
+    }
+}
@@ -0,0 +1,135 @@
+package barrido;
+
+import arbitraje.Estrategias;
+import comun.Carga;
+import hilos.Arbitro;
+import hilos.ArbitroChandyMisra;
+import hilos.ArbitroMonitor;
+import hilos.FabricaHilos;
+import hilos.Mesa;
+import simulacion.MesaSimulada;
+import simulacion.RelojVirtual;
+
+/**
+ * Un punto de un barrido de parámetros: una ejecución con una configuración
+ * y una semilla.
+ *
+ * Se puede ejecutar en la simulación por eventos (duración en segundos
+ * virtuales, reproducible con la semilla) o con hilos (duración en segundos
+ * reales; los filósofos de hilos no usan la semilla). Los ensayos no
+ * comparten estado, así que se pueden ejecutar varios a la vez.
+ */
+public final class Ensayo {
+    /** Ejecuciones que puede usar un ensayo. */
+    public static final String[] EJECUCIONES = { "simulacion", "hilos" };
+
+    private final String ejecucion;
+    private final int numFilosofos;
+    private final int duracion;
+    private final String estrategia;
+    private final Carga cargaPensar;
+    private final Carga cargaComer;
+    private final int semilla;
+
+    /**
+     * @param ejecucion "simulacion" o "hilos"
+     * @param numFilosofos Número de filósofos de la mesa
+     * @param duracion Duración en segundos (virtuales en la simulación)
+     * @param estrategia Nombre de la estrategia (ver Estrategias); con hilos
+     *                   también "chandy-misra"
+     * @param cargaPensar Duración del pensamiento
+     * @param cargaComer Duración de la comida
+     * @param semilla Semilla de los generadores (solo en la simulación)
+     */
+    public Ensayo(String ejecucion, int numFilosofos, int duracion, String estrategia,
+                  Carga cargaPensar, Carga cargaComer, int semilla) {
+        this.ejecucion = ejecucion;
+        this.numFilosofos = numFilosofos;
+        this.duracion = duracion;
+        this.estrategia = estrategia;
+        this.cargaPensar = cargaPensar;
+        this.cargaComer = cargaComer;
+        this.semilla = semilla;
+    }
+
+    /**
+     * Indica si la combinación es posible: Chandy–Misra solo existe en la
+     * versión con hilos, y la simulación necesita que pensar o comer dure algo.
+     */
+    public boolean esValido() {
+        if (ejecucion.equals("simulacion") && cargaPensar.esNula() && cargaComer.esNula()) {
+            return false;
+        }
+        return !estrategia.equals("chandy-misra") || ejecucion.equals("hilos");
+    }
+
+    /**
+     * Ejecuta el ensayo y devuelve sus mediciones.
+     */
+    public Resultado ejecutar() throws InterruptedException {
+        long inicio = System.nanoTime();
+        long[] comidas = new long[numFilosofos];
+        if (ejecucion.equals("simulacion")) {
+            RelojVirtual reloj = new RelojVirtual();
+            MesaSimulada mesa = new MesaSimulada(numFilosofos,
+                                                 Estrategias.crear(estrategia, numFilosofos, reloj),
+                                                 reloj, cargaPensar, cargaComer, semilla);
+            mesa.simular(duracion * 1_000_000_000L, 0);
+            for (int i = 0; i < numFilosofos; i++) {
+                comidas[i] = mesa.getVecesComido(i);
+            }
+            return new Resultado(this, comidas, mesa.getLatencias().total(), duracion,
+                                 (System.nanoTime() - inicio) / 1e9);
+        }
+
+        Arbitro arbitro = estrategia.equals("chandy-misra")
+                ? new ArbitroChandyMisra(numFilosofos)
+                : new ArbitroMonitor(numFilosofos, true, Estrategias.crear(estrategia, numFilosofos));
+        Mesa mesa = new Mesa(numFilosofos, arbitro, FabricaHilos.plataforma(), cargaPensar, cargaComer);
+        mesa.iniciarFilosofos();
+        Thread.sleep(duracion * 1000L);
+        for (int i = 0; i < numFilosofos; i++) {
+            comidas[i] = mesa.getVecesComido(i);
+        }
+        mesa.detenerFilosofos();
+        return new Resultado(this, comidas, mesa.getLatencias().total(), duracion,
+                             (System.nanoTime() - inicio) / 1e9);
+    }
+
+    /**
+     * Configuración sin la semilla: los ensayos con la misma clave se
+     * agrupan en el resumen.
+     */
+    public String clave() {
+        return ejecucion + "|" + numFilosofos + "|" + duracion + "|" + estrategia
+             + "|" + cargaPensar + "|" + cargaComer;
+    }
+
+    public String getEjecucion() {
+        return ejecucion;
+    }
+
+    public int getNumFilosofos() {
+        return numFilosofos;
+    }
+
+    public int getDuracion() {
+        return duracion;
+    }
+
+    public String getEstrategia() {
+        return estrategia;
+    }
+
+    public Carga getCargaPensar() {
+        return cargaPensar;
+    }
+
+    public Carga getCargaComer() {
+        return cargaComer;
+    }
+
+    public int getSemilla() {
+        return semilla;
+    }
+}
@@ -0,0 +1,193 @@
+package barrido;
+
+import comun.Histograma;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Escribe los resultados de un barrido: una fila por ensayo, y un resumen
+ * por configuración que agrupa los ensayos que solo difieren en la semilla
+ * (media y desviación estándar de las comidas/seg, equidad media, p99 medio
+ * y máxima espera de todos).
+ *
+ * Formatos:
+ *     prefijo-ensayos.csv   una fila por ensayo
+ *     prefijo-resumen.csv   una fila por configuración
+ *     prefijo.json          {"ensayos": [...], "resumen": [...]}
+ *
+ * Las latencias se escriben en nanosegundos y los números con punto decimal.
+ */
+public final class Informe {
+    private static final String CONFIGURACION =
+        "ejecucion,filosofos,duracion,estrategia,pensar,comer";
+
+    private final List<Resultado> resultados;
+    private final Map<String, List<Resultado>> porConfiguracion = new LinkedHashMap<>();
+
+    /**
+     * @param resultados Resultados de los ensayos, en el orden del barrido
+     */
+    public Informe(List<Resultado> resultados) {
+        this.resultados = resultados;
+        for (Resultado resultado : resultados) {
+            porConfiguracion.computeIfAbsent(resultado.getEnsayo().clave(), k -> new ArrayList<>())
+                            .add(resultado);
+        }
+    }
+
+    /**
+     * Escribe los dos CSV y el JSON con el prefijo indicado.
+     *
+     * @param prefijo Ruta sin extensión (por ejemplo "barrido")
+     * @throws IOException si no se puede escribir algún archivo
+     */
+    public void escribir(String prefijo) throws IOException {
+        try (PrintWriter salida = abrir(prefijo + "-ensayos.csv")) {
+            salida.println(CONFIGURACION + ",semilla,comidas,comidas_seg,min_comidas,max_comidas,"
+                         + "equidad,espera_p50_ns,espera_p99_ns,espera_p999_ns,espera_max_ns,segundos_reales");
+            for (Resultado r : resultados) {
+                salida.println(configuracionCsv(r.getEnsayo()) + "," + r.getEnsayo().getSemilla()
+                             + "," + r.getComidas() + "," + numero(r.getComidasPorSegundo())
+                             + "," + r.getMinComidas() + "," + r.getMaxComidas()
+                             + "," + numero(r.getEquidad()) + "," + r.getP50() + "," + r.getP99()
+                             + "," + r.getP999() + "," + r.getMaximo()
+                             + "," + numero(r.getSegundosReales()));
+            }
+        }
+        try (PrintWriter salida = abrir(prefijo + "-resumen.csv")) {
+            salida.println(CONFIGURACION + ",ensayos,comidas_seg_media,comidas_seg_desv,"
+                         + "equidad_media,espera_p99_ns_media,espera_max_ns");
+            for (List<Resultado> grupo : porConfiguracion.values()) {
+                Resumen s = new Resumen(grupo);
+                salida.println(configuracionCsv(grupo.get(0).getEnsayo()) + "," + grupo.size()
+                             + "," + numero(s.media) + "," + numero(s.desviacion)
+                             + "," + numero(s.equidad) + "," + numero(s.p99) + "," + s.maximo);
+            }
+        }
+        try (PrintWriter salida = abrir(prefijo + ".json")) {
+            salida.println("{");
+            salida.println("  \"ensayos\": [");
+            for (int i = 0; i < resultados.size(); i++) {
+                Resultado r = resultados.get(i);
+                salida.println("    {" + configuracionJson(r.getEnsayo())
+                             + ", \"semilla\": " + r.getEnsayo().getSemilla()
+                             + ", \"comidas\": " + r.getComidas()
+                             + ", \"comidas_seg\": " + numero(r.getComidasPorSegundo())
+                             + ", \"min_comidas\": " + r.getMinComidas()
+                             + ", \"max_comidas\": " + r.getMaxComidas()
+                             + ", \"equidad\": " + numero(r.getEquidad())
+                             + ", \"espera_p50_ns\": " + r.getP50()
+                             + ", \"espera_p99_ns\": " + r.getP99()
+                             + ", \"espera_p999_ns\": " + r.getP999()
+                             + ", \"espera_max_ns\": " + r.getMaximo()
+                             + ", \"segundos_reales\": " + numero(r.getSegundosReales()) + "}"
+                             + (i + 1 < resultados.size() ? "," : ""));
+            }
+            salida.println("  ],");
+            salida.println("  \"resumen\": [");
+            int i = 0;
+            for (List<Resultado> grupo : porConfiguracion.values()) {
+                Resumen s = new Resumen(grupo);
+                salida.println("    {" + configuracionJson(grupo.get(0).getEnsayo())
+                             + ", \"ensayos\": " + grupo.size()
+                             + ", \"comidas_seg_media\": " + numero(s.media)
+                             + ", \"comidas_seg_desv\": " + numero(s.desviacion)
+                             + ", \"equidad_media\": " + numero(s.equidad)
+                             + ", \"espera_p99_ns_media\": " + numero(s.p99)
+                             + ", \"espera_max_ns\": " + s.maximo + "}"
+                             + (++i < porConfiguracion.size() ? "," : ""));
+            }
+            salida.println("  ]");
+            salida.println("}");
+        }
+    }
+
+    /**
+     * Imprime el resumen por configuración en la consola.
+     */
+    public void imprimir() {
+        System.out.printf("%-10s %9s %8s %-20s %-24s %-24s %12s %10s %8s %10s%n", "Ejecución",
+                          "Filósofos", "Duración", "Estrategia", "Pensar", "Comer", "Comidas/seg",
+                          "± desv", "Equidad", "max espera");
+        for (List<Resultado> grupo : porConfiguracion.values()) {
+            Ensayo e = grupo.get(0).getEnsayo();
+            Resumen s = new Resumen(grupo);
+            System.out.printf(Locale.ROOT, "%-10s %9d %8d %-20s %-24s %-24s %12.1f %10.1f %8.4f %10s%n",
+                              e.getEjecucion(), e.getNumFilosofos(), e.getDuracion(),
+                              e.getEstrategia(), e.getCargaPensar(), e.getCargaComer(),
+                              s.media, s.desviacion, s.equidad,
+                              Histograma.formatearNanos(s.maximo));
+        }
+    }
+
+    private static PrintWriter abrir(String ruta) throws IOException {
+        return new PrintWriter(Files.newBufferedWriter(Path.of(ruta), StandardCharsets.UTF_8));
+    }
+
+    private static String configuracionCsv(Ensayo e) {
+        return e.getEjecucion() + "," + e.getNumFilosofos() + "," + e.getDuracion() + ","
+             + csv(e.getEstrategia()) + "," + csv(e.getCargaPensar().toString()) + ","
+             + csv(e.getCargaComer().toString());
+    }
+
+    private static String configuracionJson(Ensayo e) {
+        return "\"ejecucion\": \"" + e.getEjecucion() + "\""
+             + ", \"filosofos\": " + e.getNumFilosofos()
+             + ", \"duracion\": " + e.getDuracion()
+             + ", \"estrategia\": \"" + e.getEstrategia() + "\""
+             + ", \"pensar\": \"" + e.getCargaPensar() + "\""
+             + ", \"comer\": \"" + e.getCargaComer() + "\"";
+    }
+
+    /**
+     * Entre comillas si el valor tiene comas (por ejemplo, una carga bimodal).
+     */
+    private static String csv(String valor) {
+        return valor.indexOf(',') < 0 ? valor : "\"" + valor + "\"";
+    }
+
+    private static String numero(double valor) {
+        return String.format(Locale.ROOT, "%.4f", valor);
+    }
+
+    /**
+     * Estadísticas de los ensayos de una misma configuración.
+     */
+    private static final class Resumen {
+        final double media;
+        final double desviacion;
+        final double equidad;
+        final double p99;
+        final long maximo;
+
+        Resumen(List<Resultado> grupo) {
+            double suma = 0, sumaEquidad = 0, sumaP99 = 0;
+            long max = 0;
+            for (Resultado r : grupo) {
+                suma += r.getComidasPorSegundo();
+                sumaEquidad += r.getEquidad();
+                sumaP99 += r.getP99();
+                max = Math.max(max, r.getMaximo());
+            }
+            int n = grupo.size();
+            this.media = suma / n;
+            double cuadrados = 0;
+            for (Resultado r : grupo) {
+                double d = r.getComidasPorSegundo() - media;
+                cuadrados += d * d;
+            }
+            this.desviacion = n > 1 ? Math.sqrt(cuadrados / (n - 1)) : 0;
+            this.equidad = sumaEquidad / n;
+            this.p99 = sumaP99 / n;
+            this.maximo = max;
+        }
+    }
+}
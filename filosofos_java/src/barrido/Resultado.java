@@ -0,0 +1,105 @@
+package barrido;
+
+import comun.Histograma;
+
+/**
+ * Mediciones de un ensayo: rendimiento, equidad y latencia de espera.
+ *
+ * La equidad es el índice de Jain sobre las comidas de cada filósofo:
+ * 1 si todos comieron lo mismo, 1/N si comió uno solo.
+ */
+public final class Resultado {
+    private final Ensayo ensayo;
+    private final long comidas;
+    private final double comidasPorSegundo;
+    private final long minComidas;
+    private final long maxComidas;
+    private final double equidad;
+    private final long p50;
+    private final long p99;
+    private final long p999;
+    private final long maximo;
+    private final double segundosReales;
+
+    /**
+     * @param ensayo Ensayo medido
+     * @param comidasPorFilosofo Comidas de cada filósofo
+     * @param espera Latencias de espera de toda la mesa, en nanosegundos
+     * @param segundos Duración del ensayo (virtual en la simulación)
+     * @param segundosReales Tiempo real que tomó el ensayo
+     */
+    Resultado(Ensayo ensayo, long[] comidasPorFilosofo, Histograma espera, double segundos,
+              double segundosReales) {
+        this.ensayo = ensayo;
+        long total = 0, minimo = Long.MAX_VALUE, maximoComidas = 0;
+        double sumaCuadrados = 0;
+        for (long c : comidasPorFilosofo) {
+            total += c;
+            minimo = Math.min(minimo, c);
+            maximoComidas = Math.max(maximoComidas, c);
+            sumaCuadrados += (double) c * c;
+        }
+        this.comidas = total;
+        this.comidasPorSegundo = total / segundos;
+        this.minComidas = minimo;
+        this.maxComidas = maximoComidas;
+        this.equidad = sumaCuadrados == 0 ? 1.0
+                : (double) total * total / (comidasPorFilosofo.length * sumaCuadrados);
+        this.p50 = espera.percentil(50);
+        this.p99 = espera.percentil(99);
+        this.p999 = espera.percentil(99.9);
+        this.maximo = espera.getMaximo();
+        this.segundosReales = segundosReales;
+    }
+
+    public Ensayo getEnsayo() {
+        return ensayo;
+    }
+
+    public long getComidas() {
+        return comidas;
+    }
+
+    public double getComidasPorSegundo() {
+        return comidasPorSegundo;
+    }
+
+    public long getMinComidas() {
+        return minComidas;
+    }
+
+    public long getMaxComidas() {
+        return maxComidas;
+    }
+
+    /**
+     * Índice de Jain de las comidas por filósofo, entre 1/N y 1.
+     */
+    public double getEquidad() {
+        return equidad;
+    }
+
+    /** Espera p50 en nanosegundos. */
+    public long getP50() {
+        return p50;
+    }
+
+    /** Espera p99 en nanosegundos. */
+    public long getP99() {
+        return p99;
+    }
+
+    /** Espera p99.9 en nanosegundos. */
+    public long getP999() {
+        return p999;
+    }
+
+    /** Espera máxima en nanosegundos. */
+    public long getMaximo() {
+        return maximo;
+    }
+
+    public double getSegundosReales() {
+        return segundosReales;
+    }
+}
@@ -0,0 +1,232 @@
+package comun;
+
+import java.util.Random;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Modelo de carga de trabajo: cuánto tiempo piensa o come un filósofo
+ * y si ese tiempo se pasa durmiendo o calculando.
+ *
+ * Se describe con un texto de la forma:
+ *     cero                      sin espera (máxima contención)
+ *     fija:D                    siempre D microsegundos
+ *     uniforme:MIN-MAX          uniforme entre MIN y MAX microsegundos
+ *     exponencial:MEDIA         exponencial con la media indicada
+ *     bimodal:CORTA,LARGA,P     CORTA con probabilidad P, si no LARGA
+ *
+ * Con el prefijo "cpu:" (por ejemplo "cpu:fija:500") el tiempo se pasa
+ * haciendo cálculos en lugar de dormir, para simular comidas que usan CPU.
+ */
+public final class Carga {
+
+    /** Formatos aceptados, para los mensajes de error. */
+    public static final String FORMATO =
+        "cero | fija:D | uniforme:MIN-MAX | exponencial:MEDIA | bimodal:CORTA,LARGA,P"
+        + " (microsegundos; prefijo cpu: para calcular en lugar de dormir)";
+
+    /** Carga original del proyecto: dormir entre 1 y 3 segundos. */
+    public static final Carga PREDETERMINADA = desdeTexto("uniforme:1000000-3000000");
+
+    private enum Distribucion { CERO, FIJA, UNIFORME, EXPONENCIAL, BIMODAL }
+
+    // Resultado de los cálculos de las comidas con CPU, para que no se eliminen
+    private static volatile long sumidero;
+
+    private final String texto;
+    private final Distribucion distribucion;
+    private final boolean cpu;
+    private final long a;
+    private final long b;
+    private final double probabilidad;
+
+    private Carga(String texto, Distribucion distribucion, boolean cpu,
+                  long a, long b, double probabilidad) {
+        this.texto = texto;
+        this.distribucion = distribucion;
+        this.cpu = cpu;
+        this.a = a;
+        this.b = b;
+        this.probabilidad = probabilidad;
+    }
+
+    /**
+     * Interpreta la descripción de una carga.
+     *
+     * @param texto Descripción (ver FORMATO)
+     * @return Carga descrita
+     * @throws IllegalArgumentException si el texto no es válido
+     */
+    public static Carga desdeTexto(String texto) {
+        String resto = texto.trim();
+        boolean cpu = resto.startsWith("cpu:");
+        if (cpu) {
+            resto = resto.substring(4);
+        }
+        String[] partes = resto.split(":", 2);
+        String parametros = partes.length > 1 ? partes[1] : "";
+
+        try {
+            switch (partes[0]) {
+                case "cero":
+                    return new Carga(texto, Distribucion.CERO, cpu, 0, 0, 0);
+                case "fija":
+                    return new Carga(texto, Distribucion.FIJA, cpu, noNegativo(parametros), 0, 0);
+                case "uniforme": {
+                    String[] rango = parametros.split("-");
+                    long min = noNegativo(rango[0]);
+                    long max = noNegativo(rango[1]);
+                    if (max < min) {
+                        throw new IllegalArgumentException("MAX menor que MIN en: " + texto);
+                    }
+                    return new Carga(texto, Distribucion.UNIFORME, cpu, min, max, 0);
+                }
+                case "exponencial":
+                    return new Carga(texto, Distribucion.EXPONENCIAL, cpu, noNegativo(parametros), 0, 0);
+                case "bimodal": {
+                    String[] valores = parametros.split(",");
+                    double p = Double.parseDouble(valores[2]);
+                    if (p < 0 || p > 1) {
+                        throw new IllegalArgumentException("P debe estar entre 0 y 1 en: " + texto);
+                    }
+                    return new Carga(texto, Distribucion.BIMODAL, cpu,
+                                     noNegativo(valores[0]), noNegativo(valores[1]), p);
+                }
+                default:
+                    throw new IllegalArgumentException("Carga desconocida: " + texto);
+            }
+        } catch (NumberFormatException | ArrayIndexOutOfBoundsException e) {
+            throw new IllegalArgumentException("Carga inválida: " + texto);
+        }
+    }
+
+    /**
+     * Obtiene la carga de una opción "--clave descripcion".
+     * Si la descripción no es válida muestra el error y termina el programa.
+     *
+     * @param opciones Opciones del programa
+     * @param clave Nombre de la opción sin los guiones
+     * @return Carga indicada, o PREDETERMINADA si la opción no está
+     */
+    public static Carga desdeOpciones(Opciones opciones, String clave) {
+        return desdeOpciones(opciones, clave, PREDETERMINADA);
+    }
+
+    /**
+     * Como desdeOpciones(opciones, clave), con otra carga por defecto.
+     *
+     * @param porDefecto Carga si la opción no está
+     */
+    public static Carga desdeOpciones(Opciones opciones, String clave, Carga porDefecto) {
+        String texto = opciones.texto(clave, null);
+        if (texto == null) {
+            return porDefecto;
+        }
+        try {
+            return desdeTexto(texto);
+        } catch (IllegalArgumentException e) {
+            System.err.println("Error: La opción --" + clave + " debe ser " + FORMATO);
+            System.exit(1);
+            return porDefecto;
+        }
+    }
+
+    private static long noNegativo(String valor) {
+        long numero = Long.parseLong(valor.trim());
+        if (numero < 0) {
+            throw new NumberFormatException();
+        }
+        return numero;
+    }
+
+    /**
+     * Indica si toda duración sorteada es 0 (por ejemplo "cero" o "fija:0").
+     * En la simulación por eventos un ciclo de pensar y comer con las dos
+     * cargas nulas no adelanta el reloj virtual.
+     */
+    public boolean esNula() {
+        switch (distribucion) {
+            case FIJA:
+            case EXPONENCIAL:
+                return a == 0;
+            case UNIFORME:
+                return b == 0;
+            case BIMODAL:
+                return (a == 0 || probabilidad == 0) && (b == 0 || probabilidad == 1);
+            default:
+                return true;
+        }
+    }
+
+    /**
+     * Sortea la próxima duración.
+     *
+     * @param random Generador del filósofo
+     * @return Duración en microsegundos
+     */
+    public long siguienteDuracion(Random random) {
+        switch (distribucion) {
+            case FIJA:
+                return a;
+            case UNIFORME:
+                return a + (long) (random.nextDouble() * (b - a));
+            case EXPONENCIAL:
+                return (long) (-a * Math.log(1.0 - random.nextDouble()));
+            case BIMODAL:
+                return random.nextDouble() < probabilidad ? a : b;
+            default:
+                return 0;
+        }
+    }
+
+    /**
+     * Pasa la duración indicada durmiendo o calculando, según la carga.
+     * Una duración de 0 vuelve de inmediato.
+     *
+     * @param microsegundos Duración
+     * @throws InterruptedException si el hilo es interrumpido
+     */
+    public void ejecutar(long microsegundos) throws InterruptedException {
+        if (microsegundos <= 0) {
+            return;
+        }
+        if (cpu) {
+            calcular(microsegundos);
+        } else if (microsegundos >= 1000) {
+            Thread.sleep(microsegundos / 1000, (int) (microsegundos % 1000) * 1000);
+        } else {
+            // Thread.sleep no baja del milisegundo
+            LockSupport.parkNanos(microsegundos * 1000);
+            if (Thread.interrupted()) {
+                throw new InterruptedException();
+            }
+        }
+    }
+
+    /**
+     * Calcula (xorshift) hasta cumplir la duración, revisando la interrupción.
+     */
+    private static void calcular(long microsegundos) throws InterruptedException {
+        long limite = System.nanoTime() + microsegundos * 1000;
+        long x = sumidero | 1;
+        do {
+            for (int i = 0; i < 256; i++) {
+                x ^= x << 13;
+                x ^= x >>> 7;
+                x ^= x << 17;
+            }
+            if (Thread.interrupted()) {
+                sumidero = x;
+                throw new InterruptedException();
+            }
+        } while (System.nanoTime() < limite);
+        sumidero = x;
+    }
+
+    /**
+     * Descripción de la carga, en el mismo formato que acepta desdeTexto().
+     */
+    @Override
+    public String toString() {
+        return texto;
+    }
+}
@@ -0,0 +1,105 @@
+package comun;
+
+/**
+ * Mensajes que las tres versiones escriben a través del Registro.
+ *
+ * Cada evento guarda solo el formato; los argumentos viajan como enteros
+ * largos por el buffer circular y se formatean en el hilo escritor.
+ * Los argumentos de duración se pasan en microsegundos y se muestran en segundos.
+ */
+public enum Evento {
+    // Versión con hilos
+    HILOS_PENSANDO("Filósofo %d está PENSANDO por %.2f segundos", false, 1),
+    HILOS_COMIENDO("Filósofo %d está COMIENDO por %.2f segundos", false, 1),
+    HILOS_HAMBRIENTO("Filósofo %d está HAMBRIENTO y quiere comer"),
+    HILOS_SOLTO("Filósofo %d soltó los tenedores"),
+    HILOS_INTERRUMPIDO("Filósofo %d interrumpido", true, -1),
+    MESA_INTENTA("Filósofo %d intenta tomar tenedores %d y %d"),
+    MESA_COMIENDO("Filósofo %d tomó los tenedores y está COMIENDO"),
+    TENEDOR_TOMADO("  -> Tenedor %d tomado"),
+    TENEDOR_LIBERADO("  -> Tenedor %d liberado"),
+
+    // Versión con procesos simulados
+    PROCESO_INICIO("[Thread-%d] Filósofo %d inició su proceso", true, -1),
+    PROCESO_PENSANDO("[Thread-%d] Filósofo %d está PENSANDO por %.2f segundos", false, 2),
+    PROCESO_COMIENDO("[Thread-%d] Filósofo %d está COMIENDO por %.2f segundos", false, 2),
+    PROCESO_HAMBRIENTO("[Thread-%d] Filósofo %d está HAMBRIENTO y solicita recursos"),
+    PROCESO_OBTUVO("[Thread-%d] Filósofo %d obtuvo los recursos"),
+    PROCESO_LIBERA("[Thread-%d] Filósofo %d libera recursos"),
+    PROCESO_FIN("[Thread-%d] Filósofo %d finalizó", true, -1),
+    IPC_SOLICITA("  [MESA] Filósofo %d solicita tenedores %d y %d"),
+    IPC_AUTORIZADO("  [MESA] Filósofo %d autorizado para COMER"),
+    IPC_ESPERA("  [MESA] Filósofo %d debe esperar (vecinos comiendo)"),
+    IPC_BLOQUEADO("  [MESA] Filósofo %d bloqueado esperando recursos"),
+    IPC_TOMO("  [MESA] Filósofo %d tomó tenedores %d y %d"),
+    IPC_LIBERO("  [MESA] Filósofo %d liberó tenedores %d y %d"),
+    IPC_NOTIFICA("  [MESA] Notificando a Filósofo %d"),
+
+    // Versión con procesos reales (servidor)
+    SERVIDOR_CONECTADO("  [SERVIDOR] Filosofo %d conectado desde proceso separado", true, -1),
+    SERVIDOR_SOLICITA("  [SERVIDOR] Filosofo %d solicita tenedores %d y %d"),
+    SERVIDOR_AUTORIZADO("  [SERVIDOR] Filosofo %d autorizado para COMER"),
+    SERVIDOR_ESPERA("  [SERVIDOR] Filosofo %d debe esperar (vecinos comiendo)"),
+    SERVIDOR_BLOQUEADO("  [SERVIDOR] Filosofo %d bloqueado esperando recursos"),
+    SERVIDOR_TOMO("  [SERVIDOR] Filosofo %d tomo tenedores %d y %d"),
+    SERVIDOR_LIBERO("  [SERVIDOR] Filosofo %d libero tenedores %d y %d"),
+    SERVIDOR_NOTIFICA("  [SERVIDOR] Notificando a Filosofo %d"),
+
+    // Versión con procesos reales (cliente)
+    CLIENTE_CONECTADO("[PID %d] Filosofo %d conectado al servidor", true, -1),
+    CLIENTE_INICIO("[PID %d] Filosofo %d iniciando ciclo principal", true, -1),
+    CLIENTE_PENSANDO("[PID %d] Filosofo %d esta PENSANDO por %.2f segundos", false, 2),
+    CLIENTE_COMIENDO("[PID %d] Filosofo %d esta COMIENDO por %.2f segundos", false, 2),
+    CLIENTE_HAMBRIENTO("[PID %d] Filosofo %d esta HAMBRIENTO y solicita recursos"),
+    CLIENTE_OBTUVO("[PID %d] Filosofo %d obtuvo los recursos"),
+    CLIENTE_LIBERA("[PID %d] Filosofo %d libera recursos"),
+    CLIENTE_FIN("[PID %d] Filosofo %d finalizando", true, -1);
+
+    private final String formato;
+    private final boolean resumen;
+    private final int argSegundos;
+
+    /**
+     * Evento de detalle sin argumentos de duración.
+     */
+    Evento(String formato) {
+        this(formato, false, -1);
+    }
+
+    /**
+     * @param formato Formato de String.format del mensaje
+     * @param resumen true si se escribe también en el nivel RESUMEN
+     * @param argSegundos Índice del argumento en microsegundos a mostrar
+     *                    en segundos, o -1 si no hay
+     */
+    Evento(String formato, boolean resumen, int argSegundos) {
+        this.formato = formato;
+        this.resumen = resumen;
+        this.argSegundos = argSegundos;
+    }
+
+    /**
+     * Indica si el evento se escribe en el nivel RESUMEN.
+     */
+    public boolean esResumen() {
+        return resumen;
+    }
+
+    /**
+     * Construye el texto del mensaje (se llama solo desde el hilo escritor).
+     *
+     * @param numArgs Cantidad de argumentos usados
+     * @param a0 Primer argumento
+     * @param a1 Segundo argumento
+     * @param a2 Tercer argumento
+     * @return Mensaje formateado
+     */
+    String formatear(int numArgs, long a0, long a1, long a2) {
+        Object[] args = new Object[numArgs];
+        long[] valores = { a0, a1, a2 };
+        for (int i = 0; i < numArgs; i++) {
+            args[i] = (i == argSegundos) ? (Object) (valores[i] / 1e6) : (Object) valores[i];
+        }
+        return String.format(formato, args);
+    }
+}
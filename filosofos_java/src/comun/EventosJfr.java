@@ -0,0 +1,186 @@
+package comun;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Eventos de JDK Flight Recorder del ciclo de un filósofo, emitidos por
+ * hilos.Mesa, procesos.MesaIPC y procesosreales.MesaServer:
+ *
+ *     Hambriento -> Concedido -> TenedorTomado (x2) -> Comiendo -> Liberado
+ *
+ * Hambriento a Concedido es la espera del arbitraje, Concedido a Comiendo la
+ * de los locks de los tenedores y Comiendo a Liberado el tiempo con los
+ * tenedores tomados (ver AnalizarJfr). Se graban con
+ *
+ *     java -XX:StartFlightRecording=filename=cena.jfr -cp bin EjecutarHilos 5 30
+ *
+ * Sin una grabación activa cada método solo crea el evento y consulta
+ * isEnabled(); el JIT elimina la creación, así que el costo es casi nulo.
+ * Los eventos no guardan la pila de llamadas.
+ */
+public final class EventosJfr {
+    /** Prefijo de los nombres de los eventos. */
+    public static final String PREFIJO = "filosofos.";
+    public static final String HAMBRIENTO = PREFIJO + "Hambriento";
+    public static final String CONCEDIDO = PREFIJO + "Concedido";
+    public static final String TENEDOR_TOMADO = PREFIJO + "TenedorTomado";
+    public static final String COMIENDO = PREFIJO + "Comiendo";
+    public static final String LIBERADO = PREFIJO + "Liberado";
+
+    private EventosJfr() {
+    }
+
+    /**
+     * El filósofo pidió los tenedores izquierdo y derecho.
+     *
+     * @param mesa Mesa del filósofo ("hilos", "procesos" o la mesa del servidor)
+     */
+    public static void hambriento(String mesa, int filosofo, int izquierdo, int derecho) {
+        Hambriento evento = new Hambriento();
+        if (evento.isEnabled()) {
+            evento.mesa = mesa;
+            evento.filosofo = filosofo;
+            evento.izquierdo = izquierdo;
+            evento.derecho = derecho;
+            evento.commit();
+        }
+    }
+
+    /**
+     * El arbitraje autorizó al filósofo a tomar sus tenedores.
+     */
+    public static void concedido(String mesa, int filosofo, int izquierdo, int derecho) {
+        Concedido evento = new Concedido();
+        if (evento.isEnabled()) {
+            evento.mesa = mesa;
+            evento.filosofo = filosofo;
+            evento.izquierdo = izquierdo;
+            evento.derecho = derecho;
+            evento.commit();
+        }
+    }
+
+    /**
+     * El filósofo tomó el lock (o semáforo) de un tenedor.
+     */
+    public static void tenedorTomado(String mesa, int filosofo, int tenedor) {
+        TenedorTomado evento = new TenedorTomado();
+        if (evento.isEnabled()) {
+            evento.mesa = mesa;
+            evento.filosofo = filosofo;
+            evento.tenedor = tenedor;
+            evento.commit();
+        }
+    }
+
+    /**
+     * El filósofo tiene sus dos tenedores y empieza a comer.
+     */
+    public static void comiendo(String mesa, int filosofo, int izquierdo, int derecho) {
+        Comiendo evento = new Comiendo();
+        if (evento.isEnabled()) {
+            evento.mesa = mesa;
+            evento.filosofo = filosofo;
+            evento.izquierdo = izquierdo;
+            evento.derecho = derecho;
+            evento.commit();
+        }
+    }
+
+    /**
+     * El filósofo soltó sus tenedores.
+     */
+    public static void liberado(String mesa, int filosofo, int izquierdo, int derecho) {
+        Liberado evento = new Liberado();
+        if (evento.isEnabled()) {
+            evento.mesa = mesa;
+            evento.filosofo = filosofo;
+            evento.izquierdo = izquierdo;
+            evento.derecho = derecho;
+            evento.commit();
+        }
+    }
+
+    @Name(HAMBRIENTO)
+    @Label("Hambriento")
+    @Category("Filósofos")
+    @Description("El filósofo pidió sus tenedores")
+    @StackTrace(false)
+    static final class Hambriento extends Event {
+        @Label("Mesa")
+        String mesa;
+        @Label("Filósofo")
+        int filosofo;
+        @Label("Tenedor izquierdo")
+        int izquierdo;
+        @Label("Tenedor derecho")
+        int derecho;
+    }
+
+    @Name(CONCEDIDO)
+    @Label("Concedido")
+    @Category("Filósofos")
+    @Description("El arbitraje autorizó al filósofo a tomar sus tenedores")
+    @StackTrace(false)
+    static final class Concedido extends Event {
+        @Label("Mesa")
+        String mesa;
+        @Label("Filósofo")
+        int filosofo;
+        @Label("Tenedor izquierdo")
+        int izquierdo;
+        @Label("Tenedor derecho")
+        int derecho;
+    }
+
+    @Name(TENEDOR_TOMADO)
+    @Label("Tenedor tomado")
+    @Category("Filósofos")
+    @Description("El filósofo tomó el lock de un tenedor")
+    @StackTrace(false)
+    static final class TenedorTomado extends Event {
+        @Label("Mesa")
+        String mesa;
+        @Label("Filósofo")
+        int filosofo;
+        @Label("Tenedor")
+        int tenedor;
+    }
+
+    @Name(COMIENDO)
+    @Label("Comiendo")
+    @Category("Filósofos")
+    @Description("El filósofo tiene sus dos tenedores")
+    @StackTrace(false)
+    static final class Comiendo extends Event {
+        @Label("Mesa")
+        String mesa;
+        @Label("Filósofo")
+        int filosofo;
+        @Label("Tenedor izquierdo")
+        int izquierdo;
+        @Label("Tenedor derecho")
+        int derecho;
+    }
+
+    @Name(LIBERADO)
+    @Label("Liberado")
+    @Category("Filósofos")
+    @Description("El filósofo soltó sus tenedores")
+    @StackTrace(false)
+    static final class Liberado extends Event {
+        @Label("Mesa")
+        String mesa;
+        @Label("Filósofo")
+        int filosofo;
+        @Label("Tenedor izquierdo")
+        int izquierdo;
+        @Label("Tenedor derecho")
+        int derecho;
+    }
+}
@@ -0,0 +1,202 @@
+package comun;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Histograma log-lineal de latencias, sin locks.
+ *
+ * Cada potencia de dos se divide en 16 cubetas iguales, así que el error
+ * relativo de un percentil es como máximo 1/16 (6,25%) en todo el rango de
+ * un long. Los valores menores que 16 se guardan exactos. Registrar un valor
+ * es un incremento atómico en un arreglo de tamaño fijo: no reserva memoria.
+ */
+public final class Histograma {
+    private static final int BITS_SUBCUBETA = 4;
+    private static final int SUBCUBETAS = 1 << BITS_SUBCUBETA;
+    /** Número de cubetas (ver cubeta()). */
+    public static final int NUM_CUBETAS = (64 - BITS_SUBCUBETA + 1) * SUBCUBETAS;
+
+    private final AtomicLongArray cuentas = new AtomicLongArray(NUM_CUBETAS);
+    private final AtomicLong maximo = new AtomicLong();
+
+    /**
+     * Registra un valor (por ejemplo, una latencia en nanosegundos).
+     *
+     * @param valor Valor a registrar; los negativos cuentan como 0
+     */
+    public void registrar(long valor) {
+        long v = Math.max(0, valor);
+        cuentas.incrementAndGet(indice(v));
+        long actual = maximo.get();
+        while (v > actual && !maximo.compareAndSet(actual, v)) {
+            actual = maximo.get();
+        }
+    }
+
+    /**
+     * Arma un histograma a partir de cuentas por cubeta guardadas fuera de
+     * un Histograma (por ejemplo, en la memoria compartida entre JVMs).
+     *
+     * @param cuentas Cuenta de cada cubeta, NUM_CUBETAS en total (ver cubeta())
+     * @param maximo Mayor valor registrado
+     */
+    public static Histograma desdeCuentas(long[] cuentas, long maximo) {
+        Histograma histograma = new Histograma();
+        for (int i = 0; i < NUM_CUBETAS; i++) {
+            histograma.cuentas.set(i, cuentas[i]);
+        }
+        histograma.maximo.set(maximo);
+        return histograma;
+    }
+
+    /**
+     * Cubeta en la que registrar() cuenta el valor.
+     *
+     * @param valor Valor; los negativos cuentan como 0
+     * @return Índice entre 0 y NUM_CUBETAS-1
+     */
+    public static int cubeta(long valor) {
+        return indice(Math.max(0, valor));
+    }
+
+    /**
+     * Suma a este histograma los valores registrados en otro.
+     *
+     * @param otro Histograma a sumar
+     */
+    public void agregar(Histograma otro) {
+        for (int i = 0; i < NUM_CUBETAS; i++) {
+            long cuenta = otro.cuentas.get(i);
+            if (cuenta != 0) {
+                cuentas.addAndGet(i, cuenta);
+            }
+        }
+        long v = otro.maximo.get();
+        long actual = maximo.get();
+        while (v > actual && !maximo.compareAndSet(actual, v)) {
+            actual = maximo.get();
+        }
+    }
+
+    /**
+     * Obtiene el número de valores registrados.
+     */
+    public long getCuenta() {
+        long total = 0;
+        for (int i = 0; i < NUM_CUBETAS; i++) {
+            total += cuentas.get(i);
+        }
+        return total;
+    }
+
+    /**
+     * Obtiene el mayor valor registrado (exacto).
+     */
+    public long getMaximo() {
+        return maximo.get();
+    }
+
+    /**
+     * Obtiene el percentil indicado.
+     *
+     * @param percentil Entre 0 y 100 (por ejemplo 99.9)
+     * @return Límite superior de la cubeta que contiene el percentil, o 0 si está vacío
+     */
+    public long percentil(double percentil) {
+        long total = getCuenta();
+        if (total == 0) {
+            return 0;
+        }
+        long objetivo = Math.max(1, (long) Math.ceil(percentil / 100.0 * total));
+        long acumulado = 0;
+        for (int i = 0; i < NUM_CUBETAS; i++) {
+            acumulado += cuentas.get(i);
+            if (acumulado >= objetivo) {
+                return Math.min(limiteSuperior(i), maximo.get());
+            }
+        }
+        return maximo.get();
+    }
+
+    /**
+     * Cuenta los valores menores o iguales que el límite. Se cuenta entera
+     * la cubeta que contiene al límite, así que el resultado puede incluir
+     * valores hasta 1/16 mayores.
+     *
+     * @param limite Valor límite
+     * @return Número de valores registrados hasta el límite
+     */
+    public long cuentaHasta(long limite) {
+        int ultima = indice(Math.max(0, limite));
+        long total = 0;
+        for (int i = 0; i <= ultima; i++) {
+            total += cuentas.get(i);
+        }
+        return total;
+    }
+
+    /**
+     * Suma aproximada de los valores registrados: cada valor cuenta como el
+     * punto medio de su cubeta. No se lleva una suma exacta para que
+     * registrar siga siendo un único incremento.
+     */
+    public long getSumaAproximada() {
+        long suma = 0;
+        for (int i = 0; i < NUM_CUBETAS; i++) {
+            long cuenta = cuentas.get(i);
+            if (cuenta != 0) {
+                long inferior = i == 0 ? 0 : limiteSuperior(i - 1) + 1;
+                suma += cuenta * (inferior + (limiteSuperior(i) - inferior) / 2);
+            }
+        }
+        return suma;
+    }
+
+    /**
+     * Cubeta de un valor: la fila es la potencia de dos y la columna
+     * los 4 bits siguientes al bit más alto.
+     */
+    private static int indice(long v) {
+        if (v < SUBCUBETAS) {
+            return (int) v;
+        }
+        int exponente = 63 - Long.numberOfLeadingZeros(v);
+        int desplazamiento = exponente - BITS_SUBCUBETA;
+        int sub = (int) (v >>> desplazamiento) & (SUBCUBETAS - 1);
+        return (desplazamiento + 1) * SUBCUBETAS + sub;
+    }
+
+    /**
+     * Mayor valor que cae en la cubeta.
+     */
+    private static long limiteSuperior(int indice) {
+        int fila = indice / SUBCUBETAS;
+        int sub = indice % SUBCUBETAS;
+        if (fila == 0) {
+            return sub;
+        }
+        int desplazamiento = fila - 1;
+        long inferior = (long) (SUBCUBETAS + sub) << desplazamiento;
+        return inferior + (1L << desplazamiento) - 1;
+    }
+
+    /**
+     * Formatea una duración en nanosegundos con la unidad más legible.
+     *
+     * @param nanos Duración en nanosegundos
+     * @return Texto como "850 ns", "12.4 µs", "3.1 ms" o "2.05 s"
+     */
+    public static String formatearNanos(long nanos) {
+        if (nanos < 1_000) {
+            return nanos + " ns";
+        }
+        if (nanos < 1_000_000) {
+            return String.format("%.1f µs", nanos / 1e3);
+        }
+        if (nanos < 1_000_000_000) {
+            return String.format("%.1f ms", nanos / 1e6);
+        }
+        return String.format("%.2f s", nanos / 1e9);
+    }
+}
@@ -0,0 +1,114 @@
+package comun;
+
+/**
+ * Latencias de espera de los filósofos, desde que piden los tenedores
+ * (HAMBRIENTO) hasta que los obtienen (COMIENDO).
+ *
+ * Hay un histograma por filósofo hasta MAX_GRUPOS filósofos; con más, cada
+ * histograma agrupa filósofos consecutivos para acotar la memoria (unos 8 KB
+ * por histograma). No hay un histograma compartido por toda la mesa en el
+ * camino crítico: el de la mesa se arma sumando los demás al imprimir.
+ */
+public final class LatenciasEspera {
+
+    /** Número máximo de histogramas. */
+    public static final int MAX_GRUPOS = 1024;
+
+    private static final double[] PERCENTILES = { 50, 90, 99, 99.9 };
+
+    private final int numFilosofos;
+    private final Histograma[] grupos;
+
+    /**
+     * @param numFilosofos Número de filósofos de la mesa
+     */
+    public LatenciasEspera(int numFilosofos) {
+        this.numFilosofos = numFilosofos;
+        this.grupos = new Histograma[numGrupos(numFilosofos)];
+        for (int i = 0; i < grupos.length; i++) {
+            grupos[i] = new Histograma();
+        }
+    }
+
+    /**
+     * Número de histogramas de una mesa de numFilosofos filósofos.
+     */
+    public static int numGrupos(int numFilosofos) {
+        return Math.min(numFilosofos, MAX_GRUPOS);
+    }
+
+    /**
+     * Histograma (entre 0 y numGrupos-1) en el que se registra el filósofo id.
+     */
+    public static int grupo(int id, int numFilosofos) {
+        return (int) ((long) id * numGrupos(numFilosofos) / numFilosofos);
+    }
+
+    private int grupo(int id) {
+        return grupo(id, numFilosofos);
+    }
+
+    /**
+     * Registra una espera del filósofo.
+     *
+     * @param id Índice del filósofo
+     * @param nanos Duración de la espera en nanosegundos
+     */
+    public void registrar(int id, long nanos) {
+        grupos[grupo(id)].registrar(nanos);
+    }
+
+    /**
+     * Suma al histograma del grupo g los valores de otro histograma.
+     *
+     * @param g Grupo, entre 0 y numGrupos-1 (ver grupo())
+     * @param histograma Esperas registradas en otra parte
+     */
+    public void agregar(int g, Histograma histograma) {
+        grupos[g].agregar(histograma);
+    }
+
+    /**
+     * Obtiene el histograma de toda la mesa.
+     */
+    public Histograma total() {
+        Histograma total = new Histograma();
+        for (Histograma histograma : grupos) {
+            total.agregar(histograma);
+        }
+        return total;
+    }
+
+    /**
+     * Imprime los percentiles de la mesa y de cada filósofo (o grupo de filósofos).
+     */
+    public void imprimir() {
+        System.out.println("\nLatencia de espera (HAMBRIENTO -> COMIENDO):");
+        System.out.printf("%-20s %10s %10s %10s %10s %10s %10s%n",
+                        "", "esperas", "p50", "p90", "p99", "p99.9", "max");
+        imprimirLinea("Mesa", total());
+        for (int g = 0; g < grupos.length; g++) {
+            imprimirLinea(etiqueta(g), grupos[g]);
+        }
+    }
+
+    private String etiqueta(int g) {
+        if (grupos.length == numFilosofos) {
+            return "Filósofo " + g;
+        }
+        // Primer y último filósofo del grupo g
+        int primero = (int) (((long) g * numFilosofos + grupos.length - 1) / grupos.length);
+        int ultimo = (int) (((long) (g + 1) * numFilosofos + grupos.length - 1) / grupos.length) - 1;
+        return "Filósofos " + primero + "-" + ultimo;
+    }
+
+    private static void imprimirLinea(String etiqueta, Histograma histograma) {
+        StringBuilder linea = new StringBuilder(String.format("%-20s %10d", etiqueta,
+                                                              histograma.getCuenta()));
+        for (double p : PERCENTILES) {
+            linea.append(String.format(" %10s", Histograma.formatearNanos(histograma.percentil(p))));
+        }
+        linea.append(String.format(" %10s", Histograma.formatearNanos(histograma.getMaximo())));
+        System.out.println(linea);
+    }
+}
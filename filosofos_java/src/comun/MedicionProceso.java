@@ -0,0 +1,52 @@
+package comun;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+/**
+ * Lectura del uso de memoria de un proceso desde /proc (solo Linux).
+ */
+public final class MedicionProceso {
+    
+    private MedicionProceso() {
+    }
+    
+    /**
+     * Obtiene la memoria residente máxima alcanzada por el proceso (VmHWM).
+     * 
+     * @param pid Identificador del proceso
+     * @return Memoria en KB, o -1 si no se puede leer
+     */
+    public static long rssMaximoKB(long pid) {
+        return leerCampo(pid, "VmHWM:");
+    }
+    
+    /**
+     * Obtiene la memoria residente actual del proceso (VmRSS).
+     * 
+     * @param pid Identificador del proceso
+     * @return Memoria en KB, o -1 si no se puede leer
+     */
+    public static long rssActualKB(long pid) {
+        return leerCampo(pid, "VmRSS:");
+    }
+    
+    /**
+     * Lee un campo en KB de /proc/[pid]/status.
+     */
+    private static long leerCampo(long pid, String campo) {
+        try {
+            List<String> lineas = Files.readAllLines(Path.of("/proc", String.valueOf(pid), "status"));
+            for (String linea : lineas) {
+                if (linea.startsWith(campo)) {
+                    return Long.parseLong(linea.substring(campo.length()).replace("kB", "").trim());
+                }
+            }
+        } catch (IOException | NumberFormatException e) {
+            // /proc no disponible (sistema distinto de Linux o proceso terminado)
+        }
+        return -1;
+    }
+}
@@ -0,0 +1,173 @@
+package comun;
+
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.IntSupplier;
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+/**
+ * Métricas en vivo de una mesa, publicadas como MBean de la plataforma para
+ * verlas con JConsole o un cliente JMX mientras la cena corre.
+ *
+ * La mesa actualiza contadores sin locks (LongAdder y AtomicLongArray) fuera
+ * de su sección crítica, salvo la medición del tiempo con el lock tomado;
+ * leer un atributo suma esos contadores y nunca toma el lock de la mesa, así
+ * que consultar las métricas no frena a los filósofos. Los valores de varios
+ * atributos no forman una foto atómica: son aproximados mientras la mesa corre.
+ */
+public final class MetricasMesa implements MetricasMesaMBean {
+    // Duración mínima del intervalo sobre el que se calculan las comidas por segundo
+    private static final long VENTANA_NANOS = 10_000_000_000L;
+
+    private final String estrategia;
+    private final int numFilosofos;
+    private final IntSupplier colaLock;
+    private final LongAdder comidas = new LongAdder();
+    private final LongAdder hambrientos = new LongAdder();
+    private final LongAdder comiendo = new LongAdder();
+    private final AtomicLongArray esperaTotal;
+    private final LongAdder retencion = new LongAdder();
+    private final LongAdder seccionesCriticas = new LongAdder();
+    // Inicio del intervalo de getComidasPorSegundo y el del siguiente, con las comidas de cada uno
+    private long inicioVentana = System.nanoTime();
+    private long comidasInicioVentana;
+    private long inicioSiguiente = inicioVentana;
+    private long comidasInicioSiguiente;
+
+    /**
+     * @param estrategia Nombre de la estrategia de arbitraje
+     * @param numFilosofos Número de filósofos de la mesa
+     * @param colaLock Hilos esperando el lock de la mesa, o null si la mesa no tiene uno
+     */
+    public MetricasMesa(String estrategia, int numFilosofos, IntSupplier colaLock) {
+        this.estrategia = estrategia;
+        this.numFilosofos = numFilosofos;
+        this.colaLock = colaLock;
+        this.esperaTotal = new AtomicLongArray(numFilosofos);
+    }
+
+    /**
+     * Publica las métricas en el servidor de MBeans de la plataforma con el
+     * nombre "filosofos:type=Mesa,name=nombre".
+     *
+     * @param nombre Nombre de la mesa (por ejemplo, "hilos" o "procesos")
+     * @throws JMException si no se puede registrar (por ejemplo, nombre repetido)
+     */
+    public void publicar(String nombre) throws JMException {
+        MBeanServer servidor = ManagementFactory.getPlatformMBeanServer();
+        servidor.registerMBean(this, new ObjectName("filosofos:type=Mesa,name=" + nombre));
+    }
+
+    /**
+     * El filósofo pidió los tenedores.
+     */
+    public void solicitud(int id) {
+        hambrientos.increment();
+    }
+
+    /**
+     * El filósofo obtuvo los tenedores después de esperar.
+     *
+     * @param id Índice del filósofo
+     * @param esperaNanos Tiempo desde que los pidió
+     */
+    public void concesion(int id, long esperaNanos) {
+        hambrientos.decrement();
+        comiendo.increment();
+        comidas.increment();
+        esperaTotal.addAndGet(id, esperaNanos);
+    }
+
+    /**
+     * El filósofo soltó los tenedores.
+     */
+    public void liberacion(int id) {
+        comiendo.decrement();
+    }
+
+    /**
+     * Suma una sección crítica con el lock de la mesa tomado.
+     *
+     * @param nanos Tiempo con el lock tomado
+     */
+    public void retencion(long nanos) {
+        retencion.add(nanos);
+        seccionesCriticas.increment();
+    }
+
+    @Override
+    public String getEstrategia() {
+        return estrategia;
+    }
+
+    @Override
+    public int getNumFilosofos() {
+        return numFilosofos;
+    }
+
+    @Override
+    public long getComidas() {
+        return comidas.sum();
+    }
+
+    /**
+     * Las lecturas no reinician la medición: el intervalo empieza en un punto
+     * que se renueva a lo sumo una vez por ventana, así que cubre entre una y
+     * dos ventanas (o desde la última lectura, si pasó más tiempo) y dos
+     * clientes JMX que leen a la vez ven el mismo valor.
+     */
+    @Override
+    public synchronized double getComidasPorSegundo() {
+        long ahora = System.nanoTime();
+        long total = comidas.sum();
+        if (ahora - inicioSiguiente >= VENTANA_NANOS) {
+            inicioVentana = inicioSiguiente;
+            comidasInicioVentana = comidasInicioSiguiente;
+            inicioSiguiente = ahora;
+            comidasInicioSiguiente = total;
+        }
+        long transcurrido = ahora - inicioVentana;
+        return transcurrido == 0 ? 0.0 : (total - comidasInicioVentana) / (transcurrido / 1e9);
+    }
+
+    @Override
+    public long getHambrientos() {
+        return hambrientos.sum();
+    }
+
+    @Override
+    public long getComiendo() {
+        return comiendo.sum();
+    }
+
+    @Override
+    public long[] getEsperaTotalNanos() {
+        long[] copia = new long[numFilosofos];
+        for (int i = 0; i < numFilosofos; i++) {
+            copia[i] = esperaTotal.get(i);
+        }
+        return copia;
+    }
+
+    @Override
+    public long getRetencionLockNanos() {
+        return colaLock == null ? -1 : retencion.sum();
+    }
+
+    @Override
+    public double getRetencionLockPromedioNanos() {
+        long secciones = seccionesCriticas.sum();
+        if (colaLock == null) {
+            return -1;
+        }
+        return secciones == 0 ? 0.0 : (double) retencion.sum() / secciones;
+    }
+
+    @Override
+    public int getColaLock() {
+        return colaLock == null ? -1 : colaLock.getAsInt();
+    }
+}
@@ -0,0 +1,37 @@
+package comun;
+
+/**
+ * Atributos de la mesa que se publican por JMX (ver MetricasMesa).
+ * Ninguna lectura toma el lock de la mesa.
+ */
+public interface MetricasMesaMBean {
+    /** Estrategia de arbitraje de la mesa. */
+    String getEstrategia();
+
+    /** Número de filósofos de la mesa. */
+    int getNumFilosofos();
+
+    /** Comidas desde que se publicó la mesa. */
+    long getComidas();
+
+    /** Comidas por segundo en los últimos 10 a 20 segundos (o desde el inicio). */
+    double getComidasPorSegundo();
+
+    /** Filósofos que esperan los tenedores en este momento. */
+    long getHambrientos();
+
+    /** Filósofos que están comiendo en este momento. */
+    long getComiendo();
+
+    /** Espera total de cada filósofo (HAMBRIENTO -> COMIENDO), en nanosegundos. */
+    long[] getEsperaTotalNanos();
+
+    /** Tiempo total con el lock de la mesa tomado, en nanosegundos (-1: no aplica). */
+    long getRetencionLockNanos();
+
+    /** Tiempo medio con el lock de la mesa tomado por sección crítica, en nanosegundos (-1: no aplica). */
+    double getRetencionLockPromedioNanos();
+
+    /** Hilos esperando para tomar el lock de la mesa (-1: no aplica). */
+    int getColaLock();
+}
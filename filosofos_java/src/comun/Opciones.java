@@ -0,0 +1,147 @@
+package comun;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Lectura de los argumentos de línea de comandos de los programas.
+ *
+ * Primero van los argumentos posicionales (num_filosofos, duracion_segundos)
+ * y después las opciones con la forma "--clave valor".
+ *
+ * Ejemplo:
+ *     java EjecutarHilos 5 30 --espera individual
+ */
+public class Opciones {
+    private final List<String> posicionales;
+    private final Map<String, String> opciones;
+
+    /**
+     * Separa los argumentos posicionales de las opciones.
+     *
+     * @param args Argumentos recibidos por main
+     */
+    public Opciones(String[] args) {
+        this.posicionales = new ArrayList<>();
+        this.opciones = new HashMap<>();
+
+        for (int i = 0; i < args.length; i++) {
+            if (args[i].startsWith("--")) {
+                String clave = args[i].substring(2);
+                if (i + 1 < args.length && !args[i + 1].startsWith("--")) {
+                    opciones.put(clave, args[++i]);
+                } else {
+                    opciones.put(clave, "");
+                }
+            } else {
+                posicionales.add(args[i]);
+            }
+        }
+    }
+
+    /**
+     * Obtiene un argumento posicional entero.
+     * Si no es un entero válido muestra el error y termina el programa.
+     *
+     * @param indice Posición del argumento
+     * @param porDefecto Valor si el argumento no fue indicado
+     * @param error Mensaje a mostrar si el valor no es un entero
+     * @return Valor del argumento
+     */
+    public int entero(int indice, int porDefecto, String error) {
+        if (indice >= posicionales.size()) {
+            return porDefecto;
+        }
+        try {
+            return Integer.parseInt(posicionales.get(indice));
+        } catch (NumberFormatException e) {
+            System.err.println("Error: " + error);
+            System.exit(1);
+            return porDefecto;
+        }
+    }
+
+    /**
+     * Obtiene un argumento posicional de texto.
+     *
+     * @param indice Posición del argumento
+     * @return Valor del argumento, o null si no fue indicado
+     */
+    public String posicional(int indice) {
+        return indice < posicionales.size() ? posicionales.get(indice) : null;
+    }
+
+    /**
+     * Obtiene la cantidad de argumentos posicionales.
+     */
+    public int getNumPosicionales() {
+        return posicionales.size();
+    }
+
+    /**
+     * Obtiene una opción entera "--clave valor".
+     * Si no es un entero válido muestra el error y termina el programa.
+     *
+     * @param clave Nombre de la opción sin los guiones
+     * @param porDefecto Valor si la opción no fue indicada
+     * @return Valor de la opción
+     */
+    public int entero(String clave, int porDefecto) {
+        String valor = opciones.get(clave);
+        if (valor == null) {
+            return porDefecto;
+        }
+        try {
+            return Integer.parseInt(valor);
+        } catch (NumberFormatException e) {
+            System.err.println("Error: La opción --" + clave + " debe ser un entero.");
+            System.exit(1);
+            return porDefecto;
+        }
+    }
+
+    /**
+     * Obtiene una opción de texto "--clave valor".
+     *
+     * @param clave Nombre de la opción sin los guiones
+     * @param porDefecto Valor si la opción no fue indicada
+     * @return Valor de la opción
+     */
+    public String texto(String clave, String porDefecto) {
+        return opciones.getOrDefault(clave, porDefecto);
+    }
+
+    /**
+     * Obtiene una opción que solo admite ciertos valores.
+     * Si el valor no es uno de los permitidos muestra el error y termina el programa.
+     *
+     * @param clave Nombre de la opción sin los guiones
+     * @param porDefecto Valor si la opción no fue indicada
+     * @param permitidos Valores aceptados
+     * @return Valor de la opción
+     */
+    public String opcion(String clave, String porDefecto, String... permitidos) {
+        String valor = texto(clave, porDefecto);
+        for (String permitido : permitidos) {
+            if (permitido.equals(valor)) {
+                return valor;
+            }
+        }
+        System.err.println("Error: La opción --" + clave + " debe ser una de: "
+                         + String.join(", ", permitidos));
+        System.exit(1);
+        return porDefecto;
+    }
+
+    /**
+     * Indica si la opción fue indicada en la línea de comandos.
+     *
+     * @param clave Nombre de la opción sin los guiones
+     * @return true si está presente
+     */
+    public boolean tiene(String clave) {
+        return opciones.containsKey(clave);
+    }
+}
@@ -0,0 +1,308 @@
+package comun;
+
+import java.io.BufferedOutputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Registro asíncrono de eventos para los caminos críticos.
+ *
+ * Los hilos que llaman a evento() solo copian el código del evento y sus
+ * argumentos a un buffer circular acotado, sin reservar memoria ni hacer E/S,
+ * aunque tengan tomado mutexMesa o mutexGlobal. Un hilo escritor en segundo
+ * plano formatea los eventos y los escribe en la salida estándar o en un archivo.
+ * Si el buffer está lleno el evento se descarta y se cuenta.
+ *
+ * El escritor se crea con el primer evento aceptado, así que con el nivel
+ * APAGADO no existe. Sin eventos duerme cada vez más (hasta ESPERA_MAXIMA)
+ * en vez de despertar cada pocos microsegundos; los productores no lo
+ * despiertan, para no hacer una llamada al sistema con el mutex tomado.
+ *
+ * Los encabezados y las estadísticas finales se siguen escribiendo con
+ * System.out; antes de imprimirlas se llama a vaciar() para que no se mezclen.
+ */
+public final class Registro {
+
+    /**
+     * Niveles de detalle del registro.
+     */
+    public enum Nivel {
+        /** No se escribe ningún evento. */
+        APAGADO("apagado"),
+        /** Solo eventos de inicio, conexión y fin. */
+        RESUMEN("resumen"),
+        /** Eventos de resumen y una muestra de los de detalle. */
+        MUESTREO("muestreo"),
+        /** Todos los eventos. */
+        COMPLETO("completo");
+
+        private final String nombre;
+
+        Nivel(String nombre) {
+            this.nombre = nombre;
+        }
+
+        public String getNombre() {
+            return nombre;
+        }
+
+        public static Nivel desdeNombre(String nombre) {
+            for (Nivel nivel : values()) {
+                if (nivel.nombre.equals(nombre)) {
+                    return nivel;
+                }
+            }
+            throw new IllegalArgumentException("Nivel de registro inválido: " + nombre);
+        }
+    }
+
+    /** Nombres aceptados por la opción --registro. */
+    public static final String[] NIVELES = { "apagado", "resumen", "muestreo", "completo" };
+
+    private static final int CAPACIDAD = 1 << 16;
+    private static final int MASCARA = CAPACIDAD - 1;
+    private static final Evento[] EVENTOS = Evento.values();
+
+    // Pausas del escritor sin eventos: empieza en la mínima y se duplica
+    private static final long ESPERA_MINIMA = 50_000;
+    private static final long ESPERA_MAXIMA = 10_000_000;
+
+    // Buffer circular: un evento por posición, en arreglos de primitivos
+    private static final int[] codigos = new int[CAPACIDAD];
+    private static final int[] numArgs = new int[CAPACIDAD];
+    private static final long[] arg0 = new long[CAPACIDAD];
+    private static final long[] arg1 = new long[CAPACIDAD];
+    private static final long[] arg2 = new long[CAPACIDAD];
+    private static final AtomicLongArray publicado = new AtomicLongArray(CAPACIDAD);
+
+    // Próxima posición a reservar por los productores y próxima a leer por el escritor
+    private static final AtomicLong cola = new AtomicLong();
+    private static volatile long cabeza;
+
+    private static final LongAdder descartados = new LongAdder();
+    private static final LongAdder escritos = new LongAdder();
+
+    private static volatile Nivel nivel = Nivel.COMPLETO;
+    private static volatile int muestreo = 100;
+    private static volatile PrintStream salida = System.out;
+    private static volatile boolean pendienteVaciar;
+    private static volatile Thread escritor;
+
+    static {
+        // Escribir lo pendiente si la JVM termina (Ctrl+C, destroy() del Launcher)
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> vaciar(1000)));
+    }
+
+    private Registro() {
+    }
+
+    /**
+     * Configura el registro desde las opciones de línea de comandos:
+     * --registro apagado|resumen|muestreo|completo, --muestreo N (uno de cada N
+     * eventos de detalle) y --registro-archivo ruta.
+     *
+     * @param opciones Opciones del programa
+     */
+    public static void configurar(Opciones opciones) {
+        String nombreNivel = opciones.opcion("registro", "completo", NIVELES);
+        int cadaN = opciones.entero("muestreo", 100);
+        String archivo = opciones.texto("registro-archivo", null);
+
+        PrintStream destino = System.out;
+        if (archivo != null) {
+            try {
+                destino = new PrintStream(new BufferedOutputStream(
+                    new FileOutputStream(archivo, true), 1 << 16), false, StandardCharsets.UTF_8);
+            } catch (IOException e) {
+                System.err.println("Error: No se pudo abrir el archivo de registro: " + e.getMessage());
+                System.exit(1);
+            }
+        }
+        configurar(Nivel.desdeNombre(nombreNivel), Math.max(1, cadaN), destino);
+    }
+
+    /**
+     * Configura el nivel, la frecuencia de muestreo y el destino del registro.
+     *
+     * @param nuevoNivel Nivel de detalle
+     * @param cadaN En el nivel MUESTREO, se escribe uno de cada N eventos de detalle
+     * @param destino Salida donde el hilo escritor escribe los eventos
+     */
+    public static void configurar(Nivel nuevoNivel, int cadaN, PrintStream destino) {
+        vaciar(1000);
+        nivel = nuevoNivel;
+        muestreo = cadaN;
+        salida = destino;
+    }
+
+    /**
+     * Obtiene el nivel actual del registro.
+     */
+    public static Nivel getNivel() {
+        return nivel;
+    }
+
+    /**
+     * Registra un evento con un argumento. No reserva memoria ni hace E/S.
+     *
+     * @param evento Evento a registrar
+     * @param a0 Argumento del mensaje
+     */
+    public static void evento(Evento evento, long a0) {
+        if (aceptar(evento)) {
+            publicar(evento, 1, a0, 0, 0);
+        }
+    }
+
+    /**
+     * Registra un evento con dos argumentos. No reserva memoria ni hace E/S.
+     */
+    public static void evento(Evento evento, long a0, long a1) {
+        if (aceptar(evento)) {
+            publicar(evento, 2, a0, a1, 0);
+        }
+    }
+
+    /**
+     * Registra un evento con tres argumentos. No reserva memoria ni hace E/S.
+     */
+    public static void evento(Evento evento, long a0, long a1, long a2) {
+        if (aceptar(evento)) {
+            publicar(evento, 3, a0, a1, a2);
+        }
+    }
+
+    /**
+     * Decide según el nivel si el evento se registra.
+     */
+    private static boolean aceptar(Evento evento) {
+        Nivel actual = nivel;
+        if (actual == Nivel.COMPLETO) {
+            return true;
+        }
+        if (actual == Nivel.APAGADO) {
+            return false;
+        }
+        if (evento.esResumen()) {
+            return true;
+        }
+        return actual == Nivel.MUESTREO && ThreadLocalRandom.current().nextInt(muestreo) == 0;
+    }
+
+    /**
+     * Crea el hilo escritor si todavía no existe.
+     */
+    private static synchronized void iniciarEscritor() {
+        if (escritor == null) {
+            Thread hilo = new Thread(Registro::escribir, "Registro-escritor");
+            hilo.setDaemon(true);
+            hilo.start();
+            escritor = hilo;
+        }
+    }
+
+    /**
+     * Reserva una posición del buffer y copia el evento; si está lleno lo descarta.
+     */
+    private static void publicar(Evento evento, int n, long a0, long a1, long a2) {
+        if (escritor == null) {
+            iniciarEscritor();
+        }
+        long posicion;
+        do {
+            posicion = cola.get();
+            if (posicion - cabeza >= CAPACIDAD) {
+                descartados.increment();
+                return;
+            }
+        } while (!cola.compareAndSet(posicion, posicion + 1));
+
+        int i = (int) (posicion & MASCARA);
+        codigos[i] = evento.ordinal();
+        numArgs[i] = n;
+        arg0[i] = a0;
+        arg1[i] = a1;
+        arg2[i] = a2;
+        // Marca la posición como lista para el escritor (publica las escrituras anteriores)
+        publicado.set(i, posicion + 1);
+    }
+
+    /**
+     * Bucle del hilo escritor: formatea y escribe los eventos en orden.
+     */
+    private static void escribir() {
+        long espera = ESPERA_MINIMA;
+        while (true) {
+            long posicion = cabeza;
+            int i = (int) (posicion & MASCARA);
+            if (publicado.get(i) == posicion + 1) {
+                String mensaje = EVENTOS[codigos[i]].formatear(numArgs[i], arg0[i], arg1[i], arg2[i]);
+                cabeza = posicion + 1;
+                salida.println(mensaje);
+                escritos.increment();
+                espera = ESPERA_MINIMA;
+            } else {
+                if (pendienteVaciar || cola.get() == posicion) {
+                    salida.flush();
+                    pendienteVaciar = false;
+                }
+                LockSupport.parkNanos(espera);
+                espera = Math.min(espera * 2, ESPERA_MAXIMA);
+            }
+        }
+    }
+
+    /**
+     * Espera a que el escritor termine de escribir los eventos ya publicados.
+     */
+    public static void vaciar() {
+        vaciar(5000);
+    }
+
+    /**
+     * Espera a que el escritor escriba los eventos ya publicados, como máximo
+     * el tiempo indicado.
+     *
+     * @param milisegundos Tiempo máximo de espera
+     */
+    public static void vaciar(long milisegundos) {
+        Thread hilo = escritor;
+        if (hilo == null) {
+            return;
+        }
+        // Despertar al escritor si está en una pausa larga
+        LockSupport.unpark(hilo);
+        long objetivo = cola.get();
+        long limite = System.nanoTime() + milisegundos * 1_000_000;
+        while (cabeza < objetivo && System.nanoTime() < limite) {
+            LockSupport.parkNanos(1_000_000);
+        }
+        pendienteVaciar = true;
+        LockSupport.unpark(hilo);
+        while (pendienteVaciar && System.nanoTime() < limite) {
+            LockSupport.parkNanos(1_000_000);
+        }
+    }
+
+    /**
+     * Imprime una línea con el nivel del registro y los eventos escritos y descartados.
+     */
+    public static void imprimirResumen() {
+        System.out.printf("Registro: nivel %s, %d eventos escritos, %d descartados%n",
+                        nivel.getNombre(), escritos.sum(), descartados.sum());
+    }
+
+    /**
+     * Obtiene el número de eventos descartados por tener el buffer lleno.
+     */
+    public static long getDescartados() {
+        return descartados.sum();
+    }
+}
@@ -0,0 +1,53 @@
+package hilos;
+
+import comun.MetricasMesa;
+import java.util.function.IntSupplier;
+
+/**
+ * Mecanismo con el que la mesa reparte los tenedores entre los hilos filósofos.
+ */
+public interface Arbitro {
+    /**
+     * Bloquea al filósofo i hasta que tenga sus dos tenedores.
+     *
+     * @param i Índice del filósofo
+     */
+    void tomarTenedores(int i);
+
+    /**
+     * Libera los tenedores del filósofo i y despierta a quien pueda comer.
+     *
+     * @param i Índice del filósofo
+     */
+    void soltarTenedores(int i);
+
+    /**
+     * Despierta a todos los filósofos en espera para que noten la interrupción.
+     */
+    void despertarTodos();
+
+    /**
+     * Imprime las estadísticas propias del mecanismo de arbitraje.
+     */
+    void imprimirEstadisticas();
+
+    /**
+     * Longitud de la cola del lock de la mesa, para las métricas.
+     *
+     * @return Función que cuenta los hilos esperando el lock, o null si el
+     *         árbitro no tiene un lock de toda la mesa
+     */
+    default IntSupplier colaLock() {
+        return null;
+    }
+
+    /**
+     * Empieza a sumar en las métricas el tiempo con el lock de la mesa tomado.
+     * Debe llamarse antes de iniciar los filósofos. Los árbitros sin un lock
+     * de toda la mesa no miden nada.
+     *
+     * @param metricas Métricas de la mesa
+     */
+    default void medirRetencion(MetricasMesa metricas) {
+    }
+}
@@ -0,0 +1,218 @@
+package hilos;
+
+import comun.Evento;
+import comun.EventosJfr;
+import comun.Registro;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Arbitraje distribuido de Chandy–Misra (tenedores limpios y sucios).
+ *
+ * No hay mutex de la mesa: cada tenedor tiene su propio lock y su dueño,
+ * y las solicitudes solo pasan entre los dos vecinos que lo comparten.
+ *
+ * Reglas:
+ * - Al inicio cada tenedor está sucio y lo tiene el filósofo de menor índice.
+ * - Un filósofo hambriento pide los tenedores que no tiene.
+ * - Quien tiene un tenedor sucio y no está comiendo lo entrega limpio.
+ * - Un tenedor limpio se conserva hasta comer; al comer se ensucia y,
+ *   si el vecino lo pidió, se le entrega al terminar.
+ */
+public class ArbitroChandyMisra implements Arbitro {
+    private final int numFilosofos;
+    private final Tenedor[] tenedores;
+    private final PropiedadTenedor[] propiedad;
+    private final Semaphore[] avisos;
+    private final LongAdder despertares;
+    private final LongAdder despertaresInutiles;
+    
+    /**
+     * Estado de Chandy–Misra de un tenedor, protegido por su propio lock.
+     */
+    private static final class PropiedadTenedor {
+        private final ReentrantLock lock = new ReentrantLock();
+        private int dueno;
+        private boolean sucio = true;
+        private boolean enUso;
+        private boolean solicitado;
+    }
+    
+    /**
+     * Inicializa los tenedores sucios en manos del filósofo de menor índice.
+     * 
+     * @param numFilosofos Número de filósofos (y tenedores) en la mesa
+     */
+    public ArbitroChandyMisra(int numFilosofos) {
+        this.numFilosofos = numFilosofos;
+        
+        this.tenedores = new Tenedor[numFilosofos];
+        this.propiedad = new PropiedadTenedor[numFilosofos];
+        this.avisos = new Semaphore[numFilosofos];
+        for (int i = 0; i < numFilosofos; i++) {
+            tenedores[i] = new Tenedor(i);
+            propiedad[i] = new PropiedadTenedor();
+            // El tenedor i lo comparten los filósofos i-1 e i
+            propiedad[i].dueno = Math.min(i, vecinoIzq(i));
+            avisos[i] = new Semaphore(0);
+        }
+        
+        this.despertares = new LongAdder();
+        this.despertaresInutiles = new LongAdder();
+    }
+    
+    private int izq(int i) {
+        return i;
+    }
+    
+    private int der(int i) {
+        return (i + 1) % numFilosofos;
+    }
+    
+    private int vecinoIzq(int i) {
+        return (i - 1 + numFilosofos) % numFilosofos;
+    }
+    
+    /**
+     * Obtiene el otro filósofo que comparte el tenedor t con el filósofo i.
+     */
+    private int otroFilosofo(int t, int i) {
+        return i == t ? vecinoIzq(t) : t;
+    }
+    
+    /**
+     * Intenta quedarse con el tenedor t para el filósofo i.
+     * Si el vecino lo tiene limpio o lo está usando, deja la solicitud registrada.
+     * 
+     * @return true si el filósofo i es dueño del tenedor
+     */
+    private boolean pedir(int t, int i) {
+        PropiedadTenedor p = propiedad[t];
+        p.lock.lock();
+        try {
+            if (p.dueno == i) {
+                return true;
+            }
+            if (p.sucio && !p.enUso) {
+                // El vecino no lo está usando y ya comió con él: lo entrega limpio
+                p.dueno = i;
+                p.sucio = false;
+                p.solicitado = false;
+                return true;
+            }
+            p.solicitado = true;
+            return false;
+        } finally {
+            p.lock.unlock();
+        }
+    }
+    
+    /**
+     * Intenta que el filósofo i empiece a comer.
+     * Solo toma los locks de sus dos tenedores, en orden de índice.
+     * 
+     * @return true si tiene ambos tenedores y quedaron marcados en uso
+     */
+    private boolean intentarComer(int i) {
+        int primero = Math.min(izq(i), der(i));
+        int segundo = Math.max(izq(i), der(i));
+        
+        // Se usa & y no && para registrar la solicitud de ambos tenedores
+        while (pedir(izq(i), i) & pedir(der(i), i)) {
+            PropiedadTenedor a = propiedad[primero];
+            PropiedadTenedor b = propiedad[segundo];
+            a.lock.lock();
+            b.lock.lock();
+            try {
+                // Un vecino pudo llevarse un tenedor sucio entre la solicitud y este punto
+                if (a.dueno == i && b.dueno == i) {
+                    a.enUso = true;
+                    b.enUso = true;
+                    a.sucio = true;
+                    b.sucio = true;
+                    return true;
+                }
+            } finally {
+                b.lock.unlock();
+                a.lock.unlock();
+            }
+        }
+        return false;
+    }
+    
+    /**
+     * Deja de usar el tenedor t y, si el vecino lo pidió, se lo entrega limpio.
+     */
+    private void entregar(int t, int i) {
+        PropiedadTenedor p = propiedad[t];
+        int vecino = -1;
+        p.lock.lock();
+        try {
+            p.enUso = false;
+            if (p.solicitado) {
+                vecino = otroFilosofo(t, i);
+                p.dueno = vecino;
+                p.sucio = false;
+                p.solicitado = false;
+            }
+        } finally {
+            p.lock.unlock();
+        }
+        if (vecino >= 0) {
+            avisos[vecino].release();
+        }
+    }
+    
+    @Override
+    public void tomarTenedores(int i) {
+        Registro.evento(Evento.MESA_INTENTA, i, izq(i), der(i));
+        try {
+            boolean puedeComer = intentarComer(i);
+            while (!puedeComer) {
+                // Esperar a que un vecino entregue un tenedor
+                avisos[i].acquire();
+                despertares.increment();
+                puedeComer = intentarComer(i);
+                if (!puedeComer) {
+                    despertaresInutiles.increment();
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return;
+        }
+        
+        EventosJfr.concedido("hilos", i, izq(i), der(i));
+        tenedores[izq(i)].tomar(i);
+        tenedores[der(i)].tomar(i);
+        Registro.evento(Evento.MESA_COMIENDO, i);
+    }
+    
+    @Override
+    public void soltarTenedores(int i) {
+        tenedores[izq(i)].soltar();
+        tenedores[der(i)].soltar();
+        Registro.evento(Evento.HILOS_SOLTO, i);
+        
+        entregar(izq(i), i);
+        entregar(der(i), i);
+    }
+    
+    @Override
+    public void despertarTodos() {
+        for (Semaphore aviso : avisos) {
+            aviso.release();
+        }
+    }
+    
+    @Override
+    public void imprimirEstadisticas() {
+        long total = despertares.sum();
+        long inutiles = despertaresInutiles.sum();
+        System.out.printf("%nEstrategia: %s%n", "chandy-misra");
+        System.out.printf("Modo de espera: %s%n", "individual");
+        System.out.printf("Despertares: %d (inútiles: %d, %.1f%%)%n", total, inutiles,
+                        total == 0 ? 0.0 : 100.0 * inutiles / total);
+    }
+}
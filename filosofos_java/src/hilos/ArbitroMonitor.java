@@ -0,0 +1,223 @@
+package hilos;
+
+import arbitraje.EstrategiaArbitraje;
+import comun.Evento;
+import comun.EventosJfr;
+import comun.MetricasMesa;
+import comun.Registro;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.IntConsumer;
+import java.util.function.IntSupplier;
+
+/**
+ * Arbitraje centralizado: un único mutex de la mesa protege la tabla de estados
+ * y la estrategia de arbitraje decide quién puede comer.
+ */
+public class ArbitroMonitor implements Arbitro {
+    private final int numFilosofos;
+    private final Tenedor[] tenedores;
+    private final ReentrantLock mutexMesa;
+    private final Condition monitor;
+    private final boolean esperaIndividual;
+    private final Condition[] condiciones;
+    private final EstrategiaArbitraje estrategia;
+    private final IntConsumer despertarConcedido;
+    private long despertares;
+    private long despertaresInutiles;
+    // Solo si se publican las métricas; se asigna antes de iniciar los filósofos
+    private MetricasMesa metricas;
+    
+    /**
+     * Inicializa el arbitraje centralizado.
+     * 
+     * @param numFilosofos Número de filósofos (y tenedores) en la mesa
+     * @param esperaIndividual true para que cada filósofo espere en su propia
+     *                         condición y solo se despierte a los vecinos que
+     *                         pueden comer; false para usar signalAll()
+     * @param estrategia Estrategia que decide cuándo puede comer cada filósofo
+     */
+    public ArbitroMonitor(int numFilosofos, boolean esperaIndividual, EstrategiaArbitraje estrategia) {
+        this.numFilosofos = numFilosofos;
+        this.esperaIndividual = esperaIndividual;
+        this.estrategia = estrategia;
+        
+        // Crear los tenedores (recursos compartidos)
+        this.tenedores = new Tenedor[numFilosofos];
+        for (int i = 0; i < numFilosofos; i++) {
+            tenedores[i] = new Tenedor(i);
+        }
+        
+        // Mutex para proteger la modificación del estado global
+        this.mutexMesa = new ReentrantLock();
+        
+        // Monitor: una condición compartida que usa el mutex de la mesa
+        this.monitor = mutexMesa.newCondition();
+        
+        // Condiciones individuales: una por filósofo, usadas solo con espera individual
+        this.condiciones = new Condition[numFilosofos];
+        if (esperaIndividual) {
+            for (int i = 0; i < numFilosofos; i++) {
+                condiciones[i] = mutexMesa.newCondition();
+            }
+        }
+        this.despertarConcedido = id -> condiciones[id].signal();
+    }
+    
+    /**
+     * Calcula el índice del tenedor izquierdo del filósofo i.
+     * 
+     * @param i Índice del filósofo
+     * @return Índice del tenedor izquierdo
+     */
+    private int izq(int i) {
+        return i;
+    }
+    
+    /**
+     * Calcula el índice del tenedor derecho del filósofo i.
+     * 
+     * @param i Índice del filósofo
+     * @return Índice del tenedor derecho
+     */
+    private int der(int i) {
+        return (i + 1) % numFilosofos;
+    }
+    
+    /**
+     * Verifica si la estrategia ya autorizó al filósofo i a comer.
+     * Debe llamarse con mutexMesa tomado.
+     * 
+     * @param i Índice del filósofo
+     * @return true si puede comer, false en caso contrario
+     */
+    private boolean autorizado(int i) {
+        return estrategia.estado(i) == EstrategiaArbitraje.COMIENDO;
+    }
+    
+    /**
+     * Verifica y bloquea los tenedores para el filósofo i.
+     * Si no puede obtener ambos tenedores, espera hasta que estén disponibles.
+     * 
+     * @param i Índice del filósofo
+     */
+    @Override
+    public void tomarTenedores(int i) {
+        mutexMesa.lock();
+        long tomado = metricas != null ? System.nanoTime() : 0;
+        try {
+            Registro.evento(Evento.MESA_INTENTA, i, izq(i), der(i));
+            
+            // Cambiar estado a HAMBRIENTO e intentar obtener permiso para comer
+            estrategia.solicitar(i);
+            while (!autorizado(i)) {
+                // Si no puede comer, espera en su condición o en la compartida
+                // (await suelta el lock: esa espera no cuenta como retención)
+                if (metricas != null) {
+                    metricas.retencion(System.nanoTime() - tomado);
+                }
+                if (esperaIndividual) {
+                    condiciones[i].await();
+                } else {
+                    monitor.await();
+                }
+                if (metricas != null) {
+                    tomado = System.nanoTime();
+                }
+                
+                // Contar los despertares que no permiten comer (desperdiciados)
+                despertares++;
+                if (!autorizado(i)) {
+                    despertaresInutiles++;
+                }
+            }
+            
+            // Puede comer: tomar tenedores
+            EventosJfr.concedido("hilos", i, izq(i), der(i));
+            tenedores[izq(i)].tomar(i);
+            tenedores[der(i)].tomar(i);
+            Registro.evento(Evento.MESA_COMIENDO, i);
+            
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            if (metricas != null) {
+                metricas.retencion(System.nanoTime() - tomado);
+            }
+            mutexMesa.unlock();
+        }
+    }
+    
+    /**
+     * Libera los tenedores del filósofo i y notifica a sus vecinos
+     * que pueden intentar comer.
+     * 
+     * @param i Índice del filósofo
+     */
+    @Override
+    public void soltarTenedores(int i) {
+        mutexMesa.lock();
+        long tomado = metricas != null ? System.nanoTime() : 0;
+        try {
+            // Soltar los tenedores
+            tenedores[izq(i)].soltar();
+            tenedores[der(i)].soltar();
+            Registro.evento(Evento.HILOS_SOLTO, i);
+            
+            if (esperaIndividual) {
+                // Cambiar estado a PENSANDO y notificar solo a los vecinos autorizados
+                estrategia.liberar(i, despertarConcedido);
+            } else {
+                // Cambiar estado a PENSANDO y notificar a TODOS los filósofos
+                // Usamos signalAll() para despertar a todos los que esperan
+                estrategia.liberar(i, id -> { });
+                monitor.signalAll();
+            }
+            
+        } finally {
+            if (metricas != null) {
+                metricas.retencion(System.nanoTime() - tomado);
+            }
+            mutexMesa.unlock();
+        }
+    }
+    
+    @Override
+    public void despertarTodos() {
+        mutexMesa.lock();
+        try {
+            monitor.signalAll();
+            if (esperaIndividual) {
+                for (Condition condicion : condiciones) {
+                    condicion.signalAll();
+                }
+            }
+        } finally {
+            mutexMesa.unlock();
+        }
+    }
+    
+    @Override
+    public IntSupplier colaLock() {
+        return mutexMesa::getQueueLength;
+    }
+    
+    @Override
+    public void medirRetencion(MetricasMesa metricas) {
+        this.metricas = metricas;
+    }
+    
+    @Override
+    public void imprimirEstadisticas() {
+        mutexMesa.lock();
+        try {
+            System.out.printf("%nEstrategia: %s%n", estrategia.getNombre());
+            System.out.printf("Modo de espera: %s%n", esperaIndividual ? "individual" : "global");
+            System.out.printf("Despertares: %d (inútiles: %d, %.1f%%)%n", despertares,
+                            despertaresInutiles,
+                            despertares == 0 ? 0.0 : 100.0 * despertaresInutiles / despertares);
+        } finally {
+            mutexMesa.unlock();
+        }
+    }
+}
@@ -0,0 +1,189 @@
+package hilos;
+
+import arbitraje.EstrategiaArbitraje;
+import comun.Evento;
+import comun.EventosJfr;
+import comun.Registro;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.IntConsumer;
+
+/**
+ * Arbitraje con la tabla de estados dividida en franjas.
+ *
+ * El anillo se divide en franjas contiguas de filósofos, cada una con su propio
+ * lock. Una operación del filósofo i solo toca los estados de i-2 a i+2, así que
+ * toma el lock de la franja de i y, si ese rango cruza una frontera, también el
+ * de la franja vecina, siempre en orden de índice de franja para evitar deadlock.
+ *
+ * Cada filósofo espera fuera del lock en su propio semáforo, que se libera
+ * cuando la estrategia lo autoriza (igual que semEspera en MesaIPC).
+ */
+public class ArbitroSegmentado implements Arbitro {
+    /** Tamaño mínimo de franja para que el rango i-2..i+2 toque a lo sumo dos franjas. */
+    private static final int TAM_MINIMO_FRANJA = 4;
+    
+    private final int numFilosofos;
+    private final int numFranjas;
+    private final Tenedor[] tenedores;
+    private final ReentrantLock[] locksFranja;
+    private final Semaphore[] semEspera;
+    private final EstrategiaArbitraje estrategia;
+    private final IntConsumer notificarConcedido;
+    private final LongAdder adquisiciones;
+    private final LongAdder adquisicionesFrontera;
+    private final LongAdder despertares;
+    
+    /**
+     * Inicializa el arbitraje por franjas.
+     * 
+     * @param numFilosofos Número de filósofos (y tenedores) en la mesa
+     * @param franjas Número de franjas pedido; se reduce si alguna quedaría
+     *                con menos de 4 filósofos
+     * @param estrategia Estrategia que decide cuándo puede comer cada filósofo
+     */
+    public ArbitroSegmentado(int numFilosofos, int franjas, EstrategiaArbitraje estrategia) {
+        this.numFilosofos = numFilosofos;
+        this.numFranjas = Math.max(1, Math.min(franjas, numFilosofos / TAM_MINIMO_FRANJA));
+        this.estrategia = estrategia;
+        
+        this.tenedores = new Tenedor[numFilosofos];
+        this.semEspera = new Semaphore[numFilosofos];
+        for (int i = 0; i < numFilosofos; i++) {
+            tenedores[i] = new Tenedor(i);
+            semEspera[i] = new Semaphore(0);
+        }
+        this.notificarConcedido = id -> semEspera[id].release();
+        
+        this.locksFranja = new ReentrantLock[numFranjas];
+        for (int f = 0; f < numFranjas; f++) {
+            locksFranja[f] = new ReentrantLock();
+        }
+        
+        this.adquisiciones = new LongAdder();
+        this.adquisicionesFrontera = new LongAdder();
+        this.despertares = new LongAdder();
+    }
+    
+    private int izq(int i) {
+        return i;
+    }
+    
+    private int der(int i) {
+        return (i + 1) % numFilosofos;
+    }
+    
+    /**
+     * Obtiene la franja a la que pertenece el filósofo i.
+     */
+    private int franja(int i) {
+        return (int) ((long) i * numFranjas / numFilosofos);
+    }
+    
+    /**
+     * Obtiene la franja vecina que cubre el rango i-2..i+2, o -1 si el rango
+     * queda completo dentro de la franja de i.
+     */
+    private int franjaVecina(int i) {
+        int propia = franja(i);
+        int anterior = franja((i - 2 + numFilosofos) % numFilosofos);
+        if (anterior != propia) {
+            return anterior;
+        }
+        int siguiente = franja((i + 2) % numFilosofos);
+        return siguiente != propia ? siguiente : -1;
+    }
+    
+    /**
+     * Toma los locks de las franjas que cubren al filósofo i y sus vecinos.
+     * 
+     * @return Franja vecina bloqueada, o -1 si solo se tomó un lock
+     */
+    private int bloquear(int i) {
+        int propia = franja(i);
+        int vecina = franjaVecina(i);
+        adquisiciones.increment();
+        if (vecina < 0) {
+            locksFranja[propia].lock();
+        } else {
+            adquisicionesFrontera.increment();
+            locksFranja[Math.min(propia, vecina)].lock();
+            locksFranja[Math.max(propia, vecina)].lock();
+        }
+        return vecina;
+    }
+    
+    /**
+     * Libera los locks tomados por bloquear(i).
+     */
+    private void desbloquear(int i, int vecina) {
+        locksFranja[franja(i)].unlock();
+        if (vecina >= 0) {
+            locksFranja[vecina].unlock();
+        }
+    }
+    
+    @Override
+    public void tomarTenedores(int i) {
+        Registro.evento(Evento.MESA_INTENTA, i, izq(i), der(i));
+        
+        boolean autorizado;
+        int vecina = bloquear(i);
+        try {
+            autorizado = estrategia.solicitar(i);
+        } finally {
+            desbloquear(i, vecina);
+        }
+        
+        if (!autorizado) {
+            try {
+                // Esperar fuera del lock hasta que un vecino nos autorice
+                semEspera[i].acquire();
+                despertares.increment();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+        
+        EventosJfr.concedido("hilos", i, izq(i), der(i));
+        tenedores[izq(i)].tomar(i);
+        tenedores[der(i)].tomar(i);
+        Registro.evento(Evento.MESA_COMIENDO, i);
+    }
+    
+    @Override
+    public void soltarTenedores(int i) {
+        tenedores[izq(i)].soltar();
+        tenedores[der(i)].soltar();
+        Registro.evento(Evento.HILOS_SOLTO, i);
+        
+        // Cambiar estado a PENSANDO y despertar a los vecinos autorizados
+        int vecina = bloquear(i);
+        try {
+            estrategia.liberar(i, notificarConcedido);
+        } finally {
+            desbloquear(i, vecina);
+        }
+    }
+    
+    @Override
+    public void despertarTodos() {
+        for (Semaphore sem : semEspera) {
+            sem.release();
+        }
+    }
+    
+    @Override
+    public void imprimirEstadisticas() {
+        long total = adquisiciones.sum();
+        long frontera = adquisicionesFrontera.sum();
+        System.out.printf("%nEstrategia: %s%n", estrategia.getNombre());
+        System.out.printf("Modo de espera: %s%n", "individual");
+        // Solo se despierta a un filósofo ya autorizado, así que no hay despertares inútiles que contar
+        System.out.printf("Despertares: %d%n", despertares.sum());
+        System.out.printf("Franjas: %d (adquisiciones en frontera: %d de %d, %.1f%%)%n",
+                        numFranjas, frontera, total, total == 0 ? 0.0 : 100.0 * frontera / total);
+    }
+}
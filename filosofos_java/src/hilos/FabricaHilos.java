@@ -0,0 +1,49 @@
+package hilos;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.ThreadFactory;
+
+/**
+ * Fábricas de hilos para los filósofos.
+ *
+ * Los hilos virtuales (Java 21 o superior) se obtienen por reflexión para
+ * que el proyecto siga compilando con versiones anteriores del JDK.
+ */
+public final class FabricaHilos {
+    
+    private FabricaHilos() {
+    }
+    
+    /**
+     * Fábrica de hilos de plataforma (un hilo del sistema operativo por filósofo).
+     * Los hilos son daemon para no impedir que termine la JVM.
+     * 
+     * @return Fábrica de hilos de plataforma
+     */
+    public static ThreadFactory plataforma() {
+        return tarea -> {
+            Thread hilo = new Thread(tarea);
+            hilo.setDaemon(true);
+            return hilo;
+        };
+    }
+    
+    /**
+     * Fábrica de hilos virtuales, equivalente a Thread.ofVirtual().factory().
+     * 
+     * @return Fábrica de hilos virtuales
+     * @throws UnsupportedOperationException si el JDK no tiene hilos virtuales
+     */
+    public static ThreadFactory virtuales() {
+        try {
+            Method ofVirtual = Thread.class.getMethod("ofVirtual");
+            Object constructor = ofVirtual.invoke(null);
+            Method factory = Class.forName("java.lang.Thread$Builder").getMethod("factory");
+            return (ThreadFactory) factory.invoke(constructor);
+        } catch (ReflectiveOperationException e) {
+            throw new UnsupportedOperationException(
+                "Los hilos virtuales requieren Java 21 o superior (versión actual: "
+                + Runtime.version().feature() + ")", e);
+        }
+    }
+}
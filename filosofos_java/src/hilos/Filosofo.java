@@ -1,6 +1,10 @@
 package hilos;
 
+import comun.Carga;
+import comun.Evento;
+import comun.Registro;
 import java.util.Random;
+import java.util.concurrent.ThreadFactory;
 
 /**
  * Clase que representa un filósofo en el problema de los filósofos comensales.
@@ -10,35 +14,49 @@ public class Filosofo implements Runnable {
     private final Mesa mesa;
     private Estado estado;
     private final Random random;
-    private final Thread hilo;
-    private int vecesComido;
+    private final Carga cargaPensar;
+    private final Carga cargaComer;
+    private Thread hilo;
+    private volatile int vecesComido;
     
     /**
-     * Inicializa un filósofo.
+     * Inicializa un filósofo que piensa y come entre 1 y 3 segundos.
      * 
      * @param id Identificador único del filósofo
      * @param mesa Referencia a la Mesa para acceder a los tenedores compartidos
      */
     public Filosofo(int id, Mesa mesa) {
+        this(id, mesa, Carga.PREDETERMINADA, Carga.PREDETERMINADA);
+    }
+    
+    /**
+     * Inicializa un filósofo.
+     * 
+     * @param id Identificador único del filósofo
+     * @param mesa Referencia a la Mesa para acceder a los tenedores compartidos
+     * @param cargaPensar Duración del pensamiento
+     * @param cargaComer Duración de la comida (durmiendo o calculando)
+     */
+    public Filosofo(int id, Mesa mesa, Carga cargaPensar, Carga cargaComer) {
         this.id = id;
         this.mesa = mesa;
+        this.cargaPensar = cargaPensar;
+        this.cargaComer = cargaComer;
         this.estado = Estado.PENSANDO;
         this.random = new Random();
-        this.hilo = new Thread(this, "Filosofo-" + id);
-        this.hilo.setDaemon(true);
         this.vecesComido = 0;
     }
     
     /**
      * Simula el tiempo de pensamiento del filósofo.
-     * El tiempo es aleatorio entre 1 y 3 segundos.
+     * La duración la decide la carga de pensamiento.
      */
     private void pensar() {
         estado = Estado.PENSANDO;
-        double tiempo = 1.0 + random.nextDouble() * 2.0;
-        System.out.printf("Filósofo %d está PENSANDO por %.2f segundos%n", id, tiempo);
+        long duracion = cargaPensar.siguienteDuracion(random);
+        Registro.evento(Evento.HILOS_PENSANDO, id, duracion);
         try {
-            Thread.sleep((long)(tiempo * 1000));
+            cargaPensar.ejecutar(duracion);
         } catch (InterruptedException e) {
             Thread.currentThread().interrupt();
         }
@@ -46,15 +64,15 @@ public class Filosofo implements Runnable {
     
     /**
      * Simula el tiempo de comida del filósofo.
-     * El tiempo es aleatorio entre 1 y 3 segundos.
+     * La duración la decide la carga de comida.
      */
     private void comer() {
         estado = Estado.COMIENDO;
         vecesComido++;
-        double tiempo = 1.0 + random.nextDouble() * 2.0;
-        System.out.printf("Filósofo %d está COMIENDO por %.2f segundos%n", id, tiempo);
+        long duracion = cargaComer.siguienteDuracion(random);
+        Registro.evento(Evento.HILOS_COMIENDO, id, duracion);
         try {
-            Thread.sleep((long)(tiempo * 1000));
+            cargaComer.ejecutar(duracion);
         } catch (InterruptedException e) {
             Thread.currentThread().interrupt();
         }
@@ -66,7 +84,7 @@ public class Filosofo implements Runnable {
      */
     private void tomarTenedores() {
         estado = Estado.HAMBRIENTO;
-        System.out.println("Filósofo " + id + " está HAMBRIENTO y quiere comer");
+        Registro.evento(Evento.HILOS_HAMBRIENTO, id);
         mesa.tomarTenedores(id);
     }
     
@@ -74,7 +92,7 @@ public class Filosofo implements Runnable {
      * Notifica a la mesa que terminó de comer y libera los tenedores.
      */
     private void soltarTenedores() {
-        System.out.println("Filósofo " + id + " soltó los tenedores");
+        Registro.evento(Evento.HILOS_SOLTO, id);
         mesa.soltarTenedores(id);
     }
     
@@ -92,14 +110,20 @@ public class Filosofo implements Runnable {
                 soltarTenedores();
             }
         } catch (Exception e) {
-            System.out.println("Filósofo " + id + " interrumpido");
+            Registro.evento(Evento.HILOS_INTERRUMPIDO, id);
         }
     }
     
     /**
-     * Inicia el hilo de ejecución del filósofo.
+     * Crea e inicia el hilo de ejecución del filósofo.
+     * El hilo se crea aquí y no en el constructor, para no reservar
+     * las pilas de todos los hilos antes de empezar la cena.
+     * 
+     * @param fabrica Fábrica de hilos (de plataforma o virtuales)
      */
-    public void iniciar() {
+    public void iniciar(ThreadFactory fabrica) {
+        hilo = fabrica.newThread(this);
+        hilo.setName("Filosofo-" + id);
         hilo.start();
     }
     
@@ -107,15 +131,29 @@ public class Filosofo implements Runnable {
      * Detiene el hilo del filósofo.
      */
     public void detener() {
-        hilo.interrupt();
+        if (hilo != null) {
+            hilo.interrupt();
+        }
     }
     
     /**
      * Espera a que el hilo termine.
      */
     public void esperar() {
+        esperar(2000); // Timeout de 2 segundos
+    }
+    
+    /**
+     * Espera a que el hilo termine, como máximo el tiempo indicado.
+     * 
+     * @param milisegundos Tiempo máximo de espera (0 o menos: no espera)
+     */
+    public void esperar(long milisegundos) {
+        if (hilo == null || milisegundos <= 0) {
+            return;
+        }
         try {
-            hilo.join(2000); // Timeout de 2 segundos
+            hilo.join(milisegundos);
         } catch (InterruptedException e) {
             Thread.currentThread().interrupt();
         }
@@ -1,119 +1,130 @@
 package hilos;
 
-import java.util.concurrent.locks.Condition;
-import java.util.concurrent.locks.ReentrantLock;
+import arbitraje.EstrategiaArbitraje;
+import arbitraje.EstrategiaMonitor;
+import comun.Carga;
+import comun.EventosJfr;
+import comun.LatenciasEspera;
+import comun.MetricasMesa;
+import comun.Registro;
+import java.util.concurrent.ThreadFactory;
+import javax.management.JMException;
 
 /**
  * Clase que representa la mesa donde los filósofos comen.
  * Coordina el acceso a los tenedores compartidos y evita deadlocks.
+ * El reparto de los tenedores lo realiza el árbitro de la mesa.
  */
 public class Mesa {
     private final int numFilosofos;
-    private final Tenedor[] tenedores;
-    private final ReentrantLock mutexMesa;
-    private final Condition monitor;
-    private final Estado[] estados;
+    private final Arbitro arbitro;
+    private final ThreadFactory fabricaHilos;
     private final Filosofo[] filosofos;
+    private final LatenciasEspera latencias;
+    // Solo si se publican las métricas por JMX; se asigna antes de iniciar la cena
+    private MetricasMesa metricas;
     
     /**
      * Inicializa la mesa con el número especificado de filósofos.
+     * Todos los filósofos esperan en la condición compartida de la mesa.
      * 
      * @param numFilosofos Número de filósofos (y tenedores) en la mesa
      */
     public Mesa(int numFilosofos) {
-        this.numFilosofos = numFilosofos;
-        
-        // Crear los tenedores (recursos compartidos)
-        this.tenedores = new Tenedor[numFilosofos];
-        for (int i = 0; i < numFilosofos; i++) {
-            tenedores[i] = new Tenedor(i);
-        }
-        
-        // Mutex para proteger la modificación del estado global
-        this.mutexMesa = new ReentrantLock();
-        
-        // Monitor: una condición compartida que usa el mutex de la mesa
-        this.monitor = mutexMesa.newCondition();
-        
-        // Estados de los filósofos (array auxiliar para sincronización)
-        this.estados = new Estado[numFilosofos];
-        for (int i = 0; i < numFilosofos; i++) {
-            estados[i] = Estado.PENSANDO;
-        }
-        
-        // Crear los filósofos (actores concurrentes)
-        this.filosofos = new Filosofo[numFilosofos];
-        for (int i = 0; i < numFilosofos; i++) {
-            filosofos[i] = new Filosofo(i, this);
-        }
+        this(numFilosofos, false);
     }
     
     /**
-     * Calcula el índice del tenedor izquierdo del filósofo i.
+     * Inicializa la mesa con el número especificado de filósofos
+     * usando la estrategia de monitor.
      * 
-     * @param i Índice del filósofo
-     * @return Índice del tenedor izquierdo
+     * @param numFilosofos Número de filósofos (y tenedores) en la mesa
+     * @param esperaIndividual true para que cada filósofo espere en su propia
+     *                         condición y solo se despierte a los vecinos que
+     *                         pueden comer; false para usar signalAll()
      */
-    private int izq(int i) {
-        return i;
+    public Mesa(int numFilosofos, boolean esperaIndividual) {
+        this(numFilosofos, esperaIndividual, new EstrategiaMonitor(numFilosofos));
     }
     
     /**
-     * Calcula el índice del tenedor derecho del filósofo i.
+     * Inicializa la mesa con el número especificado de filósofos
+     * y arbitraje centralizado con un único mutex.
      * 
-     * @param i Índice del filósofo
-     * @return Índice del tenedor derecho
+     * @param numFilosofos Número de filósofos (y tenedores) en la mesa
+     * @param esperaIndividual true para que cada filósofo espere en su propia
+     *                         condición y solo se despierte a los vecinos que
+     *                         pueden comer; false para usar signalAll()
+     * @param estrategia Estrategia que decide cuándo puede comer cada filósofo
      */
-    private int der(int i) {
-        return (i + 1) % numFilosofos;
+    public Mesa(int numFilosofos, boolean esperaIndividual, EstrategiaArbitraje estrategia) {
+        this(numFilosofos, new ArbitroMonitor(numFilosofos, esperaIndividual, estrategia));
     }
     
     /**
-     * Verifica si el filósofo i puede tomar ambos tenedores.
-     * Solo puede comer si está HAMBRIENTO y sus vecinos NO están COMIENDO.
+     * Inicializa la mesa con el número especificado de filósofos
+     * ejecutados en hilos de plataforma.
      * 
-     * @param i Índice del filósofo
-     * @return true si puede comer, false en caso contrario
+     * @param numFilosofos Número de filósofos (y tenedores) en la mesa
+     * @param arbitro Mecanismo que reparte los tenedores
+     */
+    public Mesa(int numFilosofos, Arbitro arbitro) {
+        this(numFilosofos, arbitro, FabricaHilos.plataforma());
+    }
+    
+    /**
+     * Inicializa la mesa con el número especificado de filósofos.
+     * 
+     * @param numFilosofos Número de filósofos (y tenedores) en la mesa
+     * @param arbitro Mecanismo que reparte los tenedores
+     * @param fabricaHilos Fábrica de los hilos de los filósofos (de plataforma o virtuales)
+     */
+    public Mesa(int numFilosofos, Arbitro arbitro, ThreadFactory fabricaHilos) {
+        this(numFilosofos, arbitro, fabricaHilos, Carga.PREDETERMINADA, Carga.PREDETERMINADA);
+    }
+    
+    /**
+     * Inicializa la mesa con el número especificado de filósofos.
+     * 
+     * @param numFilosofos Número de filósofos (y tenedores) en la mesa
+     * @param arbitro Mecanismo que reparte los tenedores
+     * @param fabricaHilos Fábrica de los hilos de los filósofos (de plataforma o virtuales)
+     * @param cargaPensar Duración del pensamiento de cada filósofo
+     * @param cargaComer Duración de la comida de cada filósofo
      */
-    private boolean permitirComer(int i) {
-        int vecinoIzq = (i - 1 + numFilosofos) % numFilosofos;
-        int vecinoDer = (i + 1) % numFilosofos;
+    public Mesa(int numFilosofos, Arbitro arbitro, ThreadFactory fabricaHilos,
+                Carga cargaPensar, Carga cargaComer) {
+        this.numFilosofos = numFilosofos;
+        this.arbitro = arbitro;
+        this.fabricaHilos = fabricaHilos;
+        this.latencias = new LatenciasEspera(numFilosofos);
         
-        return (estados[i] == Estado.HAMBRIENTO &&
-                estados[vecinoIzq] != Estado.COMIENDO &&
-                estados[vecinoDer] != Estado.COMIENDO);
+        // Crear los filósofos (actores concurrentes)
+        this.filosofos = new Filosofo[numFilosofos];
+        for (int i = 0; i < numFilosofos; i++) {
+            filosofos[i] = new Filosofo(i, this, cargaPensar, cargaComer);
+        }
     }
     
     /**
      * Verifica y bloquea los tenedores para el filósofo i.
      * Si no puede obtener ambos tenedores, espera hasta que estén disponibles.
+     * El tiempo de espera se registra en el histograma del filósofo.
      * 
      * @param i Índice del filósofo
      */
     public void tomarTenedores(int i) {
-        mutexMesa.lock();
-        try {
-            // Cambiar estado a HAMBRIENTO
-            estados[i] = Estado.HAMBRIENTO;
-            System.out.printf("Filósofo %d intenta tomar tenedores %d y %d%n", 
-                            i, izq(i), der(i));
-            
-            // Intentar obtener permiso para comer
-            while (!permitirComer(i)) {
-                // Si no puede comer, espera en la condición
-                monitor.await();
-            }
-            
-            // Puede comer: cambiar estado y tomar tenedores
-            estados[i] = Estado.COMIENDO;
-            tenedores[izq(i)].tomar();
-            tenedores[der(i)].tomar();
-            System.out.println("Filósofo " + i + " tomó los tenedores y está COMIENDO");
-            
-        } catch (InterruptedException e) {
-            Thread.currentThread().interrupt();
-        } finally {
-            mutexMesa.unlock();
+        long inicio = System.nanoTime();
+        if (metricas != null) {
+            metricas.solicitud(i);
+        }
+        EventosJfr.hambriento("hilos", i, i, (i + 1) % numFilosofos);
+        arbitro.tomarTenedores(i);
+        EventosJfr.comiendo("hilos", i, i, (i + 1) % numFilosofos);
+        long espera = System.nanoTime() - inicio;
+        latencias.registrar(i, espera);
+        if (metricas != null) {
+            metricas.concesion(i, espera);
         }
     }
     
@@ -124,25 +135,28 @@ public class Mesa {
      * @param i Índice del filósofo
      */
     public void soltarTenedores(int i) {
-        mutexMesa.lock();
-        try {
-            // Cambiar estado a PENSANDO
-            estados[i] = Estado.PENSANDO;
-            
-            // Soltar los tenedores
-            tenedores[izq(i)].soltar();
-            tenedores[der(i)].soltar();
-            System.out.println("Filósofo " + i + " soltó los tenedores");
-            
-            // Notificar a TODOS los filósofos que pueden intentar comer
-            // Usamos signalAll() para despertar a todos los que esperan
-            monitor.signalAll();
-            
-        } finally {
-            mutexMesa.unlock();
+        arbitro.soltarTenedores(i);
+        EventosJfr.liberado("hilos", i, i, (i + 1) % numFilosofos);
+        if (metricas != null) {
+            metricas.liberacion(i);
         }
     }
     
+    /**
+     * Publica las métricas en vivo de la mesa como MBean de la plataforma
+     * ("filosofos:type=Mesa,name=hilos"). Debe llamarse antes de iniciar la cena.
+     * 
+     * @param estrategia Nombre de la estrategia, para mostrarlo en el MBean
+     * @return Métricas publicadas
+     * @throws JMException si no se puede registrar el MBean
+     */
+    public MetricasMesa publicarMetricas(String estrategia) throws JMException {
+        metricas = new MetricasMesa(estrategia, numFilosofos, arbitro.colaLock());
+        arbitro.medirRetencion(metricas);
+        metricas.publicar("hilos");
+        return metricas;
+    }
+    
     /**
      * Inicia la ejecución de todos los filósofos.
      */
@@ -151,8 +165,16 @@ public class Mesa {
         System.out.println("Iniciando cena con " + numFilosofos + " filósofos");
         System.out.println("=".repeat(60) + "\n");
         
+        iniciarFilosofos();
+    }
+    
+    /**
+     * Inicia la ejecución de todos los filósofos sin mostrar nada
+     * (por ejemplo, en un ensayo de un barrido de parámetros).
+     */
+    public void iniciarFilosofos() {
         for (Filosofo filosofo : filosofos) {
-            filosofo.iniciar();
+            filosofo.iniciar(fabricaHilos);
         }
     }
     
@@ -160,31 +182,68 @@ public class Mesa {
      * Detiene todos los filósofos y espera a que terminen.
      */
     public void detenerCena() {
+        Registro.vaciar();
         System.out.println("\nDeteniendo filósofos...");
-        
+        detenerFilosofos();
+    }
+    
+    /**
+     * Detiene todos los filósofos y espera a que terminen, sin mostrar nada.
+     */
+    public void detenerFilosofos() {
         // Interrumpir todos los hilos
         for (Filosofo filosofo : filosofos) {
             filosofo.detener();
         }
         
         // Despertar a todos los que estén esperando
-        mutexMesa.lock();
-        try {
-            monitor.signalAll();
-        } finally {
-            mutexMesa.unlock();
-        }
+        arbitro.despertarTodos();
         
-        // Esperar a que terminen
+        // Esperar a que terminen, con un plazo común de 2 segundos para todos
+        // (con cientos de miles de filósofos no se puede esperar 2 segundos a cada uno)
+        long limite = System.nanoTime() + 2_000_000_000L;
         for (Filosofo filosofo : filosofos) {
-            filosofo.esperar();
+            filosofo.esperar((limite - System.nanoTime()) / 1_000_000);
         }
     }
     
+    /**
+     * Obtiene el total de comidas de todos los filósofos.
+     * 
+     * @return Número total de veces que se comió
+     */
+    public long getTotalComidas() {
+        long total = 0;
+        for (Filosofo filosofo : filosofos) {
+            total += filosofo.getVecesComido();
+        }
+        return total;
+    }
+    
+    /**
+     * Obtiene el número de veces que comió el filósofo i.
+     * 
+     * @param i Índice del filósofo
+     * @return Número de veces que comió
+     */
+    public int getVecesComido(int i) {
+        return filosofos[i].getVecesComido();
+    }
+    
+    /**
+     * Obtiene las latencias de espera registradas por la mesa.
+     * 
+     * @return Latencias de espera de los filósofos
+     */
+    public LatenciasEspera getLatencias() {
+        return latencias;
+    }
+    
     /**
      * Imprime las estadísticas finales de la simulación.
      */
     public void imprimirEstadisticas() {
+        Registro.vaciar();
         System.out.println("\n" + "=".repeat(70));
         System.out.println("ESTADÍSTICAS FINALES");
         System.out.println("=".repeat(70));
@@ -198,6 +257,9 @@ public class Mesa {
         
         System.out.printf("%nTotal de veces que se comió: %d%n", total);
         System.out.printf("Promedio por filósofo: %.2f%n", (double)total / numFilosofos);
+        arbitro.imprimirEstadisticas();
+        latencias.imprimir();
+        Registro.imprimirResumen();
         System.out.println("=".repeat(70));
     }
 }
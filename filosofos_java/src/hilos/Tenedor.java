@@ -1,5 +1,8 @@
 package hilos;
 
+import comun.Evento;
+import comun.EventosJfr;
+import comun.Registro;
 import java.util.concurrent.locks.ReentrantLock;
 
 /**
@@ -23,10 +26,13 @@ public class Tenedor {
     /**
      * Bloquea el mutex si el tenedor está libre.
      * Si el tenedor está siendo usado, el hilo se bloquea hasta que esté disponible.
+     * 
+     * @param filosofo Filósofo que toma el tenedor (para el evento de JFR)
      */
-    public void tomar() {
+    public void tomar(int filosofo) {
         mutex.lock();
-        System.out.println("  -> Tenedor " + id + " tomado");
+        Registro.evento(Evento.TENEDOR_TOMADO, id);
+        EventosJfr.tenedorTomado("hilos", filosofo, id);
     }
     
     /**
@@ -34,7 +40,7 @@ public class Tenedor {
      */
     public void soltar() {
         mutex.unlock();
-        System.out.println("  -> Tenedor " + id + " liberado");
+        Registro.evento(Evento.TENEDOR_LIBERADO, id);
     }
     
     /**
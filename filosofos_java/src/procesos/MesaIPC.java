@@ -1,8 +1,17 @@
 package procesos;
 
+import arbitraje.EstrategiaArbitraje;
+import arbitraje.EstrategiaMonitor;
+import comun.Evento;
+import comun.EventosJfr;
+import comun.LatenciasEspera;
+import comun.MetricasMesa;
+import comun.Registro;
 import java.util.concurrent.Semaphore;
 import java.util.concurrent.atomic.AtomicIntegerArray;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.IntConsumer;
+import javax.management.JMException;
 
 /**
  * Clase que representa la mesa usando mecanismos IPC (Inter-Process Communication).
@@ -10,22 +19,37 @@ import java.util.concurrent.atomic.AtomicInteger;
  * 
  * Nota: Java no tiene IPC verdadero como fork() de Unix. Esta implementación
  * simula procesos usando threads con comunicación mediante estructuras compartidas.
+ * La decisión de quién puede comer la toma la estrategia de arbitraje.
  */
 public class MesaIPC {
     private final int numFilosofos;
     private final Semaphore[] tenedoresSem;
     private final Semaphore mutexGlobal;
-    private final AtomicIntegerArray tablaEstados;
+    private final EstrategiaArbitraje estrategia;
+    private final IntConsumer notificarConcedido;
     private final Semaphore[] semEspera;
     private final AtomicInteger solicitudesAtendidas;
     private final AtomicIntegerArray vecesComido;
+    private final LatenciasEspera latencias;
+    // Solo si se publican las métricas por JMX; se asigna antes de iniciar los procesos
+    private MetricasMesa metricas;
     
     /**
-     * Inicializa la mesa IPC con mecanismos de sincronización entre procesos.
+     * Inicializa la mesa IPC usando la estrategia de monitor.
      * 
      * @param numFilosofos Número de filósofos (y tenedores) en la mesa
      */
     public MesaIPC(int numFilosofos) {
+        this(numFilosofos, new EstrategiaMonitor(numFilosofos));
+    }
+    
+    /**
+     * Inicializa la mesa IPC con mecanismos de sincronización entre procesos.
+     * 
+     * @param numFilosofos Número de filósofos (y tenedores) en la mesa
+     * @param estrategia Estrategia que decide cuándo puede comer cada filósofo
+     */
+    public MesaIPC(int numFilosofos, EstrategiaArbitraje estrategia) {
         this.numFilosofos = numFilosofos;
         
         // Array de semáforos - uno por cada tenedor (inicializados en 1)
@@ -37,11 +61,9 @@ public class MesaIPC {
         // Lock global para proteger operaciones críticas
         this.mutexGlobal = new Semaphore(1);
         
-        // Memoria compartida - tabla de estados de los filósofos
-        this.tablaEstados = new AtomicIntegerArray(numFilosofos);
-        for (int i = 0; i < numFilosofos; i++) {
-            tablaEstados.set(i, EstadoFilosofo.PENSANDO.getValor());
-        }
+        // Memoria compartida - la tabla de estados la mantiene la estrategia
+        this.estrategia = estrategia;
+        this.notificarConcedido = this::notificar;
         
         // Semáforos de espera - uno por filósofo para bloquear hasta que pueda comer
         this.semEspera = new Semaphore[numFilosofos];
@@ -54,6 +76,7 @@ public class MesaIPC {
         
         // Array de contadores de veces que comió cada filósofo
         this.vecesComido = new AtomicIntegerArray(numFilosofos);
+        this.latencias = new LatenciasEspera(numFilosofos);
         for (int i = 0; i < numFilosofos; i++) {
             vecesComido.set(i, 0);
         }
@@ -73,83 +96,56 @@ public class MesaIPC {
         return (i + 1) % numFilosofos;
     }
     
-    /**
-     * Calcula el índice del vecino izquierdo del filósofo i.
-     */
-    private int vecinoIzq(int i) {
-        return (i - 1 + numFilosofos) % numFilosofos;
-    }
-    
-    /**
-     * Calcula el índice del vecino derecho del filósofo i.
-     */
-    private int vecinoDer(int i) {
-        return (i + 1) % numFilosofos;
-    }
-    
-    /**
-     * Comprueba si los tenedores están disponibles para el filósofo.
-     */
-    private boolean autorizar(int id) {
-        // Verificar que el filósofo esté hambriento
-        if (tablaEstados.get(id) != EstadoFilosofo.HAMBRIENTO.getValor()) {
-            return false;
-        }
-        
-        // Verificar que los vecinos no estén comiendo
-        int vecIzq = vecinoIzq(id);
-        int vecDer = vecinoDer(id);
-        
-        boolean puedeComer = (
-            tablaEstados.get(vecIzq) != EstadoFilosofo.COMIENDO.getValor() &&
-            tablaEstados.get(vecDer) != EstadoFilosofo.COMIENDO.getValor()
-        );
-        
-        if (puedeComer) {
-            // Cambiar estado a COMIENDO
-            tablaEstados.set(id, EstadoFilosofo.COMIENDO.getValor());
-            System.out.println("  [MESA] Filósofo " + id + " autorizado para COMER");
-            return true;
-        } else {
-            System.out.println("  [MESA] Filósofo " + id + " debe esperar (vecinos comiendo)");
-            return false;
-        }
-    }
-    
     /**
      * Procesa la solicitud de un filósofo para tomar los tenedores.
      */
     public void tomarTenedores(int id) {
+        long inicio = System.nanoTime();
+        if (metricas != null) {
+            metricas.solicitud(id);
+        }
+        EventosJfr.hambriento("procesos", id, izq(id), der(id));
         try {
             mutexGlobal.acquire();
+            long tomado = metricas != null ? System.nanoTime() : 0;
             
-            // Cambiar estado a HAMBRIENTO
-            tablaEstados.set(id, EstadoFilosofo.HAMBRIENTO.getValor());
-            System.out.printf("  [MESA] Filósofo %d solicita tenedores %d y %d%n", 
-                            id, izq(id), der(id));
+            Registro.evento(Evento.IPC_SOLICITA, id, izq(id), der(id));
             
-            // Intentar autorizar inmediatamente
-            if (autorizar(id)) {
+            // Cambiar estado a HAMBRIENTO e intentar autorizar inmediatamente
+            if (estrategia.solicitar(id)) {
                 // Notificar inmediatamente si fue autorizado
+                Registro.evento(Evento.IPC_AUTORIZADO, id);
                 semEspera[id].release();
             } else {
                 // No puede comer ahora, se bloqueará
-                System.out.println("  [MESA] Filósofo " + id + " bloqueado esperando recursos");
+                Registro.evento(Evento.IPC_ESPERA, id);
+                Registro.evento(Evento.IPC_BLOQUEADO, id);
             }
             
+            if (metricas != null) {
+                metricas.retencion(System.nanoTime() - tomado);
+            }
             mutexGlobal.release();
             
             // Esperar hasta que sea autorizado (fuera del lock)
             semEspera[id].acquire();
+            EventosJfr.concedido("procesos", id, izq(id), der(id));
             
             // Tomar los semáforos de los tenedores
             tenedoresSem[izq(id)].acquire();
+            EventosJfr.tenedorTomado("procesos", id, izq(id));
             tenedoresSem[der(id)].acquire();
+            EventosJfr.tenedorTomado("procesos", id, der(id));
             
-            System.out.printf("  [MESA] Filósofo %d tomó tenedores %d y %d%n", 
-                            id, izq(id), der(id));
+            Registro.evento(Evento.IPC_TOMO, id, izq(id), der(id));
+            EventosJfr.comiendo("procesos", id, izq(id), der(id));
             
             solicitudesAtendidas.incrementAndGet();
+            long espera = System.nanoTime() - inicio;
+            latencias.registrar(id, espera);
+            if (metricas != null) {
+                metricas.concesion(id, espera);
+            }
             
         } catch (InterruptedException e) {
             Thread.currentThread().interrupt();
@@ -164,10 +160,13 @@ public class MesaIPC {
         tenedoresSem[der(id)].release();
         tenedoresSem[izq(id)].release();
         
-        System.out.printf("  [MESA] Filósofo %d liberó tenedores %d y %d%n", 
-                        id, izq(id), der(id));
+        Registro.evento(Evento.IPC_LIBERO, id, izq(id), der(id));
+        EventosJfr.liberado("procesos", id, izq(id), der(id));
         
         liberar(id);
+        if (metricas != null) {
+            metricas.liberacion(id);
+        }
     }
     
     /**
@@ -177,24 +176,14 @@ public class MesaIPC {
     private void liberar(int id) {
         try {
             mutexGlobal.acquire();
+            long tomado = metricas != null ? System.nanoTime() : 0;
             
-            // Cambiar estado a PENSANDO
-            tablaEstados.set(id, EstadoFilosofo.PENSANDO.getValor());
-            
-            // Intentar despertar a los vecinos si pueden comer
-            int vecIzq = vecinoIzq(id);
-            int vecDer = vecinoDer(id);
-            
-            // Verificar vecino izquierdo
-            if (autorizar(vecIzq)) {
-                notificar(vecIzq);
-            }
+            // Cambiar estado a PENSANDO y despertar a los vecinos que pueden comer
+            estrategia.liberar(id, notificarConcedido);
             
-            // Verificar vecino derecho
-            if (autorizar(vecDer)) {
-                notificar(vecDer);
+            if (metricas != null) {
+                metricas.retencion(System.nanoTime() - tomado);
             }
-            
             mutexGlobal.release();
             
         } catch (InterruptedException e) {
@@ -206,33 +195,65 @@ public class MesaIPC {
      * Despierta un proceso en espera señalando que puede continuar.
      */
     private void notificar(int id) {
-        System.out.println("  [MESA] Notificando a Filósofo " + id);
+        Registro.evento(Evento.IPC_AUTORIZADO, id);
+        Registro.evento(Evento.IPC_NOTIFICA, id);
         semEspera[id].release();
     }
     
+    /**
+     * Publica las métricas en vivo de la mesa como MBean de la plataforma
+     * ("filosofos:type=Mesa,name=procesos"). Debe llamarse antes de iniciar
+     * los procesos. A diferencia de mostrarEstado(), leer las métricas no
+     * toma mutexGlobal.
+     * 
+     * @return Métricas publicadas
+     * @throws JMException si no se puede registrar el MBean
+     */
+    public MetricasMesa publicarMetricas() throws JMException {
+        metricas = new MetricasMesa(estrategia.getNombre(), numFilosofos, mutexGlobal::getQueueLength);
+        metricas.publicar("procesos");
+        return metricas;
+    }
+    
     /**
      * Obtiene estadísticas de uso de la mesa.
      */
     public String obtenerEstadisticas() {
+        EstadoFilosofo[] estados = copiarEstados();
         StringBuilder sb = new StringBuilder();
         sb.append("Solicitudes atendidas: ").append(solicitudesAtendidas.get()).append("\n");
         for (int i = 0; i < numFilosofos; i++) {
-            EstadoFilosofo estado = EstadoFilosofo.fromValor(tablaEstados.get(i));
-            sb.append("Filósofo ").append(i).append(": ").append(estado).append("\n");
+            sb.append("Filósofo ").append(i).append(": ").append(estados[i]).append("\n");
         }
         return sb.toString();
     }
     
+    /**
+     * Copia la tabla de estados de la estrategia protegida por el lock global.
+     */
+    private EstadoFilosofo[] copiarEstados() {
+        EstadoFilosofo[] estados = new EstadoFilosofo[numFilosofos];
+        mutexGlobal.acquireUninterruptibly();
+        try {
+            for (int i = 0; i < numFilosofos; i++) {
+                estados[i] = EstadoFilosofo.fromValor(estrategia.estado(i));
+            }
+        } finally {
+            mutexGlobal.release();
+        }
+        return estados;
+    }
+    
     /**
      * Muestra el estado actual de todos los filósofos.
      */
     public void mostrarEstado() {
+        EstadoFilosofo[] estados = copiarEstados();
         System.out.println("\n" + "=".repeat(60));
         System.out.println("ESTADO ACTUAL DE LA MESA");
         System.out.println("=".repeat(60));
         for (int i = 0; i < numFilosofos; i++) {
-            EstadoFilosofo estado = EstadoFilosofo.fromValor(tablaEstados.get(i));
-            System.out.println("Filósofo " + i + ": " + estado);
+            System.out.println("Filósofo " + i + ": " + estados[i]);
         }
         System.out.println("=".repeat(60) + "\n");
     }
@@ -248,6 +269,7 @@ public class MesaIPC {
      * Imprime las estadísticas finales de la simulación.
      */
     public void imprimirEstadisticas() {
+        Registro.vaciar();
         System.out.println("\n" + "=".repeat(70));
         System.out.println("ESTADÍSTICAS FINALES");
         System.out.println("=".repeat(70));
@@ -260,6 +282,9 @@ public class MesaIPC {
         
         System.out.printf("%nTotal de veces que se comió: %d%n", total);
         System.out.printf("Promedio por filósofo: %.2f%n", (double)total / numFilosofos);
+        System.out.printf("%nEstrategia: %s%n", estrategia.getNombre());
+        latencias.imprimir();
+        Registro.imprimirResumen();
         System.out.println("=".repeat(70));
     }
 }
@@ -1,5 +1,8 @@
 package procesos;
 
+import comun.Carga;
+import comun.Evento;
+import comun.Registro;
 import java.util.Random;
 
 /**
@@ -13,15 +16,29 @@ public class ProcesoFilosofo implements Runnable {
     private final int id;
     private final MesaIPC mesaIPC;
     private final Random random;
+    private final Carga cargaPensar;
+    private final Carga cargaComer;
     private volatile boolean activo;
     private Thread thread;
     
     /**
-     * Inicializa un filósofo basado en procesos.
+     * Inicializa un filósofo basado en procesos que piensa y come entre 1 y 3 segundos.
      */
     public ProcesoFilosofo(int id, MesaIPC mesaIPC) {
+        this(id, mesaIPC, Carga.PREDETERMINADA, Carga.PREDETERMINADA);
+    }
+    
+    /**
+     * Inicializa un filósofo basado en procesos.
+     * 
+     * @param cargaPensar Duración del pensamiento
+     * @param cargaComer Duración de la comida (durmiendo o calculando)
+     */
+    public ProcesoFilosofo(int id, MesaIPC mesaIPC, Carga cargaPensar, Carga cargaComer) {
         this.id = id;
         this.mesaIPC = mesaIPC;
+        this.cargaPensar = cargaPensar;
+        this.cargaComer = cargaComer;
         this.random = new Random();
         this.activo = true;
     }
@@ -30,11 +47,10 @@ public class ProcesoFilosofo implements Runnable {
      * Simula el tiempo de pensamiento del filósofo.
      */
     private void pensar() {
-        double tiempo = 1.0 + random.nextDouble() * 2.0;
-        System.out.printf("[Thread-%d] Filósofo %d está PENSANDO por %.2f segundos%n", 
-                         Thread.currentThread().getId(), id, tiempo);
+        long duracion = cargaPensar.siguienteDuracion(random);
+        Registro.evento(Evento.PROCESO_PENSANDO, Thread.currentThread().getId(), id, duracion);
         try {
-            Thread.sleep((long)(tiempo * 1000));
+            cargaPensar.ejecutar(duracion);
         } catch (InterruptedException e) {
             Thread.currentThread().interrupt();
         }
@@ -45,11 +61,10 @@ public class ProcesoFilosofo implements Runnable {
      */
     private void comer() {
         mesaIPC.incrementarVecesComido(id);
-        double tiempo = 1.0 + random.nextDouble() * 2.0;
-        System.out.printf("[Thread-%d] Filósofo %d está COMIENDO por %.2f segundos%n", 
-                         Thread.currentThread().getId(), id, tiempo);
+        long duracion = cargaComer.siguienteDuracion(random);
+        Registro.evento(Evento.PROCESO_COMIENDO, Thread.currentThread().getId(), id, duracion);
         try {
-            Thread.sleep((long)(tiempo * 1000));
+            cargaComer.ejecutar(duracion);
         } catch (InterruptedException e) {
             Thread.currentThread().interrupt();
         }
@@ -59,19 +74,16 @@ public class ProcesoFilosofo implements Runnable {
      * Envía solicitud a la mesa para obtener los tenedores.
      */
     private void solicitarRecursos() {
-        System.out.printf("[Thread-%d] Filósofo %d está HAMBRIENTO y solicita recursos%n", 
-                         Thread.currentThread().getId(), id);
+        Registro.evento(Evento.PROCESO_HAMBRIENTO, Thread.currentThread().getId(), id);
         mesaIPC.tomarTenedores(id);
-        System.out.printf("[Thread-%d] Filósofo %d obtuvo los recursos%n", 
-                         Thread.currentThread().getId(), id);
+        Registro.evento(Evento.PROCESO_OBTUVO, Thread.currentThread().getId(), id);
     }
     
     /**
      * Libera los tenedores a través del mecanismo IPC.
      */
     private void liberarRecursos() {
-        System.out.printf("[Thread-%d] Filósofo %d libera recursos%n", 
-                         Thread.currentThread().getId(), id);
+        Registro.evento(Evento.PROCESO_LIBERA, Thread.currentThread().getId(), id);
         mesaIPC.soltarTenedores(id);
     }
     
@@ -81,7 +93,7 @@ public class ProcesoFilosofo implements Runnable {
     @Override
     public void run() {
         long threadId = Thread.currentThread().getId();
-        System.out.printf("[Thread-%d] Filósofo %d inició su proceso%n", threadId, id);
+        Registro.evento(Evento.PROCESO_INICIO, threadId, id);
         
         try {
             while (activo && !Thread.currentThread().isInterrupted()) {
@@ -93,7 +105,7 @@ public class ProcesoFilosofo implements Runnable {
         } catch (Exception e) {
             System.out.printf("[Thread-%d] Filósofo %d error: %s%n", threadId, id, e.getMessage());
         } finally {
-            System.out.printf("[Thread-%d] Filósofo %d finalizó%n", threadId, id);
+            Registro.evento(Evento.PROCESO_FIN, threadId, id);
         }
     }
     
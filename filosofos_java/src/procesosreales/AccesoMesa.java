@@ -0,0 +1,43 @@
+package procesosreales;
+
+import java.io.Closeable;
+import java.io.IOException;
+
+/**
+ * Acceso de un FilosofoClient a la mesa: por una conexión con el servidor
+ * (ConexionMesa) o directamente en memoria compartida (MesaCompartida).
+ */
+public interface AccesoMesa extends Closeable {
+
+    /**
+     * Registra al filósofo en la mesa.
+     *
+     * @param id Índice del filósofo
+     */
+    void registrar(int id) throws IOException;
+
+    /**
+     * Pide los tenedores; vuelve cuando están concedidos.
+     */
+    void tomar(int id) throws IOException;
+
+    /**
+     * Suelta los tenedores.
+     */
+    void soltar(int id) throws IOException;
+
+    /**
+     * Suelta los tenedores sin esperar la confirmación, si el acceso la tiene.
+     */
+    void soltarSinEsperar(int id) throws IOException;
+
+    /**
+     * Suelta los tenedores y los vuelve a pedir; vuelve cuando están concedidos.
+     */
+    void soltarYTomar(int id) throws IOException;
+
+    /**
+     * Indica si el acceso ya fue cerrado.
+     */
+    boolean estaCerrada();
+}
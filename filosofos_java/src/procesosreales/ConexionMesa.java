@@ -0,0 +1,273 @@
+package procesosreales;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.BufferedReader;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.PrintWriter;
+import java.net.InetSocketAddress;
+import java.net.SocketAddress;
+import java.nio.channels.Channels;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Conexión de un filósofo con el servidor de la mesa, en texto o binario.
+ *
+ * En texto cada solicitud es una línea ("TOMAR:3"); en binario es una trama
+ * de Protocolo.TAMANO_TRAMA bytes que se envía con un solo flush y se lee
+ * sin crear objetos. Cuenta los mensajes y los bytes enviados y recibidos.
+ * Las solicitudes enviadas sin esperar se confirman en la siguiente llamada.
+ */
+public class ConexionMesa implements AccesoMesa {
+    private final SocketChannel canal;
+    private final InputStream flujoEntrada;
+    private final OutputStream flujoSalida;
+    private final boolean binario;
+    private final String opcionesMesa;
+    private final BufferedReader in;
+    private final PrintWriter out;
+    private DataInputStream entrada;
+    private DataOutputStream salida;
+    private int secuencia;
+    private int secuenciaRecibida;
+    private int respuestasPendientes;
+    private long mensajes;
+    private long bytes;
+
+    /**
+     * Abre una conexión TCP. Hasta registrar() se habla en texto.
+     *
+     * @param host Host del servidor
+     * @param puerto Puerto del servidor
+     * @param binario true para pedir tramas binarias en el REGISTER
+     */
+    public ConexionMesa(String host, int puerto, boolean binario) throws IOException {
+        this(new InetSocketAddress(host, puerto), binario);
+    }
+
+    /**
+     * Abre una conexión TCP o UDS (ver Transporte).
+     *
+     * @param direccion Dirección del servidor
+     * @param binario true para pedir tramas binarias en el REGISTER
+     */
+    public ConexionMesa(SocketAddress direccion, boolean binario) throws IOException {
+        this(direccion, binario, null, 0);
+    }
+
+    /**
+     * Abre una conexión para un filósofo de una mesa con nombre del servidor.
+     *
+     * @param mesa Nombre de la mesa, o null para la mesa principal
+     * @param tamanoMesa Filósofos de la mesa si el servidor debe crearla
+     *                   (0 para el tamaño de la mesa principal)
+     */
+    public ConexionMesa(SocketAddress direccion, boolean binario, String mesa, int tamanoMesa)
+            throws IOException {
+        this.canal = Transporte.conectar(direccion);
+        this.binario = binario;
+        this.opcionesMesa = Protocolo.opcionesMesa(mesa, tamanoMesa);
+        this.flujoEntrada = Channels.newInputStream(canal);
+        this.flujoSalida = Channels.newOutputStream(canal);
+        this.in = new BufferedReader(new InputStreamReader(flujoEntrada, StandardCharsets.US_ASCII));
+        this.out = new PrintWriter(flujoSalida, true);
+    }
+
+    /**
+     * Registra al filósofo y, si corresponde, pasa a tramas binarias.
+     *
+     * @param id Índice del filósofo
+     */
+    @Override
+    public void registrar(int id) throws IOException {
+        String mensaje = "REGISTER:" + id + (binario ? ":" + Protocolo.OPCION_BINARIO : "") + opcionesMesa;
+        out.println(mensaje);
+        String respuesta = in.readLine();
+        if (!"OK".equals(respuesta)) {
+            throw new IOException("Error al registrarse: " + respuesta);
+        }
+        if (binario) {
+            // El servidor no envía nada más hasta recibir una trama, así que
+            // el BufferedReader no tiene bytes de más
+            entrada = new DataInputStream(new BufferedInputStream(flujoEntrada, 64));
+            salida = new DataOutputStream(new BufferedOutputStream(flujoSalida, 64));
+        }
+    }
+
+    /**
+     * Pide los tenedores; vuelve cuando el servidor los concede.
+     */
+    @Override
+    public void tomar(int id) throws IOException {
+        esperarOk(Protocolo.TOMAR, id, "Error al tomar tenedores");
+    }
+
+    /**
+     * Suelta los tenedores.
+     */
+    @Override
+    public void soltar(int id) throws IOException {
+        esperarOk(Protocolo.SOLTAR, id, "Error al soltar tenedores");
+    }
+
+    /**
+     * Suelta los tenedores sin esperar el OK; se lee junto con la respuesta
+     * de la solicitud siguiente.
+     */
+    @Override
+    public void soltarSinEsperar(int id) throws IOException {
+        enviar(Protocolo.SOLTAR, id);
+        respuestasPendientes++;
+    }
+
+    /**
+     * Suelta los tenedores y los vuelve a pedir en un solo mensaje; vuelve
+     * cuando el servidor los concede de nuevo.
+     */
+    @Override
+    public void soltarYTomar(int id) throws IOException {
+        esperarOk(Protocolo.SOLTAR_TOMAR, id, "Error al soltar y tomar tenedores");
+    }
+
+    /**
+     * Envía PING y espera PONG (una ida y vuelta sin tocar la mesa).
+     */
+    public void ping() throws IOException {
+        byte respuesta = pedir(Protocolo.PING, 0);
+        if (respuesta != Protocolo.PONG) {
+            throw new IOException("Respuesta inesperada a PING: " + Protocolo.texto(respuesta));
+        }
+    }
+
+    /**
+     * Avisa al servidor que el filósofo está comiendo. El servidor ya cuenta
+     * la comida al conceder TOMAR; se mantiene por compatibilidad.
+     */
+    public void comer(int id) throws IOException {
+        esperarOk(Protocolo.COMER, id, "Error al avisar la comida");
+    }
+
+    /**
+     * Pide un tenedor al servidor que es su dueño, para el filósofo del
+     * borde de otra parte de una mesa repartida (ver Protocolo); vuelve
+     * cuando el tenedor está libre.
+     *
+     * @param tenedor Índice del tenedor
+     */
+    public void tomarTenedor(int tenedor) throws IOException {
+        esperarOk(Protocolo.TOMAR_TENEDOR, tenedor, "Error al tomar el tenedor " + tenedor);
+    }
+
+    /**
+     * Devuelve un tenedor pedido con tomarTenedor().
+     */
+    public void soltarTenedor(int tenedor) throws IOException {
+        esperarOk(Protocolo.SOLTAR_TENEDOR, tenedor, "Error al soltar el tenedor " + tenedor);
+    }
+
+    private void esperarOk(byte codigo, int id, String error) throws IOException {
+        byte respuesta = pedir(codigo, id);
+        if (respuesta != Protocolo.OK) {
+            throw new IOException(error + ": " + Protocolo.texto(respuesta));
+        }
+    }
+
+    /**
+     * Envía una solicitud y espera su respuesta. Antes lee las respuestas
+     * de las solicitudes enviadas sin esperar, que deben ser OK.
+     *
+     * @param codigo Protocolo.TOMAR, SOLTAR, SOLTAR_TOMAR, COMER, PING,
+     *               TOMAR_TENEDOR o SOLTAR_TENEDOR
+     * @param id Índice del filósofo (o del tenedor)
+     * @return Código de la respuesta (Protocolo.OK, PONG o ERROR)
+     */
+    byte pedir(byte codigo, int id) throws IOException {
+        enviar(codigo, id);
+        while (respuestasPendientes > 0) {
+            respuestasPendientes--;
+            byte respuesta = recibir();
+            if (respuesta != Protocolo.OK) {
+                throw new IOException("Error al soltar tenedores: " + Protocolo.texto(respuesta));
+            }
+        }
+        return recibir();
+    }
+
+    private void enviar(byte codigo, int id) throws IOException {
+        mensajes++;
+        if (binario) {
+            salida.writeByte(codigo);
+            salida.writeInt(id);
+            salida.writeInt(++secuencia);
+            salida.flush();
+            bytes += Protocolo.TAMANO_TRAMA;
+            return;
+        }
+        String mensaje = codigo == Protocolo.PING ? "PING" : Protocolo.comando(codigo) + ":" + id;
+        out.println(mensaje);
+        bytes += mensaje.length() + 1;
+    }
+
+    /**
+     * Lee la respuesta más antigua; el servidor responde en orden.
+     */
+    private byte recibir() throws IOException {
+        if (binario) {
+            byte respuesta = entrada.readByte();
+            entrada.readInt();
+            int recibida = entrada.readInt();
+            int esperada = ++secuenciaRecibida;
+            bytes += Protocolo.TAMANO_TRAMA;
+            if (recibida != esperada) {
+                throw new IOException("Secuencia inesperada: " + recibida + " (se esperaba " + esperada + ")");
+            }
+            return respuesta;
+        }
+        String respuesta = in.readLine();
+        if (respuesta == null) {
+            throw new IOException("El servidor cerró la conexión");
+        }
+        bytes += respuesta.length() + 1;
+        switch (respuesta) {
+            case "OK":
+                return Protocolo.OK;
+            case "PONG":
+                return Protocolo.PONG;
+            default:
+                return Protocolo.ERROR;
+        }
+    }
+
+    /**
+     * Número de solicitudes enviadas.
+     */
+    public long getMensajes() {
+        return mensajes;
+    }
+
+    /**
+     * Bytes enviados y recibidos por las solicitudes (sin contar el REGISTER).
+     */
+    public long getBytes() {
+        return bytes;
+    }
+
+    @Override
+    public void close() throws IOException {
+        canal.close();
+    }
+
+    /**
+     * Indica si la conexión ya fue cerrada.
+     */
+    @Override
+    public boolean estaCerrada() {
+        return !canal.isOpen();
+    }
+}
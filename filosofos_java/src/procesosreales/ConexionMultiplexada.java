@@ -0,0 +1,242 @@
+package procesosreales;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.net.SocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+/**
+ * Una sola conexión con el servidor de la mesa compartida por los filósofos
+ * primero..primero+cantidad-1 de un proceso, cada uno en su propio hilo.
+ *
+ * Usa las tramas binarias con la opción mux=K del REGISTER (ver Protocolo):
+ * cada hilo escribe sus tramas con el id de su filósofo y un hilo lector
+ * reparte las respuestas por ese id, así que un TOMAR en espera no detiene
+ * a los demás filósofos de la conexión. Cada filósofo tiene a lo sumo dos
+ * respuestas pendientes (un SOLTAR sin esperar y la solicitud siguiente).
+ */
+public class ConexionMultiplexada implements AccesoMesa {
+    private static final int PENDIENTES_POR_FILOSOFO = 2;
+
+    private final SocketChannel canal;
+    private final int primero;
+    private final int cantidad;
+    private final String opcionesMesa;
+    private final ByteBuffer trama = ByteBuffer.allocate(Protocolo.TAMANO_TRAMA);
+    private final ByteBuffer entrada = ByteBuffer.allocate(64 * Protocolo.TAMANO_TRAMA);
+    private final List<BlockingQueue<Byte>> respuestas;
+    // Solo los usa el hilo de cada filósofo
+    private final int[] secuencia;
+    private final int[] respuestasPendientes;
+    // Solo los usa el hilo lector
+    private final int[] secuenciaRecibida;
+    private boolean registrada;
+    private volatile IOException fallo;
+
+    /**
+     * Abre una conexión TCP o UDS (ver Transporte) para los filósofos
+     * primero..primero+cantidad-1. El REGISTER se envía en el primer registrar().
+     */
+    public ConexionMultiplexada(SocketAddress direccion, int primero, int cantidad) throws IOException {
+        this(direccion, primero, cantidad, null, 0);
+    }
+
+    /**
+     * Abre una conexión para filósofos de una mesa con nombre del servidor.
+     *
+     * @param mesa Nombre de la mesa, o null para la mesa principal
+     * @param tamanoMesa Filósofos de la mesa si el servidor debe crearla
+     *                   (0 para el tamaño de la mesa principal)
+     */
+    public ConexionMultiplexada(SocketAddress direccion, int primero, int cantidad,
+                                String mesa, int tamanoMesa) throws IOException {
+        this.canal = Transporte.conectar(direccion);
+        this.primero = primero;
+        this.cantidad = cantidad;
+        this.opcionesMesa = Protocolo.opcionesMesa(mesa, tamanoMesa);
+        this.respuestas = new ArrayList<>(cantidad);
+        for (int i = 0; i < cantidad; i++) {
+            respuestas.add(new ArrayBlockingQueue<>(PENDIENTES_POR_FILOSOFO));
+        }
+        this.secuencia = new int[cantidad];
+        this.respuestasPendientes = new int[cantidad];
+        this.secuenciaRecibida = new int[cantidad];
+    }
+
+    /**
+     * Registra a todos los filósofos de la conexión (solo la primera vez)
+     * y comprueba que id sea uno de ellos.
+     */
+    @Override
+    public synchronized void registrar(int id) throws IOException {
+        indice(id);
+        if (registrada) {
+            return;
+        }
+        String mensaje = "REGISTER:" + primero + ":" + Protocolo.OPCION_BINARIO
+                       + ":" + Protocolo.OPCION_MULTIPLEXADA + cantidad + opcionesMesa + "\n";
+        canal.write(ByteBuffer.wrap(mensaje.getBytes(StandardCharsets.US_ASCII)));
+        String respuesta = leerLinea();
+        if (!"OK".equals(respuesta)) {
+            throw new IOException("Error al registrarse: " + respuesta);
+        }
+        registrada = true;
+        Thread lector = new Thread(this::leerRespuestas, "respuestas-" + primero);
+        lector.setDaemon(true);
+        lector.start();
+    }
+
+    /**
+     * Lee la respuesta de texto del REGISTER. El servidor no envía nada más
+     * hasta recibir una trama, así que en el buffer no quedan bytes de más.
+     */
+    private String leerLinea() throws IOException {
+        StringBuilder linea = new StringBuilder();
+        while (true) {
+            entrada.clear().limit(1);
+            if (canal.read(entrada) < 0) {
+                throw new IOException("El servidor cerró la conexión");
+            }
+            char c = (char) entrada.get(0);
+            if (c == '\n') {
+                entrada.clear();
+                return linea.toString();
+            }
+            linea.append(c);
+        }
+    }
+
+    @Override
+    public void tomar(int id) throws IOException {
+        esperarOk(Protocolo.TOMAR, id, "Error al tomar tenedores");
+    }
+
+    @Override
+    public void soltar(int id) throws IOException {
+        esperarOk(Protocolo.SOLTAR, id, "Error al soltar tenedores");
+    }
+
+    /**
+     * Suelta los tenedores sin esperar el OK; se lee junto con la respuesta
+     * de la solicitud siguiente del mismo filósofo.
+     */
+    @Override
+    public void soltarSinEsperar(int id) throws IOException {
+        int i = indice(id);
+        enviar(Protocolo.SOLTAR, id, ++secuencia[i]);
+        respuestasPendientes[i]++;
+    }
+
+    @Override
+    public void soltarYTomar(int id) throws IOException {
+        esperarOk(Protocolo.SOLTAR_TOMAR, id, "Error al soltar y tomar tenedores");
+    }
+
+    private void esperarOk(byte codigo, int id, String error) throws IOException {
+        int i = indice(id);
+        enviar(codigo, id, ++secuencia[i]);
+        while (respuestasPendientes[i] > 0) {
+            respuestasPendientes[i]--;
+            byte respuesta = recibir(i);
+            if (respuesta != Protocolo.OK) {
+                throw new IOException("Error al soltar tenedores: " + Protocolo.texto(respuesta));
+            }
+        }
+        byte respuesta = recibir(i);
+        if (respuesta != Protocolo.OK) {
+            throw new IOException(error + ": " + Protocolo.texto(respuesta));
+        }
+    }
+
+    /**
+     * Escribe una trama; los hilos de los filósofos comparten el canal.
+     */
+    private void enviar(byte codigo, int id, int secuencia) throws IOException {
+        synchronized (trama) {
+            trama.clear();
+            Protocolo.escribirTrama(trama, codigo, id, secuencia);
+            trama.flip();
+            while (trama.hasRemaining()) {
+                canal.write(trama);
+            }
+        }
+    }
+
+    /**
+     * Espera la respuesta más antigua del filósofo i; el servidor responde
+     * a cada filósofo en orden.
+     */
+    private byte recibir(int i) throws IOException {
+        byte respuesta;
+        try {
+            respuesta = respuestas.get(i).take();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Espera interrumpida");
+        }
+        if (respuesta == Protocolo.ERROR && fallo != null) {
+            throw fallo;
+        }
+        return respuesta;
+    }
+
+    /**
+     * Hilo lector: reparte las tramas de respuesta por filósofo hasta que se
+     * cierre la conexión; entonces despierta a todos con ERROR.
+     */
+    private void leerRespuestas() {
+        try {
+            while (true) {
+                if (canal.read(entrada) < 0) {
+                    throw new IOException("El servidor cerró la conexión");
+                }
+                entrada.flip();
+                while (entrada.remaining() >= Protocolo.TAMANO_TRAMA) {
+                    byte respuesta = entrada.get();
+                    int id = entrada.getInt();
+                    int recibida = entrada.getInt();
+                    int i = id - primero;
+                    if (i < 0 || i >= cantidad) {
+                        throw new IOException("Respuesta para un filósofo ajeno: " + id);
+                    }
+                    int esperada = ++secuenciaRecibida[i];
+                    if (recibida != esperada) {
+                        throw new IOException("Secuencia inesperada del filósofo " + id + ": " + recibida
+                                            + " (se esperaba " + esperada + ")");
+                    }
+                    respuestas.get(i).add(respuesta);
+                }
+                entrada.compact();
+            }
+        } catch (IOException e) {
+            fallo = e;
+            for (BlockingQueue<Byte> cola : respuestas) {
+                cola.offer(Protocolo.ERROR);
+            }
+        }
+    }
+
+    private int indice(int id) throws IOException {
+        int i = id - primero;
+        if (i < 0 || i >= cantidad) {
+            throw new IOException("Filósofo fuera de la conexión: " + id);
+        }
+        return i;
+    }
+
+    @Override
+    public void close() throws IOException {
+        canal.close();
+    }
+
+    @Override
+    public boolean estaCerrada() {
+        return !canal.isOpen();
+    }
+}
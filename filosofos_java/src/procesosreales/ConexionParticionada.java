@@ -0,0 +1,107 @@
+package procesosreales;
+
+import java.io.IOException;
+import java.net.SocketAddress;
+
+/**
+ * Acceso a una mesa repartida entre varios MesaServer (ver Particion) para
+ * los filósofos primero..primero+cantidad-1 de un proceso: cada solicitud va
+ * al servidor dueño del filósofo.
+ *
+ * Abre una conexión por cada servidor que atiende a alguno de esos
+ * filósofos: una ConexionMultiplexada si son varios, o una ConexionMesa si
+ * es uno solo.
+ */
+public class ConexionParticionada implements AccesoMesa {
+    private final Particion particion;
+    private final AccesoMesa[] porServidor;
+
+    /**
+     * @param direccionBase Dirección del servidor 0 (ver Particion.direccion)
+     * @param particion Reparto de los filósofos entre los servidores
+     * @param binario Con un solo filósofo por servidor, true para tramas binarias
+     */
+    public ConexionParticionada(SocketAddress direccionBase, Particion particion, int primero,
+                                int cantidad, boolean binario) throws IOException {
+        this.particion = particion;
+        this.porServidor = new AccesoMesa[particion.getPartes()];
+        int fin = primero + cantidad;
+        try {
+            for (int k = particion.parte(primero); k <= particion.parte(fin - 1); k++) {
+                int desde = Math.max(primero, particion.primero(k));
+                int hasta = Math.min(fin, particion.primero(k) + particion.cantidad(k));
+                SocketAddress direccion = Particion.direccion(direccionBase, k);
+                porServidor[k] = hasta - desde > 1
+                        ? new ConexionMultiplexada(direccion, desde, hasta - desde)
+                        : new ConexionMesa(direccion, binario);
+            }
+        } catch (IOException e) {
+            close();
+            throw e;
+        }
+    }
+
+    private AccesoMesa acceso(int id) throws IOException {
+        AccesoMesa acceso = id >= 0 && id < particion.getNumFilosofos()
+                ? porServidor[particion.parte(id)] : null;
+        if (acceso == null) {
+            throw new IOException("Filósofo fuera de la conexión: " + id);
+        }
+        return acceso;
+    }
+
+    @Override
+    public void registrar(int id) throws IOException {
+        acceso(id).registrar(id);
+    }
+
+    @Override
+    public void tomar(int id) throws IOException {
+        acceso(id).tomar(id);
+    }
+
+    @Override
+    public void soltar(int id) throws IOException {
+        acceso(id).soltar(id);
+    }
+
+    @Override
+    public void soltarSinEsperar(int id) throws IOException {
+        acceso(id).soltarSinEsperar(id);
+    }
+
+    @Override
+    public void soltarYTomar(int id) throws IOException {
+        acceso(id).soltarYTomar(id);
+    }
+
+    @Override
+    public void close() throws IOException {
+        IOException error = null;
+        for (AccesoMesa acceso : porServidor) {
+            if (acceso != null) {
+                try {
+                    acceso.close();
+                } catch (IOException e) {
+                    error = e;
+                }
+            }
+        }
+        if (error != null) {
+            throw error;
+        }
+    }
+
+    /**
+     * Indica si alguna de las conexiones ya fue cerrada.
+     */
+    @Override
+    public boolean estaCerrada() {
+        for (AccesoMesa acceso : porServidor) {
+            if (acceso != null && acceso.estaCerrada()) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
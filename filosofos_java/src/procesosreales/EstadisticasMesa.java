@@ -0,0 +1,178 @@
+package procesosreales;
+
+import comun.Histograma;
+import comun.LatenciasEspera;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Estadísticas de una mesa de un servidor (MesaServer o MesaServerNIO):
+ * comidas y latencia de espera de cada filósofo y solicitudes atendidas.
+ */
+class EstadisticasMesa {
+    /** Mesas con nombre que se detallan en el resumen; el resto se suma. */
+    private static final int MAX_MESAS_RESUMEN = 20;
+
+    private final String nombre;
+    private final int numFilosofos;
+    private final AtomicIntegerArray vecesComido;
+    private final LatenciasEspera latencias;
+    private final LongAdder solicitudes = new LongAdder();
+
+    /**
+     * @param nombre Nombre de la mesa ("" para la mesa principal)
+     * @param numFilosofos Número de filósofos de la mesa
+     */
+    EstadisticasMesa(String nombre, int numFilosofos) {
+        this.nombre = nombre;
+        this.numFilosofos = numFilosofos;
+        this.vecesComido = new AtomicIntegerArray(numFilosofos);
+        this.latencias = new LatenciasEspera(numFilosofos);
+    }
+
+    /**
+     * Registra una comida concedida.
+     *
+     * @param esperaNanos Tiempo desde la solicitud hasta la concesión
+     */
+    void comio(int id, long esperaNanos) {
+        vecesComido.incrementAndGet(id);
+        latencias.registrar(id, esperaNanos);
+    }
+
+    void solicitudAtendida() {
+        solicitudes.increment();
+    }
+
+    String getNombre() {
+        return nombre;
+    }
+
+    int getNumFilosofos() {
+        return numFilosofos;
+    }
+
+    /**
+     * Comidas del filósofo id.
+     */
+    int vecesComido(int id) {
+        return vecesComido.get(id);
+    }
+
+    /**
+     * Histograma de las esperas de toda la mesa (una copia).
+     */
+    Histograma espera() {
+        return latencias.total();
+    }
+
+    long totalComidas() {
+        long total = 0;
+        for (int i = 0; i < numFilosofos; i++) {
+            total += vecesComido.get(i);
+        }
+        return total;
+    }
+
+    /**
+     * Imprime las comidas de cada filósofo y las latencias de espera.
+     *
+     * @param estrategia Nombre de la estrategia de arbitraje
+     */
+    void imprimir(String estrategia) {
+        imprimir(estrategia, 0, numFilosofos);
+    }
+
+    /**
+     * Imprime las comidas de los filósofos primero..primero+cantidad-1, los
+     * únicos que atiende el servidor de una mesa repartida (ver Particion).
+     */
+    void imprimir(String estrategia, int primero, int cantidad) {
+        for (int i = primero; i < primero + cantidad; i++) {
+            System.out.printf("Filósofo %d comió %d veces%n", i, vecesComido.get(i));
+        }
+        long total = totalComidas();
+        System.out.printf("%nTotal de veces que se comió: %d%n", total);
+        System.out.printf("Promedio por filósofo: %.2f%n", (double) total / cantidad);
+        System.out.printf("%nEstrategia: %s%n", estrategia);
+        latencias.imprimir();
+    }
+
+    /**
+     * Imprime una línea por mesa con nombre (las más solicitadas primero),
+     * una con la suma de las ya cerradas y el total de todas ellas.
+     */
+    static void imprimirResumen(Collection<EstadisticasMesa> mesas, Cerradas cerradas) {
+        List<EstadisticasMesa> ordenadas = new ArrayList<>();
+        for (EstadisticasMesa mesa : mesas) {
+            if (!mesa.nombre.isEmpty()) {
+                ordenadas.add(mesa);
+            }
+        }
+        int numCerradas;
+        long solicitudes, comidas;
+        Histograma total = new Histograma();
+        synchronized (cerradas) {
+            numCerradas = cerradas.mesas;
+            solicitudes = cerradas.solicitudes;
+            comidas = cerradas.comidas;
+            total.agregar(cerradas.espera);
+        }
+        if (ordenadas.isEmpty() && numCerradas == 0) {
+            return;
+        }
+        ordenadas.sort(Comparator.comparingLong((EstadisticasMesa m) -> m.solicitudes.sum()).reversed());
+
+        System.out.printf("%nMesas con nombre: %d%n", ordenadas.size() + numCerradas);
+        System.out.printf("%-20s %10s %12s %12s %10s %10s%n",
+                          "", "filósofos", "solicitudes", "comidas", "p50", "p99");
+        if (numCerradas > 0) {
+            System.out.printf("%-20s %10s %12d %12d %10s %10s%n", "(" + numCerradas + " cerradas)", "",
+                              solicitudes, comidas,
+                              Histograma.formatearNanos(total.percentil(50)),
+                              Histograma.formatearNanos(total.percentil(99)));
+        }
+        for (int i = 0; i < ordenadas.size(); i++) {
+            EstadisticasMesa mesa = ordenadas.get(i);
+            Histograma espera = mesa.latencias.total();
+            if (i < MAX_MESAS_RESUMEN) {
+                System.out.printf("%-20s %10d %12d %12d %10s %10s%n", mesa.nombre, mesa.numFilosofos,
+                                  mesa.solicitudes.sum(), mesa.totalComidas(),
+                                  Histograma.formatearNanos(espera.percentil(50)),
+                                  Histograma.formatearNanos(espera.percentil(99)));
+            }
+            solicitudes += mesa.solicitudes.sum();
+            comidas += mesa.totalComidas();
+            total.agregar(espera);
+        }
+        if (ordenadas.size() > MAX_MESAS_RESUMEN) {
+            System.out.printf("(y %d mesas más)%n", ordenadas.size() - MAX_MESAS_RESUMEN);
+        }
+        System.out.printf("%-20s %10s %12d %12d %10s %10s%n", "Todas", "", solicitudes, comidas,
+                          Histograma.formatearNanos(total.percentil(50)),
+                          Histograma.formatearNanos(total.percentil(99)));
+    }
+
+    /**
+     * Suma de las mesas con nombre que el servidor eliminó al cerrarse su
+     * última conexión. Guarda un solo histograma, así que no crece con las
+     * mesas que se crean y se eliminan.
+     */
+    static final class Cerradas {
+        private int mesas;
+        private long solicitudes;
+        private long comidas;
+        private final Histograma espera = new Histograma();
+
+        synchronized void agregar(EstadisticasMesa mesa) {
+            mesas++;
+            solicitudes += mesa.solicitudes.sum();
+            comidas += mesa.totalComidas();
+            espera.agregar(mesa.latencias.total());
+        }
+    }
+}
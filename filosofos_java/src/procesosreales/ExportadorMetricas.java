@@ -0,0 +1,124 @@
+package procesosreales;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import comun.Histograma;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.function.Consumer;
+
+/**
+ * Servidor HTTP (el HttpServer del JDK) que publica las métricas de un
+ * servidor de mesa en GET /metrics, en el formato de texto de Prometheus:
+ *
+ *     curl -s localhost:9100/metrics
+ *
+ * Cada consulta arma el texto de nuevo a partir de los contadores del
+ * servidor; quien lo arma no debe tomar los locks de las mesas. Las
+ * consultas se atienden en un único hilo propio, fuera de los hilos de
+ * los filósofos. Solo escucha en la interfaz de loopback: las métricas
+ * no se publican a otras máquinas.
+ */
+class ExportadorMetricas {
+    /** Límites de las cubetas de los histogramas, en segundos. */
+    private static final double[] LIMITES = {
+        1e-6, 1e-5, 1e-4, 1e-3, 1e-2, 0.1, 1, 10
+    };
+
+    private final HttpServer http;
+
+    /**
+     * @param puerto Puerto TCP donde escuchar, en localhost
+     * @param escribir Escribe el texto de las métricas en el StringBuilder
+     * @throws IOException si no se puede abrir el puerto
+     */
+    ExportadorMetricas(int puerto, Consumer<StringBuilder> escribir) throws IOException {
+        this.http = HttpServer.create(
+            new InetSocketAddress(InetAddress.getLoopbackAddress(), puerto), 0);
+        http.createContext("/metrics", intercambio -> responder(intercambio, escribir));
+        http.start();
+    }
+
+    private static void responder(HttpExchange intercambio, Consumer<StringBuilder> escribir)
+            throws IOException {
+        try (intercambio) {
+            if (!intercambio.getRequestMethod().equals("GET")) {
+                intercambio.sendResponseHeaders(405, -1);
+                return;
+            }
+            StringBuilder texto = new StringBuilder(4096);
+            escribir.accept(texto);
+            byte[] cuerpo = texto.toString().getBytes(StandardCharsets.UTF_8);
+            intercambio.getResponseHeaders().set("Content-Type", "text/plain; version=0.0.4; charset=utf-8");
+            intercambio.sendResponseHeaders(200, cuerpo.length);
+            try (OutputStream salida = intercambio.getResponseBody()) {
+                salida.write(cuerpo);
+            }
+        }
+    }
+
+    /**
+     * Deja de atender consultas y cierra el puerto.
+     */
+    void detener() {
+        http.stop(0);
+    }
+
+    /**
+     * Escribe las líneas HELP y TYPE de una métrica.
+     *
+     * @param tipo counter, gauge o histogram
+     */
+    static void encabezado(StringBuilder texto, String nombre, String tipo, String ayuda) {
+        texto.append("# HELP ").append(nombre).append(' ').append(ayuda).append('\n');
+        texto.append("# TYPE ").append(nombre).append(' ').append(tipo).append('\n');
+    }
+
+    /**
+     * Escribe una muestra.
+     *
+     * @param etiquetas Etiquetas ya formateadas (ver etiqueta()), o "" si no hay
+     */
+    static void muestra(StringBuilder texto, String nombre, String etiquetas, long valor) {
+        texto.append(nombre);
+        if (!etiquetas.isEmpty()) {
+            texto.append('{').append(etiquetas).append('}');
+        }
+        texto.append(' ').append(valor).append('\n');
+    }
+
+    /**
+     * Escribe un histograma de duraciones en nanosegundos como histograma
+     * de Prometheus en segundos. Las cubetas y la suma son aproximadas
+     * (ver Histograma.cuentaHasta y getSumaAproximada).
+     *
+     * @param etiquetas Etiquetas ya formateadas, o "" si no hay
+     */
+    static void histograma(StringBuilder texto, String nombre, String etiquetas, Histograma nanos) {
+        String prefijo = etiquetas.isEmpty() ? "" : etiquetas + ",";
+        for (double limite : LIMITES) {
+            texto.append(nombre).append("_bucket{").append(prefijo).append("le=\"")
+                 .append(limite).append("\"} ")
+                 .append(nanos.cuentaHasta((long) (limite * 1e9))).append('\n');
+        }
+        long cuenta = nanos.getCuenta();
+        texto.append(nombre).append("_bucket{").append(prefijo).append("le=\"+Inf\"} ")
+             .append(cuenta).append('\n');
+        texto.append(nombre).append("_sum");
+        if (!etiquetas.isEmpty()) {
+            texto.append('{').append(etiquetas).append('}');
+        }
+        texto.append(' ').append(nanos.getSumaAproximada() / 1e9).append('\n');
+        muestra(texto, nombre + "_count", etiquetas, cuenta);
+    }
+
+    /**
+     * Formatea una etiqueta nombre="valor", escapando el valor.
+     */
+    static String etiqueta(String nombre, String valor) {
+        return nombre + "=\"" + valor.replace("\\", "\\\\").replace("\"", "\\\"").replace("\n", "\\n") + "\"";
+    }
+}
@@ -1,51 +1,159 @@
 package procesosreales;
 
+import comun.Carga;
+import comun.Evento;
+import comun.Opciones;
+import comun.Registro;
 import java.io.*;
-import java.net.*;
+import java.net.InetSocketAddress;
+import java.net.SocketAddress;
+import java.nio.file.Path;
 import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
 
 /**
  * Cliente filósofo que se ejecuta en un proceso Java SEPARADO (JVM independiente).
- * Se comunica con el servidor MesaServer mediante sockets TCP.
+ * Se comunica con el servidor MesaServer mediante sockets TCP o UDS, o
+ * directamente por la mesa en memoria compartida (MesaCompartida).
  * 
  * Cada instancia de esta clase corre en su PROPIA JVM, creando procesos
- * reales del sistema operativo (visibles en el Task Manager).
+ * reales del sistema operativo (visibles en el Task Manager). Con
+ * --filosofos K, una JVM aloja K filósofos consecutivos en hilos que
+ * comparten una conexión (ConexionMultiplexada) o la mesa compartida.
  */
 public class FilosofoClient {
+    /** Espera máxima, al terminar, a que los filósofos suelten los tenedores. */
+    private static final long ESPERA_FIN_MS = 5000;
+    
+    /**
+     * Forma de liberar y volver a pedir los tenedores en cada ciclo.
+     */
+    public enum Ciclo {
+        /** SOLTAR y TOMAR, esperando cada OK (dos idas y vueltas). */
+        SIMPLE,
+        /** SOLTAR sin esperar su OK, que se lee con el del TOMAR siguiente. */
+        CANALIZADO,
+        /** SOLTAR_TOMAR en un solo mensaje cuando la duración del pensamiento
+         *  es 0 (pensado para --pensar cero); si no, SOLTAR antes de pensar,
+         *  para no retener los tenedores mientras piensa. */
+        COMBINADO
+    }
+    
     private final int id;
-    private final String servidorHost;
-    private final int servidorPuerto;
-    private Socket socket;
-    private BufferedReader in;
-    private PrintWriter out;
+    private final long pid = ProcessHandle.current().pid();
+    private final SocketAddress servidor;
+    private final Path memoria;
+    private final boolean binario;
+    private final Ciclo ciclo;
+    private AccesoMesa conexion;
+    // El acceso lo abrió otro y lo cierra quien lo abrió, no ejecutar()
+    private final boolean compartido;
+    private final CountDownLatch terminado = new CountDownLatch(1);
     private final Random random;
+    private final Carga cargaPensar;
+    private final Carga cargaComer;
     private volatile boolean activo = true;
     
     public FilosofoClient(int id, String servidorHost, int servidorPuerto) {
+        this(id, servidorHost, servidorPuerto, Carga.PREDETERMINADA, Carga.PREDETERMINADA, false);
+    }
+    
+    public FilosofoClient(int id, String servidorHost, int servidorPuerto,
+                          Carga cargaPensar, Carga cargaComer, boolean binario) {
+        this(id, new InetSocketAddress(servidorHost, servidorPuerto), cargaPensar, cargaComer,
+             binario, Ciclo.SIMPLE);
+    }
+    
+    /**
+     * @param cargaPensar Duración del pensamiento
+     * @param cargaComer Duración de la comida (durmiendo o calculando)
+     * @param binario true para usar tramas binarias en lugar de líneas de texto
+     * @param servidor Dirección TCP o UDS del servidor (ver Transporte)
+     * @param ciclo Forma de soltar y volver a pedir los tenedores
+     */
+    public FilosofoClient(int id, SocketAddress servidor,
+                          Carga cargaPensar, Carga cargaComer, boolean binario, Ciclo ciclo) {
+        this.id = id;
+        this.binario = binario;
+        this.ciclo = ciclo;
+        this.servidor = servidor;
+        this.memoria = null;
+        this.compartido = false;
+        this.cargaPensar = cargaPensar;
+        this.cargaComer = cargaComer;
+        this.random = new Random();
+    }
+    
+    /**
+     * Filósofo que usa la mesa en memoria compartida en lugar de un servidor.
+     * 
+     * @param memoria Archivo de la mesa creado por MesaServer --transporte memoria
+     */
+    public FilosofoClient(int id, Path memoria, Carga cargaPensar, Carga cargaComer, Ciclo ciclo) {
+        this.id = id;
+        this.binario = false;
+        this.ciclo = ciclo;
+        this.servidor = null;
+        this.memoria = memoria;
+        this.compartido = false;
+        this.cargaPensar = cargaPensar;
+        this.cargaComer = cargaComer;
+        this.random = new Random();
+    }
+    
+    /**
+     * Filósofo que usa un acceso a la mesa ya abierto, que puede compartir
+     * con otros filósofos del mismo proceso.
+     * 
+     * @param compartido ConexionMultiplexada o ConexionParticionada que incluye
+     *                   a id, MesaCompartida o una ConexionMesa propia (por
+     *                   ejemplo, a una mesa con nombre)
+     */
+    public FilosofoClient(int id, AccesoMesa compartido, Carga cargaPensar, Carga cargaComer,
+                          Ciclo ciclo) {
         this.id = id;
-        this.servidorHost = servidorHost;
-        this.servidorPuerto = servidorPuerto;
+        this.binario = true;
+        this.ciclo = ciclo;
+        this.servidor = null;
+        this.memoria = null;
+        this.conexion = compartido;
+        this.compartido = true;
+        this.cargaPensar = cargaPensar;
+        this.cargaComer = cargaComer;
         this.random = new Random();
     }
     
     /**
-     * Conecta al servidor de la mesa.
+     * Conecta al servidor de la mesa (o abre la mesa compartida). Con un
+     * acceso compartido solo registra al filósofo.
      */
     public void conectar() throws IOException {
-        socket = new Socket(servidorHost, servidorPuerto);
-        in = new BufferedReader(new InputStreamReader(socket.getInputStream()));
-        out = new PrintWriter(socket.getOutputStream(), true);
-        
-        // Registrarse en el servidor
-        out.println("REGISTER:" + id);
-        String respuesta = in.readLine();
-        
-        if ("OK".equals(respuesta)) {
-            long pid = ProcessHandle.current().pid();
-            System.out.println("[PID " + pid + "] Filosofo " + id + " conectado al servidor");
-        } else {
-            throw new IOException("Error al registrarse: " + respuesta);
+        if (conexion == null) {
+            conexion = memoria != null ? MesaCompartida.abrir(memoria)
+                                       : new ConexionMesa(servidor, binario);
         }
+        
+        // Registrarse en el servidor (y acordar el protocolo)
+        conexion.registrar(id);
+        Registro.evento(Evento.CLIENTE_CONECTADO, pid, id);
+    }
+    
+    /**
+     * Pide al filósofo que termine sin cerrar la conexión, para que cerrar
+     * una conexión compartida no se informe como error en los demás.
+     */
+    public void detener() {
+        activo = false;
+    }
+    
+    /**
+     * Espera a que ejecutar() termine, como máximo el tiempo indicado.
+     * 
+     * @return true si terminó
+     */
+    public boolean esperarFin(long milisegundos) throws InterruptedException {
+        return terminado.await(milisegundos, TimeUnit.MILLISECONDS);
     }
     
     /**
@@ -54,8 +162,8 @@ public class FilosofoClient {
     public void desconectar() {
         activo = false;
         try {
-            if (socket != null && !socket.isClosed()) {
-                socket.close();
+            if (conexion != null && !conexion.estaCerrada()) {
+                conexion.close();
             }
         } catch (IOException e) {
             System.err.println("Error al desconectar: " + e.getMessage());
@@ -66,32 +174,27 @@ public class FilosofoClient {
      * Simula el tiempo de pensamiento.
      */
     private void pensar() {
-        double tiempo = 1.0 + random.nextDouble() * 2.0;
-        long pid = ProcessHandle.current().pid();
-        System.out.printf("[PID %d] Filosofo %d esta PENSANDO por %.2f segundos%n", 
-                         pid, id, tiempo);
+        pensar(cargaPensar.siguienteDuracion(random));
+    }
+    
+    private void pensar(long duracion) {
+        Registro.evento(Evento.CLIENTE_PENSANDO, pid, id, duracion);
         try {
-            Thread.sleep((long)(tiempo * 1000));
+            cargaPensar.ejecutar(duracion);
         } catch (InterruptedException e) {
             Thread.currentThread().interrupt();
         }
     }
     
     /**
-     * Simula el tiempo de comida.
+     * Simula el tiempo de comida. El servidor ya la contó al conceder los tenedores.
      */
-    private void comer() throws IOException {
-        double tiempo = 1.0 + random.nextDouble() * 2.0;
-        long pid = ProcessHandle.current().pid();
-        System.out.printf("[PID %d] Filosofo %d esta COMIENDO por %.2f segundos%n", 
-                         pid, id, tiempo);
-        
-        // Notificar al servidor que está comiendo
-        out.println("COMER:" + id);
-        String respuesta = in.readLine();
+    private void comer() {
+        long duracion = cargaComer.siguienteDuracion(random);
+        Registro.evento(Evento.CLIENTE_COMIENDO, pid, id, duracion);
         
         try {
-            Thread.sleep((long)(tiempo * 1000));
+            cargaComer.ejecutar(duracion);
         } catch (InterruptedException e) {
             Thread.currentThread().interrupt();
         }
@@ -101,56 +204,98 @@ public class FilosofoClient {
      * Solicita tenedores al servidor.
      */
     private void tomarTenedores() throws IOException {
-        long pid = ProcessHandle.current().pid();
-        System.out.printf("[PID %d] Filosofo %d esta HAMBRIENTO y solicita recursos%n", 
-                         pid, id);
-        
-        out.println("TOMAR:" + id);
-        String respuesta = in.readLine();
+        Registro.evento(Evento.CLIENTE_HAMBRIENTO, pid, id);
         
-        if ("OK".equals(respuesta)) {
-            System.out.printf("[PID %d] Filosofo %d obtuvo los recursos%n", pid, id);
-        } else {
-            throw new IOException("Error al tomar tenedores: " + respuesta);
-        }
+        conexion.tomar(id);
+        Registro.evento(Evento.CLIENTE_OBTUVO, pid, id);
     }
     
     /**
      * Libera tenedores en el servidor.
      */
     private void soltarTenedores() throws IOException {
-        long pid = ProcessHandle.current().pid();
-        System.out.printf("[PID %d] Filosofo %d libera recursos%n", pid, id);
+        Registro.evento(Evento.CLIENTE_LIBERA, pid, id);
         
-        out.println("SOLTAR:" + id);
-        String respuesta = in.readLine();
-        
-        if (!"OK".equals(respuesta)) {
-            throw new IOException("Error al soltar tenedores: " + respuesta);
+        if (ciclo == Ciclo.CANALIZADO) {
+            conexion.soltarSinEsperar(id);
+        } else {
+            conexion.soltar(id);
         }
     }
     
+    /**
+     * Libera los tenedores y los vuelve a pedir con un solo mensaje.
+     */
+    private void soltarYTomarTenedores() throws IOException {
+        Registro.evento(Evento.CLIENTE_LIBERA, pid, id);
+        Registro.evento(Evento.CLIENTE_HAMBRIENTO, pid, id);
+        
+        conexion.soltarYTomar(id);
+        Registro.evento(Evento.CLIENTE_OBTUVO, pid, id);
+    }
+    
     /**
      * Ciclo principal del filosofo: pensar -> pedir -> comer -> liberar.
+     * En el ciclo combinado la liberación y el pedido siguiente van juntos
+     * cuando no hay que pensar entre ellos.
+     * 
+     * Al terminar nunca se queda con los tenedores: el servidor no los
+     * libera cuando se cierra la conexión y sus vecinos no volverían a comer.
      */
     public void ejecutar() {
-        long pid = ProcessHandle.current().pid();
-        System.out.println("[PID " + pid + "] Filosofo " + id + " iniciando ciclo principal");
+        Registro.evento(Evento.CLIENTE_INICIO, pid, id);
         
+        boolean conTenedores = false;
         try {
-            while (activo) {
+            if (ciclo == Ciclo.COMBINADO) {
                 pensar();
                 tomarTenedores();
-                comer();
-                soltarTenedores();
+                conTenedores = true;
+                while (activo) {
+                    comer();
+                    long duracion = cargaPensar.siguienteDuracion(random);
+                    if (duracion == 0) {
+                        pensar(duracion);
+                        soltarYTomarTenedores();
+                    } else {
+                        soltarTenedores();
+                        conTenedores = false;
+                        pensar(duracion);
+                        if (!activo) {
+                            break;
+                        }
+                        tomarTenedores();
+                        conTenedores = true;
+                    }
+                }
+            } else {
+                while (activo) {
+                    pensar();
+                    if (!activo) {
+                        break;
+                    }
+                    tomarTenedores();
+                    conTenedores = true;
+                    comer();
+                    soltarTenedores();
+                    conTenedores = false;
+                }
+            }
+            if (conTenedores) {
+                // Esperando el OK, para no cerrar la conexión antes de que llegue el SOLTAR
+                Registro.evento(Evento.CLIENTE_LIBERA, pid, id);
+                conexion.soltar(id);
             }
         } catch (IOException e) {
             if (activo) {
                 System.err.println("[PID " + pid + "] Error: " + e.getMessage());
             }
         } finally {
-            System.out.println("[PID " + pid + "] Filosofo " + id + " finalizando");
-            desconectar();
+            Registro.evento(Evento.CLIENTE_FIN, pid, id);
+            if (!compartido) {
+                desconectar();
+            }
+            terminado.countDown();
         }
     }
     
@@ -159,34 +304,147 @@ public class FilosofoClient {
      * 
      * Uso:
      *   java procesosreales.FilosofoClient <id> <host> <puerto>
+     *                                      [--pensar carga] [--comer carga]
+     *                                      [--protocolo texto|binario]
+     *                                      [--ciclo simple|canalizado|combinado]
+     *                                      [--transporte tcp|uds|memoria] [--socket ruta]
+     *                                      [--memoria ruta] [--filosofos K]
+     *                                      [--mesa nombre] [--tamano-mesa N]
+     *                                      [--servidores S --num-filosofos N]
+     *                                      [--registro nivel] [--muestreo N] [--registro-archivo ruta]
+     * 
+     * Con --filosofos K el proceso aloja a los filósofos id..id+K-1, cada uno
+     * en un hilo; por TCP o UDS comparten una conexión con tramas binarias
+     * (se ignora --protocolo) y en memoria comparten la mesa mapeada.
+     * 
+     * Con --mesa los filósofos se registran en esa mesa del servidor, que la
+     * crea con --tamano-mesa filósofos si no existe (por defecto, los de la
+     * mesa principal). No se aplica a la memoria compartida.
+     * 
+     * Con --servidores S la mesa principal de N filósofos está repartida entre
+     * S servidores en los puertos puerto..puerto+S-1 (ver Particion) y cada
+     * filósofo se conecta con el dueño de su id (ConexionParticionada).
      * 
      * Ejemplo:
      *   java procesosreales.FilosofoClient 0 localhost 9999
+     *   java procesosreales.FilosofoClient 100 localhost 9999 --filosofos 100
+     *   java procesosreales.FilosofoClient 0 localhost 9999 --mesa sala2 --tamano-mesa 5
+     *   java procesosreales.FilosofoClient 40 localhost 9999 --filosofos 20 --servidores 4 --num-filosofos 100
      */
     public static void main(String[] args) {
-        if (args.length < 3) {
+        Opciones opciones = new Opciones(args);
+        if (opciones.getNumPosicionales() < 3) {
             System.err.println("Uso: java procesosreales.FilosofoClient <id> <host> <puerto>");
             System.exit(1);
         }
         
-        int id = Integer.parseInt(args[0]);
-        String host = args[1];
-        int puerto = Integer.parseInt(args[2]);
+        int id = opciones.entero(0, 0, "El id del filósofo debe ser un entero.");
+        String host = opciones.posicional(1);
+        int puerto = opciones.entero(2, 9999, "El puerto debe ser un entero.");
+        Carga cargaPensar = Carga.desdeOpciones(opciones, "pensar");
+        Carga cargaComer = Carga.desdeOpciones(opciones, "comer");
+        String protocolo = opciones.opcion("protocolo", "texto", "texto", "binario");
+        Ciclo ciclo = Ciclo.valueOf(opciones.opcion("ciclo", "simple",
+                                                    "simple", "canalizado", "combinado").toUpperCase());
+        int cantidad = Math.max(1, opciones.entero("filosofos", 1));
+        boolean enMemoria = Transporte.nombre(opciones).equals("memoria");
+        String mesa = opciones.texto("mesa", null);
+        int tamanoMesa = opciones.entero("tamano-mesa", 0);
+        int servidores = opciones.entero("servidores", 1);
+        int numFilosofos = opciones.entero("num-filosofos", 0);
+        if (servidores > 1 && (enMemoria || mesa != null || numFilosofos < servidores
+                               || id < 0 || id + cantidad > numFilosofos)) {
+            System.err.println("Error: --servidores requiere --num-filosofos con los filósofos de"
+                             + " la mesa principal, que incluya a los del proceso, sin --mesa ni memoria.");
+            System.exit(1);
+        }
+        Registro.configurar(opciones);
         
-        FilosofoClient filosofo = new FilosofoClient(id, host, puerto);
+        FilosofoClient[] filosofos = new FilosofoClient[cantidad];
+        try {
+            AccesoMesa compartido = null;
+            if (servidores > 1) {
+                compartido = new ConexionParticionada(Transporte.desdeOpciones(opciones, host, puerto),
+                                                      new Particion(numFilosofos, servidores),
+                                                      id, cantidad, protocolo.equals("binario"));
+            } else if (cantidad > 1 && enMemoria) {
+                compartido = MesaCompartida.abrir(Transporte.rutaMemoria(opciones, puerto));
+            } else if (cantidad > 1) {
+                compartido = new ConexionMultiplexada(Transporte.desdeOpciones(opciones, host, puerto),
+                                                      id, cantidad, mesa, tamanoMesa);
+            } else if (mesa != null && !enMemoria) {
+                compartido = new ConexionMesa(Transporte.desdeOpciones(opciones, host, puerto),
+                                              protocolo.equals("binario"), mesa, tamanoMesa);
+            }
+            for (int i = 0; i < cantidad; i++) {
+                if (compartido != null) {
+                    filosofos[i] = new FilosofoClient(id + i, compartido, cargaPensar, cargaComer, ciclo);
+                } else if (enMemoria) {
+                    filosofos[i] = new FilosofoClient(id, Transporte.rutaMemoria(opciones, puerto),
+                                                      cargaPensar, cargaComer, ciclo);
+                } else {
+                    filosofos[i] = new FilosofoClient(id, Transporte.desdeOpciones(opciones, host, puerto),
+                                                      cargaPensar, cargaComer,
+                                                      protocolo.equals("binario"), ciclo);
+                }
+            }
+        } catch (IOException e) {
+            System.err.println("Error en Filosofo " + id + ": " + e.getMessage());
+            System.exit(1);
+        }
         
-        // Manejar Ctrl+C
+        // Manejar Ctrl+C: primero se detienen todos, se les deja soltar los
+        // tenedores (el servidor no los libera al cerrarse la conexión) y luego
+        // se cierra la conexión
         Runtime.getRuntime().addShutdownHook(new Thread(() -> {
-            System.out.println("\nFilosofo " + id + " recibio senal de terminacion");
-            filosofo.desconectar();
+            System.out.println("\nFilosofo " + id + (cantidad > 1 ? "-" + (id + cantidad - 1) : "")
+                             + " recibio senal de terminacion");
+            for (FilosofoClient filosofo : filosofos) {
+                filosofo.detener();
+            }
+            long limite = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(ESPERA_FIN_MS);
+            try {
+                for (FilosofoClient filosofo : filosofos) {
+                    filosofo.esperarFin(Math.max(0, TimeUnit.NANOSECONDS.toMillis(limite - System.nanoTime())));
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            for (FilosofoClient filosofo : filosofos) {
+                filosofo.desconectar();
+            }
         }));
         
         try {
-            filosofo.conectar();
-            filosofo.ejecutar();
+            for (FilosofoClient filosofo : filosofos) {
+                filosofo.conectar();
+            }
+            System.out.println(Protocolo.LINEA_REGISTRADO + " " + id);
         } catch (IOException e) {
             System.err.println("Error en Filosofo " + id + ": " + e.getMessage());
             System.exit(1);
         }
+        
+        if (cantidad == 1) {
+            filosofos[0].ejecutar();
+        } else {
+            Thread[] hilos = new Thread[cantidad];
+            for (int i = 0; i < cantidad; i++) {
+                hilos[i] = new Thread(filosofos[i]::ejecutar, "filosofo-" + (id + i));
+                hilos[i].start();
+            }
+            for (Thread hilo : hilos) {
+                try {
+                    hilo.join();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+            }
+        }
+        // El acceso compartido se cierra cuando ya no lo usa ningún filósofo
+        for (FilosofoClient filosofo : filosofos) {
+            filosofo.desconectar();
+        }
     }
 }
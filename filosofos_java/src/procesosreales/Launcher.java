@@ -1,8 +1,22 @@
 package procesosreales;
 
+import arbitraje.Estrategias;
+import comun.Carga;
+import comun.MedicionProceso;
+import comun.Opciones;
+import comun.Registro;
 import java.io.*;
+import java.nio.file.Path;
+import java.time.Duration;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * Lanzador que crea múltiples procesos Java (JVMs separadas) para los filósofos.
@@ -11,12 +25,62 @@ import java.util.List;
  * no threads dentro de una sola JVM. Cada filósofo correrá en su propia JVM.
  * 
  * Arquitectura:
- * - 1 proceso servidor (MesaServer) que coordina el acceso a recursos
- * - N procesos cliente (FilosofoClient), uno por cada filósofo
+ * - 1 proceso servidor (MesaServer) que coordina el acceso a recursos, o S
+ *   procesos que se reparten la mesa en partes consecutivas (--servidores S)
+ * - N procesos cliente (FilosofoClient), uno por cada filósofo, o M procesos
+ *   que alojan cada uno un tramo de filósofos consecutivos (--procesos M)
  * - Comunicación mediante sockets TCP (IPC)
  * 
  * Uso:
- *   java procesosreales.Launcher [num_filosofos] [duracion_segundos]
+ *   java procesosreales.Launcher [num_filosofos] [duracion_segundos] [--estrategia nombre]
+ *                                [--modo bloqueante|nio] [--protocolo texto|binario]
+ *                                [--ciclo simple|canalizado|combinado]
+ *                                [--transporte tcp|uds|memoria] [--socket ruta] [--memoria ruta]
+ *                                [--pensar carga] [--comer carga] [--paralelismo k]
+ *                                [--procesos M] [--servidores S]
+ *                                [--perfil normal|ligero] [--cds ruta|no]
+ *                                [--registro nivel] [--muestreo N] [--registro-archivo ruta]
+ * 
+ * Opciones:
+ *   --estrategia        algoritmo de arbitraje del servidor (por defecto: monitor);
+ *                       envejecimiento[:U] acota la espera a unos U microsegundos
+ *                       (con --transporte memoria solo monitor)
+ *   --modo              bloqueante: el servidor usa un hilo por conexión (por defecto)
+ *                       nio: el servidor atiende todas las conexiones con pocos hilos
+ *   --protocolo         texto: una línea por mensaje (por defecto)
+ *                       binario: tramas de 9 bytes, acordadas en el REGISTER
+ *   --ciclo             simple: SOLTAR y TOMAR esperando cada respuesta (por defecto)
+ *                       canalizado: SOLTAR sin esperar su OK
+ *                       combinado: un solo SOLTAR_TOMAR si no hay que pensar (--pensar cero)
+ *   --transporte        tcp: los filósofos se conectan a localhost:9999 (por defecto)
+ *                       uds: socket de dominio Unix, ya que todas las JVMs son locales
+ *                       memoria: la mesa es un archivo mapeado en memoria que los filósofos
+ *                       modifican con CAS, sin mensajes (el servidor solo lo crea)
+ *   --socket            ruta del socket UDS (por defecto: en el directorio temporal)
+ *   --memoria           ruta de la mesa compartida (por defecto: en /dev/shm)
+ *   --pensar            duración del pensamiento de cada filósofo: cero, fija:D,
+ *                       uniforme:MIN-MAX, exponencial:MEDIA o bimodal:CORTA,LARGA,P,
+ *                       en microsegundos (por defecto: uniforme:1000000-3000000)
+ *   --comer             duración de la comida, con el mismo formato; con el prefijo
+ *                       cpu: la comida calcula en lugar de dormir
+ *   --paralelismo       procesos de filósofos que arrancan su JVM a la vez (por defecto:
+ *                       núcleos disponibles); cada uno libera su lugar al registrarse
+ *   --procesos          reparte los N filósofos en M JVMs (por defecto: una por
+ *                       filósofo); cada JVM los atiende en hilos y, por TCP o UDS,
+ *                       con una sola conexión multiplexada en binario
+ *   --servidores        reparte la mesa entre S procesos MesaServer (por defecto: 1), en
+ *                       los puertos 9999..9999+S-1; cada filósofo se conecta con el dueño
+ *                       de su id. Solo con el servidor bloqueante, por TCP o UDS. Al final
+ *                       se informan las comidas por segundo de todos los servidores
+ *   --perfil            normal: JVMs de filósofos con las opciones por defecto
+ *                       ligero: heap pequeño, SerialGC, solo C1 y AppCDS (ver PerfilCliente)
+ *   --cds               con el perfil ligero, ruta del archivo AppCDS de los clientes
+ *                       (por defecto: filosofos-cliente.jsa en el directorio temporal);
+ *                       no: sin AppCDS
+ *   --registro          apagado|resumen|muestreo|completo (por defecto: completo)
+ *   --muestreo          en el nivel muestreo, escribe uno de cada N eventos (por defecto: 100)
+ *   --registro-archivo  escribe los eventos en archivos en lugar de la consola; el
+ *                       servidor usa la ruta indicada y cada filósofo la ruta con "-i"
  * 
  * Ejemplo:
  *   java procesosreales.Launcher 5 30
@@ -24,28 +88,40 @@ import java.util.List;
 public class Launcher {
     private static final String HOST = "localhost";
     private static final int PUERTO = 9999;
+    /** Tiempo máximo que se espera el aviso de listo de un proceso. */
+    private static final int ESPERA_MAXIMA_SEGUNDOS = 60;
     
     public static void main(String[] args) {
-        int numFilosofos = 5;
-        int duracion = 30;
-        
-        if (args.length > 0) {
-            try {
-                numFilosofos = Integer.parseInt(args[0]);
-            } catch (NumberFormatException e) {
-                System.err.println("Error: El número de filósofos debe ser un entero.");
-                System.exit(1);
-            }
+        Opciones opciones = new Opciones(args);
+        int numFilosofos = opciones.entero(0, 5, "El número de filósofos debe ser un entero.");
+        int duracion = opciones.entero(1, 30, "La duración debe ser un entero.");
+        String estrategia = Estrategias.desdeOpciones(opciones);
+        String modo = opciones.opcion("modo", "bloqueante", "bloqueante", "nio");
+        String protocolo = opciones.opcion("protocolo", "texto", "texto", "binario");
+        String ciclo = opciones.opcion("ciclo", "simple", "simple", "canalizado", "combinado");
+        String transporte = Transporte.nombre(opciones);
+        String rutaSocket = opciones.texto("socket", Transporte.rutaPredeterminada(PUERTO));
+        String rutaMemoria = Transporte.rutaMemoria(opciones, PUERTO).toString();
+        Carga cargaPensar = Carga.desdeOpciones(opciones, "pensar");
+        Carga cargaComer = Carga.desdeOpciones(opciones, "comer");
+        String nivelRegistro = opciones.opcion("registro", "completo", Registro.NIVELES);
+        int muestreo = opciones.entero("muestreo", 100);
+        String archivoRegistro = opciones.texto("registro-archivo", null);
+        int paralelismo = Math.max(1, opciones.entero("paralelismo",
+                                                      Runtime.getRuntime().availableProcessors()));
+        int numProcesos = Math.max(1, Math.min(numFilosofos, opciones.entero("procesos", numFilosofos)));
+        int numServidores = Math.max(1, Math.min(numFilosofos, opciones.entero("servidores", 1)));
+        if (numServidores > 1 && (!modo.equals("bloqueante") || transporte.equals("memoria"))) {
+            System.err.println("Error: --servidores requiere --modo bloqueante y transporte tcp o uds.");
+            System.exit(1);
         }
-        
-        if (args.length > 1) {
-            try {
-                duracion = Integer.parseInt(args[1]);
-            } catch (NumberFormatException e) {
-                System.err.println("Error: La duración debe ser un entero.");
-                System.exit(1);
-            }
+        if (!estrategia.equals("monitor") && transporte.equals("memoria")) {
+            System.err.println("Error: --transporte memoria solo admite --estrategia monitor.");
+            System.exit(1);
         }
+        String nombrePerfil = opciones.opcion("perfil", "normal", PerfilCliente.NOMBRES);
+        String rutaCds = opciones.texto("cds", Path.of(System.getProperty("java.io.tmpdir"),
+                                                       "filosofos-cliente.jsa").toString());
         
         System.out.println("\n" + "=".repeat(70));
         System.out.println("FILOSOFOS COMENSALES - PROCESOS REALES CON MULTIPLES JVMs");
@@ -55,61 +131,136 @@ public class Launcher {
         System.out.println("  - Duracion: " + duracion + " segundos");
         System.out.println("  - Host del servidor: " + HOST);
         System.out.println("  - Puerto: " + PUERTO);
+        if (transporte.equals("uds")) {
+            System.out.println("  - Transporte: UDS " + rutaSocket);
+        } else if (transporte.equals("memoria")) {
+            System.out.println("  - Transporte: memoria compartida " + rutaMemoria);
+        } else {
+            System.out.println("  - Transporte: TCP");
+        }
+        System.out.println("  - Estrategia: " + estrategia);
+        System.out.println("  - Servidor: " + modo);
+        System.out.println("  - Procesos servidor: " + numServidores);
+        System.out.println("  - Protocolo: " + protocolo + ", ciclo " + ciclo);
+        System.out.println("  - Pensar: " + cargaPensar);
+        System.out.println("  - Comer: " + cargaComer);
+        System.out.println("  - Procesos de filosofos: " + numProcesos);
+        System.out.println("  - Registro: " + nivelRegistro);
         System.out.println("=".repeat(70) + "\n");
         
-        Process procesoServidor = null;
-        List<Process> procesosFilosofos = new ArrayList<>();
+        ProcesoHijo[] procesosServidores = new ProcesoHijo[numServidores];
+        ProcesoHijo[] procesosFilosofos = new ProcesoHijo[numProcesos];
+        String[] etiquetas = new String[numProcesos];
+        ExecutorService lanzadores = Executors.newFixedThreadPool(paralelismo);
         
         try {
             // 1. Obtener el classpath actual
             String classpath = System.getProperty("java.class.path");
             String javaHome = System.getProperty("java.home");
             String javaBin = javaHome + File.separator + "bin" + File.separator + "java";
+            PerfilCliente perfil = nombrePerfil.equals("ligero")
+                    ? PerfilCliente.ligero(classpath, rutaCds.equals("no") ? null : Path.of(rutaCds))
+                    : PerfilCliente.normal(classpath);
+            System.out.println("Perfil de los filósofos: " + perfil);
             
-            // 2. Iniciar el servidor en un proceso separado
-            System.out.println("Iniciando servidor en proceso separado...");
-            ProcessBuilder pbServidor = new ProcessBuilder(
-                javaBin,
-                "-cp", classpath,
-                "procesosreales.MesaServer",
-                String.valueOf(numFilosofos),
-                String.valueOf(PUERTO)
-            );
-            pbServidor.inheritIO(); // Heredar stdin/stdout/stderr
-            procesoServidor = pbServidor.start();
+            // 2. Iniciar los servidores en procesos separados, todos a la vez
+            long inicio = System.nanoTime();
+            System.out.println(numServidores == 1 ? "Iniciando servidor en proceso separado..."
+                               : "Iniciando " + numServidores + " servidores en procesos separados...");
+            for (int k = 0; k < numServidores; k++) {
+                List<String> comandoServidor = new ArrayList<>(List.of(
+                    javaBin,
+                    "-cp", classpath,
+                    "procesosreales.MesaServer",
+                    String.valueOf(numFilosofos),
+                    String.valueOf(PUERTO),
+                    "--estrategia", estrategia,
+                    "--modo", modo
+                ));
+                if (numServidores > 1) {
+                    comandoServidor.addAll(List.of("--servidores", String.valueOf(numServidores),
+                                                   "--parte", String.valueOf(k)));
+                }
+                agregarTransporte(comandoServidor, transporte, rutaSocket, rutaMemoria);
+                agregarRegistro(comandoServidor, nivelRegistro, muestreo,
+                                archivoRegistro == null || k == 0 ? archivoRegistro
+                                                                  : archivoRegistro + "-servidor-" + k);
+                procesosServidores[k] = new ProcesoHijo(comandoServidor, Protocolo.LINEA_LISTO);
+            }
             
-            // Esperar a que el servidor esté listo
+            // Esperar el aviso de los servidores en lugar de un tiempo fijo
             System.out.println("Esperando a que el servidor esté listo...");
-            Thread.sleep(2000);
+            for (ProcesoHijo servidor : procesosServidores) {
+                if (!servidor.esperarAviso()) {
+                    throw new IOException("El servidor terminó o no avisó que está listo");
+                }
+            }
+            long servidorListo = System.nanoTime() - inicio;
             
-            // 3. Iniciar cada filósofo en su propio proceso
-            System.out.println("\nIniciando " + numFilosofos + " procesos de filosofos...\n");
-            for (int i = 0; i < numFilosofos; i++) {
-                ProcessBuilder pbFilosofo = new ProcessBuilder(
-                    javaBin,
-                    "-cp", classpath,
+            // 3. Iniciar los filósofos, con hasta 'paralelismo' JVMs arrancando a la vez
+            System.out.println("\nIniciando " + numFilosofos + " filosofos en " + numProcesos
+                             + " procesos (" + paralelismo + " a la vez)...\n");
+            AtomicInteger registrados = new AtomicInteger();
+            List<Future<?>> inicios = new ArrayList<>();
+            // Tramos consecutivos, de tamaños que difieren a lo sumo en uno
+            Particion tramos = new Particion(numFilosofos, numProcesos);
+            for (int i = 0; i < numProcesos; i++) {
+                int primero = tramos.primero(i);
+                int cantidad = tramos.cantidad(i);
+                int indice = i;
+                etiquetas[i] = tramos.describir(i);
+                List<String> comandoFilosofo = new ArrayList<>();
+                comandoFilosofo.add(javaBin);
+                comandoFilosofo.addAll(perfil.opcionesJvm(i));
+                comandoFilosofo.addAll(List.of(
+                    "-cp", perfil.getClasspath(),
                     "procesosreales.FilosofoClient",
-                    String.valueOf(i),
+                    String.valueOf(primero),
                     HOST,
-                    String.valueOf(PUERTO)
-                );
-                pbFilosofo.inheritIO();
-                Process proceso = pbFilosofo.start();
-                procesosFilosofos.add(proceso);
-                
-                long pid = proceso.pid();
-                System.out.println("Filosofo " + i + " iniciado en proceso PID: " + pid);
-                
-                // Pequena pausa entre inicios
-                Thread.sleep(500);
+                    String.valueOf(PUERTO),
+                    "--pensar", cargaPensar.toString(),
+                    "--comer", cargaComer.toString(),
+                    "--protocolo", protocolo,
+                    "--ciclo", ciclo,
+                    "--filosofos", String.valueOf(cantidad)
+                ));
+                if (numServidores > 1) {
+                    comandoFilosofo.addAll(List.of("--servidores", String.valueOf(numServidores),
+                                                   "--num-filosofos", String.valueOf(numFilosofos)));
+                }
+                agregarTransporte(comandoFilosofo, transporte, rutaSocket, rutaMemoria);
+                agregarRegistro(comandoFilosofo, nivelRegistro, muestreo,
+                                archivoRegistro == null ? null : archivoRegistro + "-" + primero);
+                inicios.add(lanzadores.submit(() -> {
+                    ProcesoHijo proceso = new ProcesoHijo(comandoFilosofo, Protocolo.LINEA_REGISTRADO);
+                    procesosFilosofos[indice] = proceso;
+                    System.out.println(etiquetas[indice] + " iniciado en proceso PID: " + proceso.pid());
+                    
+                    // El lugar en el pool se libera cuando el proceso registra a sus filósofos
+                    if (proceso.esperarAviso()) {
+                        registrados.addAndGet(cantidad);
+                    } else {
+                        System.err.println("Error: " + etiquetas[indice] + " no se registró");
+                    }
+                    return null;
+                }));
+            }
+            for (Future<?> f : inicios) {
+                f.get();
             }
+            long todosRegistrados = System.nanoTime() - inicio;
+            
+            System.out.printf("%nServidor listo en %d ms; %d de %d filósofos registrados en %d ms%n",
+                            TimeUnit.NANOSECONDS.toMillis(servidorListo), registrados.get(),
+                            numFilosofos, TimeUnit.NANOSECONDS.toMillis(todosRegistrados));
             
             System.out.println("\n" + "=".repeat(70));
             System.out.println("TODOS LOS PROCESOS INICIADOS");
             System.out.println("=".repeat(70));
             System.out.println("\nSimulacion corriendo por " + duracion + " segundos...");
-            System.out.println("Total de procesos Java: " + (1 + numFilosofos) + 
-                             " (1 servidor + " + numFilosofos + " filosofos)");
+            System.out.println("Total de procesos Java: " + (numServidores + numProcesos) + 
+                             " (" + numServidores + (numServidores == 1 ? " servidor + " : " servidores + ")
+                             + numProcesos + " con " + numFilosofos + " filosofos)");
             System.out.println("\nPresiona Ctrl+C para detener antes.\n");
             
             // 4. Ejecutar por el tiempo especificado
@@ -118,39 +269,260 @@ public class Launcher {
             System.out.println("\n" + "=".repeat(70));
             System.out.println("Tiempo de simulacion completado");
             System.out.println("=".repeat(70) + "\n");
+            imprimirArranque(perfil, procesosFilosofos, etiquetas);
             
-        } catch (IOException | InterruptedException e) {
+        } catch (IOException | InterruptedException | ExecutionException e) {
             System.err.println("Error: " + e.getMessage());
             e.printStackTrace();
         } finally {
-            // 5. Terminar todos los procesos
+            // 5. Terminar todos los procesos: primero se avisa a todos y luego se espera
+            lanzadores.shutdownNow();
+            try {
+                lanzadores.awaitTermination(ESPERA_MAXIMA_SEGUNDOS, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
             System.out.println("Terminando procesos de filosofos...");
-            for (int i = 0; i < procesosFilosofos.size(); i++) {
-                Process p = procesosFilosofos.get(i);
-                if (p.isAlive()) {
-                    System.out.println("  Terminando Filosofo " + i + " (PID " + p.pid() + ")");
-                    p.destroy();
-                    try {
-                        p.waitFor();
-                    } catch (InterruptedException e) {
-                        p.destroyForcibly();
-                    }
+            for (int i = 0; i < procesosFilosofos.length; i++) {
+                if (procesosFilosofos[i] != null && procesosFilosofos[i].estaVivo()) {
+                    System.out.println("  Terminando " + etiquetas[i] + " (PID " + procesosFilosofos[i].pid() + ")");
+                    procesosFilosofos[i].destruir();
+                } else if (procesosFilosofos[i] != null) {
+                    // Con --transporte memoria sus filósofos pudieron quedar comiendo
+                    // y dejar sin comer a sus vecinos (ver MesaCompartida)
+                    System.err.println("Aviso: " + etiquetas[i] + " (PID " + procesosFilosofos[i].pid()
+                                     + ") terminó antes de tiempo con código "
+                                     + procesosFilosofos[i].codigoSalida());
+                }
+            }
+            for (ProcesoHijo proceso : procesosFilosofos) {
+                if (proceso != null) {
+                    proceso.esperarFin();
                 }
             }
             
             System.out.println("\nTerminando servidor...");
-            if (procesoServidor != null && procesoServidor.isAlive()) {
-                procesoServidor.destroy();
-                try {
-                    procesoServidor.waitFor();
-                } catch (InterruptedException e) {
-                    procesoServidor.destroyForcibly();
+            for (ProcesoHijo servidor : procesosServidores) {
+                if (servidor != null) {
+                    servidor.destruir();
+                }
+            }
+            for (ProcesoHijo servidor : procesosServidores) {
+                if (servidor != null) {
+                    servidor.esperarFin();
                 }
             }
+            imprimirComidas(procesosServidores, duracion);
             
             System.out.println("\n" + "=".repeat(70));
             System.out.println("Fin de la simulacion - Todos los procesos terminados");
             System.out.println("=".repeat(70) + "\n");
         }
     }
+    
+    /**
+     * Proceso hijo cuya salida se reenvía a la consola del Launcher línea por
+     * línea, reconociendo la línea con la que avisa que está listo y, en los
+     * servidores, la de las comidas al terminar (que no se reenvían). Hereda
+     * la entrada y la salida de errores.
+     */
+    private static class ProcesoHijo {
+        private final Process proceso;
+        private final Thread lector;
+        private final CountDownLatch aviso = new CountDownLatch(1);
+        private final long inicio;
+        // Medidos al recibir el aviso; se leen después de aviso.await()
+        private long arranqueNanos = -1;
+        private long cpuArranqueNanos = -1;
+        private long rssArranqueKB = -1;
+        private volatile long comidas = -1;
+        
+        ProcesoHijo(List<String> comando, String lineaAviso) throws IOException {
+            ProcessBuilder pb = new ProcessBuilder(comando);
+            pb.redirectInput(ProcessBuilder.Redirect.INHERIT);
+            pb.redirectError(ProcessBuilder.Redirect.INHERIT);
+            this.inicio = System.nanoTime();
+            this.proceso = pb.start();
+            this.lector = new Thread(() -> reenviarSalida(lineaAviso), "salida-" + proceso.pid());
+            lector.setDaemon(true);
+            lector.start();
+        }
+        
+        private void reenviarSalida(String lineaAviso) {
+            try (BufferedReader salida = new BufferedReader(
+                    new InputStreamReader(proceso.getInputStream()))) {
+                String linea;
+                while ((linea = salida.readLine()) != null) {
+                    if (aviso.getCount() > 0 && linea.startsWith(lineaAviso)) {
+                        arranqueNanos = System.nanoTime() - inicio;
+                        cpuArranqueNanos = proceso.info().totalCpuDuration()
+                                                  .map(Duration::toNanos).orElse(-1L);
+                        rssArranqueKB = MedicionProceso.rssActualKB(proceso.pid());
+                        aviso.countDown();
+                    } else if (linea.startsWith(Protocolo.LINEA_COMIDAS)) {
+                        comidas = Long.parseLong(linea.substring(Protocolo.LINEA_COMIDAS.length()).trim());
+                    } else {
+                        System.out.println(linea);
+                    }
+                }
+            } catch (IOException e) {
+                // El proceso terminó
+            }
+        }
+        
+        /**
+         * Espera el aviso de listo.
+         * 
+         * @return false si el proceso terminó antes o no avisó a tiempo
+         */
+        boolean esperarAviso() throws InterruptedException {
+            long limite = System.nanoTime() + TimeUnit.SECONDS.toNanos(ESPERA_MAXIMA_SEGUNDOS);
+            while (!aviso.await(100, TimeUnit.MILLISECONDS)) {
+                if (!proceso.isAlive() || System.nanoTime() > limite) {
+                    return aviso.getCount() == 0;
+                }
+            }
+            return true;
+        }
+        
+        long pid() {
+            return proceso.pid();
+        }
+        
+        /** Tiempo desde el inicio hasta el aviso, o -1 si no avisó. */
+        long arranqueNanos() {
+            return aviso.getCount() == 0 ? arranqueNanos : -1;
+        }
+        
+        /** Tiempo de CPU consumido hasta el aviso, o -1 si no se conoce. */
+        long cpuArranqueNanos() {
+            return aviso.getCount() == 0 ? cpuArranqueNanos : -1;
+        }
+        
+        /** Memoria residente al avisar, en KB, o -1 si no se conoce. */
+        long rssArranqueKB() {
+            return aviso.getCount() == 0 ? rssArranqueKB : -1;
+        }
+        
+        /** Comidas informadas por un servidor al terminar, o -1 si no informó. */
+        long comidas() {
+            return comidas;
+        }
+        
+        boolean estaVivo() {
+            return proceso.isAlive();
+        }
+        
+        /** Código de salida de un proceso que ya terminó. */
+        int codigoSalida() {
+            return proceso.exitValue();
+        }
+        
+        /**
+         * Pide al proceso que termine (SIGTERM). Se usa el ProcessHandle porque
+         * Process.destroy() además cierra la salida y se perdería lo que el
+         * proceso escribe al terminar, como las estadísticas del servidor.
+         */
+        void destruir() {
+            proceso.toHandle().destroy();
+        }
+        
+        /**
+         * Espera a que el proceso termine y a que se reenvíe toda su salida.
+         */
+        void esperarFin() {
+            try {
+                proceso.waitFor();
+                lector.join(TimeUnit.SECONDS.toMillis(ESPERA_MAXIMA_SEGUNDOS));
+            } catch (InterruptedException e) {
+                proceso.destroyForcibly();
+            }
+        }
+    }
+    
+    /**
+     * Imprime, para cada proceso de filósofos, el tiempo hasta registrarse, la
+     * CPU usada en ese tiempo y la memoria residente al registrarse y máxima
+     * hasta ahora, con el promedio de todos, para comparar los perfiles de la JVM.
+     */
+    private static void imprimirArranque(PerfilCliente perfil, ProcesoHijo[] procesos,
+                                         String[] etiquetas) {
+        System.out.println("Arranque de los filósofos (perfil " + perfil + "):");
+        System.out.printf("  %-16s %8s %12s %10s %14s %12s%n",
+                          "", "PID", "arranque", "CPU", "RSS registro", "RSS max");
+        long sumaArranque = 0, sumaCpu = 0, sumaRss = 0, sumaRssMax = 0;
+        int medidos = 0;
+        for (int i = 0; i < procesos.length; i++) {
+            ProcesoHijo p = procesos[i];
+            if (p == null || p.arranqueNanos() < 0) {
+                continue;
+            }
+            long rssMax = MedicionProceso.rssMaximoKB(p.pid());
+            System.out.printf("  %-16s %8d %9d ms %7d ms %11d KB %9d KB%n", etiquetas[i], p.pid(),
+                              TimeUnit.NANOSECONDS.toMillis(p.arranqueNanos()),
+                              TimeUnit.NANOSECONDS.toMillis(p.cpuArranqueNanos()),
+                              p.rssArranqueKB(), rssMax);
+            sumaArranque += p.arranqueNanos();
+            sumaCpu += Math.max(0, p.cpuArranqueNanos());
+            sumaRss += Math.max(0, p.rssArranqueKB());
+            sumaRssMax += Math.max(0, rssMax);
+            medidos++;
+        }
+        if (medidos > 0) {
+            System.out.printf("  %-16s %8s %9d ms %7d ms %11d KB %9d KB%n", "Promedio", "",
+                              TimeUnit.NANOSECONDS.toMillis(sumaArranque / medidos),
+                              TimeUnit.NANOSECONDS.toMillis(sumaCpu / medidos),
+                              sumaRss / medidos, sumaRssMax / medidos);
+            System.out.printf("  RSS máximo total de los filósofos: %d MB%n%n", sumaRssMax / 1024);
+        }
+    }
+    
+    /**
+     * Imprime las comidas de la mesa sumando las de todos los servidores y
+     * las comidas por segundo de la simulación (incluye las que ocurren
+     * mientras se registran los últimos filósofos).
+     */
+    private static void imprimirComidas(ProcesoHijo[] servidores, int duracion) {
+        long total = 0;
+        for (ProcesoHijo servidor : servidores) {
+            if (servidor == null || servidor.comidas() < 0) {
+                return;
+            }
+            total += servidor.comidas();
+        }
+        System.out.printf("%nComidas de la mesa con %d servidor%s: %d (%.0f por segundo)%n",
+                          servidores.length, servidores.length == 1 ? "" : "es", total,
+                          (double) total / duracion);
+    }
+    
+    /**
+     * Agrega a la línea de comandos de un proceso hijo las opciones del transporte.
+     */
+    private static void agregarTransporte(List<String> comando, String transporte,
+                                          String rutaSocket, String rutaMemoria) {
+        comando.add("--transporte");
+        comando.add(transporte);
+        if (transporte.equals("uds")) {
+            comando.add("--socket");
+            comando.add(rutaSocket);
+        } else if (transporte.equals("memoria")) {
+            comando.add("--memoria");
+            comando.add(rutaMemoria);
+        }
+    }
+    
+    /**
+     * Agrega a la línea de comandos de un proceso hijo las opciones del registro.
+     */
+    private static void agregarRegistro(List<String> comando, String nivel, int muestreo,
+                                        String archivo) {
+        comando.add("--registro");
+        comando.add(nivel);
+        comando.add("--muestreo");
+        comando.add(String.valueOf(muestreo));
+        if (archivo != null) {
+            comando.add("--registro-archivo");
+            comando.add(archivo);
+        }
+    }
 }
@@ -0,0 +1,385 @@
+package procesosreales;
+
+import arbitraje.EstrategiaArbitraje;
+import comun.Histograma;
+import comun.LatenciasEspera;
+import java.io.IOException;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Mesa en memoria compartida entre JVMs: un archivo mapeado en memoria
+ * (FileChannel.map) que todos los procesos filósofos abren a la vez.
+ *
+ * El archivo contiene la tabla de estados, el dueño de cada tenedor y los
+ * contadores de comidas y esperas. Los procesos los modifican con CAS
+ * (VarHandle sobre el MappedByteBuffer) en lugar de enviar mensajes:
+ * - Un cerrojo de giro en el archivo protege la tabla de estados, con el
+ *   mismo algoritmo que EstrategiaMonitor (pasar a HAMBRIENTO, probar, y
+ *   al soltar probar a los vecinos). El cerrojo guarda el PID de la JVM que
+ *   lo tiene: si esa JVM muere dentro de la sección crítica, quien espera
+ *   lo nota y se queda con el cerrojo (ver recuperarCerrojo). Los filósofos
+ *   de la JVM muerta conservan su estado: si estaban comiendo, sus vecinos
+ *   ya no comerán (el Launcher avisa cuando un proceso termina antes).
+ * - El filósofo que no puede comer gira sobre su propio estado y, pasado un
+ *   número de vueltas, duerme con LockSupport.parkNanos y pausas crecientes
+ *   (no se puede despertar a un hilo de otra JVM).
+ *
+ * Estructura del archivo (orden de bytes nativo):
+ *     [mágico][n][cerrojo][libre]          4 enteros (cerrojo: PID del dueño o 0)
+ *     estados[n], tenedores[n]             enteros (dueño del tenedor o -1)
+ *     comidas[n], esperaMaxima[n]          long, en nanosegundos
+ *     esperas[g][Histograma.NUM_CUBETAS]   long, cuentas de un histograma de
+ *                                          espera por grupo de filósofos (ver
+ *                                          LatenciasEspera.grupo), unos 8 KB cada uno
+ */
+public class MesaCompartida implements AccesoMesa {
+    private static final int MAGICO = 0x46494c4f;
+    private static final int POS_NUM_FILOSOFOS = 4;
+    private static final int POS_CERROJO = 8;
+    private static final int POS_ESTADOS = 16;
+    private static final int LIBRE = -1;
+
+    /** Vueltas de espera activa antes de dormir. */
+    private static final int GIROS = 2000;
+    private static final long PAUSA_MINIMA_NANOS = 1_000;
+    private static final long PAUSA_MAXIMA_NANOS = 200_000;
+    /** Cada cuántas vueltas de espera del cerrojo se revisa si su dueño vive. */
+    private static final int REVISION_DUENO = 4096;
+    private static final int PID = (int) ProcessHandle.current().pid();
+
+    private static final VarHandle ENTERO =
+        MethodHandles.byteBufferViewVarHandle(int[].class, ByteOrder.nativeOrder());
+    private static final VarHandle LARGO =
+        MethodHandles.byteBufferViewVarHandle(long[].class, ByteOrder.nativeOrder());
+
+    private final Path ruta;
+    private final FileChannel canal;
+    private final MappedByteBuffer memoria;
+    private final int numFilosofos;
+    private final int posTenedores;
+    private final int posComidas;
+    private final int posEsperaMaxima;
+    private final int posEsperas;
+    // Se lee desde los hilos de los filósofos de esta JVM
+    private volatile boolean cerrada;
+
+    private MesaCompartida(Path ruta, FileChannel canal, int numFilosofos) throws IOException {
+        this.ruta = ruta;
+        this.canal = canal;
+        this.numFilosofos = numFilosofos;
+        this.posTenedores = POS_ESTADOS + 4 * numFilosofos;
+        this.posComidas = (posTenedores + 4 * numFilosofos + 7) & ~7;
+        this.posEsperaMaxima = posComidas + 8 * numFilosofos;
+        this.posEsperas = posEsperaMaxima + 8 * numFilosofos;
+        this.memoria = canal.map(FileChannel.MapMode.READ_WRITE, 0, tamano(numFilosofos));
+    }
+
+    private static int tamano(int numFilosofos) {
+        int posComidas = (POS_ESTADOS + 8 * numFilosofos + 7) & ~7;
+        return posComidas + 16 * numFilosofos
+             + 8 * Histograma.NUM_CUBETAS * LatenciasEspera.numGrupos(numFilosofos);
+    }
+
+    /**
+     * Crea (o reemplaza) el archivo de la mesa con todos los filósofos pensando.
+     *
+     * @param ruta Archivo de la mesa
+     * @param numFilosofos Número de filósofos
+     */
+    public static MesaCompartida crear(Path ruta, int numFilosofos) throws IOException {
+        FileChannel canal = FileChannel.open(ruta, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.READ,
+                StandardOpenOption.WRITE);
+        MesaCompartida mesa = new MesaCompartida(ruta, canal, numFilosofos);
+        ENTERO.setVolatile(mesa.memoria, POS_NUM_FILOSOFOS, numFilosofos);
+        for (int i = 0; i < numFilosofos; i++) {
+            ENTERO.setVolatile(mesa.memoria, mesa.posTenedores + 4 * i, LIBRE);
+        }
+        // El número mágico se escribe al final: la mesa queda lista para abrir
+        ENTERO.setVolatile(mesa.memoria, 0, MAGICO);
+        return mesa;
+    }
+
+    /**
+     * Abre la mesa creada por otro proceso.
+     *
+     * @param ruta Archivo de la mesa
+     */
+    public static MesaCompartida abrir(Path ruta) throws IOException {
+        FileChannel canal = FileChannel.open(ruta, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        MappedByteBuffer cabecera = canal.map(FileChannel.MapMode.READ_WRITE, 0, POS_ESTADOS);
+        if ((int) ENTERO.getVolatile(cabecera, 0) != MAGICO) {
+            canal.close();
+            throw new IOException("El archivo " + ruta + " no contiene una mesa");
+        }
+        return new MesaCompartida(ruta, canal, (int) ENTERO.getVolatile(cabecera, POS_NUM_FILOSOFOS));
+    }
+
+    /**
+     * Imprime la mesa y registra el hook que muestra las estadísticas y
+     * borra el archivo al terminar.
+     */
+    public void iniciar() {
+        System.out.println("\n" + "=".repeat(70));
+        System.out.println("MESA INICIADA - MEMORIA COMPARTIDA ENTRE JVMs SEPARADAS");
+        System.out.println("=".repeat(70));
+        System.out.println("Archivo: " + ruta);
+        System.out.println("Numero de filosofos: " + numFilosofos);
+        System.out.println("Estrategia: Monitor (cerrojo de giro en memoria compartida)");
+        System.out.println("=".repeat(70) + "\n");
+
+        // Agregar shutdown hook para imprimir estadísticas al terminar
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            System.out.println("\n\nMesa cerrándose...");
+            detener();
+        }));
+    }
+
+    /**
+     * Muestra las estadísticas y borra el archivo de la mesa.
+     */
+    public void detener() {
+        mostrarEstadisticas();
+        try {
+            close();
+            Files.deleteIfExists(ruta);
+        } catch (IOException e) {
+            System.err.println("Error al detener la mesa: " + e.getMessage());
+        }
+    }
+
+    private int izq(int i) { return (i - 1 + numFilosofos) % numFilosofos; }
+    private int der(int i) { return (i + 1) % numFilosofos; }
+
+    private int estado(int i) {
+        return (int) ENTERO.getVolatile(memoria, POS_ESTADOS + 4 * i);
+    }
+
+    private void cambiarEstado(int i, int estado) {
+        ENTERO.setVolatile(memoria, POS_ESTADOS + 4 * i, estado);
+    }
+
+    @Override
+    public void registrar(int id) throws IOException {
+        if (id < 0 || id >= numFilosofos) {
+            throw new IOException("Filósofo fuera de la mesa: " + id);
+        }
+    }
+
+    /**
+     * Pide los tenedores: espera girando y luego durmiendo hasta que un
+     * vecino (en otro proceso) lo autorice.
+     */
+    @Override
+    public void tomar(int id) {
+        long inicio = System.nanoTime();
+        cerrar();
+        try {
+            cambiarEstado(id, EstrategiaArbitraje.HAMBRIENTO);
+            probar(id);
+        } finally {
+            abrir();
+        }
+
+        int vueltas = 0;
+        long pausa = PAUSA_MINIMA_NANOS;
+        while (estado(id) != EstrategiaArbitraje.COMIENDO) {
+            if (vueltas < GIROS) {
+                vueltas++;
+                Thread.onSpinWait();
+            } else {
+                LockSupport.parkNanos(pausa);
+                pausa = Math.min(2 * pausa, PAUSA_MAXIMA_NANOS);
+            }
+        }
+
+        ocuparTenedor(id, id);
+        ocuparTenedor(der(id), id);
+        long espera = System.nanoTime() - inicio;
+        LARGO.getAndAdd(memoria, posComidas + 8 * id, 1L);
+        int cubeta = LatenciasEspera.grupo(id, numFilosofos) * Histograma.NUM_CUBETAS
+                   + Histograma.cubeta(espera);
+        LARGO.getAndAdd(memoria, posEsperas + 8 * cubeta, 1L);
+        if (espera > (long) LARGO.getVolatile(memoria, posEsperaMaxima + 8 * id)) {
+            // Solo el propio filósofo escribe su máximo
+            LARGO.setVolatile(memoria, posEsperaMaxima + 8 * id, espera);
+        }
+    }
+
+    @Override
+    public void soltar(int id) {
+        liberarTenedor(der(id), id);
+        liberarTenedor(id, id);
+        cerrar();
+        try {
+            cambiarEstado(id, EstrategiaArbitraje.PENSANDO);
+            probar(izq(id));
+            probar(der(id));
+        } finally {
+            abrir();
+        }
+    }
+
+    /**
+     * Sin mensajes no hay confirmación que esperar: igual que soltar().
+     */
+    @Override
+    public void soltarSinEsperar(int id) {
+        soltar(id);
+    }
+
+    @Override
+    public void soltarYTomar(int id) {
+        soltar(id);
+        tomar(id);
+    }
+
+    /**
+     * Autoriza al filósofo si tiene hambre y ningún vecino come (con el cerrojo tomado).
+     */
+    private void probar(int i) {
+        if (estado(i) == EstrategiaArbitraje.HAMBRIENTO
+                && estado(izq(i)) != EstrategiaArbitraje.COMIENDO
+                && estado(der(i)) != EstrategiaArbitraje.COMIENDO) {
+            cambiarEstado(i, EstrategiaArbitraje.COMIENDO);
+        }
+    }
+
+    /**
+     * Toma el cerrojo de la tabla de estados (guarda el PID de esta JVM).
+     */
+    private void cerrar() {
+        int vueltas = 0;
+        while (!ENTERO.compareAndSet(memoria, POS_CERROJO, 0, PID)) {
+            if (++vueltas < GIROS) {
+                Thread.onSpinWait();
+            } else {
+                Thread.yield();
+                if (vueltas % REVISION_DUENO == 0 && recuperarCerrojo()) {
+                    return;
+                }
+            }
+        }
+    }
+
+    /**
+     * Si el dueño del cerrojo es una JVM que ya no existe, se queda con el
+     * cerrojo. Esa JVM pudo morir a mitad de la sección crítica (por ejemplo,
+     * después de pasar a PENSANDO y antes de probar a sus vecinos), así que
+     * se vuelve a probar a todos los filósofos para no dejar a nadie sin
+     * autorizar.
+     *
+     * @return true si ahora el cerrojo es de esta JVM
+     */
+    private boolean recuperarCerrojo() {
+        int dueno = (int) ENTERO.getVolatile(memoria, POS_CERROJO);
+        if (dueno == 0 || dueno == PID
+                || ProcessHandle.of(dueno).map(ProcessHandle::isAlive).orElse(false)) {
+            return false;
+        }
+        if (!ENTERO.compareAndSet(memoria, POS_CERROJO, dueno, PID)) {
+            return false;
+        }
+        System.err.println("Aviso: la JVM " + dueno + " terminó con el cerrojo de la mesa tomado;"
+                         + " lo toma la JVM " + PID);
+        for (int i = 0; i < numFilosofos; i++) {
+            probar(i);
+        }
+        return true;
+    }
+
+    private void abrir() {
+        ENTERO.setVolatile(memoria, POS_CERROJO, 0);
+    }
+
+    /**
+     * Marca el tenedor como del filósofo; si otro lo tiene, la tabla de
+     * estados dejó comer a dos vecinos a la vez.
+     */
+    private void ocuparTenedor(int tenedor, int id) {
+        if (!ENTERO.compareAndSet(memoria, posTenedores + 4 * tenedor, LIBRE, id)) {
+            throw new IllegalStateException("El tenedor " + tenedor + " ya es de "
+                    + ENTERO.getVolatile(memoria, posTenedores + 4 * tenedor));
+        }
+    }
+
+    private void liberarTenedor(int tenedor, int id) {
+        if (!ENTERO.compareAndSet(memoria, posTenedores + 4 * tenedor, id, LIBRE)) {
+            throw new IllegalStateException("El filósofo " + id + " suelta el tenedor "
+                    + tenedor + " sin tenerlo");
+        }
+    }
+
+    /**
+     * Obtiene el número de veces que comió un filósofo.
+     */
+    public long getVecesComido(int id) {
+        return (long) LARGO.getVolatile(memoria, posComidas + 8 * id);
+    }
+
+    public int getNumFilosofos() {
+        return numFilosofos;
+    }
+
+    /**
+     * Muestra estadisticas finales leídas del archivo.
+     */
+    public void mostrarEstadisticas() {
+        System.out.println("\n" + "=".repeat(70));
+        System.out.println("ESTADÍSTICAS FINALES");
+        System.out.println("=".repeat(70));
+
+        long total = 0;
+        for (int i = 0; i < numFilosofos; i++) {
+            System.out.printf("Filósofo %d comió %d veces%n", i, getVecesComido(i));
+            total += getVecesComido(i);
+        }
+
+        System.out.printf("%nTotal de veces que se comió: %d%n", total);
+        System.out.printf("Promedio por filósofo: %.2f%n", (double) total / numFilosofos);
+        System.out.printf("%nEstrategia: Monitor (memoria compartida)%n");
+        latencias().imprimir();
+        System.out.println("=".repeat(70) + "\n");
+        System.out.println(Protocolo.LINEA_COMIDAS + " " + total);
+    }
+
+    /**
+     * Arma las latencias de espera con los histogramas del archivo.
+     */
+    private LatenciasEspera latencias() {
+        int numGrupos = LatenciasEspera.numGrupos(numFilosofos);
+        long[] maximos = new long[numGrupos];
+        for (int i = 0; i < numFilosofos; i++) {
+            int g = LatenciasEspera.grupo(i, numFilosofos);
+            maximos[g] = Math.max(maximos[g], (long) LARGO.getVolatile(memoria, posEsperaMaxima + 8 * i));
+        }
+        LatenciasEspera latencias = new LatenciasEspera(numFilosofos);
+        long[] cuentas = new long[Histograma.NUM_CUBETAS];
+        for (int g = 0; g < numGrupos; g++) {
+            for (int c = 0; c < cuentas.length; c++) {
+                cuentas[c] = (long) LARGO.getVolatile(memoria, posEsperas + 8 * (g * Histograma.NUM_CUBETAS + c));
+            }
+            latencias.agregar(g, Histograma.desdeCuentas(cuentas, maximos[g]));
+        }
+        return latencias;
+    }
+
+    @Override
+    public void close() throws IOException {
+        cerrada = true;
+        canal.close();
+    }
+
+    @Override
+    public boolean estaCerrada() {
+        return cerrada;
+    }
+}
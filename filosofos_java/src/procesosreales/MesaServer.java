@@ -1,80 +1,130 @@
 package procesosreales;
 
+import arbitraje.EstrategiaArbitraje;
+import arbitraje.Estrategias;
+import comun.Evento;
+import comun.EventosJfr;
+import comun.Opciones;
+import comun.Registro;
 import java.io.*;
-import java.net.*;
+import java.net.InetSocketAddress;
+import java.net.SocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.Semaphore;
-import java.util.concurrent.atomic.AtomicIntegerArray;
-import java.util.concurrent.atomic.AtomicInteger;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.IntConsumer;
+import java.util.function.IntFunction;
 
 /**
  * Servidor central que coordina el acceso a los tenedores.
- * Usa sockets para comunicarse con procesos Java independientes (JVMs separadas).
+ * Usa sockets (TCP o de dominio Unix, ver Transporte) para comunicarse con
+ * procesos Java independientes (JVMs separadas).
  * 
  * Este servidor simula la memoria compartida y semáforos IPC mediante:
  * - Un servidor TCP que escucha solicitudes
  * - Estado centralizado de los filósofos
  * - Sincronización mediante semáforos
+ * - Estrategia de arbitraje que decide cuándo puede comer cada filósofo
+ * 
+ * Además de la mesa principal, aloja mesas con nombre que se crean cuando
+ * un filósofo se registra en ellas (ver Protocolo), cada una con sus propios
+ * semáforos y estadísticas.
+ * 
+ * La mesa principal puede repartirse entre varios procesos servidor (ver
+ * Particion): cada uno atiende a los filósofos de su parte y pide al
+ * servidor siguiente el tenedor que comparte con él (ver Protocolo).
  */
 public class MesaServer {
-    private final int numFilosofos;
-    private final int puerto;
-    private final Semaphore[] tenedoresSem;
-    private final Semaphore mutexGlobal;
-    private final AtomicIntegerArray tablaEstados;
-    private final Semaphore[] semEspera;
-    private final AtomicInteger solicitudesAtendidas;
-    private final AtomicIntegerArray vecesComido;
-    private ServerSocket serverSocket;
+    /** Tamaño máximo por defecto de una mesa con nombre (ver limitarMesas). */
+    static final int MAX_FILOSOFOS_MESA = 10_000;
+    /** Mesas con nombre abiertas a la vez, por defecto (ver limitarMesas). */
+    static final int MAX_MESAS = 16;
+    
+    private final SocketAddress direccion;
+    private final Particion particion;
+    private final int parte;
+    private final Mesa principal;
+    private final ConcurrentHashMap<String, Mesa> mesas;
+    private final IntFunction<EstrategiaArbitraje> fabricaEstrategias;
+    private final MetricasServidor metricas;
+    private ExportadorMetricas exportador;
+    private volatile int maxFilosofosMesa = MAX_FILOSOFOS_MESA;
+    private volatile int maxMesas = MAX_MESAS;
+    private final EstadisticasMesa.Cerradas cerradas = new EstadisticasMesa.Cerradas();
+    private ServerSocketChannel serverSocket;
     private volatile boolean activo = true;
-    private final List<ClientHandler> clientes;
+    // Conexiones abiertas; cada una se quita al cerrarse, con su referencia a la mesa
+    private final Set<ClientHandler> clientes;
     
-    public MesaServer(int numFilosofos, int puerto) {
-        this.numFilosofos = numFilosofos;
-        this.puerto = puerto;
-        this.clientes = new ArrayList<>();
-        
-        // Inicializar semáforos de tenedores
-        this.tenedoresSem = new Semaphore[numFilosofos];
-        for (int i = 0; i < numFilosofos; i++) {
-            tenedoresSem[i] = new Semaphore(1);
-        }
-        
-        // Lock global
-        this.mutexGlobal = new Semaphore(1);
-        
-        // Tabla de estados
-        this.tablaEstados = new AtomicIntegerArray(numFilosofos);
-        for (int i = 0; i < numFilosofos; i++) {
-            tablaEstados.set(i, 0); // PENSANDO
-        }
-        
-        // Semáforos de espera
-        this.semEspera = new Semaphore[numFilosofos];
-        for (int i = 0; i < numFilosofos; i++) {
-            semEspera[i] = new Semaphore(0);
+    public MesaServer(int numFilosofos, int puerto, EstrategiaArbitraje estrategia) {
+        this(numFilosofos, new InetSocketAddress(puerto), estrategia);
+    }
+    
+    /**
+     * @param direccion Dirección TCP o UDS donde escuchar
+     */
+    public MesaServer(int numFilosofos, SocketAddress direccion, EstrategiaArbitraje estrategia) {
+        this(numFilosofos, direccion, estrategia, new Particion(numFilosofos, 1), 0);
+    }
+    
+    /**
+     * Servidor de una parte de la mesa principal repartida entre varios
+     * procesos; las mesas con nombre no se reparten.
+     * 
+     * @param direccionBase Dirección del servidor 0; este escucha en
+     *                      Particion.direccion(direccionBase, parte)
+     * @param particion Reparto de los filósofos entre los servidores
+     * @param parte Parte que atiende este servidor
+     */
+    public MesaServer(int numFilosofos, SocketAddress direccionBase, EstrategiaArbitraje estrategia,
+                      Particion particion, int parte) {
+        this.direccion = Particion.direccion(direccionBase, parte);
+        this.particion = particion;
+        this.parte = parte;
+        this.clientes = ConcurrentHashMap.newKeySet();
+        
+        // Las mesas con nombre se crean al registrarse, con la misma estrategia
+        this.fabricaEstrategias = n -> Estrategias.crear(estrategia.getNombre(), n);
+        if (particion.getPartes() == 1) {
+            this.principal = new Mesa("", numFilosofos, estrategia);
+        } else {
+            // El tenedor derecho del último filósofo es el primero de la parte siguiente
+            int siguiente = (parte + 1) % particion.getPartes();
+            this.principal = new Mesa("", numFilosofos, estrategia, particion.primero(parte),
+                                      particion.cantidad(parte), particion.primero(siguiente),
+                                      Particion.direccion(direccionBase, siguiente));
         }
+        this.mesas = new ConcurrentHashMap<>();
+        mesas.put("", principal);
         
-        this.solicitudesAtendidas = new AtomicInteger(0);
-        
-        // Array de contadores de veces que comió cada filósofo
-        this.vecesComido = new AtomicIntegerArray(numFilosofos);
-        for (int i = 0; i < numFilosofos; i++) {
-            vecesComido.set(i, 0);
-        }
+        this.metricas = new MetricasServidor();
     }
     
     /**
      * Inicia el servidor TCP.
      */
     public void iniciar() throws IOException {
-        serverSocket = new ServerSocket(puerto);
+        serverSocket = Transporte.escuchar(direccion, 50);
         System.out.println("\n" + "=".repeat(70));
         System.out.println("SERVIDOR DE MESA INICIADO - PROCESOS REALES CON JVMs SEPARADAS");
         System.out.println("=".repeat(70));
-        System.out.println("Escuchando en puerto: " + puerto);
-        System.out.println("Numero de filosofos: " + numFilosofos);
+        System.out.println("Escuchando en " + Transporte.describir(direccion));
+        System.out.println("Numero de filosofos: " + principal.numFilosofos);
+        if (particion.getPartes() > 1) {
+            System.out.println("Servidor " + (parte + 1) + " de " + particion.getPartes() + ": "
+                             + particion.describir(parte));
+        }
+        System.out.println("Estrategia: " + principal.estrategia.getNombre());
         System.out.println("=".repeat(70) + "\n");
         
         // Agregar shutdown hook para imprimir estadísticas al terminar
@@ -87,7 +137,7 @@ public class MesaServer {
         Thread acceptThread = new Thread(() -> {
             while (activo) {
                 try {
-                    Socket clientSocket = serverSocket.accept();
+                    SocketChannel clientSocket = serverSocket.accept();
                     ClientHandler handler = new ClientHandler(clientSocket);
                     clientes.add(handler);
                     new Thread(handler).start();
@@ -102,19 +152,77 @@ public class MesaServer {
         acceptThread.start();
     }
     
+    /**
+     * Fija cuántas mesas con nombre puede haber abiertas a la vez y cuántos
+     * filósofos puede pedir un REGISTER para cada una; por encima se responde
+     * ERROR sin crear la mesa. Cada mesa reserva hasta unos 8 MB de
+     * histogramas, así que los dos límites acotan la memoria que los
+     * clientes pueden hacer reservar al servidor.
+     */
+    public void limitarMesas(int maxMesas, int maxFilosofos) {
+        this.maxMesas = maxMesas;
+        maxFilosofosMesa = maxFilosofos;
+    }
+    
+    /**
+     * Publica las métricas en http://localhost:puerto/metrics, en el formato
+     * de texto de Prometheus (ver ExportadorMetricas).
+     */
+    public void publicarMetricas(int puerto) throws IOException {
+        exportador = new ExportadorMetricas(puerto, this::escribirMetricas);
+        System.out.println("Métricas en http://localhost:" + puerto + "/metrics");
+    }
+    
+    /**
+     * Escribe las métricas del servidor y de cada mesa. Solo lee contadores
+     * atómicos: no toma mutexGlobal, así que una consulta no demora a los
+     * filósofos.
+     */
+    private void escribirMetricas(StringBuilder texto) {
+        metricas.escribir(texto);
+        List<Mesa> todas = new ArrayList<>(mesas.values());
+        
+        ExportadorMetricas.encabezado(texto, "filosofos_comidas_total", "counter",
+                                      "Comidas concedidas a cada filósofo.");
+        for (Mesa mesa : todas) {
+            for (int i = mesa.primero; i < mesa.primero + mesa.cantidad; i++) {
+                ExportadorMetricas.muestra(texto, "filosofos_comidas_total",
+                                           mesa.etiqueta() + ","
+                                           + ExportadorMetricas.etiqueta("filosofo", String.valueOf(i)),
+                                           mesa.estadisticas.vecesComido(i));
+            }
+        }
+        ExportadorMetricas.encabezado(texto, "filosofos_concesiones_pendientes", "gauge",
+                                      "Filósofos que pidieron los tenedores y aún no los tienen.");
+        for (Mesa mesa : todas) {
+            ExportadorMetricas.muestra(texto, "filosofos_concesiones_pendientes", mesa.etiqueta(),
+                                       mesa.pendientes.sum());
+        }
+        ExportadorMetricas.encabezado(texto, "filosofos_espera_concesion_segundos", "histogram",
+                                      "Tiempo desde que un filósofo pide los tenedores hasta que los tiene.");
+        for (Mesa mesa : todas) {
+            ExportadorMetricas.histograma(texto, "filosofos_espera_concesion_segundos", mesa.etiqueta(),
+                                          mesa.estadisticas.espera());
+        }
+    }
+    
     /**
      * Detiene el servidor.
      */
     public void detener() {
         activo = false;
+        if (exportador != null) {
+            exportador.detener();
+        }
         try {
             // Cerrar todas las conexiones de clientes
             for (ClientHandler cliente : clientes) {
                 cliente.cerrar();
             }
-            if (serverSocket != null && !serverSocket.isClosed()) {
-                serverSocket.close();
+            if (serverSocket != null && serverSocket.isOpen()) {
+                Transporte.cerrar(serverSocket, direccion);
             }
+            principal.cerrarVecino();
         } catch (IOException e) {
             System.err.println("Error al detener servidor: " + e.getMessage());
         }
@@ -123,196 +231,545 @@ public class MesaServer {
     }
     
     /**
-     * Calcula índices de tenedores y vecinos.
+     * Muestra estadisticas finales.
      */
-    private int izq(int i) { return i; }
-    private int der(int i) { return (i + 1) % numFilosofos; }
-    private int vecinoIzq(int i) { return (i - 1 + numFilosofos) % numFilosofos; }
-    private int vecinoDer(int i) { return (i + 1) % numFilosofos; }
+    private void mostrarEstadisticas() {
+        Registro.vaciar(1000);
+        System.out.println("\n" + "=".repeat(70));
+        System.out.println("ESTADÍSTICAS FINALES");
+        System.out.println("=".repeat(70));
+        
+        principal.estadisticas.imprimir(principal.estrategia.getNombre(),
+                                        principal.primero, principal.cantidad);
+        metricas.imprimir("bloqueante", "un hilo por conexión");
+        List<EstadisticasMesa> todas = new ArrayList<>();
+        for (Mesa mesa : mesas.values()) {
+            todas.add(mesa.estadisticas);
+        }
+        EstadisticasMesa.imprimirResumen(todas, cerradas);
+        Registro.imprimirResumen();
+        System.out.println("=".repeat(70) + "\n");
+        System.out.println(Protocolo.LINEA_COMIDAS + " " + principal.estadisticas.totalComidas());
+    }
     
     /**
-     * Verifica si el filósofo puede comer.
+     * Obtiene la mesa de un REGISTER, creándola si hace falta, y le suma la
+     * conexión; la conexión la deja con dejarMesa.
+     * 
+     * @param partes Mensaje REGISTER separado por ':'
+     * @return La mesa, o null si el tamaño pedido no es válido, supera
+     *         maxFilosofosMesa o no coincide con el de la mesa ya creada, o
+     *         si hay que crearla y ya hay maxMesas abiertas, o si el nombre
+     *         es el de la mesa principal
      */
-    private boolean autorizar(int id) {
-        if (tablaEstados.get(id) != 1) { // No está HAMBRIENTO
-            return false;
+    private Mesa mesaDe(String[] partes) {
+        String nombre = Protocolo.opcion(partes, Protocolo.OPCION_MESA);
+        if (nombre == null || nombre.isEmpty()) {
+            return principal;
         }
-        
-        int vecIzq = vecinoIzq(id);
-        int vecDer = vecinoDer(id);
-        
-        boolean puedeComer = (
-            tablaEstados.get(vecIzq) != 2 && // Vecino izq no esta COMIENDO
-            tablaEstados.get(vecDer) != 2     // Vecino der no esta COMIENDO
-        );
-        
-        if (puedeComer) {
-            tablaEstados.set(id, 2); // COMIENDO
-            System.out.println("  [SERVIDOR] Filosofo " + id + " autorizado para COMER");
-            return true;
-        } else {
-            System.out.println("  [SERVIDOR] Filosofo " + id + " debe esperar (vecinos comiendo)");
-            return false;
+        if (nombre.equals(Protocolo.MESA_PRINCIPAL)) {
+            // Repetiría las series de la mesa principal en las métricas
+            return null;
+        }
+        String opcionTamano = Protocolo.opcion(partes, Protocolo.OPCION_TAMANO_MESA);
+        int tamano;
+        try {
+            tamano = opcionTamano == null ? principal.numFilosofos : Integer.parseInt(opcionTamano);
+        } catch (NumberFormatException e) {
+            return null;
+        }
+        if (tamano < 2 || tamano > maxFilosofosMesa) {
+            return null;
+        }
+        synchronized (mesas) {
+            Mesa mesa = mesas.get(nombre);
+            if (mesa == null) {
+                // La mesa principal también está en el mapa
+                if (mesas.size() > maxMesas) {
+                    return null;
+                }
+                mesa = new Mesa(nombre, tamano, fabricaEstrategias.apply(tamano));
+                mesas.put(nombre, mesa);
+            } else if (opcionTamano != null && mesa.numFilosofos != tamano) {
+                return null;
+            }
+            mesa.conexiones++;
+            return mesa;
+        }
+    }
+    
+    /**
+     * Resta una conexión de la mesa; una mesa con nombre sin conexiones se
+     * elimina y sus estadísticas se suman a las de las mesas cerradas.
+     */
+    private void dejarMesa(Mesa mesa) {
+        if (mesa == principal) {
+            return;
+        }
+        synchronized (mesas) {
+            if (--mesa.conexiones == 0) {
+                mesas.remove(mesa.nombre);
+                cerradas.agregar(mesa.estadisticas);
+            }
         }
     }
     
     /**
-     * Procesa solicitud para tomar tenedores.
+     * Una mesa del servidor, con sus propios semáforos, estrategia y
+     * estadísticas: las solicitudes de una mesa nunca esperan el lock de otra.
+     * 
+     * Si la mesa está repartida, solo atiende a los filósofos primero..
+     * primero+cantidad-1; para los demás la estrategia los ve siempre
+     * PENSANDO, y el tenedor que comparte con la parte siguiente se pide a
+     * su servidor.
      */
-    private void tomarTenedores(int id) throws InterruptedException {
-        mutexGlobal.acquire();
+    private class Mesa {
+        // Nombre en las métricas y en los eventos de JFR
+        private final String nombre;
+        private final int numFilosofos;
+        private final int primero;
+        private final int cantidad;
+        private final int tenedorRemoto;
+        private final SocketAddress direccionVecino;
+        private ConexionMesa vecino;
+        private final Semaphore[] tenedoresSem;
+        private final Semaphore mutexGlobal;
+        private final EstrategiaArbitraje estrategia;
+        private final IntConsumer notificarConcedido;
+        private final Semaphore[] semEspera;
+        private final EstadisticasMesa estadisticas;
+        // Filósofos dentro de tomarTenedores, para las métricas HTTP
+        private final LongAdder pendientes = new LongAdder();
+        // Conexiones registradas en la mesa (con el monitor de mesas tomado)
+        private int conexiones;
+        
+        Mesa(String nombre, int numFilosofos, EstrategiaArbitraje estrategia) {
+            this(nombre, numFilosofos, estrategia, 0, numFilosofos, -1, null);
+        }
+        
+        /**
+         * @param primero Primer filósofo que atiende este servidor
+         * @param cantidad Filósofos que atiende este servidor
+         * @param tenedorRemoto Tenedor que pertenece a otro servidor, o -1
+         * @param direccionVecino Dirección del servidor dueño de tenedorRemoto
+         */
+        Mesa(String nombre, int numFilosofos, EstrategiaArbitraje estrategia, int primero,
+             int cantidad, int tenedorRemoto, SocketAddress direccionVecino) {
+            this.nombre = nombre.isEmpty() ? Protocolo.MESA_PRINCIPAL : nombre;
+            this.numFilosofos = numFilosofos;
+            this.primero = primero;
+            this.cantidad = cantidad;
+            this.tenedorRemoto = tenedorRemoto;
+            this.direccionVecino = direccionVecino;
+            
+            // Inicializar semáforos de tenedores
+            this.tenedoresSem = new Semaphore[numFilosofos];
+            for (int i = 0; i < numFilosofos; i++) {
+                tenedoresSem[i] = new Semaphore(1);
+            }
+            
+            // Lock de la mesa
+            this.mutexGlobal = new Semaphore(1);
+            
+            // Tabla de estados (mantenida por la estrategia)
+            this.estrategia = estrategia;
+            this.notificarConcedido = this::notificar;
+            
+            // Semáforos de espera
+            this.semEspera = new Semaphore[numFilosofos];
+            for (int i = 0; i < numFilosofos; i++) {
+                semEspera[i] = new Semaphore(0);
+            }
+            
+            this.estadisticas = new EstadisticasMesa(nombre, numFilosofos);
+        }
+        
+        /**
+         * Calcula índices de tenedores y vecinos.
+         */
+        private int izq(int i) { return i; }
+        private int der(int i) { return (i + 1) % numFilosofos; }
+        
+        /**
+         * Etiqueta de la mesa en las métricas.
+         */
+        private String etiqueta() {
+            return ExportadorMetricas.etiqueta("mesa", nombre);
+        }
         
-        tablaEstados.set(id, 1); // HAMBRIENTO
-        System.out.printf("  [SERVIDOR] Filosofo %d solicita tenedores %d y %d%n", 
-                         id, izq(id), der(id));
+        /**
+         * Indica si este servidor atiende a los filósofos id..id+n-1.
+         */
+        private boolean atiende(int id, int n) {
+            return id >= primero && id + n <= primero + cantidad;
+        }
         
-        if (autorizar(id)) {
+        /**
+         * Despierta al filósofo que la estrategia acaba de autorizar.
+         */
+        private void notificar(int id) {
+            Registro.evento(Evento.SERVIDOR_AUTORIZADO, id);
+            Registro.evento(Evento.SERVIDOR_NOTIFICA, id);
             semEspera[id].release();
-        } else {
-            System.out.println("  [SERVIDOR] Filosofo " + id + " bloqueado esperando recursos");
         }
         
-        mutexGlobal.release();
+        /**
+         * Procesa solicitud para tomar tenedores.
+         */
+        private void tomarTenedores(int id) throws IOException, InterruptedException {
+            long inicio = System.nanoTime();
+            pendientes.increment();
+            EventosJfr.hambriento(nombre, id, izq(id), der(id));
+            try {
+                mutexGlobal.acquire();
         
-        // Esperar autorizacion
-        semEspera[id].acquire();
+                Registro.evento(Evento.SERVIDOR_SOLICITA, id, izq(id), der(id));
         
-        // Tomar semáforos de tenedores
-        tenedoresSem[izq(id)].acquire();
-        tenedoresSem[der(id)].acquire();
+                // Cambiar estado a HAMBRIENTO e intentar autorizar
+                if (estrategia.solicitar(id)) {
+                    Registro.evento(Evento.SERVIDOR_AUTORIZADO, id);
+                    semEspera[id].release();
+                } else {
+                    Registro.evento(Evento.SERVIDOR_ESPERA, id);
+                    Registro.evento(Evento.SERVIDOR_BLOQUEADO, id);
+                }
         
-        System.out.printf("  [SERVIDOR] Filosofo %d tomo tenedores %d y %d%n", 
-                         id, izq(id), der(id));
+                mutexGlobal.release();
         
-        solicitudesAtendidas.incrementAndGet();
-    }
-    
-    /**
-     * Procesa solicitud para soltar tenedores.
-     */
-    private void soltarTenedores(int id) throws InterruptedException {
-        // Liberar semáforos
-        tenedoresSem[der(id)].release();
-        tenedoresSem[izq(id)].release();
+                // Esperar autorizacion
+                semEspera[id].acquire();
+                EventosJfr.concedido(nombre, id, izq(id), der(id));
         
-        System.out.printf("  [SERVIDOR] Filosofo %d libero tenedores %d y %d%n", 
-                         id, izq(id), der(id));
+                // Tomar los tenedores en orden creciente: con la mesa repartida, el
+                // orden global evita un ciclo de esperas entre servidores
+                tomarTenedor(Math.min(izq(id), der(id)));
+                EventosJfr.tenedorTomado(nombre, id, Math.min(izq(id), der(id)));
+                tomarTenedor(Math.max(izq(id), der(id)));
+                EventosJfr.tenedorTomado(nombre, id, Math.max(izq(id), der(id)));
+            } finally {
+                pendientes.decrement();
+            }
         
-        mutexGlobal.acquire();
+            Registro.evento(Evento.SERVIDOR_TOMO, id, izq(id), der(id));
+            EventosJfr.comiendo(nombre, id, izq(id), der(id));
         
-        tablaEstados.set(id, 0); // PENSANDO
+            // La comida se cuenta al conceder, sin esperar un COMER del cliente
+            estadisticas.comio(id, System.nanoTime() - inicio);
+        }
         
-        // Intentar despertar vecinos
-        int vecIzq = vecinoIzq(id);
-        int vecDer = vecinoDer(id);
+        /**
+         * Procesa solicitud para soltar tenedores.
+         */
+        private void soltarTenedores(int id) throws IOException, InterruptedException {
+            // Liberar semáforos
+            soltarTenedor(der(id));
+            soltarTenedor(izq(id));
         
-        if (autorizar(vecIzq)) {
-            System.out.println("  [SERVIDOR] Notificando a Filosofo " + vecIzq);
-            semEspera[vecIzq].release();
+            Registro.evento(Evento.SERVIDOR_LIBERO, id, izq(id), der(id));
+            EventosJfr.liberado(nombre, id, izq(id), der(id));
+        
+            mutexGlobal.acquire();
+        
+            // Cambiar estado a PENSANDO e intentar despertar vecinos
+            estrategia.liberar(id, notificarConcedido);
+        
+            mutexGlobal.release();
         }
         
-        if (autorizar(vecDer)) {
-            System.out.println("  [SERVIDOR] Notificando a Filosofo " + vecDer);
-            semEspera[vecDer].release();
+        private void tomarTenedor(int tenedor) throws IOException, InterruptedException {
+            if (tenedor == tenedorRemoto) {
+                vecino().tomarTenedor(tenedor);
+            } else {
+                tenedoresSem[tenedor].acquire();
+            }
         }
         
-        mutexGlobal.release();
-    }
-    
-    /**
-     * Muestra estadisticas finales.
-     */
-    private void mostrarEstadisticas() {
-        System.out.println("\n" + "=".repeat(70));
-        System.out.println("ESTADÍSTICAS FINALES");
-        System.out.println("=".repeat(70));
+        private void soltarTenedor(int tenedor) throws IOException {
+            if (tenedor == tenedorRemoto) {
+                vecino().soltarTenedor(tenedor);
+            } else {
+                tenedoresSem[tenedor].release();
+            }
+        }
         
-        int total = 0;
-        for (int i = 0; i < numFilosofos; i++) {
-            System.out.printf("Filósofo %d comió %d veces%n", i, vecesComido.get(i));
-            total += vecesComido.get(i);
+        /**
+         * Conexión con el servidor dueño del tenedor remoto, abierta la primera
+         * vez que se usa (los servidores arrancan en cualquier orden). Solo la
+         * usa el último filósofo de la parte.
+         */
+        private synchronized ConexionMesa vecino() throws IOException {
+            if (vecino == null) {
+                ConexionMesa conexion = new ConexionMesa(direccionVecino, true);
+                conexion.registrar(tenedorRemoto);
+                vecino = conexion;
+            }
+            return vecino;
         }
         
-        System.out.printf("%nTotal de veces que se comió: %d%n", total);
-        System.out.printf("Promedio por filósofo: %.2f%n", (double)total / numFilosofos);
-        System.out.println("=".repeat(70) + "\n");
+        private synchronized void cerrarVecino() throws IOException {
+            if (vecino != null) {
+                vecino.close();
+            }
+        }
     }
-    
+        
     /**
      * Handler para cada cliente (filósofo) conectado.
      */
     private class ClientHandler implements Runnable {
-        private final Socket socket;
+        private final SocketChannel socket;
         private BufferedReader in;
         private PrintWriter out;
         private int filosofoId = -1;
-        
-        public ClientHandler(Socket socket) {
+        private int multiplexados = 1;
+        private Mesa mesa = principal;
+        private boolean binario;
+        // La conexión es de otro servidor de la mesa repartida, que puede
+        // terminar antes que este sin que sea un error
+        private volatile boolean deServidor;
+        
+        public ClientHandler(SocketChannel socket) {
             this.socket = socket;
         }
         
         @Override
         public void run() {
             try {
-                in = new BufferedReader(new InputStreamReader(socket.getInputStream()));
-                out = new PrintWriter(socket.getOutputStream(), true);
+                // Sin Nagle: con SOLTAR canalizado se escriben dos respuestas seguidas
+                // y la segunda esperaría el ACK retrasado de la primera
+                Transporte.configurar(socket);
+                in = new BufferedReader(new InputStreamReader(Channels.newInputStream(socket)));
+                out = new PrintWriter(Channels.newOutputStream(socket), true);
+                metricas.conexionAbierta();
                 
                 String mensaje;
-                while ((mensaje = in.readLine()) != null) {
+                while (!binario && (mensaje = in.readLine()) != null) {
                     procesarMensaje(mensaje);
                 }
+                if (binario && multiplexados > 1) {
+                    atenderMultiplexado();
+                } else if (binario) {
+                    atenderBinario();
+                }
             } catch (IOException e) {
-                if (activo) {
+                if (activo && !deServidor) {
                     System.err.println("Error en cliente: " + e.getMessage());
                 }
             } catch (InterruptedException e) {
                 Thread.currentThread().interrupt();
             } finally {
+                if (out != null) {
+                    metricas.conexionCerrada();
+                }
                 cerrar();
+                clientes.remove(this);
+                dejarMesa(mesa);
             }
         }
         
-        private void procesarMensaje(String mensaje) throws InterruptedException {
+        private void procesarMensaje(String mensaje) throws IOException, InterruptedException {
+            long inicio = System.nanoTime();
             String[] partes = mensaje.split(":");
             String comando = partes[0];
             
-            switch (comando) {
-                case "REGISTER":
-                    filosofoId = Integer.parseInt(partes[1]);
-                    System.out.println("  [SERVIDOR] Filosofo " + filosofoId + " conectado desde proceso separado");
-                    out.println("OK");
-                    break;
-                    
-                case "TOMAR":
-                    int idTomar = Integer.parseInt(partes[1]);
-                    tomarTenedores(idTomar);
-                    out.println("OK");
-                    break;
-                    
-                case "SOLTAR":
-                    int idSoltar = Integer.parseInt(partes[1]);
-                    soltarTenedores(idSoltar);
-                    out.println("OK");
-                    break;
+            if (comando.equals("REGISTER")) {
+                metricas.registro();
+                filosofoId = Integer.parseInt(partes[1]);
+                int cantidad = Protocolo.multiplexados(partes);
+                Mesa elegida = cantidad < 0 ? null : mesaDe(partes);
+                if (elegida == null || !elegida.atiende(filosofoId, cantidad)) {
+                    if (elegida != null) {
+                        dejarMesa(elegida);
+                    }
+                    out.println(Protocolo.texto(Protocolo.ERROR));
+                    return;
+                }
+                // Un segundo REGISTER cambia de mesa
+                dejarMesa(mesa);
+                mesa = elegida;
+                multiplexados = cantidad;
+                binario = Protocolo.pideBinario(partes);
+                for (int i = 0; i < multiplexados; i++) {
+                    Registro.evento(Evento.SERVIDOR_CONECTADO, filosofoId + i);
+                }
+                out.println("OK");
+            } else {
+                int id = -1;
+                if (partes.length > 1) {
+                    try {
+                        id = Integer.parseInt(partes[1]);
+                    } catch (NumberFormatException e) {
+                        // Queda -1 y se responde ERROR
+                    }
+                }
+                out.println(Protocolo.texto(atender(Protocolo.codigo(comando), id)));
+            }
+            metricas.solicitudAtendida(System.nanoTime() - inicio);
+        }
+        
+        /**
+         * Atiende tramas binarias hasta que el cliente cierre la conexión.
+         * El cliente espera el OK del REGISTER antes de enviar la primera
+         * trama, así que el BufferedReader no leyó bytes de más.
+         */
+        private void atenderBinario() throws IOException, InterruptedException {
+            DataInputStream entrada = new DataInputStream(
+                new BufferedInputStream(Channels.newInputStream(socket), 64));
+            DataOutputStream salida = new DataOutputStream(
+                new BufferedOutputStream(Channels.newOutputStream(socket), 64));
+            while (true) {
+                byte codigo;
+                try {
+                    codigo = entrada.readByte();
+                } catch (EOFException e) {
+                    return;
+                }
+                int id = entrada.readInt();
+                int secuencia = entrada.readInt();
+                long inicio = System.nanoTime();
                 
-                case "COMER":
-                    int idComer = Integer.parseInt(partes[1]);
-                    vecesComido.incrementAndGet(idComer);
-                    out.println("OK");
-                    break;
-                    
-                case "PING":
-                    out.println("PONG");
-                    break;
+                byte respuesta = atender(codigo, id);
+                salida.writeByte(respuesta);
+                salida.writeInt(id);
+                salida.writeInt(secuencia);
+                salida.flush();
+                metricas.solicitudAtendida(System.nanoTime() - inicio);
+            }
+        }
+        
+        /**
+         * Atiende las tramas de una conexión con varios filósofos. Como un
+         * TOMAR bloquea, cada filósofo tiene su propio hilo con una cola de
+         * solicitudes, que atiende en orden; este hilo solo lee y reparte.
+         * Las respuestas se escriben en el canal y no con Channels.newOutputStream,
+         * que esperaría a que termine la lectura en curso de este hilo.
+         */
+        private void atenderMultiplexado() throws IOException, InterruptedException {
+            DataInputStream entrada = new DataInputStream(
+                new BufferedInputStream(Channels.newInputStream(socket), 64 * Protocolo.TAMANO_TRAMA));
+            ByteBuffer salida = ByteBuffer.allocate(Protocolo.TAMANO_TRAMA);
+            List<BlockingQueue<Long>> colas = new ArrayList<>(Collections.nCopies(multiplexados, null));
+            Thread[] hilos = new Thread[multiplexados];
+            try {
+                while (true) {
+                    byte codigo;
+                    try {
+                        codigo = entrada.readByte();
+                    } catch (EOFException e) {
+                        return;
+                    }
+                    int id = entrada.readInt();
+                    int secuencia = entrada.readInt();
+                    long inicio = System.nanoTime();
+                    int i = id - filosofoId;
                     
+                    if (i < 0 || i >= multiplexados) {
+                        responder(salida, Protocolo.ERROR, id, secuencia, inicio);
+                        continue;
+                    }
+                    if (colas.get(i) == null) {
+                        BlockingQueue<Long> cola = new LinkedBlockingQueue<>();
+                        colas.set(i, cola);
+                        hilos[i] = new Thread(() -> atenderFilosofo(id, cola, salida), "filosofo-" + id);
+                        hilos[i].setDaemon(true);
+                        hilos[i].start();
+                    }
+                    colas.get(i).put((long) codigo << 32 | (secuencia & 0xFFFFFFFFL));
+                }
+            } finally {
+                for (Thread hilo : hilos) {
+                    if (hilo != null) {
+                        hilo.interrupt();
+                    }
+                }
+            }
+        }
+        
+        /**
+         * Atiende en orden las solicitudes de un filósofo de una conexión
+         * multiplexada, hasta que la conexión se cierre.
+         */
+        private void atenderFilosofo(int id, BlockingQueue<Long> cola, ByteBuffer salida) {
+            try {
+                while (true) {
+                    long solicitud = cola.take();
+                    long inicio = System.nanoTime();
+                    byte respuesta = atender((byte) (solicitud >>> 32), id);
+                    responder(salida, respuesta, id, (int) solicitud, inicio);
+                }
+            } catch (InterruptedException e) {
+                // La conexión se cerró
+            } catch (IOException e) {
+                // Si la conexión ya se cerró (o se interrumpió la escritura), no es un error
+                if (activo && socket.isOpen()) {
+                    System.err.println("Error en filósofo " + id + ": " + e.getMessage());
+                }
+                cerrar();
+            }
+        }
+        
+        /**
+         * Escribe una trama de respuesta; los hilos de los filósofos de la
+         * conexión comparten la salida.
+         */
+        private void responder(ByteBuffer salida, byte respuesta, int id, int secuencia,
+                               long inicio) throws IOException {
+            synchronized (salida) {
+                salida.clear();
+                Protocolo.escribirTrama(salida, respuesta, id, secuencia);
+                salida.flip();
+                while (salida.hasRemaining()) {
+                    socket.write(salida);
+                }
+            }
+            metricas.solicitudAtendida(System.nanoTime() - inicio);
+        }
+        
+        /**
+         * Atiende una solicitud (de texto o binaria) y devuelve el código de respuesta.
+         * Los TOMAR_TENEDOR y SOLTAR_TENEDOR llegan de otro servidor de la mesa
+         * repartida e indican un tenedor en lugar de un filósofo.
+         */
+        private byte atender(byte codigo, int id) throws IOException, InterruptedException {
+            metricas.solicitud(codigo);
+            if (codigo == Protocolo.PING) {
+                return Protocolo.PONG;
+            }
+            if (!mesa.atiende(id, 1)) {
+                return Protocolo.ERROR;
+            }
+            if (codigo == Protocolo.TOMAR_TENEDOR) {
+                deServidor = true;
+                mesa.tomarTenedor(id);
+                return Protocolo.OK;
+            }
+            if (codigo == Protocolo.SOLTAR_TENEDOR) {
+                mesa.soltarTenedor(id);
+                return Protocolo.OK;
+            }
+            mesa.estadisticas.solicitudAtendida();
+            switch (codigo) {
+                case Protocolo.TOMAR:
+                    mesa.tomarTenedores(id);
+                    return Protocolo.OK;
+                case Protocolo.SOLTAR:
+                    mesa.soltarTenedores(id);
+                    return Protocolo.OK;
+                case Protocolo.SOLTAR_TOMAR:
+                    mesa.soltarTenedores(id);
+                    mesa.tomarTenedores(id);
+                    return Protocolo.OK;
+                case Protocolo.COMER:
+                    // Ya contada al conceder TOMAR; se acepta por compatibilidad
+                    return Protocolo.OK;
                 default:
-                    out.println("ERROR:Comando desconocido");
+                    return Protocolo.ERROR;
             }
         }
         
         public void cerrar() {
             try {
-                if (socket != null && !socket.isClosed()) {
+                if (socket != null && socket.isOpen()) {
                     socket.close();
                 }
             } catch (IOException e) {
@@ -323,28 +780,114 @@ public class MesaServer {
     
     /**
      * Punto de entrada del servidor.
+     * 
+     * Uso:
+     *   java procesosreales.MesaServer [num_filosofos] [puerto] [--estrategia nombre]
+     *                                  [--modo bloqueante|nio] [--trabajadores k]
+     *                                  [--transporte tcp|uds|memoria] [--socket ruta]
+     *                                  [--memoria ruta]
+     *                                  [--servidores S --parte k] [--metricas-puerto P]
+     *                                  [--max-mesas M] [--max-filosofos-mesa N]
+     *                                  [--registro nivel] [--muestreo N] [--registro-archivo ruta]
+     * 
+     * Opciones:
+     *   --estrategia    monitor (por defecto) o envejecimiento[:U], que acota la espera
+     *                   de cada filósofo a unos U microsegundos (ver EstrategiaEnvejecimiento);
+     *                   con --transporte memoria solo monitor
+     *   --modo          bloqueante: un hilo por conexión (por defecto)
+     *                   nio: MesaServerNIO, k hilos con Selector para todas las conexiones
+     *   --trabajadores  hilos de MesaServerNIO (por defecto: núcleos disponibles)
+     *   --transporte    tcp: escucha en el puerto (por defecto)
+     *                   uds: escucha en un socket de dominio Unix, solo clientes locales
+     *                   memoria: no escucha; crea la mesa en un archivo mapeado en memoria
+     *                   que los filósofos modifican directamente (ver MesaCompartida)
+     *   --socket        ruta del socket UDS (por defecto: mesa-filosofos-PUERTO.sock en el
+     *                   directorio temporal)
+     *   --memoria       ruta de la mesa compartida (por defecto: mesa-filosofos-PUERTO.mem
+     *                   en /dev/shm)
+     *   --servidores    reparte la mesa entre S procesos servidor (solo bloqueante, por
+     *                   TCP o UDS); este atiende la parte k (0..S-1) y escucha en el
+     *                   puerto PUERTO+k (o en el socket con el sufijo "-k")
+     *   --metricas-puerto  publica las métricas en http://localhost:P/metrics, en el
+     *                   formato de Prometheus (solo bloqueante, ver ExportadorMetricas)
+     *   --max-mesas     mesas con nombre abiertas a la vez; un REGISTER que crearía
+     *                   otra recibe ERROR (por defecto: 16). Una mesa se elimina
+     *                   cuando se cierra su última conexión
+     *   --max-filosofos-mesa  tamaño máximo de una mesa con nombre; un REGISTER que
+     *                   pide más recibe ERROR (por defecto: 10000)
      */
     public static void main(String[] args) {
-        int numFilosofos = 5;
-        int puerto = 9999;
-        
-        if (args.length > 0) {
-            numFilosofos = Integer.parseInt(args[0]);
+        Opciones opciones = new Opciones(args);
+        int numFilosofos = opciones.entero(0, 5, "El número de filósofos debe ser un entero.");
+        int puerto = opciones.entero(1, 9999, "El puerto debe ser un entero.");
+        String nombreEstrategia = Estrategias.desdeOpciones(opciones);
+        String modo = opciones.opcion("modo", "bloqueante", "bloqueante", "nio");
+        int numTrabajadores = opciones.entero("trabajadores",
+                                              Runtime.getRuntime().availableProcessors());
+        String transporte = Transporte.nombre(opciones);
+        int servidores = opciones.entero("servidores", 1);
+        int parte = opciones.entero("parte", 0);
+        int puertoMetricas = opciones.entero("metricas-puerto", 0);
+        int maxMesas = opciones.entero("max-mesas", MAX_MESAS);
+        int maxFilosofosMesa = opciones.entero("max-filosofos-mesa", MAX_FILOSOFOS_MESA);
+        if (servidores > 1 && (!modo.equals("bloqueante") || transporte.equals("memoria"))) {
+            System.err.println("Error: --servidores requiere --modo bloqueante y transporte tcp o uds.");
+            System.exit(1);
         }
-        if (args.length > 1) {
-            puerto = Integer.parseInt(args[1]);
+        if (!nombreEstrategia.equals("monitor") && transporte.equals("memoria")) {
+            // MesaCompartida solo implementa el algoritmo del monitor
+            System.err.println("Error: --transporte memoria solo admite --estrategia monitor.");
+            System.exit(1);
         }
-        
-        MesaServer servidor = new MesaServer(numFilosofos, puerto);
+        if (puertoMetricas != 0 && (!modo.equals("bloqueante") || transporte.equals("memoria"))) {
+            System.err.println("Error: --metricas-puerto requiere --modo bloqueante y transporte tcp o uds.");
+            System.exit(1);
+        }
+        if (servidores < 1 || servidores > numFilosofos || parte < 0 || parte >= servidores) {
+            System.err.println("Error: --servidores debe estar entre 1 y el número de filósofos"
+                             + " y --parte entre 0 y servidores-1.");
+            System.exit(1);
+        }
+        if (maxMesas < 0 || maxFilosofosMesa < 2) {
+            System.err.println("Error: --max-mesas no puede ser negativo y --max-filosofos-mesa"
+                             + " debe ser al menos 2.");
+            System.exit(1);
+        }
+        Registro.configurar(opciones);
         
         try {
-            servidor.iniciar();
+            Runnable detener;
+            if (transporte.equals("memoria")) {
+                MesaCompartida mesa = MesaCompartida.crear(Transporte.rutaMemoria(opciones, puerto),
+                                                           numFilosofos);
+                mesa.iniciar();
+                detener = mesa::detener;
+            } else if (modo.equals("nio")) {
+                SocketAddress direccion = Transporte.desdeOpciones(opciones, null, puerto);
+                MesaServerNIO servidor = new MesaServerNIO(numFilosofos, direccion,
+                        Estrategias.crear(nombreEstrategia, numFilosofos), numTrabajadores);
+                servidor.limitarMesas(maxMesas, maxFilosofosMesa);
+                servidor.iniciar();
+                detener = servidor::detener;
+            } else {
+                SocketAddress direccion = Transporte.desdeOpciones(opciones, null, puerto);
+                MesaServer servidor = new MesaServer(numFilosofos, direccion,
+                        Estrategias.crear(nombreEstrategia, numFilosofos),
+                        new Particion(numFilosofos, servidores), parte);
+                servidor.limitarMesas(maxMesas, maxFilosofosMesa);
+                servidor.iniciar();
+                if (puertoMetricas != 0) {
+                    servidor.publicarMetricas(puertoMetricas);
+                }
+                detener = servidor::detener;
+            }
             
             // Mantener el servidor activo
             System.out.println("Servidor activo. Presiona Enter para detener...");
+            System.out.println(Protocolo.LINEA_LISTO);
             new BufferedReader(new InputStreamReader(System.in)).readLine();
             
-            servidor.detener();
+            detener.run();
         } catch (IOException e) {
             System.err.println("Error: " + e.getMessage());
             e.printStackTrace();
@@ -0,0 +1,737 @@
+package procesosreales;
+
+import arbitraje.EstrategiaArbitraje;
+import arbitraje.Estrategias;
+import comun.Evento;
+import comun.Registro;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.SocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.IntConsumer;
+import java.util.function.IntFunction;
+
+/**
+ * Servidor de la mesa con E/S no bloqueante (java.nio).
+ *
+ * Atiende el mismo protocolo que MesaServer (texto o tramas binarias, ver
+ * Protocolo), pero con un número fijo
+ * de hilos: un hilo acepta conexiones y las reparte entre k trabajadores, cada
+ * uno con su propio Selector. Ningún hilo se bloquea esperando tenedores:
+ * un TOMAR que no puede concederse queda pendiente y se responde cuando
+ * soltarTenedores de un vecino lo autoriza, desde el hilo que procesó ese SOLTAR.
+ *
+ * Como MesaServer, aloja mesas con nombre creadas al registrarse, cada una
+ * con su propio lock; los trabajadores son compartidos por todas.
+ */
+public class MesaServerNIO {
+    private static final byte[] RESPUESTA_OK = ascii("OK\n");
+    private static final byte[] RESPUESTA_PONG = ascii("PONG\n");
+    private static final byte[] RESPUESTA_ERROR = ascii("ERROR:Comando desconocido\n");
+    private static final byte[] COMANDO_REGISTER = ascii("REGISTER");
+    private static final byte[] COMANDO_TOMAR = ascii("TOMAR");
+    private static final byte[] COMANDO_SOLTAR = ascii("SOLTAR");
+    private static final byte[] COMANDO_SOLTAR_TOMAR = ascii("SOLTAR_TOMAR");
+    private static final byte[] COMANDO_COMER = ascii("COMER");
+    private static final byte[] COMANDO_PING = ascii("PING");
+    private static final int TAMANO_LINEA = 256;
+
+    private final SocketAddress direccion;
+    private final Mesa principal;
+    private final ConcurrentHashMap<String, Mesa> mesas;
+    private final IntFunction<EstrategiaArbitraje> fabricaEstrategias;
+    private final MetricasServidor metricas;
+    private final Trabajador[] trabajadores;
+    private volatile int maxFilosofosMesa = MesaServer.MAX_FILOSOFOS_MESA;
+    private volatile int maxMesas = MesaServer.MAX_MESAS;
+    private final EstadisticasMesa.Cerradas cerradas = new EstadisticasMesa.Cerradas();
+    private ServerSocketChannel canalServidor;
+    private volatile boolean activo = true;
+
+    /**
+     * @param numFilosofos Número de filósofos de la mesa
+     * @param puerto Puerto TCP donde escuchar
+     * @param estrategia Estrategia que decide cuándo puede comer cada filósofo
+     * @param numTrabajadores Número de hilos con Selector que atienden las conexiones
+     */
+    public MesaServerNIO(int numFilosofos, int puerto, EstrategiaArbitraje estrategia,
+                         int numTrabajadores) throws IOException {
+        this(numFilosofos, new InetSocketAddress(puerto), estrategia, numTrabajadores);
+    }
+
+    /**
+     * @param direccion Dirección TCP o UDS donde escuchar (ver Transporte)
+     */
+    public MesaServerNIO(int numFilosofos, SocketAddress direccion, EstrategiaArbitraje estrategia,
+                         int numTrabajadores) throws IOException {
+        this.direccion = direccion;
+        // Las mesas con nombre se crean al registrarse, con la misma estrategia
+        this.fabricaEstrategias = n -> Estrategias.crear(estrategia.getNombre(), n);
+        this.principal = new Mesa("", numFilosofos, estrategia);
+        this.mesas = new ConcurrentHashMap<>();
+        mesas.put("", principal);
+        this.metricas = new MetricasServidor();
+
+        this.trabajadores = new Trabajador[Math.max(1, numTrabajadores)];
+        for (int i = 0; i < trabajadores.length; i++) {
+            trabajadores[i] = new Trabajador(Selector.open());
+        }
+    }
+
+    private static byte[] ascii(String texto) {
+        return texto.getBytes(StandardCharsets.US_ASCII);
+    }
+
+    /**
+     * Fija cuántas mesas con nombre puede haber abiertas a la vez y cuántos
+     * filósofos puede pedir un REGISTER para cada una, como
+     * MesaServer.limitarMesas.
+     */
+    public void limitarMesas(int maxMesas, int maxFilosofos) {
+        this.maxMesas = maxMesas;
+        maxFilosofosMesa = maxFilosofos;
+    }
+
+    /**
+     * Inicia el servidor: el hilo que acepta conexiones y los trabajadores.
+     */
+    public void iniciar() throws IOException {
+        canalServidor = Transporte.escuchar(direccion, 1024);
+        System.out.println("\n" + "=".repeat(70));
+        System.out.println("SERVIDOR DE MESA INICIADO - PROCESOS REALES CON JVMs SEPARADAS (NIO)");
+        System.out.println("=".repeat(70));
+        System.out.println("Escuchando en " + Transporte.describir(direccion));
+        System.out.println("Numero de filosofos: " + principal.numFilosofos);
+        System.out.println("Estrategia: " + principal.estrategia.getNombre());
+        System.out.println("Hilos trabajadores: " + trabajadores.length);
+        System.out.println("=".repeat(70) + "\n");
+
+        // Agregar shutdown hook para imprimir estadísticas al terminar
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            System.out.println("\n\nServidor cerrándose...");
+            mostrarEstadisticas();
+        }));
+
+        for (int i = 0; i < trabajadores.length; i++) {
+            Thread hilo = new Thread(trabajadores[i], "MesaNIO-" + i);
+            hilo.setDaemon(true);
+            trabajadores[i].hilo = hilo;
+            hilo.start();
+        }
+
+        // Hilo para aceptar conexiones y repartirlas entre los trabajadores
+        Thread acceptThread = new Thread(() -> {
+            int siguiente = 0;
+            while (activo) {
+                try {
+                    SocketChannel canal = canalServidor.accept();
+                    canal.configureBlocking(false);
+                    Transporte.configurar(canal);
+                    trabajadores[siguiente].agregar(canal);
+                    siguiente = (siguiente + 1) % trabajadores.length;
+                } catch (IOException e) {
+                    if (activo) {
+                        System.err.println("Error aceptando cliente: " + e.getMessage());
+                    }
+                }
+            }
+        }, "MesaNIO-aceptar");
+        acceptThread.setDaemon(true);
+        acceptThread.start();
+    }
+
+    /**
+     * Detiene el servidor.
+     */
+    public void detener() {
+        activo = false;
+        try {
+            if (canalServidor != null) {
+                Transporte.cerrar(canalServidor, direccion);
+            }
+            for (Trabajador trabajador : trabajadores) {
+                trabajador.selector.wakeup();
+            }
+        } catch (IOException e) {
+            System.err.println("Error al detener servidor: " + e.getMessage());
+        }
+
+        mostrarEstadisticas();
+    }
+
+    /**
+     * Muestra estadisticas finales.
+     */
+    private void mostrarEstadisticas() {
+        Registro.vaciar(1000);
+        System.out.println("\n" + "=".repeat(70));
+        System.out.println("ESTADÍSTICAS FINALES");
+        System.out.println("=".repeat(70));
+
+        principal.estadisticas.imprimir(principal.estrategia.getNombre());
+        metricas.imprimir("nio", "hilos trabajadores: " + trabajadores.length);
+        List<EstadisticasMesa> todas = new ArrayList<>();
+        for (Mesa mesa : mesas.values()) {
+            todas.add(mesa.estadisticas);
+        }
+        EstadisticasMesa.imprimirResumen(todas, cerradas);
+        Registro.imprimirResumen();
+        System.out.println("=".repeat(70) + "\n");
+        System.out.println(Protocolo.LINEA_COMIDAS + " " + principal.estadisticas.totalComidas());
+    }
+
+    /**
+     * Obtiene la mesa de un REGISTER, creándola si hace falta, y le suma la
+     * conexión; la conexión la deja con dejarMesa.
+     *
+     * @param partes Mensaje REGISTER separado por ':'
+     * @return La mesa, o null si el tamaño pedido no es válido, supera
+     *         maxFilosofosMesa o no coincide con el de la mesa ya creada, o
+     *         si hay que crearla y ya hay maxMesas abiertas, o si el nombre
+     *         es el de la mesa principal
+     */
+    private Mesa mesaDe(String[] partes) {
+        String nombre = Protocolo.opcion(partes, Protocolo.OPCION_MESA);
+        if (nombre == null || nombre.isEmpty()) {
+            return principal;
+        }
+        if (nombre.equals(Protocolo.MESA_PRINCIPAL)) {
+            // Repetiría las series de la mesa principal en las métricas
+            return null;
+        }
+        String opcionTamano = Protocolo.opcion(partes, Protocolo.OPCION_TAMANO_MESA);
+        int tamano;
+        try {
+            tamano = opcionTamano == null ? principal.numFilosofos : Integer.parseInt(opcionTamano);
+        } catch (NumberFormatException e) {
+            return null;
+        }
+        if (tamano < 2 || tamano > maxFilosofosMesa) {
+            return null;
+        }
+        synchronized (mesas) {
+            Mesa mesa = mesas.get(nombre);
+            if (mesa == null) {
+                // La mesa principal también está en el mapa
+                if (mesas.size() > maxMesas) {
+                    return null;
+                }
+                mesa = new Mesa(nombre, tamano, fabricaEstrategias.apply(tamano));
+                mesas.put(nombre, mesa);
+            } else if (opcionTamano != null && mesa.numFilosofos != tamano) {
+                return null;
+            }
+            mesa.conexiones++;
+            return mesa;
+        }
+    }
+
+    /**
+     * Resta una conexión de la mesa; una mesa con nombre sin conexiones se
+     * elimina y sus estadísticas se suman a las de las mesas cerradas.
+     */
+    private void dejarMesa(Mesa mesa) {
+        if (mesa == principal) {
+            return;
+        }
+        synchronized (mesas) {
+            if (--mesa.conexiones == 0) {
+                mesas.remove(mesa.nombre);
+                cerradas.agregar(mesa.estadisticas);
+            }
+        }
+    }
+
+    /**
+     * Una mesa del servidor, con su propio lock, estrategia, TOMAR pendientes
+     * y estadísticas: las solicitudes de una mesa nunca esperan el lock de otra.
+     */
+    private class Mesa {
+        private final String nombre;
+        private final int numFilosofos;
+        private final EstrategiaArbitraje estrategia;
+        private final ReentrantLock mutexMesa;
+        private final IntConsumer notificarConcedido;
+        private final Conexion[] pendientes;
+        private final int[] secuenciaEspera;
+        private final long[] inicioEspera;
+        private final EstadisticasMesa estadisticas;
+        // Conexiones registradas en la mesa (con el monitor de mesas tomado)
+        private int conexiones;
+
+        Mesa(String nombre, int numFilosofos, EstrategiaArbitraje estrategia) {
+            this.nombre = nombre;
+            this.numFilosofos = numFilosofos;
+            this.estrategia = estrategia;
+            this.mutexMesa = new ReentrantLock();
+            this.notificarConcedido = this::concederPendiente;
+            this.pendientes = new Conexion[numFilosofos];
+            this.secuenciaEspera = new int[numFilosofos];
+            this.inicioEspera = new long[numFilosofos];
+            this.estadisticas = new EstadisticasMesa(nombre, numFilosofos);
+        }
+
+        /**
+         * Calcula índices de tenedores.
+         */
+        private int izq(int i) { return i; }
+        private int der(int i) { return (i + 1) % numFilosofos; }
+
+        /**
+         * Procesa TOMAR: concede de inmediato o deja la solicitud pendiente.
+         */
+        private void tomarTenedores(int id, Conexion conexion, int secuencia, long inicio) {
+            mutexMesa.lock();
+            try {
+                Registro.evento(Evento.SERVIDOR_SOLICITA, id, izq(id), der(id));
+                if (estrategia.solicitar(id)) {
+                    Registro.evento(Evento.SERVIDOR_AUTORIZADO, id);
+                    conceder(id, conexion, secuencia, inicio);
+                } else {
+                    Registro.evento(Evento.SERVIDOR_ESPERA, id);
+                    pendientes[id] = conexion;
+                    secuenciaEspera[id] = secuencia;
+                    inicioEspera[id] = inicio;
+                }
+            } finally {
+                mutexMesa.unlock();
+            }
+        }
+
+        /**
+         * Procesa SOLTAR: libera y responde a los vecinos que la estrategia autorice.
+         */
+        private void soltarTenedores(int id) {
+            mutexMesa.lock();
+            try {
+                Registro.evento(Evento.SERVIDOR_LIBERO, id, izq(id), der(id));
+                estrategia.liberar(id, notificarConcedido);
+            } finally {
+                mutexMesa.unlock();
+            }
+        }
+
+        /**
+         * Olvida a los filósofos primero..primero+cantidad-1 de una conexión
+         * cerrada: descarta sus TOMAR pendientes y suelta los tenedores de
+         * los que estaban HAMBRIENTOS o COMIENDO, para que sus vecinos no
+         * esperen para siempre a alguien que ya no va a comer ni a soltar.
+         */
+        private void abandonar(int primero, int cantidad, Conexion conexion) {
+            mutexMesa.lock();
+            try {
+                for (int id = primero; id < primero + cantidad; id++) {
+                    if (pendientes[id] == conexion) {
+                        pendientes[id] = null;
+                    }
+                    if (estrategia.estado(id) != EstrategiaArbitraje.PENSANDO) {
+                        Registro.evento(Evento.SERVIDOR_LIBERO, id, izq(id), der(id));
+                        estrategia.liberar(id, notificarConcedido);
+                    }
+                }
+            } finally {
+                mutexMesa.unlock();
+            }
+        }
+
+        /**
+         * Responde al TOMAR pendiente del filósofo que la estrategia acaba de autorizar.
+         * Se llama con mutexMesa tomado.
+         */
+        private void concederPendiente(int id) {
+            Conexion conexion = pendientes[id];
+            pendientes[id] = null;
+            Registro.evento(Evento.SERVIDOR_NOTIFICA, id);
+            if (conexion != null) {
+                conceder(id, conexion, secuenciaEspera[id], inicioEspera[id]);
+            }
+        }
+
+        private void conceder(int id, Conexion conexion, int secuencia, long inicio) {
+            Registro.evento(Evento.SERVIDOR_TOMO, id, izq(id), der(id));
+            long espera = System.nanoTime() - inicio;
+            estadisticas.comio(id, espera);
+            metricas.solicitudAtendida(espera);
+            conexion.enviarRespuesta(Protocolo.OK, id, secuencia);
+        }
+    }
+
+    /**
+     * Hilo con un Selector que atiende un subconjunto de las conexiones.
+     */
+    private class Trabajador implements Runnable {
+        private final Selector selector;
+        private final Queue<SocketChannel> nuevas = new ConcurrentLinkedQueue<>();
+        private final Queue<Conexion> porEscribir = new ConcurrentLinkedQueue<>();
+        private Thread hilo;
+
+        Trabajador(Selector selector) {
+            this.selector = selector;
+        }
+
+        /**
+         * Entrega una conexión recién aceptada a este trabajador.
+         */
+        void agregar(SocketChannel canal) {
+            nuevas.add(canal);
+            selector.wakeup();
+        }
+
+        /**
+         * Pide escribir la salida pendiente de una conexión de este trabajador.
+         * Puede llamarse desde cualquier hilo.
+         */
+        void programarEscritura(Conexion conexion) {
+            porEscribir.add(conexion);
+            if (Thread.currentThread() != hilo) {
+                selector.wakeup();
+            }
+        }
+
+        @Override
+        public void run() {
+            while (activo) {
+                try {
+                    selector.select();
+                    SocketChannel canal;
+                    while ((canal = nuevas.poll()) != null) {
+                        Conexion conexion = new Conexion(canal, this);
+                        conexion.clave = canal.register(selector, SelectionKey.OP_READ, conexion);
+                        metricas.conexionAbierta();
+                    }
+
+                    Iterator<SelectionKey> claves = selector.selectedKeys().iterator();
+                    while (claves.hasNext()) {
+                        SelectionKey clave = claves.next();
+                        claves.remove();
+                        Conexion conexion = (Conexion) clave.attachment();
+                        if (clave.isValid() && clave.isReadable()) {
+                            conexion.leer();
+                        }
+                        if (clave.isValid() && clave.isWritable()) {
+                            conexion.escribir();
+                        }
+                    }
+
+                    Conexion conexion;
+                    while ((conexion = porEscribir.poll()) != null) {
+                        conexion.escribir();
+                    }
+                } catch (IOException e) {
+                    if (activo) {
+                        System.err.println("Error en trabajador: " + e.getMessage());
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Estado de una conexión: buffers de entrada y salida.
+     */
+    private class Conexion {
+        private final SocketChannel canal;
+        private final Trabajador trabajador;
+        private final ByteBuffer entrada = ByteBuffer.allocate(TAMANO_LINEA);
+        private ByteBuffer salida = ByteBuffer.allocate(64);
+        private SelectionKey clave;
+        private int filosofoId = -1;
+        private int multiplexados;
+        private Mesa mesa = principal;
+        private volatile boolean binario;
+
+        Conexion(SocketChannel canal, Trabajador trabajador) {
+            this.canal = canal;
+            this.trabajador = trabajador;
+        }
+
+        /**
+         * Lee lo disponible y procesa cada línea o trama completa.
+         */
+        void leer() {
+            try {
+                if (canal.read(entrada) < 0) {
+                    cerrar();
+                    return;
+                }
+                entrada.flip();
+                while (true) {
+                    if (binario) {
+                        if (entrada.remaining() < Protocolo.TAMANO_TRAMA) {
+                            break;
+                        }
+                        byte codigo = entrada.get();
+                        int id = entrada.getInt();
+                        int secuencia = entrada.getInt();
+                        atender(codigo, id, secuencia, System.nanoTime());
+                    } else {
+                        int fin = entrada.position();
+                        while (fin < entrada.limit() && entrada.get(fin) != '\n') {
+                            fin++;
+                        }
+                        if (fin == entrada.limit()) {
+                            break;
+                        }
+                        int desde = entrada.position();
+                        entrada.position(fin + 1);
+                        procesarLinea(desde, fin);
+                    }
+                }
+                entrada.compact();
+                if (!entrada.hasRemaining()) {
+                    System.err.println("Error en cliente: línea demasiado larga");
+                    cerrar();
+                }
+            } catch (IOException e) {
+                if (activo) {
+                    System.err.println("Error en cliente: " + e.getMessage());
+                }
+                cerrar();
+            }
+        }
+
+        /**
+         * Procesa un mensaje de texto "COMANDO:id" sin crear objetos
+         * (salvo el REGISTER, que llega una vez por conexión).
+         */
+        private void procesarLinea(int desde, int hasta) {
+            long inicio = System.nanoTime();
+            if (hasta > desde && entrada.get(hasta - 1) == '\r') {
+                hasta--;
+            }
+            if (esComando(desde, hasta, COMANDO_PING)) {
+                atender(Protocolo.PING, -1, 0, inicio);
+                return;
+            }
+
+            int separador = desde;
+            while (separador < hasta && entrada.get(separador) != ':') {
+                separador++;
+            }
+            if (esComando(desde, separador, COMANDO_REGISTER)) {
+                byte[] linea = new byte[hasta - desde];
+                entrada.get(desde, linea);
+                registrar(new String(linea, StandardCharsets.US_ASCII).split(":"), inicio);
+                return;
+            }
+
+            byte codigo = 0;
+            if (esComando(desde, separador, COMANDO_TOMAR)) {
+                codigo = Protocolo.TOMAR;
+            } else if (esComando(desde, separador, COMANDO_SOLTAR)) {
+                codigo = Protocolo.SOLTAR;
+            } else if (esComando(desde, separador, COMANDO_COMER)) {
+                codigo = Protocolo.COMER;
+            } else if (esComando(desde, separador, COMANDO_SOLTAR_TOMAR)) {
+                codigo = Protocolo.SOLTAR_TOMAR;
+            }
+            atender(codigo, leerId(separador + 1, hasta), 0, inicio);
+        }
+
+        /**
+         * Procesa REGISTER:id[:clave=valor...]; con proto=bin, después del OK
+         * la conexión pasa a tramas binarias. Con mux=K la conexión lleva a
+         * los filósofos id..id+K-1; no hace falta nada más, porque los TOMAR
+         * pendientes ya se responden por filósofo y no en orden de llegada.
+         */
+        private void registrar(String[] partes, long inicio) {
+            int id = partes.length > 1 ? leerId(partes[1]) : -1;
+            int cantidad = Protocolo.multiplexados(partes);
+            Mesa elegida = id < 0 || cantidad < 0 ? null : mesaDe(partes);
+            if (elegida == null || id + cantidad > elegida.numFilosofos) {
+                if (elegida != null) {
+                    dejarMesa(elegida);
+                }
+                responder(Protocolo.ERROR, id, 0, inicio);
+                return;
+            }
+            // Un segundo REGISTER cambia de mesa
+            mesa.abandonar(filosofoId, multiplexados, this);
+            dejarMesa(mesa);
+            mesa = elegida;
+            filosofoId = id;
+            multiplexados = cantidad;
+            for (int i = 0; i < cantidad; i++) {
+                Registro.evento(Evento.SERVIDOR_CONECTADO, filosofoId + i);
+            }
+            responder(Protocolo.OK, id, 0, inicio);
+            binario = Protocolo.pideBinario(partes);
+        }
+
+        /**
+         * Atiende una solicitud (de texto o binaria). TOMAR y SOLTAR_TOMAR
+         * pueden quedar pendientes; se responden desde conceder().
+         */
+        private void atender(byte codigo, int id, int secuencia, long inicio) {
+            if (codigo == Protocolo.PING) {
+                responder(Protocolo.PONG, id, secuencia, inicio);
+                return;
+            }
+            if (id < 0 || id >= mesa.numFilosofos) {
+                responder(Protocolo.ERROR, id, secuencia, inicio);
+                return;
+            }
+            mesa.estadisticas.solicitudAtendida();
+            switch (codigo) {
+                case Protocolo.TOMAR:
+                    mesa.tomarTenedores(id, this, secuencia, inicio);
+                    break;
+                case Protocolo.SOLTAR:
+                    mesa.soltarTenedores(id);
+                    responder(Protocolo.OK, id, secuencia, inicio);
+                    break;
+                case Protocolo.SOLTAR_TOMAR:
+                    mesa.soltarTenedores(id);
+                    mesa.tomarTenedores(id, this, secuencia, inicio);
+                    break;
+                case Protocolo.COMER:
+                    // Ya contada al conceder TOMAR; se acepta por compatibilidad
+                    responder(Protocolo.OK, id, secuencia, inicio);
+                    break;
+                default:
+                    responder(Protocolo.ERROR, id, secuencia, inicio);
+            }
+        }
+
+        private boolean esComando(int desde, int hasta, byte[] comando) {
+            if (hasta - desde != comando.length) {
+                return false;
+            }
+            for (int i = 0; i < comando.length; i++) {
+                if (entrada.get(desde + i) != comando[i]) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        /**
+         * Lee un entero no negativo; devuelve -1 si no es válido.
+         */
+        private int leerId(int desde, int hasta) {
+            if (desde >= hasta || hasta - desde > 9) {
+                return -1;
+            }
+            int id = 0;
+            for (int i = desde; i < hasta; i++) {
+                int digito = entrada.get(i) - '0';
+                if (digito < 0 || digito > 9) {
+                    return -1;
+                }
+                id = id * 10 + digito;
+            }
+            return id;
+        }
+
+        private int leerId(String texto) {
+            try {
+                return Integer.parseInt(texto);
+            } catch (NumberFormatException e) {
+                return -1;
+            }
+        }
+
+        private void responder(byte codigo, int id, int secuencia, long inicio) {
+            enviarRespuesta(codigo, id, secuencia);
+            metricas.solicitudAtendida(System.nanoTime() - inicio);
+        }
+
+        /**
+         * Encola una respuesta en la codificación de la conexión.
+         * Puede llamarse desde cualquier hilo.
+         */
+        void enviarRespuesta(byte codigo, int id, int secuencia) {
+            if (!binario) {
+                enviar(codigo == Protocolo.OK ? RESPUESTA_OK
+                       : codigo == Protocolo.PONG ? RESPUESTA_PONG : RESPUESTA_ERROR);
+                return;
+            }
+            synchronized (this) {
+                asegurarEspacio(Protocolo.TAMANO_TRAMA);
+                Protocolo.escribirTrama(salida, codigo, id, secuencia);
+            }
+            trabajador.programarEscritura(this);
+        }
+
+        /**
+         * Encola una respuesta; la escribe el trabajador dueño de la conexión.
+         * Puede llamarse desde cualquier hilo.
+         */
+        void enviar(byte[] respuesta) {
+            synchronized (this) {
+                asegurarEspacio(respuesta.length);
+                salida.put(respuesta);
+            }
+            trabajador.programarEscritura(this);
+        }
+
+        /**
+         * Agranda el buffer de salida si no caben n bytes más (con el monitor tomado).
+         */
+        private void asegurarEspacio(int n) {
+            if (salida.remaining() < n) {
+                ByteBuffer mayor = ByteBuffer.allocate(2 * (salida.capacity() + n));
+                salida.flip();
+                mayor.put(salida);
+                salida = mayor;
+            }
+        }
+
+        /**
+         * Escribe la salida pendiente; solo desde el hilo del trabajador.
+         */
+        void escribir() {
+            if (!canal.isOpen()) {
+                return;
+            }
+            try {
+                synchronized (this) {
+                    salida.flip();
+                    canal.write(salida);
+                    salida.compact();
+                    int interes = salida.position() > 0
+                        ? SelectionKey.OP_READ | SelectionKey.OP_WRITE
+                        : SelectionKey.OP_READ;
+                    if (clave.interestOps() != interes) {
+                        clave.interestOps(interes);
+                    }
+                }
+            } catch (ClosedChannelException e) {
+                cerrar();
+            } catch (IOException e) {
+                if (activo) {
+                    System.err.println("Error en cliente: " + e.getMessage());
+                }
+                cerrar();
+            }
+        }
+
+        void cerrar() {
+            if (!canal.isOpen()) {
+                return;
+            }
+            try {
+                clave.cancel();
+                canal.close();
+            } catch (IOException e) {
+                // Ignorar
+            }
+            metricas.conexionCerrada();
+            mesa.abandonar(filosofoId, multiplexados, this);
+            dejarMesa(mesa);
+        }
+    }
+}
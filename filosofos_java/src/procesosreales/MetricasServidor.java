@@ -0,0 +1,107 @@
+package procesosreales;
+
+import comun.Histograma;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Métricas de un servidor de mesa: conexiones, solicitudes por segundo
+ * y latencia de las solicitudes (desde que se recibe el mensaje hasta
+ * que se encola la respuesta; en TOMAR incluye la espera de los tenedores).
+ */
+class MetricasServidor {
+    private final long inicio = System.nanoTime();
+    private final AtomicInteger conexionesActivas = new AtomicInteger();
+    private final LongAdder conexionesTotales = new LongAdder();
+    private final LongAdder solicitudes = new LongAdder();
+    private final Histograma latenciaSolicitudes = new Histograma();
+    // Solicitudes por código (0: desconocido) y REGISTER, para las métricas HTTP
+    private final LongAdder[] porCodigo = new LongAdder[Protocolo.SOLTAR_TENEDOR + 1];
+    private final LongAdder registros = new LongAdder();
+
+    MetricasServidor() {
+        for (int i = 0; i < porCodigo.length; i++) {
+            porCodigo[i] = new LongAdder();
+        }
+    }
+
+    void conexionAbierta() {
+        conexionesActivas.incrementAndGet();
+        conexionesTotales.increment();
+    }
+
+    void conexionCerrada() {
+        conexionesActivas.decrementAndGet();
+    }
+
+    /**
+     * Registra una solicitud atendida.
+     *
+     * @param nanos Tiempo desde que se recibió hasta que se respondió
+     */
+    void solicitudAtendida(long nanos) {
+        solicitudes.increment();
+        latenciaSolicitudes.registrar(nanos);
+    }
+
+    /**
+     * Cuenta una solicitud por su código (ver Protocolo).
+     */
+    void solicitud(byte codigo) {
+        porCodigo[codigo > 0 && codigo < porCodigo.length ? codigo : 0].increment();
+    }
+
+    /**
+     * Cuenta un REGISTER.
+     */
+    void registro() {
+        registros.increment();
+    }
+
+    /**
+     * Escribe las métricas del servidor en el formato de Prometheus
+     * (ver ExportadorMetricas). Solo lee contadores.
+     */
+    void escribir(StringBuilder texto) {
+        ExportadorMetricas.encabezado(texto, "filosofos_solicitudes_total", "counter",
+                                      "Solicitudes recibidas por verbo.");
+        ExportadorMetricas.muestra(texto, "filosofos_solicitudes_total",
+                                   ExportadorMetricas.etiqueta("verbo", "REGISTER"), registros.sum());
+        for (byte codigo = 1; codigo < porCodigo.length; codigo++) {
+            ExportadorMetricas.muestra(texto, "filosofos_solicitudes_total",
+                                       ExportadorMetricas.etiqueta("verbo", Protocolo.comando(codigo)),
+                                       porCodigo[codigo].sum());
+        }
+        ExportadorMetricas.muestra(texto, "filosofos_solicitudes_total",
+                                   ExportadorMetricas.etiqueta("verbo", "DESCONOCIDO"), porCodigo[0].sum());
+        ExportadorMetricas.encabezado(texto, "filosofos_clientes_conectados", "gauge",
+                                      "Conexiones abiertas en este momento.");
+        ExportadorMetricas.muestra(texto, "filosofos_clientes_conectados", "", conexionesActivas.get());
+        ExportadorMetricas.encabezado(texto, "filosofos_conexiones_total", "counter",
+                                      "Conexiones aceptadas desde el inicio.");
+        ExportadorMetricas.muestra(texto, "filosofos_conexiones_total", "", conexionesTotales.sum());
+        ExportadorMetricas.encabezado(texto, "filosofos_latencia_solicitud_segundos", "histogram",
+                                      "Tiempo desde que se recibe una solicitud hasta que se responde.");
+        ExportadorMetricas.histograma(texto, "filosofos_latencia_solicitud_segundos", "",
+                                      latenciaSolicitudes);
+    }
+
+    /**
+     * Imprime las métricas del servidor.
+     *
+     * @param modo Modo del servidor (bloqueante o nio)
+     * @param hilos Descripción de los hilos que atienden a los clientes
+     */
+    void imprimir(String modo, String hilos) {
+        double segundos = (System.nanoTime() - inicio) / 1e9;
+        System.out.printf("%nServidor: modo %s, %s%n", modo, hilos);
+        System.out.printf("Conexiones: %d activas, %d en total%n",
+                        conexionesActivas.get(), conexionesTotales.sum());
+        System.out.printf("Solicitudes: %d (%.1f por segundo)%n",
+                        solicitudes.sum(), solicitudes.sum() / segundos);
+        System.out.printf("Latencia de solicitudes: p50 %s, p99 %s, max %s%n",
+                        Histograma.formatearNanos(latenciaSolicitudes.percentil(50)),
+                        Histograma.formatearNanos(latenciaSolicitudes.percentil(99)),
+                        Histograma.formatearNanos(latenciaSolicitudes.getMaximo()));
+    }
+}
@@ -0,0 +1,95 @@
+package procesosreales;
+
+import java.net.InetSocketAddress;
+import java.net.SocketAddress;
+import java.net.UnixDomainSocketAddress;
+
+/**
+ * Reparto de los N filósofos de la mesa en partes de filósofos consecutivos,
+ * de tamaños que difieren a lo sumo en uno: las primeras N % partes tienen
+ * un filósofo más.
+ *
+ * Se usa para los procesos de filósofos del Launcher (--procesos) y para la
+ * mesa repartida entre varios MesaServer (--servidores): el servidor k
+ * atiende a los filósofos de la parte k y escucha en direccion(base, k).
+ */
+public final class Particion {
+    private final int numFilosofos;
+    private final int partes;
+
+    /**
+     * @param numFilosofos Número de filósofos de la mesa
+     * @param partes Número de partes, entre 1 y numFilosofos
+     */
+    public Particion(int numFilosofos, int partes) {
+        if (partes < 1 || partes > numFilosofos) {
+            throw new IllegalArgumentException("No se pueden repartir " + numFilosofos
+                                             + " filósofos en " + partes + " partes");
+        }
+        this.numFilosofos = numFilosofos;
+        this.partes = partes;
+    }
+
+    public int getNumFilosofos() {
+        return numFilosofos;
+    }
+
+    public int getPartes() {
+        return partes;
+    }
+
+    /**
+     * Primer filósofo de la parte k.
+     */
+    public int primero(int k) {
+        return k * (numFilosofos / partes) + Math.min(k, numFilosofos % partes);
+    }
+
+    /**
+     * Número de filósofos de la parte k.
+     */
+    public int cantidad(int k) {
+        return numFilosofos / partes + (k < numFilosofos % partes ? 1 : 0);
+    }
+
+    /**
+     * Parte a la que pertenece el filósofo id.
+     */
+    public int parte(int id) {
+        int base = numFilosofos / partes;
+        int grandes = (numFilosofos % partes) * (base + 1);
+        return id < grandes ? id / (base + 1) : numFilosofos % partes + (id - grandes) / base;
+    }
+
+    /**
+     * Descripción de la parte k ("Filosofo 3" o "Filosofos 0-9").
+     */
+    public String describir(int k) {
+        int primero = primero(k);
+        int cantidad = cantidad(k);
+        return cantidad == 1 ? "Filosofo " + primero
+                             : "Filosofos " + primero + "-" + (primero + cantidad - 1);
+    }
+
+    /**
+     * Dirección del servidor k de una mesa repartida: el puerto base + k por
+     * TCP, o la ruta base con el sufijo "-k" por UDS. El servidor 0 usa la
+     * dirección base, así que con un solo servidor no cambia nada.
+     *
+     * @param base Dirección del servidor 0 (ver Transporte)
+     * @param k Índice del servidor
+     */
+    public static SocketAddress direccion(SocketAddress base, int k) {
+        if (k == 0) {
+            return base;
+        }
+        if (Transporte.esUnix(base)) {
+            return UnixDomainSocketAddress.of(((UnixDomainSocketAddress) base).getPath() + "-" + k);
+        }
+        InetSocketAddress tcp = (InetSocketAddress) base;
+        if (tcp.isUnresolved()) {
+            return InetSocketAddress.createUnresolved(tcp.getHostString(), tcp.getPort() + k);
+        }
+        return new InetSocketAddress(tcp.getAddress(), tcp.getPort() + k);
+    }
+}
@@ -0,0 +1,182 @@
+package procesosreales;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.FileTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.jar.JarEntry;
+import java.util.jar.JarOutputStream;
+import java.util.stream.Stream;
+
+/**
+ * Perfil de arranque de las JVMs de los filósofos que lanza Launcher.
+ *
+ * normal: las opciones por defecto de la JVM.
+ * ligero: heap pequeño, SerialGC, solo el compilador C1, sin hsperfdata y con
+ * un archivo AppCDS con las clases del cliente, para que cada JVM arranque
+ * antes y ocupe menos memoria.
+ *
+ * AppCDS solo admite JARs en el classpath, así que las carpetas del classpath
+ * se empaquetan en un JAR junto al archivo (y se rehace si alguna clase es más
+ * nueva). Si el archivo no existe, el filósofo 0 lo genera al terminar
+ * (-XX:ArchiveClassesAtExit) y las ejecuciones siguientes lo reutilizan.
+ */
+final class PerfilCliente {
+
+    static final String[] NOMBRES = {"normal", "ligero"};
+
+    private static final List<String> OPCIONES_LIGERO = List.of(
+        "-Xms8m", "-Xmx32m", "-Xss256k",
+        "-XX:+UseSerialGC",
+        "-XX:TieredStopAtLevel=1", "-XX:CICompilerCount=1",
+        "-XX:ReservedCodeCacheSize=16m",
+        "-XX:-UsePerfData"
+    );
+
+    private final String nombre;
+    private final String classpath;
+    private final Path archivo;
+    private final boolean generar;
+
+    private PerfilCliente(String nombre, String classpath, Path archivo) {
+        this.nombre = nombre;
+        this.classpath = classpath;
+        this.archivo = archivo;
+        this.generar = archivo != null && !Files.exists(archivo);
+    }
+
+    /**
+     * Perfil con las opciones por defecto de la JVM.
+     */
+    static PerfilCliente normal(String classpath) {
+        return new PerfilCliente("normal", classpath, null);
+    }
+
+    /**
+     * Perfil ligero. Empaqueta las carpetas del classpath en un JAR junto al
+     * archivo AppCDS si hace falta; si el JAR se rehace, el archivo se borra
+     * porque la JVM ya no lo aceptaría.
+     *
+     * @param classpath Classpath del Launcher
+     * @param archivo Ruta del archivo AppCDS, o null para no usar AppCDS
+     */
+    static PerfilCliente ligero(String classpath, Path archivo) throws IOException {
+        if (archivo == null) {
+            return new PerfilCliente("ligero", classpath, null);
+        }
+        // El JAR y el archivo AppCDS van en la carpeta de --cds, que puede no existir todavía
+        Files.createDirectories(archivo.toAbsolutePath().getParent());
+        Path jar = archivo.resolveSibling(nombreSinExtension(archivo) + ".jar");
+        List<String> entradas = new ArrayList<>();
+        List<Path> carpetas = new ArrayList<>();
+        for (String entrada : classpath.split(File.pathSeparator)) {
+            if (Files.isDirectory(Path.of(entrada))) {
+                carpetas.add(Path.of(entrada));
+            } else if (!entrada.isEmpty()) {
+                entradas.add(entrada);
+            }
+        }
+        if (!carpetas.isEmpty()) {
+            if (!Files.exists(jar) || masNueva(carpetas, Files.getLastModifiedTime(jar))) {
+                empaquetar(carpetas, jar);
+                Files.deleteIfExists(archivo);
+            }
+            entradas.add(0, jar.toString());
+        }
+        return new PerfilCliente("ligero", String.join(File.pathSeparator, entradas), archivo);
+    }
+
+    /**
+     * Opciones de la JVM del filósofo id (van antes de -cp).
+     */
+    List<String> opcionesJvm(int id) {
+        List<String> opciones = new ArrayList<>();
+        if (nombre.equals("ligero")) {
+            opciones.addAll(OPCIONES_LIGERO);
+        }
+        if (archivo != null) {
+            if (!generar) {
+                opciones.add("-XX:SharedArchiveFile=" + archivo);
+            } else if (id == 0) {
+                opciones.add("-XX:ArchiveClassesAtExit=" + archivo);
+            }
+        }
+        return opciones;
+    }
+
+    String getClasspath() {
+        return classpath;
+    }
+
+    @Override
+    public String toString() {
+        if (archivo == null) {
+            return nombre;
+        }
+        return nombre + ", AppCDS " + archivo + (generar ? " (se genera al terminar)" : "");
+    }
+
+    private static String nombreSinExtension(Path archivo) {
+        String nombre = archivo.getFileName().toString();
+        int punto = nombre.lastIndexOf('.');
+        return punto > 0 ? nombre.substring(0, punto) : nombre;
+    }
+
+    /**
+     * Indica si algún archivo de las carpetas es más nuevo que la fecha dada.
+     */
+    private static boolean masNueva(List<Path> carpetas, FileTime fecha) throws IOException {
+        for (Path carpeta : carpetas) {
+            try (Stream<Path> archivos = Files.walk(carpeta)) {
+                boolean hayNueva = archivos.filter(Files::isRegularFile).anyMatch(p -> {
+                    try {
+                        return Files.getLastModifiedTime(p).compareTo(fecha) > 0;
+                    } catch (IOException e) {
+                        return true;
+                    }
+                });
+                if (hayNueva) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Empaqueta los archivos de las carpetas en un JAR. Se escribe en un
+     * archivo temporal y luego se mueve, para que otro Launcher no lea un JAR
+     * a medias.
+     */
+    private static void empaquetar(List<Path> carpetas, Path jar) throws IOException {
+        Path temporal = Files.createTempFile(jar.toAbsolutePath().getParent(), "filosofos", ".jar");
+        Set<String> nombres = new HashSet<>();
+        try (JarOutputStream salida = new JarOutputStream(Files.newOutputStream(temporal))) {
+            for (Path carpeta : carpetas) {
+                List<Path> archivos;
+                try (Stream<Path> recorrido = Files.walk(carpeta)) {
+                    archivos = recorrido.filter(Files::isRegularFile).sorted().toList();
+                }
+                for (Path archivo : archivos) {
+                    String nombre = carpeta.relativize(archivo).toString().replace(File.separatorChar, '/');
+                    if (!nombres.add(nombre)) {
+                        continue; // Como en el classpath, gana la primera carpeta
+                    }
+                    salida.putNextEntry(new JarEntry(nombre));
+                    Files.copy(archivo, salida);
+                    salida.closeEntry();
+                }
+            }
+        } catch (IOException e) {
+            Files.deleteIfExists(temporal);
+            throw e;
+        }
+        Files.move(temporal, jar, StandardCopyOption.REPLACE_EXISTING);
+    }
+}
@@ -0,0 +1,229 @@
+package procesosreales;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Protocolo entre FilosofoClient y el servidor de la mesa.
+ *
+ * La conexión empieza siempre en texto, una línea por mensaje:
+ *     REGISTER:id[:clave=valor...]   ->  OK
+ *     TOMAR:id | SOLTAR:id | COMER:id ->  OK
+ *     SOLTAR_TOMAR:id                 ->  OK
+ *     PING                            ->  PONG
+ *
+ * El servidor cuenta la comida al conceder TOMAR (COMER queda solo por
+ * compatibilidad); SOLTAR_TOMAR suelta los tenedores y vuelve a pedirlos,
+ * con una sola respuesta cuando los concede. El servidor responde en el
+ * orden de las solicitudes, así que el cliente puede enviar SOLTAR sin
+ * esperar su OK y leerlo junto con el de la solicitud siguiente.
+ *
+ * Si el REGISTER incluye la opción "proto=bin", después del OK ambos lados
+ * pasan a tramas binarias de tamaño fijo (TAMANO_TRAMA bytes, big-endian):
+ *     [código: 1 byte][id del filósofo: 4 bytes][secuencia: 4 bytes]
+ * La respuesta repite el id y la secuencia de la solicitud.
+ *
+ * Con la opción "mux=K" (solo junto con proto=bin), la conexión lleva a los
+ * K filósofos id..id+K-1 de un mismo proceso: el servidor atiende a cada uno
+ * por separado y responde en el orden de sus solicitudes, pero las
+ * respuestas de filósofos distintos pueden llegar en cualquier orden; el
+ * cliente las reparte por el id de la trama.
+ *
+ * Un servidor puede alojar varias mesas independientes: con "mesa=nombre"
+ * el filósofo se registra en esa mesa, que se crea si no existe, con
+ * "filosofos=N" filósofos (por defecto, los de la mesa principal). Sin la
+ * opción se usa la mesa principal; "mesa=principal" se rechaza, porque
+ * ese nombre identifica a la mesa principal en las métricas. Las
+ * solicitudes siguientes de la conexión van a la mesa del REGISTER.
+ *
+ * Cuando la mesa principal está repartida entre varios servidores (ver
+ * Particion), cada uno atiende solo a los filósofos de su parte, y el
+ * último filósofo de una parte necesita el primer tenedor de la siguiente.
+ * El servidor que lo necesita se registra en el dueño del tenedor como si
+ * fuera ese filósofo y lo pide con:
+ *     TOMAR_TENEDOR:t | SOLTAR_TENEDOR:t  ->  OK
+ * TOMAR_TENEDOR responde cuando el tenedor t está libre. Los tenedores se
+ * toman siempre en orden creciente, así que no se forma un ciclo de esperas
+ * entre servidores.
+ *
+ * Además, el servidor y los filósofos avisan por stdout cuando están
+ * listos (LINEA_LISTO, LINEA_REGISTRADO), para que Launcher no tenga que
+ * esperar tiempos fijos.
+ */
+final class Protocolo {
+
+    /** Opción del REGISTER que activa las tramas binarias. */
+    static final String OPCION_BINARIO = "proto=bin";
+
+    /** Prefijo de la opción del REGISTER con los filósofos de la conexión. */
+    static final String OPCION_MULTIPLEXADA = "mux=";
+
+    /** Prefijo de la opción del REGISTER con el nombre de la mesa. */
+    static final String OPCION_MESA = "mesa=";
+
+    /** Nombre de la mesa principal en las métricas y en JFR; ninguna mesa con nombre puede usarlo. */
+    static final String MESA_PRINCIPAL = "principal";
+
+    /** Prefijo de la opción del REGISTER con el tamaño de una mesa nueva. */
+    static final String OPCION_TAMANO_MESA = "filosofos=";
+
+    /** Tamaño de una trama binaria en bytes. */
+    static final int TAMANO_TRAMA = 9;
+
+    // Códigos de solicitud
+    static final byte TOMAR = 1;
+    static final byte SOLTAR = 2;
+    static final byte COMER = 3;
+    static final byte PING = 4;
+    static final byte SOLTAR_TOMAR = 5;
+    static final byte TOMAR_TENEDOR = 6;
+    static final byte SOLTAR_TENEDOR = 7;
+
+    // Códigos de respuesta
+    static final byte OK = 10;
+    static final byte PONG = 11;
+    static final byte ERROR = 12;
+
+    /** Línea que MesaServer escribe en stdout cuando ya acepta filósofos. */
+    static final String LINEA_LISTO = "MESA LISTA";
+
+    /** Línea ("FILOSOFO REGISTRADO id") que FilosofoClient escribe al registrar a
+     *  todos sus filósofos; id es el primero. */
+    static final String LINEA_REGISTRADO = "FILOSOFO REGISTRADO";
+
+    /** Línea ("COMIDAS DE LA MESA n") con la que MesaServer, MesaServerNIO
+     *  y MesaCompartida informan al detenerse las comidas de la mesa principal. */
+    static final String LINEA_COMIDAS = "COMIDAS DE LA MESA";
+
+    private Protocolo() {
+    }
+
+    /**
+     * Código de un comando de texto, o 0 si no es una solicitud conocida.
+     */
+    static byte codigo(String comando) {
+        switch (comando) {
+            case "TOMAR":
+                return TOMAR;
+            case "SOLTAR":
+                return SOLTAR;
+            case "COMER":
+                return COMER;
+            case "PING":
+                return PING;
+            case "SOLTAR_TOMAR":
+                return SOLTAR_TOMAR;
+            case "TOMAR_TENEDOR":
+                return TOMAR_TENEDOR;
+            case "SOLTAR_TENEDOR":
+                return SOLTAR_TENEDOR;
+            default:
+                return 0;
+        }
+    }
+
+    /**
+     * Comando de texto de un código de solicitud.
+     */
+    static String comando(byte codigo) {
+        switch (codigo) {
+            case TOMAR:
+                return "TOMAR";
+            case SOLTAR:
+                return "SOLTAR";
+            case COMER:
+                return "COMER";
+            case SOLTAR_TOMAR:
+                return "SOLTAR_TOMAR";
+            case TOMAR_TENEDOR:
+                return "TOMAR_TENEDOR";
+            case SOLTAR_TENEDOR:
+                return "SOLTAR_TENEDOR";
+            default:
+                return "PING";
+        }
+    }
+
+    /**
+     * Respuesta de texto (sin el fin de línea) de un código de respuesta.
+     */
+    static String texto(byte respuesta) {
+        switch (respuesta) {
+            case OK:
+                return "OK";
+            case PONG:
+                return "PONG";
+            default:
+                return "ERROR:Comando desconocido";
+        }
+    }
+
+    /**
+     * Indica si las opciones de un REGISTER ("REGISTER:id:clave=valor...")
+     * piden tramas binarias.
+     *
+     * @param partes Mensaje REGISTER separado por ':'
+     */
+    static boolean pideBinario(String[] partes) {
+        for (int i = 2; i < partes.length; i++) {
+            if (partes[i].equals(OPCION_BINARIO)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Número de filósofos que lleva la conexión según las opciones de un
+     * REGISTER (1 si no tiene "mux=K"), o -1 si la opción no es válida.
+     *
+     * @param partes Mensaje REGISTER separado por ':'
+     */
+    static int multiplexados(String[] partes) {
+        for (int i = 2; i < partes.length; i++) {
+            if (partes[i].startsWith(OPCION_MULTIPLEXADA)) {
+                try {
+                    int cantidad = Integer.parseInt(partes[i].substring(OPCION_MULTIPLEXADA.length()));
+                    return cantidad > 0 && pideBinario(partes) ? cantidad : -1;
+                } catch (NumberFormatException e) {
+                    return -1;
+                }
+            }
+        }
+        return 1;
+    }
+
+    /**
+     * Valor de una opción "prefijo=valor" de un REGISTER, o null si no está.
+     *
+     * @param partes Mensaje REGISTER separado por ':'
+     * @param prefijo Nombre de la opción con el '='
+     */
+    static String opcion(String[] partes, String prefijo) {
+        for (int i = 2; i < partes.length; i++) {
+            if (partes[i].startsWith(prefijo)) {
+                return partes[i].substring(prefijo.length());
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Opciones del REGISTER (con su ':' inicial) para registrarse en una mesa.
+     *
+     * @param mesa Nombre de la mesa, o null para la mesa principal
+     * @param tamano Filósofos de la mesa si hay que crearla, o 0 para el valor del servidor
+     */
+    static String opcionesMesa(String mesa, int tamano) {
+        if (mesa == null) {
+            return "";
+        }
+        return ":" + OPCION_MESA + mesa + (tamano > 0 ? ":" + OPCION_TAMANO_MESA + tamano : "");
+    }
+
+    /**
+     * Escribe una trama en el buffer.
+     */
+    static void escribirTrama(ByteBuffer destino, byte codigo, int id, int secuencia) {
+        destino.put(codigo).putInt(id).putInt(secuencia);
+    }
+}
@@ -0,0 +1,146 @@
+package procesosreales;
+
+import comun.Opciones;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.SocketAddress;
+import java.net.StandardProtocolFamily;
+import java.net.StandardSocketOptions;
+import java.net.UnixDomainSocketAddress;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Transporte entre los filósofos y el servidor de la mesa: TCP (también
+ * para clientes remotos) o sockets de dominio Unix (UDS) cuando todas las
+ * JVMs corren en la misma máquina. En ambos casos se usan SocketChannel, así
+ * que los servidores y ConexionMesa no distinguen entre uno y otro.
+ *
+ * El transporte "memoria" no usa sockets: los filósofos comparten la mesa
+ * en un archivo mapeado en memoria (ver MesaCompartida).
+ */
+public final class Transporte {
+
+    /** Valores de la opción --transporte. */
+    public static final String[] NOMBRES = { "tcp", "uds", "memoria" };
+
+    private Transporte() {
+    }
+
+    /**
+     * Transporte elegido con --transporte (por defecto tcp).
+     */
+    public static String nombre(Opciones opciones) {
+        return opciones.opcion("transporte", "tcp", NOMBRES);
+    }
+
+    /**
+     * Archivo de la mesa compartida según --memoria ruta.
+     */
+    public static Path rutaMemoria(Opciones opciones, int puerto) {
+        return Path.of(opciones.texto("memoria", rutaMemoriaPredeterminada(puerto)));
+    }
+
+    /**
+     * Archivo de la mesa compartida cuando no se indica --memoria:
+     * mesa-filosofos-PUERTO.mem en /dev/shm si existe (sin escrituras a
+     * disco) o en el directorio temporal.
+     */
+    public static String rutaMemoriaPredeterminada(int puerto) {
+        Path directorio = Path.of("/dev/shm");
+        if (!Files.isDirectory(directorio)) {
+            directorio = Path.of(System.getProperty("java.io.tmpdir"));
+        }
+        return directorio.resolve("mesa-filosofos-" + puerto + ".mem").toString();
+    }
+
+    /**
+     * Dirección del servidor según las opciones --transporte tcp|uds y --socket ruta.
+     *
+     * @param opciones Opciones de la línea de comandos
+     * @param host Host del servidor (solo TCP; null para escuchar en todas las interfaces)
+     * @param puerto Puerto TCP; también da nombre al socket UDS por defecto
+     */
+    public static SocketAddress desdeOpciones(Opciones opciones, String host, int puerto) {
+        if (nombre(opciones).equals("uds")) {
+            return UnixDomainSocketAddress.of(opciones.texto("socket", rutaPredeterminada(puerto)));
+        }
+        return host == null ? new InetSocketAddress(puerto) : new InetSocketAddress(host, puerto);
+    }
+
+    /**
+     * Ruta del socket UDS cuando no se indica --socket.
+     */
+    public static String rutaPredeterminada(int puerto) {
+        return Path.of(System.getProperty("java.io.tmpdir"), "mesa-filosofos-" + puerto + ".sock")
+                   .toString();
+    }
+
+    /**
+     * Indica si la dirección es un socket de dominio Unix.
+     */
+    public static boolean esUnix(SocketAddress direccion) {
+        return direccion instanceof UnixDomainSocketAddress;
+    }
+
+    /**
+     * Descripción para los banners ("puerto 9999" o "socket /tmp/...").
+     */
+    public static String describir(SocketAddress direccion) {
+        if (esUnix(direccion)) {
+            return "socket " + ((UnixDomainSocketAddress) direccion).getPath() + " (UDS)";
+        }
+        return "puerto " + ((InetSocketAddress) direccion).getPort() + " (TCP)";
+    }
+
+    /**
+     * Abre el canal del servidor. Con UDS borra antes un socket viejo que
+     * haya quedado de una ejecución anterior.
+     *
+     * @param direccion Dirección donde escuchar
+     * @param pendientes Máximo de conexiones pendientes de aceptar
+     */
+    public static ServerSocketChannel escuchar(SocketAddress direccion, int pendientes)
+            throws IOException {
+        ServerSocketChannel canal;
+        if (esUnix(direccion)) {
+            Files.deleteIfExists(((UnixDomainSocketAddress) direccion).getPath());
+            canal = ServerSocketChannel.open(StandardProtocolFamily.UNIX);
+        } else {
+            canal = ServerSocketChannel.open();
+            canal.setOption(StandardSocketOptions.SO_REUSEADDR, true);
+        }
+        canal.bind(direccion, pendientes);
+        return canal;
+    }
+
+    /**
+     * Cierra el canal del servidor y, con UDS, borra el archivo del socket.
+     */
+    public static void cerrar(ServerSocketChannel canal, SocketAddress direccion) throws IOException {
+        canal.close();
+        if (esUnix(direccion)) {
+            Files.deleteIfExists(((UnixDomainSocketAddress) direccion).getPath());
+        }
+    }
+
+    /**
+     * Conecta con el servidor (canal bloqueante).
+     */
+    public static SocketChannel conectar(SocketAddress direccion) throws IOException {
+        SocketChannel canal = SocketChannel.open(direccion);
+        configurar(canal);
+        return canal;
+    }
+
+    /**
+     * Desactiva Nagle en conexiones TCP; UDS no tiene esa opción.
+     */
+    public static void configurar(SocketChannel canal) throws IOException {
+        if (!(canal.getLocalAddress() instanceof UnixDomainSocketAddress)) {
+            canal.setOption(StandardSocketOptions.TCP_NODELAY, true);
+        }
+    }
+}
@@ -0,0 +1,94 @@
+package simulacion;
+
+/**
+ * Cola de eventos de la simulación: un montículo binario de filósofos
+ * ordenado por la hora de su próximo evento.
+ *
+ * Cada filósofo tiene a lo sumo un evento pendiente (terminar de pensar o de
+ * comer; mientras está HAMBRIENTO no tiene ninguno), así que el montículo
+ * guarda índices de filósofos en arreglos de tamaño fijo y no reserva
+ * memoria por evento. Los eventos a la misma hora salen en el orden en que
+ * se programaron, para que la simulación sea reproducible.
+ */
+final class ColaEventos {
+    private final long[] hora;
+    private final long[] orden;
+    private final int[] monticulo;
+    private int tamano;
+    private long siguienteOrden;
+
+    /**
+     * @param numFilosofos Número de filósofos de la mesa
+     */
+    ColaEventos(int numFilosofos) {
+        this.hora = new long[numFilosofos];
+        this.orden = new long[numFilosofos];
+        this.monticulo = new int[numFilosofos];
+    }
+
+    /**
+     * Programa el próximo evento del filósofo, que no debe tener otro pendiente.
+     *
+     * @param id Índice del filósofo
+     * @param nanos Hora virtual del evento
+     */
+    void programar(int id, long nanos) {
+        hora[id] = nanos;
+        orden[id] = siguienteOrden++;
+        int i = tamano++;
+        // Subir el nuevo elemento hasta su lugar
+        while (i > 0) {
+            int padre = (i - 1) >>> 1;
+            if (!antes(id, monticulo[padre])) {
+                break;
+            }
+            monticulo[i] = monticulo[padre];
+            i = padre;
+        }
+        monticulo[i] = id;
+    }
+
+    /**
+     * Indica si no quedan eventos pendientes.
+     */
+    boolean estaVacia() {
+        return tamano == 0;
+    }
+
+    /**
+     * Hora del próximo evento (la cola no debe estar vacía).
+     */
+    long horaSiguiente() {
+        return hora[monticulo[0]];
+    }
+
+    /**
+     * Quita el próximo evento y devuelve el filósofo al que corresponde.
+     */
+    int extraer() {
+        int primero = monticulo[0];
+        int ultimo = monticulo[--tamano];
+        int i = 0;
+        // Bajar el último elemento desde la raíz hasta su lugar
+        while (true) {
+            int hijo = 2 * i + 1;
+            if (hijo >= tamano) {
+                break;
+            }
+            if (hijo + 1 < tamano && antes(monticulo[hijo + 1], monticulo[hijo])) {
+                hijo++;
+            }
+            if (!antes(monticulo[hijo], ultimo)) {
+                break;
+            }
+            monticulo[i] = monticulo[hijo];
+            i = hijo;
+        }
+        monticulo[i] = ultimo;
+        return primero;
+    }
+
+    private boolean antes(int a, int b) {
+        return hora[a] < hora[b] || (hora[a] == hora[b] && orden[a] < orden[b]);
+    }
+}
@@ -0,0 +1,168 @@
+package simulacion;
+
+import arbitraje.EstrategiaArbitraje;
+import comun.Carga;
+import comun.LatenciasEspera;
+import java.util.Random;
+import java.util.function.IntConsumer;
+
+/**
+ * Mesa simulada por eventos discretos con un reloj virtual.
+ *
+ * Los filósofos no son hilos: un solo hilo saca de la cola el próximo
+ * evento (un filósofo termina de pensar o de comer), adelanta el reloj hasta
+ * su hora y aplica la misma estrategia de arbitraje que usan hilos.Mesa y
+ * procesos.MesaIPC. Pensar y comer no duermen, solo programan el siguiente
+ * evento, así que millones de ciclos se simulan en segundos.
+ *
+ * Cada filósofo sortea sus duraciones con su propio generador, creado a
+ * partir de la semilla: con la misma semilla y configuración los resultados
+ * son idénticos en cada ejecución.
+ */
+public class MesaSimulada {
+    private final int numFilosofos;
+    private final EstrategiaArbitraje estrategia;
+    private final Carga cargaPensar;
+    private final Carga cargaComer;
+    private final Random[] generadores;
+    private final ColaEventos cola;
+    private final long[] hambrientoDesde;
+    private final long[] vecesComido;
+    private final LatenciasEspera latencias;
+    private final RelojVirtual reloj;
+    private final IntConsumer alConceder = this::conceder;
+    private long totalComidas;
+    private long eventos;
+
+    /**
+     * @param numFilosofos Número de filósofos (y tenedores) en la mesa
+     * @param estrategia Estrategia que decide cuándo puede comer cada filósofo;
+     *                   si mide tiempos debe leer el reloj virtual
+     * @param reloj Reloj virtual de la simulación
+     * @param cargaPensar Duración del pensamiento de cada filósofo
+     * @param cargaComer Duración de la comida de cada filósofo
+     * @param semilla Semilla de los generadores de los filósofos
+     * @throws IllegalArgumentException si las dos cargas son nulas: el reloj
+     *         virtual no avanzaría y la simulación no terminaría nunca
+     */
+    public MesaSimulada(int numFilosofos, EstrategiaArbitraje estrategia, RelojVirtual reloj,
+                        Carga cargaPensar, Carga cargaComer, long semilla) {
+        if (cargaPensar.esNula() && cargaComer.esNula()) {
+            throw new IllegalArgumentException("Pensar y comer no pueden durar 0 las dos en la simulación");
+        }
+        this.numFilosofos = numFilosofos;
+        this.estrategia = estrategia;
+        this.reloj = reloj;
+        this.cargaPensar = cargaPensar;
+        this.cargaComer = cargaComer;
+        this.cola = new ColaEventos(numFilosofos);
+        this.hambrientoDesde = new long[numFilosofos];
+        this.vecesComido = new long[numFilosofos];
+        this.latencias = new LatenciasEspera(numFilosofos);
+        this.generadores = new Random[numFilosofos];
+        for (int i = 0; i < numFilosofos; i++) {
+            generadores[i] = new Random(semilla * 1_000_003 + i);
+            // Todos empiezan pensando, como los filósofos de las otras versiones
+            cola.programar(i, reloj.getNanos() + cargaPensar.siguienteDuracion(generadores[i]) * 1000);
+        }
+    }
+
+    /**
+     * Avanza la simulación hasta la hora virtual indicada o hasta que se
+     * alcance el total de comidas indicado, lo que ocurra primero.
+     *
+     * @param hastaNanos Hora virtual final en nanosegundos
+     * @param maxComidas Total de comidas en el que se detiene (0: sin límite)
+     * @return true si terminó por tiempo o por comidas; false si la cola
+     *         quedó vacía (todos los filósofos esperan: bloqueo mutuo)
+     */
+    public boolean simular(long hastaNanos, long maxComidas) {
+        while (!cola.estaVacia()) {
+            if (cola.horaSiguiente() > hastaNanos || (maxComidas > 0 && totalComidas >= maxComidas)) {
+                return true;
+            }
+            reloj.avanzar(cola.horaSiguiente());
+            int id = cola.extraer();
+            eventos++;
+            if (estrategia.estado(id) == EstrategiaArbitraje.COMIENDO) {
+                // Terminó de comer: soltar los tenedores y volver a pensar
+                estrategia.liberar(id, alConceder);
+                cola.programar(id, reloj.getNanos()
+                                   + cargaPensar.siguienteDuracion(generadores[id]) * 1000);
+            } else {
+                // Terminó de pensar: pedir los tenedores
+                hambrientoDesde[id] = reloj.getNanos();
+                if (estrategia.solicitar(id)) {
+                    conceder(id);
+                }
+            }
+        }
+        return false;
+    }
+
+    /**
+     * El filósofo obtuvo los tenedores: registra la espera y programa el fin de la comida.
+     */
+    private void conceder(int id) {
+        latencias.registrar(id, reloj.getNanos() - hambrientoDesde[id]);
+        vecesComido[id]++;
+        totalComidas++;
+        cola.programar(id, reloj.getNanos() + cargaComer.siguienteDuracion(generadores[id]) * 1000);
+    }
+
+    /**
+     * Obtiene el total de comidas de todos los filósofos.
+     *
+     * @return Número total de veces que se comió
+     */
+    public long getTotalComidas() {
+        return totalComidas;
+    }
+
+    /**
+     * Obtiene el número de veces que comió el filósofo i.
+     *
+     * @param i Índice del filósofo
+     * @return Número de veces que comió
+     */
+    public long getVecesComido(int i) {
+        return vecesComido[i];
+    }
+
+    /**
+     * Obtiene las latencias de espera, en tiempo virtual.
+     *
+     * @return Latencias de espera de los filósofos
+     */
+    public LatenciasEspera getLatencias() {
+        return latencias;
+    }
+
+    /**
+     * Obtiene el número de eventos procesados.
+     */
+    public long getEventos() {
+        return eventos;
+    }
+
+    /**
+     * Imprime las estadísticas finales, con el mismo formato que hilos.Mesa.
+     * Las latencias de espera están en tiempo virtual.
+     */
+    public void imprimirEstadisticas() {
+        System.out.println("\n" + "=".repeat(70));
+        System.out.println("ESTADÍSTICAS FINALES");
+        System.out.println("=".repeat(70));
+
+        long total = 0;
+        for (int i = 0; i < numFilosofos; i++) {
+            System.out.printf("Filósofo %d comió %d veces%n", i, vecesComido[i]);
+            total += vecesComido[i];
+        }
+
+        System.out.printf("%nTotal de veces que se comió: %d%n", total);
+        System.out.printf("Promedio por filósofo: %.2f%n", (double) total / numFilosofos);
+        latencias.imprimir();
+        System.out.println("=".repeat(70));
+    }
+}
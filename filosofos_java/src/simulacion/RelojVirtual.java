@@ -0,0 +1,35 @@
+package simulacion;
+
+import java.util.function.LongSupplier;
+
+/**
+ * Reloj de la simulación: la hora en nanosegundos solo avanza cuando la
+ * mesa procesa un evento. Se puede pasar a las estrategias que miden
+ * tiempos (por ejemplo, envejecimiento) en lugar de System.nanoTime().
+ */
+public final class RelojVirtual implements LongSupplier {
+    private long nanos;
+
+    /**
+     * Hora virtual actual en nanosegundos (empieza en 0).
+     */
+    public long getNanos() {
+        return nanos;
+    }
+
+    /**
+     * Adelanta el reloj hasta la hora indicada; nunca retrocede.
+     *
+     * @param hasta Nueva hora en nanosegundos
+     */
+    void avanzar(long hasta) {
+        if (hasta > nanos) {
+            nanos = hasta;
+        }
+    }
+
+    @Override
+    public long getAsLong() {
+        return nanos;
+    }
+}